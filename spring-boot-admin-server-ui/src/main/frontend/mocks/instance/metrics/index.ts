@@ -127,6 +127,9 @@ const metricsEntpoints = [
       ],
     }),
   ),
+  http.get('/instances/:instanceId/metrics/history', () => {
+    return new HttpResponse(null, { status: 404 });
+  }),
 ];
 
 export default metricsEntpoints;
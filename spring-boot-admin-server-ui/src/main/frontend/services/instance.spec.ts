@@ -180,5 +180,168 @@ describe('Instance', () => {
         expect.objectContaining({ suppressToast: suppressFn }),
       );
     });
+
+    test('should fetch metrics requested together in a single request', async () => {
+      const batchInstance = new Instance({
+        id: 'batch-id',
+        registration: { name: 'test', healthUrl: '', source: '' },
+        availableMetrics: ['jvm.memory.max', 'jvm.memory.used'],
+      });
+      // eslint-disable-next-line @typescript-eslint/ban-ts-comment
+      // @ts-expect-error
+      const axiosPostSpy = vi.spyOn(batchInstance.axios, 'post');
+      // eslint-disable-next-line @typescript-eslint/ban-ts-comment
+      // @ts-expect-error
+      const axiosGetSpy = vi.spyOn(batchInstance.axios, 'get');
+      axiosPostSpy.mockResolvedValue({
+        data: [
+          { name: 'jvm.memory.max', tags: {}, status: 200, body: { v: 1 } },
+          { name: 'jvm.memory.used', tags: {}, status: 200, body: { v: 2 } },
+        ],
+      });
+
+      const [max, used] = await Promise.all([
+        batchInstance.fetchMetric('jvm.memory.max', { area: 'heap' }),
+        batchInstance.fetchMetric('jvm.memory.used', { area: 'heap' }),
+      ]);
+
+      expect(max.data).toEqual({ v: 1 });
+      expect(used.data).toEqual({ v: 2 });
+      expect(axiosGetSpy).not.toHaveBeenCalled();
+      expect(axiosPostSpy).toHaveBeenCalledTimes(1);
+      expect(axiosPostSpy).toHaveBeenCalledWith(
+        expect.stringContaining('metrics/batch'),
+        [
+          { name: 'jvm.memory.max', tags: { area: 'heap' } },
+          { name: 'jvm.memory.used', tags: { area: 'heap' } },
+        ],
+        expect.anything(),
+      );
+    });
+
+    test('should reject failed metrics of a batch', async () => {
+      const batchInstance = new Instance({
+        id: 'batch-id',
+        registration: { name: 'test', healthUrl: '', source: '' },
+        availableMetrics: ['jvm.memory.max', 'jvm.memory.used'],
+      });
+      // eslint-disable-next-line @typescript-eslint/ban-ts-comment
+      // @ts-expect-error
+      const axiosPostSpy = vi.spyOn(batchInstance.axios, 'post');
+      // eslint-disable-next-line @typescript-eslint/ban-ts-comment
+      // @ts-expect-error
+      const axiosGetSpy = vi.spyOn(batchInstance.axios, 'get');
+      axiosPostSpy.mockResolvedValue({
+        data: [
+          { name: 'jvm.memory.max', tags: {}, status: 200, body: { v: 1 } },
+          { name: 'jvm.memory.used', tags: {}, status: 503, error: 'x' },
+        ],
+      });
+
+      const onError = vi.fn((error) => Promise.reject(error));
+      batchInstance.axios.interceptors.response.use(undefined, onError);
+
+      const [max, used] = await Promise.allSettled([
+        batchInstance.fetchMetric('jvm.memory.max', {}),
+        batchInstance.fetchMetric(
+          'jvm.memory.used',
+          {},
+          { suppressToast: true },
+        ),
+      ]);
+
+      expect(max.status).toBe('fulfilled');
+      expect((max as PromiseFulfilledResult<any>).value.data).toEqual({ v: 1 });
+      expect(used.status).toBe('rejected');
+      const error = (used as PromiseRejectedResult).reason;
+      expect(error).toBeInstanceOf(AxiosError);
+      expect(error.response.status).toBe(503);
+      expect(axiosGetSpy).not.toHaveBeenCalled();
+      expect(onError).toHaveBeenCalledTimes(1);
+      expect(onError).toHaveBeenCalledWith(error);
+      expect(error.config.url).toContain('actuator/metrics/jvm.memory.used');
+      expect(error.config.suppressToast).toBe(true);
+    });
+
+    test('should fetch metrics on their own if the batch request fails', async () => {
+      const batchInstance = new Instance({
+        id: 'batch-id',
+        registration: { name: 'test', healthUrl: '', source: '' },
+        availableMetrics: ['jvm.memory.max', 'jvm.memory.used'],
+      });
+      // eslint-disable-next-line @typescript-eslint/ban-ts-comment
+      // @ts-expect-error
+      const axiosPostSpy = vi.spyOn(batchInstance.axios, 'post');
+      // eslint-disable-next-line @typescript-eslint/ban-ts-comment
+      // @ts-expect-error
+      const axiosGetSpy = vi.spyOn(batchInstance.axios, 'get');
+      axiosPostSpy.mockRejectedValue(new AxiosError('Not Found'));
+      axiosGetSpy.mockResolvedValue({ data: { v: 3 } });
+
+      const [max, used] = await Promise.all([
+        batchInstance.fetchMetric('jvm.memory.max', {}),
+        batchInstance.fetchMetric('jvm.memory.used', {}),
+      ]);
+
+      expect(max.data).toEqual({ v: 3 });
+      expect(used.data).toEqual({ v: 3 });
+      expect(axiosGetSpy).toHaveBeenCalledTimes(2);
+      expect(axiosGetSpy).toHaveBeenCalledWith(
+        expect.stringContaining('actuator/metrics/jvm.memory.used'),
+        expect.anything(),
+      );
+    });
+  });
+
+  describe('streamMetrics', () => {
+    const instance = new Instance({
+      id: 'stream-id',
+      registration: { name: 'test', healthUrl: '', source: '' },
+    });
+
+    test('should subscribe to metrics via server-sent events', async () => {
+      const eventSource = {
+        close: vi.fn(),
+        addEventListener: vi.fn(),
+        onmessage: undefined,
+        onerror: undefined,
+      };
+      const eventSourceMock = vi
+        .spyOn(global, 'EventSource')
+        .mockImplementation(function () {
+          return eventSource;
+        } as unknown as typeof EventSource);
+
+      const received = [];
+      const subscription = instance
+        .streamMetrics(
+          [
+            { metric: 'process.cpu.usage' },
+            { metric: 'jvm.memory.used', tags: { id: 'G1 Eden Space' } },
+          ],
+          1000,
+        )
+        .subscribe((results) => received.push(results));
+      await vi.waitFor(() => expect(eventSourceMock).toHaveBeenCalled());
+
+      const url = new URL(eventSourceMock.mock.calls[0][0], 'http://sba/');
+      expect(url.pathname).toBe('/instances/stream-id/metrics/stream');
+      expect(url.searchParams.getAll('metric')).toEqual([
+        'process.cpu.usage',
+        'jvm.memory.used?tag=id%3AG1%20Eden%20Space',
+      ]);
+
+      eventSource.onmessage({
+        data: JSON.stringify([
+          { name: 'process.cpu.usage', status: 200, body: { v: 1 } },
+          { name: 'jvm.memory.used', status: 404, error: 'Not Found' },
+        ]),
+      });
+      expect(received).toEqual([[{ v: 1 }, undefined]]);
+
+      subscription.unsubscribe();
+      expect(eventSource.close).toHaveBeenCalled();
+      eventSourceMock.mockRestore();
+    });
   });
 });
@@ -13,9 +13,17 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-import { AxiosError, AxiosInstance } from 'axios';
+import { AxiosError, AxiosInstance, AxiosResponse } from 'axios';
 import saveAs from 'file-saver';
-import { Observable, concat, from, ignoreElements } from 'rxjs';
+import {
+  Observable,
+  Subscription,
+  concat,
+  concatMap,
+  from,
+  ignoreElements,
+  timer,
+} from 'rxjs';
 
 import axios, {
   addLanguageHeaderInterceptor,
@@ -41,15 +49,113 @@ export type FetchMetricOptions = {
   suppressToast?: boolean | ((error: AxiosError) => boolean);
 };
 
+type PendingMetric = {
+  metric: string;
+  tags: Record<string, any>;
+  options?: FetchMetricOptions;
+  resolve: (response: AxiosResponse) => void;
+  reject: (error: unknown) => void;
+};
+
+export type MetricSelector = {
+  metric: string;
+  tags?: Record<string, any>;
+};
+
+type MetricBatchResult = {
+  name: string;
+  tags: Record<string, string>;
+  status: number;
+  body?: any;
+  error?: string;
+};
+
+export type MetricHistory = {
+  name: string;
+  tags: Record<string, string>;
+  resolution: number;
+  measurements: Record<string, { timestamp: number; value: number }[]>;
+};
+
+// formats the metric like a request to the metrics endpoint, e.g.
+// jvm.memory.used?tag=area%3Aheap
+const toQuery = ({ metric, tags }: MetricSelector) => {
+  const tagParams = Object.entries(tags ?? {})
+    .filter(([, value]) => typeof value !== 'undefined' && value !== null)
+    .map(([name, value]) => `tag=${encodeURIComponent(`${name}:${value}`)}`);
+  return [encodeURIComponent(metric), tagParams.join('&')]
+    .filter((part) => part.length > 0)
+    .join('?');
+};
+
+// Streams the messages of a server-sent event source. Falls back to the given
+// observable if the event source fails before the first message was received.
+const eventSourceWithFallback = <T>(
+  url: string,
+  parse: (data: string) => T,
+  fallback: Observable<T>,
+) =>
+  concat(
+    from(waitForPolyfill()).pipe(ignoreElements()),
+    new Observable<T>((observer) => {
+      let received = false;
+      let fallbackSubscription: Subscription | undefined;
+      const eventSource = new EventSource(url);
+      eventSource.onmessage = (message) => {
+        received = true;
+        observer.next(parse(message.data));
+      };
+      eventSource.addEventListener('failure', (event: MessageEvent) => {
+        eventSource.close();
+        observer.error(event.data);
+      });
+      eventSource.onerror = (err) => {
+        eventSource.close();
+        if (received) {
+          observer.error(err);
+        } else {
+          fallbackSubscription = fallback.subscribe(observer);
+        }
+      };
+      return () => {
+        eventSource.close();
+        fallbackSubscription?.unsubscribe();
+      };
+    }),
+  );
+
 const isInstanceActuatorRequest = (url: string) =>
   url.match(/^instances[/][^/]+[/]actuator([/].*)?$/);
 
+const metricParams = (tags: Record<string, any>) => {
+  const params = new URLSearchParams();
+  if (tags) {
+    let firstElementDuplicated = false;
+    Object.entries(tags)
+      .filter(([, value]) => typeof value !== 'undefined' && value !== null)
+      .forEach(([name, value]) => {
+        params.append('tag', `${name}:${value}`);
+
+        if (!firstElementDuplicated) {
+          // workaround for tags that contains comma
+          // take a look at https://github.com/spring-projects/spring-framework/issues/23820#issuecomment-543087878
+          // If there is single tag specified and name or value contains comma then it will be incorrectly split into several parts
+          // To bypass it we duplicate first tag.
+          params.append('tag', `${name}:${value}`);
+          firstElementDuplicated = true;
+        }
+      });
+  }
+  return params;
+};
+
 class Instance {
   public readonly id: string;
   readonly axios: AxiosInstance;
   public registration: Registration;
   public endpoints: Endpoint[] = [];
   public availableMetrics: string[] = [];
+  private pendingMetrics: PendingMetric[] = [];
   public tags: { [key: string]: string }[];
   public statusTimestamp: string;
   public version?: number;
@@ -201,26 +307,108 @@ class Instance {
       return;
     }
 
-    const params = new URLSearchParams();
-    if (tags) {
-      let firstElementDuplicated = false;
-      Object.entries(tags)
-        .filter(([, value]) => typeof value !== 'undefined' && value !== null)
-        .forEach(([name, value]) => {
-          params.append('tag', `${name}:${value}`);
+    // metrics requested in the same tick (e.g. by the details views) are
+    // fetched together using a single request
+    return new Promise<AxiosResponse>((resolve, reject) => {
+      this.pendingMetrics.push({ metric, tags, options, resolve, reject });
+      if (this.pendingMetrics.length === 1) {
+        setTimeout(() => this.fetchPendingMetrics());
+      }
+    });
+  }
 
-          if (!firstElementDuplicated) {
-            // workaround for tags that contains comma
-            // take a look at https://github.com/spring-projects/spring-framework/issues/23820#issuecomment-543087878
-            // If there is single tag specified and name or value contains comma then it will be incorrectly split into several parts
-            // To bypass it we duplicate first tag.
-            params.append('tag', `${name}:${value}`);
-            firstElementDuplicated = true;
-          }
-        });
+  private async fetchPendingMetrics() {
+    const pending = this.pendingMetrics;
+    this.pendingMetrics = [];
+    if (pending.length === 1) {
+      const [{ metric, tags, options, resolve, reject }] = pending;
+      this.fetchSingleMetric(metric, tags, options).then(resolve, reject);
+      return;
     }
+
+    let results: MetricBatchResult[];
+    try {
+      const response = await this.axios.post(
+        uri`metrics/batch`,
+        pending.map(({ metric, tags }) => ({ name: metric, tags })),
+        {
+          headers: {
+            Accept: 'application/json',
+            'Content-Type': 'application/json',
+          },
+          suppressToast: true,
+        },
+      );
+      results = response.data;
+    } catch {
+      // the batch request failed as a whole, so the metrics are requested on
+      // their own
+      pending.forEach(({ metric, tags, options, resolve, reject }) =>
+        this.fetchSingleMetric(metric, tags, options).then(resolve, reject),
+      );
+      return;
+    }
+
+    pending.forEach(({ metric, tags, options, resolve, reject }, idx) =>
+      this.replayMetric(metric, tags, options, results[idx]).then(
+        resolve,
+        reject,
+      ),
+    );
+  }
+
+  // The result of a metric fetched by a batch request is passed through the
+  // interceptors of this instance as if it had been fetched on its own, so
+  // failed metrics are reported (e.g. by an error toast) the same way.
+  private async replayMetric(
+    metric: string,
+    tags: Record<string, any>,
+    options: FetchMetricOptions | undefined,
+    result: MetricBatchResult | undefined,
+  ) {
+    return this.axios.request({
+      method: 'get',
+      url: uri`actuator/metrics/${metric}`,
+      params: metricParams(tags),
+      suppressToast: options?.suppressToast,
+      adapter: async (config) => {
+        if (!result) {
+          throw new AxiosError(
+            `No result for metric '${metric}'`,
+            AxiosError.ERR_BAD_RESPONSE,
+            config,
+          );
+        }
+        const response = {
+          data: result.body,
+          status: result.status,
+          statusText: result.error ?? '',
+          headers: {},
+          config,
+        } as AxiosResponse;
+        if (result.status >= 200 && result.status < 300) {
+          return response;
+        }
+        throw new AxiosError(
+          `Request failed with status code ${result.status}`,
+          result.status < 500
+            ? AxiosError.ERR_BAD_REQUEST
+            : AxiosError.ERR_BAD_RESPONSE,
+          config,
+          undefined,
+          response,
+        );
+      },
+    });
+  }
+
+  private async fetchSingleMetric(
+    metric: string,
+    tags: Record<string, any>,
+    options?: FetchMetricOptions,
+  ) {
     return this.axios.get(uri`actuator/metrics/${metric}`, {
-      params,
+      params: metricParams(tags),
       suppressToast: options?.suppressToast,
     });
   }
@@ -411,10 +599,55 @@ class Instance {
   }
 
   streamLogfile(interval: number) {
-    return logtail(
+    const polling = logtail(
       (opt) => this.axios.get(uri`actuator/logfile`, opt),
       interval,
     );
+    // The server tails the logfile once for all views. Fall back to polling the
+    // instance directly if the stream isn't available.
+    return eventSourceWithFallback(
+      uri`instances/${this.id}/logfile`,
+      (data) => JSON.parse(data),
+      polling,
+    );
+  }
+
+  async fetchMetricsHistory(metrics: MetricSelector[], range = 'PT15M') {
+    const params = new URLSearchParams();
+    metrics.forEach((selector) => params.append('metric', toQuery(selector)));
+    params.append('range', range);
+    return this.axios.get<MetricHistory[]>(uri`metrics/history`, {
+      params,
+      headers: { Accept: 'application/json' },
+      suppressToast: true,
+    });
+  }
+
+  streamMetrics(metrics: MetricSelector[], interval: number) {
+    // failed metrics are emitted as undefined by the stream, so they are not
+    // reported when polling either
+    const fetchBodies = () =>
+      Promise.all(
+        metrics.map(({ metric, tags }) =>
+          this.fetchMetric(metric, tags, { suppressToast: true }).then(
+            (response) => response?.data,
+            () => undefined,
+          ),
+        ),
+      );
+    const polling = timer(0, interval).pipe(concatMap(fetchBodies));
+    const params = new URLSearchParams();
+    metrics.forEach((selector) => params.append('metric', toQuery(selector)));
+    // The server polls the metrics once for all views. Fall back to polling the
+    // instance directly if the stream isn't available.
+    return eventSourceWithFallback<any[]>(
+      `${uri`instances/${this.id}/metrics/stream`}?${params}`,
+      (data) =>
+        (JSON.parse(data) as MetricBatchResult[]).map((result) =>
+          result.status >= 200 && result.status < 300 ? result.body : undefined,
+        ),
+      polling,
+    );
   }
 
   async listMBeans() {
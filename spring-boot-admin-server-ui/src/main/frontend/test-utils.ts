@@ -4,6 +4,7 @@ import { RouterLinkStub } from '@vue/test-utils';
 import { merge } from 'lodash-es';
 import PrimeVue from 'primevue/config';
 import Tooltip from 'primevue/tooltip';
+import { vi } from 'vitest';
 import { createI18n } from 'vue-i18n';
 import { createRouter, createWebHashHistory } from 'vue-router';
 
@@ -85,3 +86,16 @@ export const render = (testComponent, options?): RenderResult => {
   );
   return tlRender(testComponent, renderOptions);
 };
+
+// The metrics stream of the server isn't available in tests. The event sources
+// fail right away, so the streamed metrics are polled instead.
+export const failEventSources = () =>
+  vi.spyOn(global, 'EventSource').mockImplementation(function () {
+    const eventSource = {
+      close: vi.fn(),
+      addEventListener: vi.fn(),
+      onerror: undefined,
+    };
+    setTimeout(() => eventSource.onerror?.(new Event('error')));
+    return eventSource;
+  } as unknown as typeof EventSource);
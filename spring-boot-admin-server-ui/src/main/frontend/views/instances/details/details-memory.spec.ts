@@ -3,7 +3,7 @@ import rxjs from 'rxjs';
 import { Subject } from 'rxjs';
 import { beforeEach, describe, expect, it, vi } from 'vitest';
 
-import { render } from '@/test-utils';
+import { failEventSources, render } from '@/test-utils';
 import DetailsMemory from '@/views/instances/details/details-memory.vue';
 
 function deferred<T>() {
@@ -31,6 +31,10 @@ vi.mock('@/sba-config', async () => {
 });
 
 describe('DetailsMemory', () => {
+  beforeEach(() => {
+    failEventSources();
+  });
+
   it('should call timer with configured amount', async () => {
     const timer = vi.spyOn(rxjs, 'timer');
 
@@ -246,10 +250,12 @@ describe('DetailsMemory', () => {
     });
 
     // Start first polling run but keep its responses pending.
+    await vi.waitFor(() => expect(tick1$.observed).toBe(true));
     tick1$.next(0);
 
     // Update instance: should unsubscribe old polling and subscribe again.
     await rerender({ instance: instance2, type: 'heap' });
+    await vi.waitFor(() => expect(tick2$.observed).toBe(true));
     tick2$.next(0);
 
     // New subscription result renders.
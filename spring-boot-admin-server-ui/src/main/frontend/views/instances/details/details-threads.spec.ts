@@ -5,7 +5,7 @@ import { beforeEach, describe, expect, it, vi } from 'vitest';
 import { applications } from '@/mocks/applications/data';
 import { server } from '@/mocks/server';
 import Application from '@/services/application';
-import { render } from '@/test-utils';
+import { failEventSources, render } from '@/test-utils';
 import DetailsThreads from '@/views/instances/details/details-threads.vue';
 
 vi.mock('@/sba-config', async () => {
@@ -28,6 +28,7 @@ describe('DetailsThreads', () => {
   const DAEMON = [4.0, 5.0, 6.0];
 
   beforeEach(() => {
+    failEventSources();
     const liveGen = (function* () {
       yield* LIVE;
     })();
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014-2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import Instance, { MetricSelector } from '@/services/instance';
+
+/**
+ * Loads the recorded history of the metrics as chart data, with one entry per sample
+ * containing the values of all metrics under the given keys. Resolves to an empty list
+ * if the server doesn't record the history of metrics.
+ */
+export const fetchChartHistory = async (
+  instance: Instance,
+  metrics: Record<string, MetricSelector>,
+): Promise<Record<string, number>[]> => {
+  const keys = Object.keys(metrics);
+  try {
+    const response = await instance.fetchMetricsHistory(Object.values(metrics));
+    const entries = new Map<number, Record<string, number>>();
+    response.data.forEach((history, idx) => {
+      (history.measurements.VALUE ?? []).forEach(({ timestamp, value }) => {
+        const entry = entries.get(timestamp) ?? { timestamp };
+        entry[keys[idx]] = value;
+        entries.set(timestamp, entry);
+      });
+    });
+    return [...entries.values()]
+      .filter((entry) => keys.every((key) => key in entry))
+      .sort((a, b) => a.timestamp - b.timestamp);
+  } catch {
+    return [];
+  }
+};
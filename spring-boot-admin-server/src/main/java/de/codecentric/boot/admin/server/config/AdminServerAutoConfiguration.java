@@ -17,6 +17,7 @@
 package de.codecentric.boot.admin.server.config;
 
 import java.time.Duration;
+import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
 import org.reactivestreams.Publisher;
@@ -34,6 +35,7 @@ import org.springframework.context.annotation.Lazy;
 import de.codecentric.boot.admin.server.domain.entities.InstanceRepository;
 import de.codecentric.boot.admin.server.domain.entities.SnapshottingInstanceRepository;
 import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceRegistrationUpdatedEvent;
 import de.codecentric.boot.admin.server.eventstore.InMemoryEventStore;
 import de.codecentric.boot.admin.server.eventstore.InstanceEventPublisher;
 import de.codecentric.boot.admin.server.eventstore.InstanceEventStore;
@@ -44,9 +46,11 @@ import de.codecentric.boot.admin.server.services.EndpointDetector;
 import de.codecentric.boot.admin.server.services.HashingInstanceUrlIdGenerator;
 import de.codecentric.boot.admin.server.services.InfoUpdateTrigger;
 import de.codecentric.boot.admin.server.services.InfoUpdater;
+import de.codecentric.boot.admin.server.services.InstanceCleanupTrigger;
 import de.codecentric.boot.admin.server.services.InstanceFilter;
 import de.codecentric.boot.admin.server.services.InstanceIdGenerator;
 import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.services.MonitorTaskScheduler;
 import de.codecentric.boot.admin.server.services.StatusUpdateTrigger;
 import de.codecentric.boot.admin.server.services.StatusUpdater;
 import de.codecentric.boot.admin.server.services.endpoints.ChainingStrategy;
@@ -118,9 +122,26 @@ public class AdminServerAutoConfiguration {
 		return updater;
 	}
 
+	@Bean(destroyMethod = "stop")
+	@ConditionalOnMissingBean
+	public MonitorTaskScheduler monitorTaskScheduler(InstanceRepository instanceRepository) {
+		AdminServerProperties.MonitorProperties monitorProperties = this.adminServerProperties.getMonitor();
+		return new MonitorTaskScheduler(instanceRepository, monitorProperties.getMaxConcurrentChecks(),
+				monitorProperties.getMaxConcurrentChecksPerHost());
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	@ConditionalOnMissingBean(name = "monitorTaskSchedulerCleanupTrigger")
+	public InstanceCleanupTrigger monitorTaskSchedulerCleanupTrigger(MonitorTaskScheduler monitorTaskScheduler,
+			Publisher<InstanceEvent> events) {
+		return new InstanceCleanupTrigger(events, List.of(monitorTaskScheduler::remove),
+				List.of(InstanceRegistrationUpdatedEvent.class));
+	}
+
 	@Bean(initMethod = "start", destroyMethod = "stop")
 	@ConditionalOnMissingBean
-	public StatusUpdateTrigger statusUpdateTrigger(StatusUpdater statusUpdater, Publisher<InstanceEvent> events) {
+	public StatusUpdateTrigger statusUpdateTrigger(StatusUpdater statusUpdater, Publisher<InstanceEvent> events,
+			MonitorTaskScheduler monitorTaskScheduler) {
 		AdminServerProperties.MonitorProperties monitorProperties = this.adminServerProperties.getMonitor();
 
 		Duration defaultTimeout = monitorProperties.getDefaultTimeout();
@@ -133,7 +154,7 @@ public class AdminServerAutoConfiguration {
 		}
 
 		return new StatusUpdateTrigger(statusUpdater, events, statusInterval, monitorProperties.getStatusLifetime(),
-				monitorProperties.getStatusMaxBackoff());
+				monitorProperties.getStatusMaxBackoff(), monitorTaskScheduler);
 	}
 
 	@Bean
@@ -143,15 +164,17 @@ public class AdminServerAutoConfiguration {
 		InstanceWebClient instanceWebClient = instanceWebClientBuilder.build();
 		ChainingStrategy strategy = new ChainingStrategy(
 				new QueryIndexEndpointStrategy(instanceWebClient, new ApiMediaTypeHandler()),
-				new ProbeEndpointsStrategy(instanceWebClient, this.adminServerProperties.getProbedEndpoints()));
+				new ProbeEndpointsStrategy(instanceWebClient, this.adminServerProperties.getProbedEndpoints(),
+						this.adminServerProperties.getMonitor().getProbedEndpointsLifetime()));
 		return new EndpointDetector(instanceRepository, strategy);
 	}
 
 	@Bean(initMethod = "start", destroyMethod = "stop")
 	@ConditionalOnMissingBean
 	public EndpointDetectionTrigger endpointDetectionTrigger(EndpointDetector endpointDetector,
-			Publisher<InstanceEvent> events) {
-		return new EndpointDetectionTrigger(endpointDetector, events);
+			Publisher<InstanceEvent> events, MonitorTaskScheduler monitorTaskScheduler) {
+		return new EndpointDetectionTrigger(endpointDetector, events,
+				this.adminServerProperties.getMonitor().getEndpointDetectionDebounce(), monitorTaskScheduler);
 	}
 
 	@Bean
@@ -163,10 +186,17 @@ public class AdminServerAutoConfiguration {
 
 	@Bean(initMethod = "start", destroyMethod = "stop")
 	@ConditionalOnMissingBean
-	public InfoUpdateTrigger infoUpdateTrigger(InfoUpdater infoUpdater, Publisher<InstanceEvent> events) {
+	public InfoUpdateTrigger infoUpdateTrigger(InfoUpdater infoUpdater, Publisher<InstanceEvent> events,
+			MonitorTaskScheduler monitorTaskScheduler) {
 		return new InfoUpdateTrigger(infoUpdater, events, this.adminServerProperties.getMonitor().getInfoInterval(),
 				this.adminServerProperties.getMonitor().getInfoLifetime(),
-				this.adminServerProperties.getMonitor().getInfoMaxBackoff());
+				this.adminServerProperties.getMonitor().getInfoMaxBackoff(), monitorTaskScheduler);
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	@ConditionalOnMissingBean(name = "infoUpdaterCleanupTrigger")
+	public InstanceCleanupTrigger infoUpdaterCleanupTrigger(InfoUpdater infoUpdater, Publisher<InstanceEvent> events) {
+		return new InstanceCleanupTrigger(events, List.of(infoUpdater::evict));
 	}
 
 	@Bean
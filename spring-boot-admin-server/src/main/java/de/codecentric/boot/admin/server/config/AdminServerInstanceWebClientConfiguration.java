@@ -16,32 +16,58 @@
 
 package de.codecentric.boot.admin.server.config;
 
-import java.net.CookiePolicy;
+import java.time.Duration;
 import java.util.List;
 
+import javax.net.ssl.SSLSessionContext;
+
 import org.reactivestreams.Publisher;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.reactive.ClientHttpConnectorBuilder;
+import org.springframework.boot.http.client.reactive.ReactorClientHttpConnectorBuilder;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Scope;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.util.Assert;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.tcp.SslProvider;
 
 import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.services.InstanceCleanupTrigger;
 import de.codecentric.boot.admin.server.web.client.BasicAuthHttpHeaderProvider;
 import de.codecentric.boot.admin.server.web.client.CompositeHttpHeadersProvider;
+import de.codecentric.boot.admin.server.web.client.EndpointLatencyTracker;
+import de.codecentric.boot.admin.server.web.client.EndpointRouteTable;
 import de.codecentric.boot.admin.server.web.client.HttpHeadersProvider;
+import de.codecentric.boot.admin.server.web.client.InstanceBulkheads;
+import de.codecentric.boot.admin.server.web.client.InstanceCircuitBreakerTrigger;
+import de.codecentric.boot.admin.server.web.client.InstanceCircuitBreakers;
 import de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunction;
 import de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClientCustomizer;
 import de.codecentric.boot.admin.server.web.client.LegacyEndpointConverter;
 import de.codecentric.boot.admin.server.web.client.LegacyEndpointConverters;
+import de.codecentric.boot.admin.server.web.client.RetryBudget;
+import de.codecentric.boot.admin.server.web.client.cookies.ConcurrentPerInstanceCookieStore;
 import de.codecentric.boot.admin.server.web.client.cookies.CookieStoreCleanupTrigger;
-import de.codecentric.boot.admin.server.web.client.cookies.JdkPerInstanceCookieStore;
 import de.codecentric.boot.admin.server.web.client.cookies.PerInstanceCookieStore;
 import de.codecentric.boot.admin.server.web.client.reactive.CompositeReactiveHttpHeadersProvider;
 import de.codecentric.boot.admin.server.web.client.reactive.ReactiveHttpHeadersProvider;
@@ -98,11 +124,25 @@ public class AdminServerInstanceWebClientConfiguration {
 					.addHeadersReactive(new CompositeReactiveHttpHeadersProvider(reactiveHeadersProviders));
 			}
 
+			@Bean
+			@ConditionalOnMissingBean
+			public EndpointRouteTable endpointRouteTable() {
+				return new EndpointRouteTable();
+			}
+
+			@Bean(initMethod = "start", destroyMethod = "stop")
+			@ConditionalOnMissingBean(name = "endpointRouteTableCleanupTrigger")
+			public InstanceCleanupTrigger endpointRouteTableCleanupTrigger(Publisher<InstanceEvent> publisher,
+					EndpointRouteTable endpointRouteTable) {
+				return new InstanceCleanupTrigger(publisher, List.of(endpointRouteTable::remove));
+			}
+
 			@Bean
 			@Order(10)
 			@ConditionalOnMissingBean(name = "rewriteEndpointUrlInstanceExchangeFilter")
-			public InstanceExchangeFilterFunction rewriteEndpointUrlInstanceExchangeFilter() {
-				return InstanceExchangeFilterFunctions.rewriteEndpointUrl();
+			public InstanceExchangeFilterFunction rewriteEndpointUrlInstanceExchangeFilter(
+					EndpointRouteTable endpointRouteTable) {
+				return InstanceExchangeFilterFunctions.rewriteEndpointUrl(endpointRouteTable);
 			}
 
 			@Bean
@@ -128,6 +168,14 @@ public class AdminServerInstanceWebClientConfiguration {
 				return InstanceExchangeFilterFunctions.logfileAcceptWorkaround();
 			}
 
+			@Bean
+			@Order(45)
+			@ConditionalOnProperty(prefix = "spring.boot.admin.monitor", name = "compression", matchIfMissing = true)
+			@ConditionalOnMissingBean(name = "compressionInstanceExchangeFilter")
+			public InstanceExchangeFilterFunction compressionInstanceExchangeFilter() {
+				return InstanceExchangeFilterFunctions.compression();
+			}
+
 			@Bean
 			@Order(50)
 			@ConditionalOnMissingBean(name = "cookieHandlingInstanceExchangeFilter")
@@ -136,21 +184,49 @@ public class AdminServerInstanceWebClientConfiguration {
 				return InstanceExchangeFilterFunctions.handleCookies(store);
 			}
 
+			@Bean
+			@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.retry-budget", name = "enabled",
+					matchIfMissing = true)
+			@ConditionalOnMissingBean
+			public RetryBudget retryBudget(AdminServerProperties adminServerProperties) {
+				AdminServerProperties.MonitorRetryBudgetProperties retryBudget = adminServerProperties.getMonitor()
+					.getRetryBudget();
+				return new RetryBudget(retryBudget.getRatio(), retryBudget.getMinRetries(), retryBudget.getWindow());
+			}
+
+			@Bean(initMethod = "start", destroyMethod = "stop")
+			@ConditionalOnBean(RetryBudget.class)
+			@ConditionalOnMissingBean(name = "retryBudgetCleanupTrigger")
+			public InstanceCleanupTrigger retryBudgetCleanupTrigger(Publisher<InstanceEvent> publisher,
+					RetryBudget retryBudget) {
+				return new InstanceCleanupTrigger(publisher, List.of(retryBudget::remove));
+			}
+
 			@Bean
 			@Order(100)
 			@ConditionalOnMissingBean(name = "retryInstanceExchangeFilter")
 			public InstanceExchangeFilterFunction retryInstanceExchangeFilter(
-					AdminServerProperties adminServerProperties) {
+					AdminServerProperties adminServerProperties, ObjectProvider<RetryBudget> retryBudget) {
 				AdminServerProperties.MonitorProperties monitor = adminServerProperties.getMonitor();
-				return InstanceExchangeFilterFunctions.retry(monitor.getDefaultRetries(), monitor.getRetries());
+				return InstanceExchangeFilterFunctions.retry(monitor.getDefaultRetries(), monitor.getRetries(),
+						monitor.getRetryBackoff(), monitor.getRetryMaxBackoff(), retryBudget.getIfAvailable());
 			}
 
 			@Bean
 			@Order(200)
 			@ConditionalOnMissingBean(name = "timeoutInstanceExchangeFilter")
 			public InstanceExchangeFilterFunction timeoutInstanceExchangeFilter(
-					AdminServerProperties adminServerProperties) {
+					AdminServerProperties adminServerProperties,
+					ObjectProvider<EndpointLatencyTracker> endpointLatencyTracker) {
 				AdminServerProperties.MonitorProperties monitor = adminServerProperties.getMonitor();
+				AdminServerProperties.MonitorAdaptiveTimeoutProperties adaptive = monitor.getAdaptiveTimeout();
+				EndpointLatencyTracker latencies = adaptive.isEnabled() ? endpointLatencyTracker.getIfAvailable()
+						: null;
+				if (latencies != null) {
+					return InstanceExchangeFilterFunctions.adaptiveTimeout(latencies, adaptive.getPercentile(),
+							adaptive.getMultiplier(), adaptive.getMinTimeout(), adaptive.getMaxTimeout(),
+							monitor.getDefaultTimeout(), monitor.getTimeout());
+				}
 				return InstanceExchangeFilterFunctions.timeout(monitor.getDefaultTimeout(), monitor.getTimeout());
 			}
 
@@ -158,6 +234,218 @@ public class AdminServerInstanceWebClientConfiguration {
 
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.bulkhead", name = "enabled", matchIfMissing = true)
+	protected static class BulkheadConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public InstanceBulkheads instanceBulkheads(AdminServerProperties adminServerProperties) {
+			AdminServerProperties.MonitorBulkheadProperties bulkhead = adminServerProperties.getMonitor().getBulkhead();
+			return new InstanceBulkheads(limits(bulkhead.getHealth()), limits(bulkhead.getProxy()));
+		}
+
+		@Bean(initMethod = "start", destroyMethod = "stop")
+		@ConditionalOnMissingBean(name = "instanceBulkheadsCleanupTrigger")
+		public InstanceCleanupTrigger instanceBulkheadsCleanupTrigger(Publisher<InstanceEvent> publisher,
+				InstanceBulkheads instanceBulkheads) {
+			return new InstanceCleanupTrigger(publisher, List.of(instanceBulkheads::remove));
+		}
+
+		@Bean
+		@Order(80)
+		@ConditionalOnMissingBean(name = "bulkheadInstanceExchangeFilter")
+		public InstanceExchangeFilterFunction bulkheadInstanceExchangeFilter(InstanceBulkheads instanceBulkheads) {
+			return InstanceExchangeFilterFunctions.bulkhead(instanceBulkheads);
+		}
+
+		private static InstanceBulkheads.Limits limits(AdminServerProperties.MonitorBulkheadLimitProperties limits) {
+			return new InstanceBulkheads.Limits(limits.getMaxConcurrentRequests(), limits.getMaxQueuedRequests(),
+					limits.getMaxWait());
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.circuit-breaker", name = "enabled",
+			matchIfMissing = true)
+	protected static class CircuitBreakerConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public InstanceCircuitBreakers instanceCircuitBreakers(AdminServerProperties adminServerProperties) {
+			AdminServerProperties.MonitorCircuitBreakerProperties circuitBreaker = adminServerProperties.getMonitor()
+				.getCircuitBreaker();
+			return new InstanceCircuitBreakers(circuitBreaker.getFailureThreshold(), circuitBreaker.getOpenDuration());
+		}
+
+		@Bean(initMethod = "start", destroyMethod = "stop")
+		@ConditionalOnMissingBean
+		public InstanceCircuitBreakerTrigger instanceCircuitBreakerTrigger(Publisher<InstanceEvent> publisher,
+				InstanceCircuitBreakers instanceCircuitBreakers) {
+			return new InstanceCircuitBreakerTrigger(publisher, instanceCircuitBreakers);
+		}
+
+		@Bean
+		@Order(90)
+		@ConditionalOnMissingBean(name = "circuitBreakerInstanceExchangeFilter")
+		public InstanceExchangeFilterFunction circuitBreakerInstanceExchangeFilter(
+				InstanceCircuitBreakers instanceCircuitBreakers) {
+			return InstanceExchangeFilterFunctions.circuitBreaker(instanceCircuitBreakers);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "org.HdrHistogram.AbstractHistogram")
+	@Conditional(LatencyTrackingConfiguration.LatencyTrackingCondition.class)
+	protected static class LatencyTrackingConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public EndpointLatencyTracker endpointLatencyTracker(AdminServerProperties adminServerProperties) {
+			AdminServerProperties.MonitorLatencyTrackingProperties latencyTracking = adminServerProperties.getMonitor()
+				.getLatencyTracking();
+			return new EndpointLatencyTracker(latencyTracking.getWindow(), latencyTracking.getMinSamples());
+		}
+
+		@Bean
+		@Order(250)
+		@ConditionalOnMissingBean(name = "latencyRecordingInstanceExchangeFilter")
+		public InstanceExchangeFilterFunction latencyRecordingInstanceExchangeFilter(
+				EndpointLatencyTracker endpointLatencyTracker) {
+			return InstanceExchangeFilterFunctions.recordLatency(endpointLatencyTracker);
+		}
+
+		static class LatencyTrackingCondition extends AnyNestedCondition {
+
+			LatencyTrackingCondition() {
+				super(ConfigurationPhase.REGISTER_BEAN);
+			}
+
+			@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.hedging", name = "enabled", havingValue = "true")
+			static class HedgingEnabled {
+
+			}
+
+			@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.adaptive-timeout", name = "enabled",
+					havingValue = "true")
+			static class AdaptiveTimeoutEnabled {
+
+			}
+
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(name = "org.HdrHistogram.AbstractHistogram")
+	@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.hedging", name = "enabled", havingValue = "true")
+	protected static class HedgingInstanceExchangeFiltersConfiguration {
+
+		@Bean
+		@Order(150)
+		@ConditionalOnMissingBean(name = "hedgingInstanceExchangeFilter")
+		public InstanceExchangeFilterFunction hedgingInstanceExchangeFilter(AdminServerProperties adminServerProperties,
+				EndpointLatencyTracker endpointLatencyTracker, ObjectProvider<RetryBudget> retryBudget) {
+			AdminServerProperties.MonitorHedgingProperties hedging = adminServerProperties.getMonitor().getHedging();
+			return InstanceExchangeFilterFunctions.hedge(endpointLatencyTracker, hedging.getPercentile(),
+					hedging.getMinDelay(), retryBudget.getIfAvailable());
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.http", name = "enabled", havingValue = "true")
+	protected static class InstanceHttpClientConfiguration {
+
+		/**
+		 * Creates the connection pool dedicated to the requests to the instances.
+		 * @param adminServerProperties the properties to configure the pool
+		 * @return the connection provider
+		 */
+		@Bean(destroyMethod = "dispose")
+		@ConditionalOnMissingBean(name = "instanceConnectionProvider")
+		public ConnectionProvider instanceConnectionProvider(AdminServerProperties adminServerProperties) {
+			AdminServerProperties.MonitorHttpProperties http = adminServerProperties.getMonitor().getHttp();
+			ConnectionProvider.Builder builder = ConnectionProvider.builder("spring-boot-admin-instances")
+				.maxConnections(http.getMaxConnections())
+				.pendingAcquireMaxCount(http.getPendingAcquireMaxCount())
+				.pendingAcquireTimeout(http.getPendingAcquireTimeout())
+				.maxIdleTime(http.getMaxIdleTime())
+				.maxLifeTime(http.getMaxLifeTime())
+				.metrics(http.isMetrics());
+			if (!http.getEvictionInterval().isZero() && !http.getEvictionInterval().isNegative()) {
+				builder.evictInBackground(http.getEvictionInterval());
+			}
+			return builder.build();
+		}
+
+		/**
+		 * Creates the customizer using the dedicated connection pool for the instance web
+		 * client. The connector is built like the one of the default WebClient, so the
+		 * {@code spring.http.clients.*} settings (e.g. timeouts, redirects and SSL
+		 * bundle) still apply.
+		 * @param connectionProvider the dedicated connection pool
+		 * @param adminServerProperties the properties to configure the client
+		 * @param connectorBuilder the connector builder configured by Spring Boot
+		 * @param httpClientSettings the client settings configured by Spring Boot
+		 * @param sslBundles the SSL bundles
+		 * @return the customizer
+		 */
+		@Bean
+		@ConditionalOnMissingBean(name = "instanceHttpClientInstanceWebClientCustomizer")
+		public InstanceWebClientCustomizer instanceHttpClientInstanceWebClientCustomizer(
+				@Qualifier("instanceConnectionProvider") ConnectionProvider connectionProvider,
+				AdminServerProperties adminServerProperties,
+				ObjectProvider<ClientHttpConnectorBuilder<?>> connectorBuilder,
+				ObjectProvider<HttpClientSettings> httpClientSettings, ObjectProvider<SslBundles> sslBundles) {
+			AdminServerProperties.MonitorHttpProperties http = adminServerProperties.getMonitor().getHttp();
+			Assert.isTrue(http.getProtocols().contains(HttpProtocol.HTTP11),
+					"'spring.boot.admin.monitor.http.protocols' must contain http11, as h2 is only negotiated with "
+							+ "instances using TLS and h2c via an upgrade from http11");
+
+			HttpClientSettings settings = httpClientSettings.getIfAvailable(HttpClientSettings::defaults);
+			if (http.getConnectTimeout() != null) {
+				settings = settings.withConnectTimeout(http.getConnectTimeout());
+			}
+			if (http.getSslBundle() != null) {
+				settings = settings.withSslBundle(sslBundles.getObject().getBundle(http.getSslBundle()));
+			}
+			// with an SSL bundle the SSL context is left as configured by the bundle
+			boolean tuneTlsSessions = settings.sslBundle() == null;
+			// the pool requires Reactor Netty, even if another connector is configured
+			ClientHttpConnectorBuilder<?> bootBuilder = connectorBuilder.getIfAvailable();
+			ReactorClientHttpConnectorBuilder builder = (bootBuilder instanceof ReactorClientHttpConnectorBuilder reactor)
+					? reactor : ClientHttpConnectorBuilder.reactor();
+			ReactorClientHttpConnector connector = builder
+				.withHttpClientFactory(() -> HttpClient.create(connectionProvider))
+				.withHttpClientCustomizer((httpClient) -> {
+					HttpClient client = httpClient.protocol(http.getProtocols().toArray(new HttpProtocol[0]));
+					return tuneTlsSessions ? cacheTlsSessions(client, http) : client;
+				})
+				.build(settings);
+			return (instanceWebClient) -> instanceWebClient
+				.customizeWebClient((webClient) -> webClient.clientConnector(connector));
+		}
+
+		// Uses a dedicated SSL context, so the TLS sessions to the instances are
+		// cached and resumed with the configured limits.
+		private static HttpClient cacheTlsSessions(HttpClient httpClient,
+				AdminServerProperties.MonitorHttpProperties http) {
+			SslProvider.GenericSslContextSpec<?> sslContextSpec = http.getProtocols().contains(HttpProtocol.H2)
+					? Http2SslContextSpec.forClient() : Http11SslContextSpec.forClient();
+			// only applied to https URLs, requests to http URLs stay in cleartext
+			HttpClient secureClient = httpClient.secure((spec) -> spec.sslContext(sslContextSpec));
+			SslProvider sslProvider = secureClient.configuration().sslProvider();
+			SSLSessionContext sessionContext = sslProvider.getSslContext().sessionContext();
+			sessionContext.setSessionCacheSize(http.getTlsSessionCacheSize());
+			sessionContext.setSessionTimeout((int) http.getTlsSessionTimeout().toSeconds());
+			return secureClient;
+		}
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	protected static class HttpHeadersProviderConfiguration {
 
@@ -175,6 +463,14 @@ public class AdminServerInstanceWebClientConfiguration {
 			}
 		}
 
+		@Bean(initMethod = "start", destroyMethod = "stop")
+		@ConditionalOnMissingBean(name = "basicAuthHeadersCleanupTrigger")
+		@ConditionalOnBean(BasicAuthHttpHeaderProvider.class)
+		public InstanceCleanupTrigger basicAuthHeadersCleanupTrigger(Publisher<InstanceEvent> publisher,
+				BasicAuthHttpHeaderProvider basicAuthHttpHeadersProvider) {
+			return new InstanceCleanupTrigger(publisher, List.of(basicAuthHttpHeadersProvider::evict));
+		}
+
 	}
 
 	@Configuration(proxyBeanMethods = false)
@@ -255,10 +551,10 @@ public class AdminServerInstanceWebClientConfiguration {
 		 * Creates a default {@link PerInstanceCookieStore} that should be used.
 		 * @return the cookie store
 		 */
-		@Bean
-		@ConditionalOnMissingBean
-		public PerInstanceCookieStore cookieStore() {
-			return new JdkPerInstanceCookieStore(CookiePolicy.ACCEPT_ORIGINAL_SERVER);
+		@Bean(initMethod = "start", destroyMethod = "stop")
+		@ConditionalOnMissingBean(PerInstanceCookieStore.class)
+		public ConcurrentPerInstanceCookieStore cookieStore() {
+			return new ConcurrentPerInstanceCookieStore(50, Duration.ofMinutes(1L));
 		}
 
 		/**
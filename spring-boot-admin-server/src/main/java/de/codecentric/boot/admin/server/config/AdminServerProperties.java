@@ -16,15 +16,20 @@
 
 package de.codecentric.boot.admin.server.config;
 
+import java.io.File;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.jspecify.annotations.Nullable;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.convert.DurationUnit;
+import org.springframework.util.unit.DataSize;
+import reactor.netty.http.HttpProtocol;
 
 import de.codecentric.boot.admin.server.web.PathUtils;
 import de.codecentric.boot.admin.server.web.client.BasicAuthHttpHeaderProvider.InstanceCredentials;
@@ -49,6 +54,8 @@ public class AdminServerProperties {
 
 	private InstanceProxyProperties instanceProxy = new InstanceProxyProperties();
 
+	private MetricsHistoryProperties metricsHistory = new MetricsHistoryProperties();
+
 	/**
 	 * The metadata keys which should be sanitized when serializing to json
 	 */
@@ -130,6 +137,33 @@ public class AdminServerProperties {
 		@DurationUnit(ChronoUnit.MILLIS)
 		private Duration infoLifetime = Duration.ofMinutes(1L);
 
+		/**
+		 * Time to wait for further status changes or registration updates before the
+		 * endpoints of an instance are detected. Set to 0 to detect on every event.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration endpointDetectionDebounce = Duration.ofMillis(1_000L);
+
+		/**
+		 * Lifetime of the probed endpoints of an application and build version. Within
+		 * this time further instances reuse the detected endpoints instead of probing
+		 * them again. Set to 0 to always probe.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration probedEndpointsLifetime = Duration.ofMinutes(10L);
+
+		/**
+		 * Maximum number of status updates, endpoint detections and info updates executed
+		 * concurrently. Further tasks are queued, status updates are executed first.
+		 */
+		private int maxConcurrentChecks = 128;
+
+		/**
+		 * Maximum number of status updates, endpoint detections and info updates executed
+		 * concurrently for instances on the same host.
+		 */
+		private int maxConcurrentChecksPerHost = 16;
+
 		/**
 		 * Default number of retries for failed requests. Individual values for specific
 		 * endpoints can be overriden using `spring.boot.admin.monitor.retries.*`.
@@ -141,6 +175,32 @@ public class AdminServerProperties {
 		 */
 		private Map<String, Integer> retries = new HashMap<>();
 
+		/**
+		 * Delay before the first retry of a failed request. The delay grows exponentially
+		 * for further retries and is randomized by a jitter. Set to 0 to retry
+		 * immediately.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration retryBackoff = Duration.ofMillis(100L);
+
+		/**
+		 * Maximum delay before a retry of a failed request.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration retryMaxBackoff = Duration.ofMillis(2_000L);
+
+		private MonitorRetryBudgetProperties retryBudget = new MonitorRetryBudgetProperties();
+
+		private MonitorHedgingProperties hedging = new MonitorHedgingProperties();
+
+		private MonitorAdaptiveTimeoutProperties adaptiveTimeout = new MonitorAdaptiveTimeoutProperties();
+
+		private MonitorLatencyTrackingProperties latencyTracking = new MonitorLatencyTrackingProperties();
+
+		private MonitorCircuitBreakerProperties circuitBreaker = new MonitorCircuitBreakerProperties();
+
+		private MonitorBulkheadProperties bulkhead = new MonitorBulkheadProperties();
+
 		/**
 		 * Default timeout when making requests. Individual values for specific endpoints
 		 * can be overriden using `spring.boot.admin.monitor.timeout.*`.
@@ -154,6 +214,277 @@ public class AdminServerProperties {
 		@DurationUnit(ChronoUnit.MILLIS)
 		private Map<String, Duration> timeout = new HashMap<>();
 
+		/**
+		 * Whether to request gzip or deflate compressed responses from the instances.
+		 * Proxied responses are passed through compressed when the client accepts the
+		 * encoding of the instance.
+		 */
+		private boolean compression = true;
+
+		private MonitorHttpProperties http = new MonitorHttpProperties();
+
+	}
+
+	@lombok.Data
+	public static class MonitorRetryBudgetProperties {
+
+		/**
+		 * Whether to limit the retries and hedged requests per instance to a share of the
+		 * recent requests.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Share of the recent requests to an instance allowed to be retried or hedged.
+		 */
+		private double ratio = 0.1;
+
+		/**
+		 * Number of retries and hedged requests per window allowed for each instance
+		 * regardless of the ratio.
+		 */
+		private int minRetries = 10;
+
+		/**
+		 * Window in which the requests are counted.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration window = Duration.ofMillis(10_000L);
+
+	}
+
+	@lombok.Data
+	public static class MonitorHedgingProperties {
+
+		/**
+		 * Whether to hedge GET requests: if an instance doesn't respond within the
+		 * observed latency percentile of the endpoint, a second request is sent and the
+		 * first response is used.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Latency percentile of the endpoint after which a request is hedged.
+		 */
+		private double percentile = 0.95;
+
+		/**
+		 * Minimum delay before a request is hedged.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration minDelay = Duration.ofMillis(50L);
+
+	}
+
+	@lombok.Data
+	public static class MonitorAdaptiveTimeoutProperties {
+
+		/**
+		 * Whether to derive the timeouts of endpoints without a configured timeout from
+		 * their observed latencies.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Latency percentile of the endpoint the timeout is derived from.
+		 */
+		private double percentile = 0.99;
+
+		/**
+		 * Multiple of the latency percentile used as timeout.
+		 */
+		private double multiplier = 3.0;
+
+		/**
+		 * Lower bound of the derived timeouts.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration minTimeout = Duration.ofMillis(500L);
+
+		/**
+		 * Upper bound of the derived timeouts.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration maxTimeout = Duration.ofMillis(10_000L);
+
+	}
+
+	@lombok.Data
+	public static class MonitorLatencyTrackingProperties {
+
+		/**
+		 * Number of observed requests to an endpoint needed before its latencies are used
+		 * for hedging and adaptive timeouts.
+		 */
+		private int minSamples = 20;
+
+		/**
+		 * Window in which the latencies are observed. Percentiles are calculated from the
+		 * current and the previous window.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration window = Duration.ofMinutes(1L);
+
+	}
+
+	@lombok.Data
+	public static class MonitorCircuitBreakerProperties {
+
+		/**
+		 * Whether requests to instances reported offline, or failing repeatedly, fail
+		 * fast instead of waiting for the timeout.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Number of consecutive failed requests opening the circuit breaker of an
+		 * instance.
+		 */
+		private int failureThreshold = 5;
+
+		/**
+		 * Time the circuit breaker of an instance stays open before a probe request is
+		 * sent.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration openDuration = Duration.ofMillis(30_000L);
+
+	}
+
+	@lombok.Data
+	public static class MonitorBulkheadProperties {
+
+		/**
+		 * Whether to limit the concurrent requests per instance.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Limits for the requests of the status checks.
+		 */
+		private MonitorBulkheadLimitProperties health = MonitorBulkheadLimitProperties.of(2, 4);
+
+		/**
+		 * Limits for all other requests, mostly proxied for the UI.
+		 */
+		private MonitorBulkheadLimitProperties proxy = MonitorBulkheadLimitProperties.of(8, 16);
+
+	}
+
+	@lombok.Data
+	public static class MonitorBulkheadLimitProperties {
+
+		/**
+		 * Maximum number of concurrent requests per instance.
+		 */
+		private int maxConcurrentRequests;
+
+		/**
+		 * Maximum number of requests per instance waiting for a free slot. Further
+		 * requests are rejected.
+		 */
+		private int maxQueuedRequests;
+
+		/**
+		 * Maximum time a request waits for a free slot before it is rejected.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration maxWait = Duration.ofMillis(5_000L);
+
+		static MonitorBulkheadLimitProperties of(int maxConcurrentRequests, int maxQueuedRequests) {
+			MonitorBulkheadLimitProperties properties = new MonitorBulkheadLimitProperties();
+			properties.setMaxConcurrentRequests(maxConcurrentRequests);
+			properties.setMaxQueuedRequests(maxQueuedRequests);
+			return properties;
+		}
+
+	}
+
+	@lombok.Data
+	public static class MonitorHttpProperties {
+
+		/**
+		 * Whether to use a dedicated connection pool for the requests to the instances
+		 * configured by the following properties instead of the one of the default
+		 * WebClient.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of connections per host. For HTTP/2 this is the number of
+		 * multiplexed connections.
+		 */
+		private int maxConnections = 50;
+
+		/**
+		 * Maximum number of requests waiting for a connection per host. Set to -1 for no
+		 * limit.
+		 */
+		private int pendingAcquireMaxCount = 200;
+
+		/**
+		 * Maximum time to wait for a connection from the pool.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration pendingAcquireTimeout = Duration.ofMillis(10_000L);
+
+		/**
+		 * Time after which idle connections are closed.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration maxIdleTime = Duration.ofMillis(30_000L);
+
+		/**
+		 * Maximum lifetime of a connection.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration maxLifeTime = Duration.ofMinutes(10L);
+
+		/**
+		 * Interval in which idle and expired connections are evicted in the background.
+		 * Set to 0 to only evict on acquire.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration evictionInterval = Duration.ofMillis(30_000L);
+
+		/**
+		 * Connect timeout. Defaults to spring.http.clients.connect-timeout.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		@Nullable private Duration connectTimeout = null;
+
+		/**
+		 * Name of the SSL bundle to use for the requests to the instances. Defaults to
+		 * spring.http.clients.ssl.bundle.
+		 */
+		@Nullable private String sslBundle = null;
+
+		/**
+		 * Maximum number of TLS sessions cached for resumption. Set to 0 for no limit.
+		 * Not applied when an SSL bundle is used.
+		 */
+		private int tlsSessionCacheSize = 20480;
+
+		/**
+		 * Time after which cached TLS sessions are no longer resumed. Not applied when an
+		 * SSL bundle is used.
+		 */
+		@DurationUnit(ChronoUnit.SECONDS)
+		private Duration tlsSessionTimeout = Duration.ofHours(24L);
+
+		/**
+		 * Protocols to use for the requests. Must contain http11, as HTTP/2 over TLS (h2)
+		 * is only negotiated with instances using TLS and cleartext HTTP/2 (h2c) via an
+		 * upgrade from HTTP/1.1.
+		 */
+		private List<HttpProtocol> protocols = List.of(HttpProtocol.HTTP11);
+
+		/**
+		 * Whether to expose the connection pool metrics
+		 * (reactor.netty.connection.provider.*) to Micrometer.
+		 */
+		private boolean metrics = true;
+
 	}
 
 	@lombok.Data
@@ -197,6 +528,253 @@ public class AdminServerProperties {
 		 */
 		private Set<String> ignoredHeaders = new HashSet<>(asList("Cookie", "Set-Cookie", "Authorization"));
 
+		private InstanceProxyCacheProperties cache = new InstanceProxyCacheProperties();
+
+		private InstanceProxyFanOutProperties fanOut = new InstanceProxyFanOutProperties();
+
+		private InstanceProxyHeapdumpSpoolProperties heapdumpSpool = new InstanceProxyHeapdumpSpoolProperties();
+
+		private InstanceProxyLogfileTailProperties logfileTail = new InstanceProxyLogfileTailProperties();
+
+		private InstanceProxyMetricsBatchProperties metricsBatch = new InstanceProxyMetricsBatchProperties();
+
+		private InstanceProxyMetricsStreamProperties metricsStream = new InstanceProxyMetricsStreamProperties();
+
+		private InstanceProxyMetricsFanOutProperties metricsFanOut = new InstanceProxyMetricsFanOutProperties();
+
+	}
+
+	@lombok.Data
+	public static class InstanceProxyMetricsFanOutProperties {
+
+		/**
+		 * Maximum number of instances requested concurrently for a request to
+		 * `/applications/{name}/metrics/{metric}`.
+		 */
+		private int concurrency = 16;
+
+		/**
+		 * Deadline for the responses of all instances. Instances not responding in time
+		 * are reported as failed.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration timeout = Duration.ofMillis(5_000L);
+
+		/**
+		 * Time an aggregated metric is reused for further requests. Set to 0 to aggregate
+		 * the metric for each request.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration timeToLive = Duration.ofMillis(5_000L);
+
+	}
+
+	@lombok.Data
+	public static class InstanceProxyMetricsStreamProperties {
+
+		/**
+		 * Enables polling the metrics of instances once on the server for all views and
+		 * streaming them via `/instances/{id}/metrics/stream`.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Interval for polling the streamed metrics of an instance.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration interval = Duration.ofMillis(2_500L);
+
+	}
+
+	@lombok.Data
+	public static class InstanceProxyMetricsBatchProperties {
+
+		/**
+		 * Maximum number of metrics requested concurrently from the instance for a
+		 * request to `/instances/{id}/metrics/batch`.
+		 */
+		private int concurrency = 4;
+
+		/**
+		 * Maximum number of metrics in a single request to
+		 * `/instances/{id}/metrics/batch` or `/instances/{id}/metrics/stream`.
+		 */
+		private int maxMetrics = 100;
+
+	}
+
+	@lombok.Data
+	public static class InstanceProxyLogfileTailProperties {
+
+		/**
+		 * Enables tailing the logfiles of instances once on the server for all logfile
+		 * views instead of polling them from each browser.
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * Interval for polling the logfile of an instance while it is viewed.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration interval = Duration.ofMillis(1_000L);
+
+		/**
+		 * Size of the logfile tail kept per instance and sent to new subscribers.
+		 */
+		private DataSize bufferSize = DataSize.ofKilobytes(300L);
+
+	}
+
+	@lombok.Data
+	public static class InstanceProxyHeapdumpSpoolProperties {
+
+		/**
+		 * Enables spooling of proxied heapdumps to local files. Resumed downloads and
+		 * range requests are served from the spool file without a new heapdump.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Directory for the spool files. Defaults to a directory in the temp directory.
+		 */
+		@Nullable private File directory;
+
+		/**
+		 * Maximum disk usage of all spool files. The oldest spool files are deleted to
+		 * stay within the limit.
+		 */
+		private DataSize maxDiskUsage = DataSize.ofGigabytes(10L);
+
+		/**
+		 * Time a completed spool file is kept for resumed downloads and range requests.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration timeToLive = Duration.ofMinutes(30L);
+
+	}
+
+	@lombok.Data
+	public static class InstanceProxyFanOutProperties {
+
+		/**
+		 * Maximum number of instances a request to `/applications/{name}/actuator/**` is
+		 * forwarded to concurrently.
+		 */
+		private int concurrency = 32;
+
+		/**
+		 * Deadline for the response of a single instance. Instances not responding in
+		 * time are reported with status 504.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration timeout = Duration.ofMillis(10_000L);
+
+		/**
+		 * Maximum size of the response body of a single instance. Larger responses are
+		 * reported with status 502.
+		 */
+		private DataSize maxBodySize = DataSize.ofMegabytes(1L);
+
+	}
+
+	@lombok.Data
+	public static class InstanceProxyCacheProperties {
+
+		/**
+		 * Enables caching of the responses for GET requests to the instances. Concurrent
+		 * identical requests share a single request to the instance.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Time-to-live of the cached responses per endpointId. Responses of endpoints not
+		 * listed are not cached.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Map<String, Duration> timeToLive = new HashMap<>(Map.of("env", Duration.ofSeconds(5L), "configprops",
+				Duration.ofSeconds(5L), "beans", Duration.ofSeconds(30L), "mappings", Duration.ofSeconds(30L),
+				"metrics", Duration.ofSeconds(1L)));
+
+		/**
+		 * Maximum number of cached responses.
+		 */
+		private int maxEntries = 1000;
+
+		/**
+		 * Maximum size of a cached response body. Larger responses are not cached.
+		 */
+		private DataSize maxBodySize = DataSize.ofMegabytes(1L);
+
+	}
+
+	@lombok.Data
+	public static class MetricsHistoryProperties {
+
+		/**
+		 * Enables sampling the metrics of all instances into an in-memory history, which
+		 * is queried via `/instances/{id}/metrics/history`.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Interval for sampling the metrics of the instances.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration interval = Duration.ofMillis(10_000L);
+
+		/**
+		 * How long the samples are kept in their original resolution.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration retention = Duration.ofHours(1L);
+
+		/**
+		 * Tiers the samples are downsampled to, from the finest to the coarsest
+		 * resolution.
+		 */
+		private List<MetricsHistoryTierProperties> downsampling = List.of(
+				MetricsHistoryTierProperties.of(Duration.ofMinutes(1L), Duration.ofHours(24L)),
+				MetricsHistoryTierProperties.of(Duration.ofMinutes(10L), Duration.ofDays(7L)));
+
+		/**
+		 * Metrics to sample, in the format of the metrics endpoint (e.g.
+		 * `jvm.memory.used?tag=area:heap`).
+		 */
+		private List<String> metrics = List.of("jvm.memory.used?tag=area:heap", "jvm.memory.committed?tag=area:heap",
+				"jvm.memory.max?tag=area:heap", "jvm.memory.used?tag=area:nonheap",
+				"jvm.memory.committed?tag=area:nonheap", "jvm.memory.max?tag=area:nonheap", "jvm.threads.live",
+				"jvm.threads.peak", "jvm.threads.daemon", "jvm.gc.pause", "process.cpu.usage", "system.cpu.usage");
+
+		/**
+		 * Memory used for the history of an instance. When exceeded, the oldest samples
+		 * of the finest tier are dropped first.
+		 */
+		private DataSize maxMemoryPerInstance = DataSize.ofKilobytes(256L);
+
+	}
+
+	@lombok.Data
+	public static class MetricsHistoryTierProperties {
+
+		/**
+		 * Interval the samples are aggregated to.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration resolution = Duration.ofMinutes(1L);
+
+		/**
+		 * How long the aggregated samples are kept.
+		 */
+		@DurationUnit(ChronoUnit.MILLIS)
+		private Duration retention = Duration.ofHours(24L);
+
+		static MetricsHistoryTierProperties of(Duration resolution, Duration retention) {
+			MetricsHistoryTierProperties tier = new MetricsHistoryTierProperties();
+			tier.setResolution(resolution);
+			tier.setRetention(retention);
+			return tier;
+		}
+
 	}
 
 }
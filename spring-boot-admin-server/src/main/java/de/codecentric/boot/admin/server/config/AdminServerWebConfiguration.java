@@ -16,8 +16,17 @@
 
 package de.codecentric.boot.admin.server.config;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.webmvc.autoconfigure.WebMvcAutoConfiguration;
 import org.springframework.context.ApplicationEventPublisher;
@@ -27,12 +36,30 @@ import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
 import tools.jackson.databind.module.SimpleModule;
 
+import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
 import de.codecentric.boot.admin.server.eventstore.InstanceEventStore;
+import de.codecentric.boot.admin.server.metrics.MetricsHistorySampler;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore;
 import de.codecentric.boot.admin.server.services.ApplicationRegistry;
 import de.codecentric.boot.admin.server.services.InstanceRegistry;
 import de.codecentric.boot.admin.server.utils.jackson.AdminServerModule;
+import de.codecentric.boot.admin.server.web.ApplicationMetricsAggregator;
+import de.codecentric.boot.admin.server.web.ApplicationMetricsController;
 import de.codecentric.boot.admin.server.web.ApplicationsController;
+import de.codecentric.boot.admin.server.web.InstanceCircuitBreakerController;
+import de.codecentric.boot.admin.server.web.InstanceHeapdumpSpool;
+import de.codecentric.boot.admin.server.web.InstanceLogfileController;
+import de.codecentric.boot.admin.server.web.InstanceLogfileTailer;
+import de.codecentric.boot.admin.server.web.InstanceMetricsController;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceMetricsHistoryController;
+import de.codecentric.boot.admin.server.web.InstanceMetricsHub;
+import de.codecentric.boot.admin.server.web.InstanceMetricsStreamController;
+import de.codecentric.boot.admin.server.web.InstanceResponseCache;
+import de.codecentric.boot.admin.server.web.InstanceWebProxy;
 import de.codecentric.boot.admin.server.web.InstancesController;
+import de.codecentric.boot.admin.server.web.client.InstanceCircuitBreakers;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 
 @Configuration(proxyBeanMethods = false)
@@ -62,6 +89,160 @@ public class AdminServerWebConfiguration {
 		return new ApplicationsController(applicationRegistry, applicationEventPublisher);
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.instance-proxy.cache", name = "enabled", havingValue = "true")
+	public InstanceResponseCache instanceResponseCache() {
+		AdminServerProperties.InstanceProxyCacheProperties cache = this.adminServerProperties.getInstanceProxy()
+			.getCache();
+		return new InstanceResponseCache(cache.getTimeToLive(), cache.getMaxEntries(),
+				(int) cache.getMaxBodySize().toBytes());
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.instance-proxy.heapdump-spool", name = "enabled",
+			havingValue = "true")
+	public InstanceHeapdumpSpool instanceHeapdumpSpool() {
+		AdminServerProperties.InstanceProxyHeapdumpSpoolProperties heapdumpSpool = this.adminServerProperties
+			.getInstanceProxy()
+			.getHeapdumpSpool();
+		File directory = heapdumpSpool.getDirectory();
+		Path path = (directory != null) ? directory.toPath()
+				: Path.of(System.getProperty("java.io.tmpdir"), "spring-boot-admin-heapdumps");
+		return new InstanceHeapdumpSpool(path, heapdumpSpool.getMaxDiskUsage().toBytes(),
+				heapdumpSpool.getTimeToLive());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.monitor.circuit-breaker", name = "enabled",
+			matchIfMissing = true)
+	public InstanceCircuitBreakerController instanceCircuitBreakerController(
+			InstanceCircuitBreakers instanceCircuitBreakers) {
+		return new InstanceCircuitBreakerController(instanceCircuitBreakers);
+	}
+
+	@Bean(destroyMethod = "stop")
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.instance-proxy.logfile-tail", name = "enabled",
+			havingValue = "true", matchIfMissing = true)
+	public InstanceLogfileTailer instanceLogfileTailer(InstanceRegistry instanceRegistry,
+			InstanceWebClient.Builder instanceWebClientBuilder) {
+		AdminServerProperties.InstanceProxyLogfileTailProperties logfileTail = this.adminServerProperties
+			.getInstanceProxy()
+			.getLogfileTail();
+		return new InstanceLogfileTailer(instanceRegistry, instanceWebClientBuilder.build(), logfileTail.getInterval(),
+				(int) logfileTail.getBufferSize().toBytes());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.instance-proxy.logfile-tail", name = "enabled",
+			havingValue = "true", matchIfMissing = true)
+	public InstanceLogfileController instanceLogfileController(InstanceLogfileTailer instanceLogfileTailer) {
+		return new InstanceLogfileController(instanceLogfileTailer);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public InstanceMetricsFetcher instanceMetricsFetcher(InstanceWebClient.Builder instanceWebClientBuilder,
+			ObjectProvider<InstanceResponseCache> instanceResponseCache) {
+		return new InstanceMetricsFetcher(
+				createInstanceWebProxy(this.adminServerProperties, instanceWebClientBuilder,
+						instanceResponseCache.getIfAvailable(), null),
+				this.adminServerProperties.getInstanceProxy().getMetricsBatch().getConcurrency());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public InstanceMetricsController instanceMetricsController(InstanceRegistry instanceRegistry,
+			InstanceMetricsFetcher instanceMetricsFetcher) {
+		return new InstanceMetricsController(instanceRegistry, instanceMetricsFetcher,
+				this.adminServerProperties.getInstanceProxy().getMetricsBatch().getMaxMetrics());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ApplicationMetricsAggregator applicationMetricsAggregator(InstanceRegistry instanceRegistry,
+			InstanceMetricsFetcher instanceMetricsFetcher) {
+		AdminServerProperties.InstanceProxyMetricsFanOutProperties metricsFanOut = this.adminServerProperties
+			.getInstanceProxy()
+			.getMetricsFanOut();
+		return new ApplicationMetricsAggregator(instanceRegistry, instanceMetricsFetcher,
+				metricsFanOut.getConcurrency(), metricsFanOut.getTimeout(), metricsFanOut.getTimeToLive());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ApplicationMetricsController applicationMetricsController(
+			ApplicationMetricsAggregator applicationMetricsAggregator) {
+		return new ApplicationMetricsController(applicationMetricsAggregator);
+	}
+
+	@Bean(destroyMethod = "stop")
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.instance-proxy.metrics-stream", name = "enabled",
+			havingValue = "true", matchIfMissing = true)
+	public InstanceMetricsHub instanceMetricsHub(InstanceRegistry instanceRegistry,
+			InstanceMetricsFetcher instanceMetricsFetcher) {
+		return new InstanceMetricsHub(instanceRegistry, instanceMetricsFetcher,
+				this.adminServerProperties.getInstanceProxy().getMetricsStream().getInterval());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.instance-proxy.metrics-stream", name = "enabled",
+			havingValue = "true", matchIfMissing = true)
+	public InstanceMetricsStreamController instanceMetricsStreamController(InstanceMetricsHub instanceMetricsHub) {
+		return new InstanceMetricsStreamController(instanceMetricsHub,
+				this.adminServerProperties.getInstanceProxy().getMetricsBatch().getMaxMetrics());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.metrics-history", name = "enabled", havingValue = "true")
+	public MetricsHistoryStore metricsHistoryStore() {
+		AdminServerProperties.MetricsHistoryProperties metricsHistory = this.adminServerProperties.getMetricsHistory();
+		List<MetricsHistoryStore.Tier> tiers = new ArrayList<>();
+		tiers.add(new MetricsHistoryStore.Tier(metricsHistory.getInterval(), metricsHistory.getRetention()));
+		metricsHistory.getDownsampling()
+			.forEach((tier) -> tiers.add(new MetricsHistoryStore.Tier(tier.getResolution(), tier.getRetention())));
+		return new MetricsHistoryStore(tiers, metricsHistory.getMaxMemoryPerInstance().toBytes());
+	}
+
+	@Bean(initMethod = "start", destroyMethod = "stop")
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.metrics-history", name = "enabled", havingValue = "true")
+	public MetricsHistorySampler metricsHistorySampler(Publisher<InstanceEvent> events,
+			InstanceRegistry instanceRegistry, InstanceMetricsFetcher instanceMetricsFetcher,
+			MetricsHistoryStore metricsHistoryStore) {
+		AdminServerProperties.MetricsHistoryProperties metricsHistory = this.adminServerProperties.getMetricsHistory();
+		List<MetricQuery> queries = metricsHistory.getMetrics().stream().map(MetricQuery::parse).toList();
+		return new MetricsHistorySampler(events, instanceRegistry, instanceMetricsFetcher, metricsHistoryStore, queries,
+				metricsHistory.getInterval());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.boot.admin.metrics-history", name = "enabled", havingValue = "true")
+	public InstanceMetricsHistoryController instanceMetricsHistoryController(MetricsHistoryStore metricsHistoryStore) {
+		return new InstanceMetricsHistoryController(metricsHistoryStore,
+				this.adminServerProperties.getInstanceProxy().getMetricsBatch().getMaxMetrics());
+	}
+
+	private static InstanceWebProxy createInstanceWebProxy(AdminServerProperties adminServerProperties,
+			InstanceWebClient.Builder instanceWebClientBuilder, @Nullable InstanceResponseCache instanceResponseCache,
+			@Nullable InstanceHeapdumpSpool instanceHeapdumpSpool) {
+		AdminServerProperties.InstanceProxyFanOutProperties fanOut = adminServerProperties.getInstanceProxy()
+			.getFanOut();
+		return new InstanceWebProxy(instanceWebClientBuilder.build(), instanceResponseCache)
+			.fanOutConcurrency(fanOut.getConcurrency())
+			.fanOutTimeout(fanOut.getTimeout())
+			.fanOutMaxBodySize((int) fanOut.getMaxBodySize().toBytes())
+			.heapdumpSpool(instanceHeapdumpSpool);
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
 	public static class ReactiveRestApiConfiguration {
@@ -75,11 +256,14 @@ public class AdminServerWebConfiguration {
 		@Bean
 		@ConditionalOnMissingBean
 		public de.codecentric.boot.admin.server.web.reactive.InstancesProxyController instancesProxyController(
-				InstanceRegistry instanceRegistry, InstanceWebClient.Builder instanceWebClientBuilder) {
+				InstanceRegistry instanceRegistry, InstanceWebClient.Builder instanceWebClientBuilder,
+				ObjectProvider<InstanceResponseCache> instanceResponseCache,
+				ObjectProvider<InstanceHeapdumpSpool> instanceHeapdumpSpool) {
 			return new de.codecentric.boot.admin.server.web.reactive.InstancesProxyController(
 					this.adminServerProperties.getContextPath(),
 					this.adminServerProperties.getInstanceProxy().getIgnoredHeaders(), instanceRegistry,
-					instanceWebClientBuilder.build());
+					createInstanceWebProxy(this.adminServerProperties, instanceWebClientBuilder,
+							instanceResponseCache.getIfAvailable(), instanceHeapdumpSpool.getIfAvailable()));
 		}
 
 		@Bean
@@ -108,11 +292,14 @@ public class AdminServerWebConfiguration {
 		@Bean
 		@ConditionalOnMissingBean
 		public de.codecentric.boot.admin.server.web.servlet.InstancesProxyController instancesProxyController(
-				InstanceRegistry instanceRegistry, InstanceWebClient.Builder instanceWebClientBuilder) {
+				InstanceRegistry instanceRegistry, InstanceWebClient.Builder instanceWebClientBuilder,
+				ObjectProvider<InstanceResponseCache> instanceResponseCache,
+				ObjectProvider<InstanceHeapdumpSpool> instanceHeapdumpSpool) {
 			return new de.codecentric.boot.admin.server.web.servlet.InstancesProxyController(
 					this.adminServerProperties.getContextPath(),
 					this.adminServerProperties.getInstanceProxy().getIgnoredHeaders(), instanceRegistry,
-					instanceWebClientBuilder.build());
+					createInstanceWebProxy(this.adminServerProperties, instanceWebClientBuilder,
+							instanceResponseCache.getIfAvailable(), instanceHeapdumpSpool.getIfAvailable()));
 		}
 
 		@Bean
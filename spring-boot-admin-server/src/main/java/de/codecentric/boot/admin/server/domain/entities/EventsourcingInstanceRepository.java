@@ -18,11 +18,16 @@ package de.codecentric.boot.admin.server.domain.entities;
 
 import java.util.function.BiFunction;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
+import reactor.util.retry.Retry.RetrySignal;
 
 import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
@@ -34,20 +39,36 @@ import de.codecentric.boot.admin.server.eventstore.OptimisticLockingException;
  *
  * @author Johannes Edmeier
  */
-public class EventsourcingInstanceRepository implements InstanceRepository {
+public class EventsourcingInstanceRepository implements InstanceRepository, MeterBinder {
 
 	private static final Logger log = LoggerFactory.getLogger(EventsourcingInstanceRepository.class);
 
 	private final InstanceEventStore eventStore;
 
 	private final Retry retryOptimisticLockException = Retry.max(10)
-		.doBeforeRetry((s) -> log.debug("Retrying after OptimisticLockingException", s.failure()))
+		.doBeforeRetry(this::beforeRetry)
 		.filter(OptimisticLockingException.class::isInstance);
 
+	@Nullable private Counter optimisticLockRetries;
+
 	public EventsourcingInstanceRepository(InstanceEventStore eventStore) {
 		this.eventStore = eventStore;
 	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.optimisticLockRetries = Counter.builder("spring.boot.admin.repository.optimistic.lock.retries")
+			.description("Number of retries after an OptimisticLockingException")
+			.register(registry);
+	}
+
+	private void beforeRetry(RetrySignal signal) {
+		log.debug("Retrying after OptimisticLockingException", signal.failure());
+		if (this.optimisticLockRetries != null) {
+			this.optimisticLockRetries.increment();
+		}
+	}
+
 	@Override
 	public Mono<Instance> save(Instance instance) {
 		return this.eventStore.append(instance.getUnsavedEvents()).then(Mono.just(instance.clearUnsavedEvents()));
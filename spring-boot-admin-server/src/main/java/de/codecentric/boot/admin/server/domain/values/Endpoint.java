@@ -51,6 +51,8 @@ public final class Endpoint implements Serializable {
 
 	public static final String STARTUP = "startup";
 
+	public static final String METRICS = "metrics";
+
 	private final String id;
 
 	private final String url;
@@ -24,9 +24,16 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
@@ -51,6 +58,12 @@ public abstract class ConcurrentMapEventStore extends InstanceEventPublisher imp
 
 	private final ConcurrentMap<InstanceId, List<InstanceEvent>> eventLog;
 
+	@Nullable private Timer appendTimer;
+
+	@Nullable private DistributionSummary logSize;
+
+	@Nullable private Counter compactions;
+
 	protected ConcurrentMapEventStore(int maxLogSizePerAggregate,
 			ConcurrentMap<InstanceId, List<InstanceEvent>> eventLog) {
 		this.eventLog = eventLog;
@@ -72,14 +85,49 @@ public abstract class ConcurrentMapEventStore extends InstanceEventPublisher imp
 	@Override
 	public Mono<Void> append(List<InstanceEvent> events) {
 		return Mono.fromRunnable(() -> {
-			while (true) {
-				if (doAppend(events)) {
-					return;
+			long start = System.nanoTime();
+			try {
+				while (true) {
+					if (doAppend(events)) {
+						return;
+					}
+				}
+			}
+			finally {
+				if (this.appendTimer != null) {
+					this.appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 				}
 			}
 		});
 	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		super.bindTo(registry);
+		Gauge.builder("spring.boot.admin.eventstore.instances", this, ConcurrentMapEventStore::countInstances)
+			.description("Number of instances with an event log")
+			.register(registry);
+		this.appendTimer = Timer.builder("spring.boot.admin.eventstore.append")
+			.description("Latency of appending events to the event store")
+			.register(registry);
+		this.logSize = DistributionSummary.builder("spring.boot.admin.eventstore.log.size")
+			.description("Size of the event log of an instance after appending events")
+			.baseUnit("events")
+			.register(registry);
+		this.compactions = Counter.builder("spring.boot.admin.eventstore.compactions")
+			.description("Number of event log compactions")
+			.register(registry);
+	}
+
+	/**
+	 * Returns the number of instances with an event log, as reported by the
+	 * {@code spring.boot.admin.eventstore.instances} gauge on every scrape.
+	 * @return the number of instances with an event log
+	 */
+	protected long countInstances() {
+		return this.eventLog.size();
+	}
+
 	protected boolean doAppend(List<InstanceEvent> events) {
 		if (events.isEmpty()) {
 			return true;
@@ -101,13 +149,21 @@ public abstract class ConcurrentMapEventStore extends InstanceEventPublisher imp
 		List<InstanceEvent> newEvents = new ArrayList<>(oldEvents);
 		newEvents.addAll(events);
 
-		if (newEvents.size() > maxLogSizePerAggregate) {
+		boolean compacted = newEvents.size() > maxLogSizePerAggregate;
+		if (compacted) {
 			log.debug("Threshold for {} reached. Compacting events", id);
 			compact(newEvents);
 		}
 
 		if (eventLog.replace(id, oldEvents, newEvents)) {
 			log.debug("Events appended to log {}", events);
+			// counted only on success, as failed attempts are retried
+			if (compacted && this.compactions != null) {
+				this.compactions.increment();
+			}
+			if (this.logSize != null) {
+				this.logSize.record(newEvents.size());
+			}
 			return true;
 		}
 
@@ -36,12 +36,15 @@ public class HazelcastEventStore extends ConcurrentMapEventStore {
 
 	private static final Logger log = LoggerFactory.getLogger(HazelcastEventStore.class);
 
+	private final IMap<InstanceId, List<InstanceEvent>> eventLog;
+
 	public HazelcastEventStore(IMap<InstanceId, List<InstanceEvent>> eventLogs) {
 		this(100, eventLogs);
 	}
 
 	public HazelcastEventStore(int maxLogSizePerAggregate, IMap<InstanceId, List<InstanceEvent>> eventLog) {
 		super(maxLogSizePerAggregate, eventLog);
+		this.eventLog = eventLog;
 
 		eventLog.addEntryListener(new EntryAdapter<InstanceId, List<InstanceEvent>>() {
 			@Override
@@ -57,4 +60,14 @@ public class HazelcastEventStore extends ConcurrentMapEventStore {
 		}, true);
 	}
 
+	/**
+	 * Counts the event logs owned by this member only, as {@link IMap#size()} is a
+	 * cluster-wide operation.
+	 * @return the number of event logs owned by this member
+	 */
+	@Override
+	protected long countInstances() {
+		return this.eventLog.getLocalMapStats().getOwnedEntryCount();
+	}
+
 }
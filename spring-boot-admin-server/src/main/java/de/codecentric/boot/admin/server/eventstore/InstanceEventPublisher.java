@@ -18,6 +18,11 @@ package de.codecentric.boot.admin.server.eventstore;
 
 import java.util.List;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.Nullable;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.slf4j.Logger;
@@ -27,7 +32,7 @@ import reactor.core.publisher.Sinks;
 
 import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
 
-public class InstanceEventPublisher implements Publisher<InstanceEvent> {
+public class InstanceEventPublisher implements Publisher<InstanceEvent>, MeterBinder {
 
 	private static final Logger log = LoggerFactory.getLogger(InstanceEventPublisher.class);
 
@@ -38,6 +43,8 @@ public class InstanceEventPublisher implements Publisher<InstanceEvent> {
 	private final Sinks.EmitFailureHandler emitFailureHandler = (signalType, emitResult) -> emitResult
 		.equals(Sinks.EmitResult.FAIL_NON_SERIALIZED);
 
+	private Meter.@Nullable MeterProvider<Counter> publishedEvents;
+
 	protected InstanceEventPublisher() {
 		this.unicast = Sinks.many().unicast().onBackpressureBuffer();
 		this.publishedFlux = this.unicast.asFlux().publish().autoConnect(0);
@@ -47,9 +54,19 @@ public class InstanceEventPublisher implements Publisher<InstanceEvent> {
 		events.forEach((event) -> {
 			log.debug("Event published {}", event);
 			this.unicast.emitNext(event, emitFailureHandler);
+			if (this.publishedEvents != null) {
+				this.publishedEvents.withTag("type", event.getType()).increment();
+			}
 		});
 	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.publishedEvents = Counter.builder("spring.boot.admin.events.published")
+			.description("Number of published instance events")
+			.withRegistry(registry);
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super InstanceEvent> s) {
 		this.publishedFlux.subscribe(s);
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A chunk of samples of a time series compressed as described in the paper "Gorilla: A
+ * Fast, Scalable, In-Memory Time Series Database". Timestamps are stored as
+ * delta-of-deltas in variable-length buckets, values as the meaningful bits of the XOR
+ * with the previous value. For regularly sampled, slowly changing metrics a sample takes
+ * about two bytes instead of sixteen.
+ * <p>
+ * The first timestamp and value are stored uncompressed. The timestamps are in
+ * milliseconds, so the buckets for the delta-of-deltas cover a jitter of the sampling of
+ * up to about two seconds. This class is not thread-safe.
+ */
+final class CompressedChunk {
+
+	private final int capacity;
+
+	private long[] words = new long[4];
+
+	private int bitCount;
+
+	private int size;
+
+	private long firstTimestamp;
+
+	private long lastTimestamp;
+
+	private long lastDelta;
+
+	private long lastValueBits;
+
+	private int lastLeadingZeros = -1;
+
+	private int lastTrailingZeros;
+
+	CompressedChunk(int capacity) {
+		this.capacity = capacity;
+	}
+
+	void append(long timestamp, double value) {
+		long valueBits = Double.doubleToRawLongBits(value);
+		if (this.size == 0) {
+			writeBits(timestamp, 64);
+			writeBits(valueBits, 64);
+			this.firstTimestamp = timestamp;
+		}
+		else {
+			long delta = timestamp - this.lastTimestamp;
+			writeDeltaOfDelta(delta - this.lastDelta);
+			writeXor(valueBits ^ this.lastValueBits);
+			this.lastDelta = delta;
+		}
+		this.lastTimestamp = timestamp;
+		this.lastValueBits = valueBits;
+		this.size++;
+	}
+
+	private void writeDeltaOfDelta(long deltaOfDelta) {
+		if (deltaOfDelta == 0) {
+			writeBits(0b0, 1);
+		}
+		else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+			writeBits(0b10, 2);
+			writeBits(deltaOfDelta, 7);
+		}
+		else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+			writeBits(0b110, 3);
+			writeBits(deltaOfDelta, 9);
+		}
+		else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+			writeBits(0b1110, 4);
+			writeBits(deltaOfDelta, 12);
+		}
+		else {
+			writeBits(0b1111, 4);
+			writeBits(deltaOfDelta, 64);
+		}
+	}
+
+	private void writeXor(long xor) {
+		if (xor == 0) {
+			writeBits(0b0, 1);
+			return;
+		}
+		int leadingZeros = Math.min(Long.numberOfLeadingZeros(xor), 31);
+		int trailingZeros = Long.numberOfTrailingZeros(xor);
+		if (this.lastLeadingZeros >= 0 && leadingZeros >= this.lastLeadingZeros
+				&& trailingZeros >= this.lastTrailingZeros) {
+			// the meaningful bits fit into the window of the previous value
+			writeBits(0b10, 2);
+			writeBits(xor >>> this.lastTrailingZeros, 64 - this.lastLeadingZeros - this.lastTrailingZeros);
+		}
+		else {
+			int meaningfulBits = 64 - leadingZeros - trailingZeros;
+			writeBits(0b11, 2);
+			writeBits(leadingZeros, 5);
+			writeBits(meaningfulBits - 1, 6);
+			writeBits(xor >>> trailingZeros, meaningfulBits);
+			this.lastLeadingZeros = leadingZeros;
+			this.lastTrailingZeros = trailingZeros;
+		}
+	}
+
+	private void writeBits(long value, int bits) {
+		int remaining = bits;
+		while (remaining > 0) {
+			int index = this.bitCount >>> 6;
+			if (index == this.words.length) {
+				this.words = Arrays.copyOf(this.words, this.words.length * 2);
+			}
+			int free = 64 - (this.bitCount & 63);
+			int written = Math.min(free, remaining);
+			long part = (value >>> (remaining - written)) & mask(written);
+			this.words[index] |= part << (free - written);
+			this.bitCount += written;
+			remaining -= written;
+		}
+	}
+
+	/**
+	 * Releases the memory reserved for further samples. No samples must be appended to a
+	 * sealed chunk.
+	 */
+	void seal() {
+		this.words = Arrays.copyOf(this.words, (this.bitCount + 63) >>> 6);
+	}
+
+	void forEach(SampleConsumer consumer) {
+		Reader reader = new Reader();
+		long timestamp = 0;
+		long delta = 0;
+		long valueBits = 0;
+		int leadingZeros = 0;
+		int trailingZeros = 0;
+		for (int i = 0; i < this.size; i++) {
+			if (i == 0) {
+				timestamp = reader.read(64);
+				valueBits = reader.read(64);
+			}
+			else {
+				delta += reader.readDeltaOfDelta();
+				timestamp += delta;
+				if (reader.read(1) == 1) {
+					if (reader.read(1) == 1) {
+						leadingZeros = (int) reader.read(5);
+						int meaningfulBits = (int) reader.read(6) + 1;
+						trailingZeros = 64 - leadingZeros - meaningfulBits;
+					}
+					valueBits ^= reader.read(64 - leadingZeros - trailingZeros) << trailingZeros;
+				}
+			}
+			consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+		}
+	}
+
+	boolean isFull() {
+		return this.size >= this.capacity;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	long getFirstTimestamp() {
+		return this.firstTimestamp;
+	}
+
+	long getLastTimestamp() {
+		return this.lastTimestamp;
+	}
+
+	long sizeInBytes() {
+		return (long) this.words.length * Long.BYTES;
+	}
+
+	private static long mask(int bits) {
+		return (bits == 64) ? -1L : (1L << bits) - 1;
+	}
+
+	private static long signExtend(long value, int bits) {
+		return (value << (64 - bits)) >> (64 - bits);
+	}
+
+	@FunctionalInterface
+	interface SampleConsumer {
+
+		void accept(long timestamp, double value);
+
+	}
+
+	private final class Reader {
+
+		private int position;
+
+		private long read(int bits) {
+			long result = 0;
+			int remaining = bits;
+			while (remaining > 0) {
+				int available = 64 - (this.position & 63);
+				int read = Math.min(available, remaining);
+				long part = (CompressedChunk.this.words[this.position >>> 6] >>> (available - read)) & mask(read);
+				result = (read == 64) ? part : (result << read) | part;
+				this.position += read;
+				remaining -= read;
+			}
+			return result;
+		}
+
+		private long readDeltaOfDelta() {
+			if (read(1) == 0) {
+				return 0;
+			}
+			if (read(1) == 0) {
+				return signExtend(read(7), 7);
+			}
+			if (read(1) == 0) {
+				return signExtend(read(9), 9);
+			}
+			if (read(1) == 0) {
+				return signExtend(read(12), 12);
+			}
+			return read(64);
+		}
+
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.metrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.events.InstanceDeregisteredEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceEndpointsDetectedEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.domain.values.Endpoint;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.services.AbstractEventHandler;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+
+/**
+ * Samples the configured metrics of all registered instances exposing the {@code metrics}
+ * endpoint into the {@link MetricsHistoryStore}. Metrics an instance doesn't provide are
+ * skipped until its endpoints are detected again. The history of an instance is removed
+ * on receiving an {@link InstanceDeregisteredEvent}.
+ */
+public class MetricsHistorySampler extends AbstractEventHandler<InstanceEvent> {
+
+	private static final Logger log = LoggerFactory.getLogger(MetricsHistorySampler.class);
+
+	private static final int CONCURRENCY = 8;
+
+	private final InstanceRegistry registry;
+
+	private final InstanceMetricsFetcher fetcher;
+
+	private final MetricsHistoryStore store;
+
+	private final List<MetricQuery> queries;
+
+	private final Duration interval;
+
+	private final ConcurrentMap<InstanceId, Set<MetricQuery>> unavailable = new ConcurrentHashMap<>();
+
+	@Nullable private Disposable sampling;
+
+	public MetricsHistorySampler(Publisher<InstanceEvent> publisher, InstanceRegistry registry,
+			InstanceMetricsFetcher fetcher, MetricsHistoryStore store, List<MetricQuery> queries, Duration interval) {
+		super(publisher, InstanceEvent.class);
+		this.registry = registry;
+		this.fetcher = fetcher;
+		this.store = store;
+		this.queries = List.copyOf(queries);
+		this.interval = interval;
+	}
+
+	@Override
+	protected Publisher<Void> handle(Flux<InstanceEvent> publisher) {
+		return publisher.doOnNext((event) -> {
+			if (event instanceof InstanceDeregisteredEvent) {
+				this.unavailable.remove(event.getInstance());
+				this.store.remove(event.getInstance());
+			}
+			else if (event instanceof InstanceEndpointsDetectedEvent) {
+				this.unavailable.remove(event.getInstance());
+			}
+		}).then();
+	}
+
+	@Override
+	public void start() {
+		super.start();
+		this.sampling = Flux.interval(this.interval)
+			.onBackpressureDrop()
+			.concatMap((tick) -> sampleAll().onErrorResume((ex) -> {
+				log.warn("Unexpected error while sampling metrics", ex);
+				return Mono.empty();
+			}))
+			.subscribe();
+	}
+
+	@Override
+	public void stop() {
+		super.stop();
+		if (this.sampling != null) {
+			this.sampling.dispose();
+			this.sampling = null;
+		}
+	}
+
+	protected Mono<Void> sampleAll() {
+		long timestamp = System.currentTimeMillis();
+		return this.registry.getInstances()
+			.filter((instance) -> instance.isRegistered() && instance.getEndpoints().isPresent(Endpoint.METRICS))
+			.flatMap((instance) -> sample(instance, timestamp), CONCURRENCY)
+			.then();
+	}
+
+	private Mono<Void> sample(Instance instance, long timestamp) {
+		Set<MetricQuery> skipped = this.unavailable.getOrDefault(instance.getId(), Set.of());
+		List<MetricQuery> sampled = this.queries.stream().filter((query) -> !skipped.contains(query)).toList();
+		if (sampled.isEmpty()) {
+			return Mono.empty();
+		}
+		return this.fetcher.fetch(instance, sampled).doOnNext((results) -> {
+			for (int i = 0; i < results.size(); i++) {
+				if (results.get(i).status() == HttpStatus.NOT_FOUND.value()) {
+					this.unavailable.computeIfAbsent(instance.getId(), (id) -> ConcurrentHashMap.newKeySet())
+						.add(sampled.get(i));
+				}
+			}
+			this.store.record(instance.getId(), timestamp, results);
+		}).then();
+	}
+
+}
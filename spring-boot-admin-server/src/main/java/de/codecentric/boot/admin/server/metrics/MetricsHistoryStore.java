@@ -0,0 +1,208 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.metrics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.util.Assert;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.metrics.TimeSeries.Aggregation;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricResult;
+
+/**
+ * Keeps the history of metrics of instances in memory. Each statistic of the
+ * {@code measurements} of a metric is stored as a {@link TimeSeries} of compressed
+ * chunks, in tiers of decreasing resolution and increasing retention.
+ * <p>
+ * The memory used per instance is bounded: if the chunks of an instance exceed the limit,
+ * the oldest chunks of the finest tier are dropped first, as the coarser tiers still
+ * cover that period.
+ */
+public class MetricsHistoryStore {
+
+	private final List<Tier> tiers;
+
+	private final long maxBytesPerInstance;
+
+	private final ConcurrentMap<InstanceId, InstanceHistory> histories = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a store.
+	 * @param tiers the tiers, starting with the tier keeping the samples as recorded
+	 * @param maxBytesPerInstance the memory to use for the history of an instance
+	 */
+	public MetricsHistoryStore(List<Tier> tiers, long maxBytesPerInstance) {
+		Assert.notEmpty(tiers, "'tiers' must not be empty");
+		this.tiers = List.copyOf(tiers);
+		this.maxBytesPerInstance = maxBytesPerInstance;
+	}
+
+	/**
+	 * Records the measurements of the successfully fetched metrics.
+	 * @param id the instance the metrics were fetched from
+	 * @param timestamp the time of the sample in milliseconds since the epoch
+	 * @param results the fetched metrics
+	 */
+	public void record(InstanceId id, long timestamp, List<MetricResult> results) {
+		this.histories.computeIfAbsent(id, (key) -> new InstanceHistory()).record(timestamp, results);
+	}
+
+	/**
+	 * Returns the history of the metrics in the given period. The period is served from
+	 * the finest tier whose retention covers it.
+	 * @param id the instance
+	 * @param queries the metrics
+	 * @param from the start of the period in milliseconds since the epoch
+	 * @param to the end of the period in milliseconds since the epoch
+	 * @return the history of the metrics in the order of the queries
+	 */
+	public List<MetricHistory> query(InstanceId id, List<MetricQuery> queries, long from, long to) {
+		int tier = selectTier(to - from);
+		long resolution = this.tiers.get(tier).resolution().toMillis();
+		InstanceHistory history = this.histories.get(id);
+		return queries.stream()
+			.map((query) -> new MetricHistory(query.name(), query.tags(), resolution,
+					(history != null) ? history.query(query, tier, from, to) : Map.of()))
+			.toList();
+	}
+
+	public void remove(InstanceId id) {
+		this.histories.remove(id);
+	}
+
+	long sizeInBytes(InstanceId id) {
+		InstanceHistory history = this.histories.get(id);
+		return (history != null) ? history.sizeInBytes() : 0L;
+	}
+
+	private int selectTier(long period) {
+		for (int i = 0; i < this.tiers.size(); i++) {
+			if (this.tiers.get(i).retention().toMillis() >= period) {
+				return i;
+			}
+		}
+		return this.tiers.size() - 1;
+	}
+
+	/**
+	 * A tier of the history.
+	 *
+	 * @param resolution the interval of the samples in this tier
+	 * @param retention how long the samples are kept
+	 */
+	public record Tier(Duration resolution, Duration retention) {
+
+		public Tier {
+			Assert.isTrue(!resolution.isNegative() && !resolution.isZero(), "'resolution' must be positive");
+			Assert.isTrue(!retention.isNegative() && !retention.isZero(), "'retention' must be positive");
+		}
+
+	}
+
+	/**
+	 * The history of a metric.
+	 *
+	 * @param name the name of the metric
+	 * @param tags the tags the measurements were selected by
+	 * @param resolution the interval of the samples in milliseconds
+	 * @param measurements the samples by statistic
+	 */
+	public record MetricHistory(String name, Map<String, String> tags, long resolution,
+			Map<String, List<Sample>> measurements) {
+	}
+
+	/**
+	 * A sample of a statistic.
+	 *
+	 * @param timestamp the time of the sample in milliseconds since the epoch
+	 * @param value the value
+	 */
+	public record Sample(long timestamp, double value) {
+	}
+
+	private record SeriesKey(String name, Map<String, String> tags, String statistic) {
+	}
+
+	private final class InstanceHistory {
+
+		private final Map<SeriesKey, TimeSeries> series = new LinkedHashMap<>();
+
+		private synchronized void record(long timestamp, List<MetricResult> results) {
+			for (MetricResult result : results) {
+				if (result.body() != null && result.body().get("measurements") instanceof List<?> measurements) {
+					for (Object measurement : measurements) {
+						if (measurement instanceof Map<?, ?> map && map.get("statistic") instanceof String statistic
+								&& map.get("value") instanceof Number value) {
+							this.series
+								.computeIfAbsent(new SeriesKey(result.name(), result.tags(), statistic),
+										(key) -> new TimeSeries(MetricsHistoryStore.this.tiers,
+												Aggregation.forStatistic(statistic)))
+								.append(timestamp, value.doubleValue());
+						}
+					}
+				}
+			}
+			this.series.values().forEach((timeSeries) -> timeSeries.expire(timestamp));
+			evict();
+		}
+
+		private void evict() {
+			int tierCount = MetricsHistoryStore.this.tiers.size();
+			int tier = 0;
+			while (tier < tierCount && sizeInBytes() > MetricsHistoryStore.this.maxBytesPerInstance) {
+				TimeSeries oldest = null;
+				long oldestTimestamp = Long.MAX_VALUE;
+				for (TimeSeries timeSeries : this.series.values()) {
+					CompressedChunk chunk = timeSeries.oldestSealedChunk(tier);
+					if (chunk != null && chunk.getFirstTimestamp() < oldestTimestamp) {
+						oldest = timeSeries;
+						oldestTimestamp = chunk.getFirstTimestamp();
+					}
+				}
+				if (oldest != null) {
+					oldest.evictOldestChunk(tier);
+				}
+				else {
+					tier++;
+				}
+			}
+		}
+
+		private synchronized Map<String, List<Sample>> query(MetricQuery query, int tier, long from, long to) {
+			Map<String, List<Sample>> measurements = new LinkedHashMap<>();
+			this.series.forEach((key, timeSeries) -> {
+				if (key.name().equals(query.name()) && key.tags().equals(query.tags())) {
+					measurements.put(key.statistic(), timeSeries.query(tier, from, to));
+				}
+			});
+			return measurements;
+		}
+
+		private synchronized long sizeInBytes() {
+			return this.series.values().stream().mapToLong(TimeSeries::sizeInBytes).sum();
+		}
+
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore.Sample;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore.Tier;
+
+/**
+ * The samples of one statistic of a metric, kept in tiers of decreasing resolution. The
+ * first tier holds the samples as recorded; each further tier aggregates them into
+ * buckets of its resolution. Each tier is a queue of {@link CompressedChunk compressed
+ * chunks} from which chunks are dropped once they exceed the retention of the tier. This
+ * class is not thread-safe.
+ */
+final class TimeSeries {
+
+	static final int SAMPLES_PER_CHUNK = 120;
+
+	private final Aggregation aggregation;
+
+	private final List<TierSeries> tiers;
+
+	TimeSeries(List<Tier> tiers, Aggregation aggregation) {
+		this.aggregation = aggregation;
+		this.tiers = tiers.stream().map(TierSeries::new).toList();
+	}
+
+	void append(long timestamp, double value) {
+		this.tiers.get(0).append(timestamp, value);
+		for (int i = 1; i < this.tiers.size(); i++) {
+			this.tiers.get(i).accumulate(timestamp, value, this.aggregation);
+		}
+	}
+
+	void expire(long now) {
+		this.tiers.forEach((tier) -> tier.expire(now));
+	}
+
+	long sizeInBytes() {
+		return this.tiers.stream().mapToLong(TierSeries::sizeInBytes).sum();
+	}
+
+	/**
+	 * Returns the oldest sealed chunk of the tier, if any.
+	 * @param tier the index of the tier
+	 * @return the chunk or {@code null}
+	 */
+	@Nullable CompressedChunk oldestSealedChunk(int tier) {
+		ArrayDeque<CompressedChunk> chunks = this.tiers.get(tier).chunks;
+		return (chunks.size() > 1) ? chunks.peekFirst() : null;
+	}
+
+	void evictOldestChunk(int tier) {
+		this.tiers.get(tier).chunks.pollFirst();
+	}
+
+	List<Sample> query(int tier, long from, long to) {
+		List<Sample> samples = new ArrayList<>();
+		for (CompressedChunk chunk : this.tiers.get(tier).chunks) {
+			if (chunk.getLastTimestamp() >= from && chunk.getFirstTimestamp() <= to) {
+				chunk.forEach((timestamp, value) -> {
+					if (timestamp >= from && timestamp <= to) {
+						samples.add(new Sample(timestamp, value));
+					}
+				});
+			}
+		}
+		return samples;
+	}
+
+	/**
+	 * How the samples are aggregated into the buckets of a coarser tier.
+	 */
+	enum Aggregation {
+
+		/**
+		 * Keeps the last sample, used for monotonic counters.
+		 */
+		LAST,
+
+		/**
+		 * Keeps the maximum sample.
+		 */
+		MAX,
+
+		/**
+		 * Keeps the mean of the samples, used for gauges.
+		 */
+		MEAN;
+
+		static Aggregation forStatistic(String statistic) {
+			return switch (statistic) {
+				case "COUNT", "TOTAL", "TOTAL_TIME" -> LAST;
+				case "MAX" -> MAX;
+				default -> MEAN;
+			};
+		}
+
+	}
+
+	private static final class TierSeries {
+
+		private final long resolution;
+
+		private final long retention;
+
+		private final ArrayDeque<CompressedChunk> chunks = new ArrayDeque<>();
+
+		private long bucket = Long.MIN_VALUE;
+
+		private int count;
+
+		private double sum;
+
+		private double max;
+
+		private double last;
+
+		private TierSeries(Tier tier) {
+			this.resolution = tier.resolution().toMillis();
+			this.retention = tier.retention().toMillis();
+		}
+
+		private void append(long timestamp, double value) {
+			CompressedChunk chunk = this.chunks.peekLast();
+			if (chunk == null || chunk.isFull()) {
+				if (chunk != null) {
+					chunk.seal();
+				}
+				chunk = new CompressedChunk(SAMPLES_PER_CHUNK);
+				this.chunks.addLast(chunk);
+			}
+			chunk.append(timestamp, value);
+		}
+
+		private void accumulate(long timestamp, double value, Aggregation aggregation) {
+			long sampleBucket = timestamp - Math.floorMod(timestamp, this.resolution);
+			if (sampleBucket != this.bucket) {
+				if (this.count > 0) {
+					append(this.bucket, aggregate(aggregation));
+				}
+				this.bucket = sampleBucket;
+				this.count = 0;
+				this.sum = 0.0;
+				this.max = Double.NEGATIVE_INFINITY;
+			}
+			this.count++;
+			this.sum += value;
+			this.max = Math.max(this.max, value);
+			this.last = value;
+		}
+
+		private double aggregate(Aggregation aggregation) {
+			return switch (aggregation) {
+				case LAST -> this.last;
+				case MAX -> this.max;
+				case MEAN -> this.sum / this.count;
+			};
+		}
+
+		private void expire(long now) {
+			long expiration = now - this.retention;
+			while (!this.chunks.isEmpty() && this.chunks.peekFirst().getLastTimestamp() < expiration) {
+				this.chunks.pollFirst();
+			}
+		}
+
+		private long sizeInBytes() {
+			return this.chunks.stream().mapToLong(CompressedChunk::sizeInBytes).sum();
+		}
+
+	}
+
+}
@@ -16,40 +16,82 @@
 
 package de.codecentric.boot.admin.server.services;
 
+import java.time.Duration;
+
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import de.codecentric.boot.admin.server.domain.events.InstanceDeregisteredEvent;
 import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
 import de.codecentric.boot.admin.server.domain.events.InstanceRegistrationUpdatedEvent;
 import de.codecentric.boot.admin.server.domain.events.InstanceStatusChangedEvent;
 
+/**
+ * Triggers the endpoint detection on status changes and registration updates. If a
+ * debounce is configured, the detection for an instance is delayed until no further
+ * relevant event for it was received within the debounce duration, so that flapping
+ * instances don't cause a detection per status change.
+ */
 public class EndpointDetectionTrigger extends AbstractEventHandler<InstanceEvent> {
 
 	private static final Logger log = LoggerFactory.getLogger(EndpointDetectionTrigger.class);
 
 	private final EndpointDetector endpointDetector;
 
+	private final Duration debounce;
+
+	private final MonitorTaskScheduler taskScheduler;
+
 	public EndpointDetectionTrigger(EndpointDetector endpointDetector, Publisher<InstanceEvent> publisher) {
+		this(endpointDetector, publisher, Duration.ZERO);
+	}
+
+	public EndpointDetectionTrigger(EndpointDetector endpointDetector, Publisher<InstanceEvent> publisher,
+			Duration debounce) {
+		this(endpointDetector, publisher, debounce, MonitorTaskScheduler.unbounded());
+	}
+
+	public EndpointDetectionTrigger(EndpointDetector endpointDetector, Publisher<InstanceEvent> publisher,
+			Duration debounce, MonitorTaskScheduler taskScheduler) {
 		super(publisher, InstanceEvent.class);
 		this.endpointDetector = endpointDetector;
+		this.debounce = debounce;
+		this.taskScheduler = taskScheduler;
 	}
 
 	@Override
 	protected Publisher<Void> handle(Flux<InstanceEvent> publisher) {
-		return publisher
-			.filter((event) -> event instanceof InstanceStatusChangedEvent
-					|| event instanceof InstanceRegistrationUpdatedEvent)
-			.flatMap(this::detectEndpoints);
+		if (this.debounce.isZero() || this.debounce.isNegative()) {
+			return publisher.filter(this::isDetectionRequired).flatMap(this::detectEndpoints);
+		}
+		return publisher.filter((event) -> isDetectionRequired(event) || event instanceof InstanceDeregisteredEvent)
+			.groupBy(InstanceEvent::getInstance)
+			.flatMap((instanceEvents) -> instanceEvents.takeUntil(InstanceDeregisteredEvent.class::isInstance)
+				.switchMap(this::detectEndpointsDebounced), Integer.MAX_VALUE);
 	}
 
-	protected Mono<Void> detectEndpoints(InstanceEvent event) {
-		return this.endpointDetector.detectEndpoints(event.getInstance()).onErrorResume((e) -> {
-			log.warn("Unexpected error while detecting endpoints for {}", event.getInstance(), e);
+	private Mono<Void> detectEndpointsDebounced(InstanceEvent event) {
+		if (!isDetectionRequired(event)) {
 			return Mono.empty();
-		});
+		}
+		return Mono.delay(this.debounce).then(Mono.defer(() -> this.detectEndpoints(event)));
+	}
+
+	private boolean isDetectionRequired(InstanceEvent event) {
+		return event instanceof InstanceStatusChangedEvent || event instanceof InstanceRegistrationUpdatedEvent;
+	}
+
+	protected Mono<Void> detectEndpoints(InstanceEvent event) {
+		return this.taskScheduler
+			.schedule(MonitorTaskScheduler.Priority.ENDPOINTS, event.getInstance(),
+					() -> this.endpointDetector.detectEndpoints(event.getInstance()))
+			.onErrorResume((e) -> {
+				log.warn("Unexpected error while detecting endpoints for {}", event.getInstance(), e);
+				return Mono.empty();
+			});
 	}
 
 }
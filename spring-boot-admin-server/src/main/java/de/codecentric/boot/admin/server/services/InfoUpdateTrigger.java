@@ -18,6 +18,8 @@ package de.codecentric.boot.admin.server.services;
 
 import java.time.Duration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,7 +32,7 @@ import de.codecentric.boot.admin.server.domain.events.InstanceRegistrationUpdate
 import de.codecentric.boot.admin.server.domain.events.InstanceStatusChangedEvent;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
 
-public class InfoUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
+public class InfoUpdateTrigger extends AbstractEventHandler<InstanceEvent> implements MeterBinder {
 
 	private static final Logger log = LoggerFactory.getLogger(InfoUpdateTrigger.class);
 
@@ -38,10 +40,18 @@ public class InfoUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
 
 	private final IntervalCheck intervalCheck;
 
+	private final MonitorTaskScheduler taskScheduler;
+
 	public InfoUpdateTrigger(InfoUpdater infoUpdater, Publisher<InstanceEvent> publisher, Duration updateInterval,
 			Duration infoLifetime, Duration maxBackoff) {
+		this(infoUpdater, publisher, updateInterval, infoLifetime, maxBackoff, MonitorTaskScheduler.unbounded());
+	}
+
+	public InfoUpdateTrigger(InfoUpdater infoUpdater, Publisher<InstanceEvent> publisher, Duration updateInterval,
+			Duration infoLifetime, Duration maxBackoff, MonitorTaskScheduler taskScheduler) {
 		super(publisher, InstanceEvent.class);
 		this.infoUpdater = infoUpdater;
+		this.taskScheduler = taskScheduler;
 		this.intervalCheck = new IntervalCheck("info", this::updateInfo, updateInterval, infoLifetime, maxBackoff);
 	}
 
@@ -54,10 +64,13 @@ public class InfoUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
 	}
 
 	protected Mono<Void> updateInfo(InstanceId instanceId) {
-		return this.infoUpdater.updateInfo(instanceId).onErrorResume((e) -> {
-			log.warn("Unexpected error while updating info for {}", instanceId, e);
-			return Mono.empty();
-		}).doFinally((s) -> this.intervalCheck.markAsChecked(instanceId));
+		return this.taskScheduler
+			.schedule(MonitorTaskScheduler.Priority.INFO, instanceId, () -> this.infoUpdater.updateInfo(instanceId))
+			.onErrorResume((e) -> {
+				log.warn("Unexpected error while updating info for {}", instanceId, e);
+				return Mono.empty();
+			})
+			.doFinally((s) -> this.intervalCheck.markAsChecked(instanceId));
 	}
 
 	@Override
@@ -72,6 +85,11 @@ public class InfoUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
 		this.intervalCheck.stop();
 	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.intervalCheck.bindTo(registry);
+	}
+
 	public void setInterval(Duration updateInterval) {
 		this.intervalCheck.setInterval(updateInterval);
 	}
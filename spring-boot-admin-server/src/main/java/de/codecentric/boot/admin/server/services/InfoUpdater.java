@@ -16,14 +16,24 @@
 
 package de.codecentric.boot.admin.server.services;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import de.codecentric.boot.admin.server.domain.entities.Instance;
@@ -36,10 +46,15 @@ import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 /**
  * The StatusUpdater is responsible for updating the status of all or a single application
  * querying the healthUrl.
+ * <p>
+ * To avoid deserializing large, rarely changing info payloads on every poll, the last
+ * response of each instance is fingerprinted (ETag and digest of the raw body). If the
+ * instance answers with {@code 304 Not Modified} or the same body, the previously
+ * converted {@link Info} is reused and the repository is not touched.
  *
  * @author Johannes Edmeier
  */
-public class InfoUpdater {
+public class InfoUpdater implements MeterBinder {
 
 	private static final Logger log = LoggerFactory.getLogger(InfoUpdater.class);
 
@@ -52,6 +67,10 @@ public class InfoUpdater {
 
 	private final ApiMediaTypeHandler apiMediaTypeHandler;
 
+	private final ConcurrentMap<InstanceId, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+	private UpdateTimer updateTimer = UpdateTimer.NONE;
+
 	public InfoUpdater(InstanceRepository repository, InstanceWebClient instanceWebClient,
 			ApiMediaTypeHandler apiMediaTypeHandler) {
 		this.repository = repository;
@@ -60,42 +79,107 @@ public class InfoUpdater {
 	}
 
 	public Mono<Void> updateInfo(InstanceId id) {
-		return this.repository.computeIfPresent(id, (key, instance) -> this.doUpdateInfo(instance)).then();
+		return this.repository.find(id)
+			.flatMap((instance) -> this.doUpdateInfo(instance)
+				.map(Instance::getInfo)
+				.filter((info) -> !info.equals(instance.getInfo()))
+				.flatMap((info) -> this.repository.computeIfPresent(id,
+						(key, current) -> Mono.just(current.withInfo(info)))))
+			.then();
+	}
+
+	/**
+	 * Removes the fingerprint of the last info response of the instance.
+	 * @param id the id of the instance
+	 */
+	public void evict(InstanceId id) {
+		this.fingerprints.remove(id);
 	}
 
 	protected Mono<Instance> doUpdateInfo(Instance instance) {
 		if (instance.getStatusInfo().isOffline() || instance.getStatusInfo().isUnknown()) {
+			this.fingerprints.remove(instance.getId());
 			return Mono.empty();
 		}
 		if (!instance.getEndpoints().isPresent(Endpoint.INFO)) {
+			this.fingerprints.remove(instance.getId());
 			return Mono.empty();
 		}
 
 		log.debug("Update info for {}", instance);
-		return this.instanceWebClient.instance(instance)
-			.get()
-			.uri(Endpoint.INFO)
-			.exchangeToMono((response) -> convertInfo(instance, response))
-			.log(log.getName(), Level.FINEST)
-			.onErrorResume((ex) -> Mono.just(convertInfo(instance, ex)))
-			.map(instance::withInfo);
+		return this.updateTimer.time(instance, Mono.defer(() -> {
+			Fingerprint fingerprint = this.fingerprints.get(instance.getId());
+			return this.instanceWebClient.instance(instance).get().uri(Endpoint.INFO).headers((headers) -> {
+				if (fingerprint != null && fingerprint.etag() != null) {
+					headers.setIfNoneMatch(fingerprint.etag());
+				}
+			})
+				.exchangeToMono((response) -> convertInfo(instance, response, fingerprint))
+				.log(log.getName(), Level.FINEST);
+		})).onErrorResume((ex) -> Mono.just(convertInfo(instance, ex))).map(instance::withInfo);
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.updateTimer = UpdateTimer.register(registry, "spring.boot.admin.info.update",
+				"Latency and outcome of the info updates");
 	}
 
 	protected Mono<Info> convertInfo(Instance instance, ClientResponse response) {
+		return convertInfo(instance, response, this.fingerprints.get(instance.getId()));
+	}
+
+	private Mono<Info> convertInfo(Instance instance, ClientResponse response, @Nullable Fingerprint fingerprint) {
+		if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED) && fingerprint != null) {
+			return response.releaseBody().then(Mono.just(fingerprint.info()));
+		}
 		if (response.statusCode().is2xxSuccessful() && response.headers()
 			.contentType()
 			.filter((mt) -> mt.isCompatibleWith(MediaType.APPLICATION_JSON)
 					|| this.apiMediaTypeHandler.isApiMediaType(mt))
 			.isPresent()) {
-			return response.bodyToMono(RESPONSE_TYPE).map(Info::from).defaultIfEmpty(Info.empty());
+			String etag = response.headers().asHttpHeaders().getETag();
+			return response.bodyToMono(byte[].class).flatMap((body) -> {
+				byte[] digest = DigestUtils.md5Digest(body);
+				if (fingerprint != null && Arrays.equals(fingerprint.digest(), digest)) {
+					this.fingerprints.put(instance.getId(), new Fingerprint(etag, digest, fingerprint.info()));
+					return Mono.just(fingerprint.info());
+				}
+				return decodeInfo(response, body)
+					.doOnNext((info) -> this.fingerprints.put(instance.getId(), new Fingerprint(etag, digest, info)));
+			}).switchIfEmpty(Mono.fromSupplier(() -> {
+				this.fingerprints.remove(instance.getId());
+				return Info.empty();
+			}));
 		}
+		this.fingerprints.remove(instance.getId());
 		log.info("Couldn't retrieve info for {}: {}", instance, response.statusCode());
 		return response.releaseBody().then(Mono.just(Info.empty()));
 	}
 
+	private Mono<Info> decodeInfo(ClientResponse response, byte[] body) {
+		return response.mutate()
+			.body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+			.build()
+			.bodyToMono(RESPONSE_TYPE)
+			.map(Info::from)
+			.defaultIfEmpty(Info.empty());
+	}
+
 	protected Info convertInfo(Instance instance, Throwable ex) {
+		this.fingerprints.remove(instance.getId());
 		log.warn("Couldn't retrieve info for {}", instance, ex);
 		return Info.empty();
 	}
 
+	/**
+	 * Fingerprint of the last info response received from an instance.
+	 *
+	 * @param etag the entity tag sent by the instance, if any
+	 * @param digest the digest of the raw response body
+	 * @param info the info converted from the response body
+	 */
+	private record Fingerprint(@Nullable String etag, byte[] digest, Info info) {
+	}
+
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import de.codecentric.boot.admin.server.domain.events.InstanceDeregisteredEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceRegistrationUpdatedEvent;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * Removes the state kept per instance, e.g. caches or rate limits. The state is always
+ * removed on receiving an {@link InstanceDeregisteredEvent}. Further events can be
+ * configured to trigger the removal, e.g. {@link InstanceRegistrationUpdatedEvent} for
+ * state derived from the registration of an instance.
+ */
+public class InstanceCleanupTrigger extends AbstractEventHandler<InstanceEvent> {
+
+	private final List<Consumer<InstanceId>> cleanups;
+
+	private final List<Class<? extends InstanceEvent>> eventTypes;
+
+	public InstanceCleanupTrigger(Publisher<InstanceEvent> publisher, List<Consumer<InstanceId>> cleanups) {
+		this(publisher, cleanups, List.of());
+	}
+
+	/**
+	 * Creates the trigger removing the state on deregistration and on the given events.
+	 * @param publisher the publisher of the events
+	 * @param cleanups the cleanups to call with the id of the instance
+	 * @param additionalEventTypes further events triggering the cleanups
+	 */
+	public InstanceCleanupTrigger(Publisher<InstanceEvent> publisher, List<Consumer<InstanceId>> cleanups,
+			List<Class<? extends InstanceEvent>> additionalEventTypes) {
+		super(publisher, InstanceEvent.class);
+		this.cleanups = List.copyOf(cleanups);
+		List<Class<? extends InstanceEvent>> eventTypes = new ArrayList<>(additionalEventTypes);
+		eventTypes.add(InstanceDeregisteredEvent.class);
+		this.eventTypes = List.copyOf(eventTypes);
+	}
+
+	@Override
+	protected Publisher<Void> handle(Flux<InstanceEvent> publisher) {
+		return publisher.filter((event) -> this.eventTypes.stream().anyMatch((type) -> type.isInstance(event)))
+			.doOnNext((event) -> this.cleanups.forEach((cleanup) -> cleanup.accept(event.getInstance())))
+			.then();
+	}
+
+}
@@ -20,10 +20,17 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Level;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.Setter;
@@ -42,12 +49,13 @@ import de.codecentric.boot.admin.server.domain.values.InstanceId;
 /**
  * Calls the checkFn for all instances in the given time, but not before the given
  * retention time has passed. The instances which will be checked have to be registered
- * via `markAsChecked`.
+ * via `markAsChecked`. When bound to a {@link MeterRegistry} the number of due instances,
+ * the duration of the check cycles and overlapping cycles are recorded.
  *
  * @author Johannes Edmeier
  */
 @Slf4j
-public class IntervalCheck {
+public class IntervalCheck implements MeterBinder {
 
 	private final String name;
 
@@ -55,6 +63,8 @@ public class IntervalCheck {
 
 	private final Function<InstanceId, Mono<Void>> checkFn;
 
+	private final AtomicInteger runningCycles = new AtomicInteger();
+
 	@Setter
 	private Duration maxBackoff;
 
@@ -73,6 +83,10 @@ public class IntervalCheck {
 	@NonNull
 	private Consumer<Throwable> retryConsumer;
 
+	@Nullable private Timer cycleTimer;
+
+	@Nullable private Counter overlappingCycles;
+
 	public IntervalCheck(String name, Function<InstanceId, Mono<Void>> checkFn, Duration interval,
 			Duration minRetention, Duration maxBackoff) {
 		this.name = name;
@@ -104,18 +118,51 @@ public class IntervalCheck {
 			.doBeforeRetry((s) -> this.retryConsumer.accept(s.failure()));
 	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("spring.boot.admin.check.due", this, IntervalCheck::countDueInstances)
+			.description("Number of instances due for the check")
+			.tag("check", this.name)
+			.register(registry);
+		this.cycleTimer = Timer.builder("spring.boot.admin.check.cycle")
+			.description("Duration of a check cycle over all due instances")
+			.tag("check", this.name)
+			.register(registry);
+		this.overlappingCycles = Counter.builder("spring.boot.admin.check.cycle.overlapping")
+			.description("Number of check cycles started while a previous cycle was still running")
+			.tag("check", this.name)
+			.register(registry);
+	}
+
 	public void markAsChecked(InstanceId instanceId) {
 		this.lastChecked.put(instanceId, Instant.now());
 	}
 
 	protected Publisher<Void> checkAllInstances() {
-		log.debug("check {} for all instances", this.name);
+		return Mono.defer(() -> {
+			log.debug("check {} for all instances", this.name);
+			long start = System.nanoTime();
+			if (this.runningCycles.getAndIncrement() > 0 && this.overlappingCycles != null) {
+				this.overlappingCycles.increment();
+			}
+			Instant expiration = Instant.now().minus(this.minRetention);
+			return Flux.fromIterable(this.lastChecked.entrySet())
+				.filter((entry) -> entry.getValue().isBefore(expiration))
+				.map(Map.Entry::getKey)
+				.flatMap(this.checkFn)
+				.then()
+				.doFinally((s) -> {
+					this.runningCycles.decrementAndGet();
+					if (this.cycleTimer != null) {
+						this.cycleTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					}
+				});
+		});
+	}
+
+	protected long countDueInstances() {
 		Instant expiration = Instant.now().minus(this.minRetention);
-		return Flux.fromIterable(this.lastChecked.entrySet())
-			.filter((entry) -> entry.getValue().isBefore(expiration))
-			.map(Map.Entry::getKey)
-			.flatMap(this.checkFn)
-			.then();
+		return this.lastChecked.values().stream().filter((checked) -> checked.isBefore(expiration)).count();
 	}
 
 	public void stop() {
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.services;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.Assert;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.entities.InstanceRepository;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * Schedules the monitoring tasks (status updates, endpoint detection and info updates) of
+ * all triggers with bounded concurrency. Pending tasks are started by priority, status
+ * updates first, then endpoint detections and info updates last. Besides the global limit
+ * the number of concurrent tasks per host (taken from the health-url) is limited as well.
+ * Within a priority the pending tasks are queued per host and the hosts with free
+ * capacity take turns, so a busy host doesn't hold up the tasks of the other hosts.
+ * <p>
+ * A task for an instance and priority which is still pending is not queued twice; the
+ * caller waits for the pending task instead. A task is removed from the queue, or
+ * cancelled if already started, once all callers waiting for it cancelled. The host of an
+ * instance is looked up once and remembered until it is removed using
+ * {@link #remove(InstanceId)}.
+ */
+public class MonitorTaskScheduler implements MeterBinder {
+
+	@Nullable private final InstanceRepository repository;
+
+	private final int maxConcurrency;
+
+	private final int maxConcurrencyPerHost;
+
+	private final Map<Priority, PendingTasks> pending = new EnumMap<>(Priority.class);
+
+	private final Map<TaskKey, Task> pendingByKey = new HashMap<>();
+
+	private final Map<String, Integer> activeByHost = new HashMap<>();
+
+	private final ConcurrentMap<InstanceId, String> hosts = new ConcurrentHashMap<>();
+
+	private final AtomicInteger wip = new AtomicInteger();
+
+	private final Disposable.Composite running = Disposables.composite();
+
+	private int active = 0;
+
+	public MonitorTaskScheduler(InstanceRepository repository, int maxConcurrency, int maxConcurrencyPerHost) {
+		Assert.notNull(repository, "'repository' must not be null");
+		Assert.isTrue(maxConcurrency > 0, "'maxConcurrency' must be greater than 0");
+		Assert.isTrue(maxConcurrencyPerHost > 0, "'maxConcurrencyPerHost' must be greater than 0");
+		this.repository = repository;
+		this.maxConcurrency = maxConcurrency;
+		this.maxConcurrencyPerHost = maxConcurrencyPerHost;
+		for (Priority priority : Priority.values()) {
+			this.pending.put(priority, new PendingTasks());
+		}
+	}
+
+	private MonitorTaskScheduler() {
+		this.repository = null;
+		this.maxConcurrency = Integer.MAX_VALUE;
+		this.maxConcurrencyPerHost = Integer.MAX_VALUE;
+		for (Priority priority : Priority.values()) {
+			this.pending.put(priority, new PendingTasks());
+		}
+	}
+
+	/**
+	 * Returns a scheduler which executes all tasks immediately without any limits.
+	 * @return the unbounded scheduler
+	 */
+	public static MonitorTaskScheduler unbounded() {
+		return new MonitorTaskScheduler();
+	}
+
+	/**
+	 * Schedules the task for the given instance on subscription. The task is subscribed
+	 * as soon as the concurrency limits permit and no task with a higher priority is
+	 * pending.
+	 * @param priority the priority of the task
+	 * @param instanceId the id of the instance the task is for
+	 * @param task the task to execute
+	 * @return a mono completing when the task completed
+	 */
+	public Mono<Void> schedule(Priority priority, InstanceId instanceId, Supplier<Mono<Void>> task) {
+		InstanceRepository repository = this.repository;
+		if (repository == null) {
+			return Mono.defer(task);
+		}
+		return Mono.defer(() -> {
+			String host = this.hosts.get(instanceId);
+			if (host != null) {
+				return enqueue(new TaskKey(priority, instanceId), host, task);
+			}
+			return repository.find(instanceId).map(this::getHost).defaultIfEmpty("").flatMap((resolved) -> {
+				this.hosts.put(instanceId, resolved);
+				return enqueue(new TaskKey(priority, instanceId), resolved, task);
+			});
+		});
+	}
+
+	/**
+	 * Forgets the host of the instance.
+	 * @param instanceId the id of the instance
+	 */
+	public void remove(InstanceId instanceId) {
+		this.hosts.remove(instanceId);
+	}
+
+	private Mono<Void> enqueue(TaskKey key, String host, Supplier<Mono<Void>> work) {
+		Task task;
+		synchronized (this) {
+			task = this.pendingByKey.get(key);
+			if (task == null) {
+				task = new Task(key, host, work);
+				this.pendingByKey.put(key, task);
+				this.pending.get(key.priority()).add(task);
+			}
+			task.waiters++;
+		}
+		Task scheduled = task;
+		Mono<Void> result = scheduled.done.asMono().doOnCancel(() -> cancel(scheduled));
+		drain();
+		return result;
+	}
+
+	private void cancel(Task task) {
+		synchronized (this) {
+			if (--task.waiters > 0) {
+				return;
+			}
+			if (this.pendingByKey.remove(task.key, task)) {
+				this.pending.get(task.key.priority()).remove(task);
+				return;
+			}
+		}
+		task.subscription.dispose();
+	}
+
+	private void drain() {
+		if (this.wip.getAndIncrement() != 0) {
+			return;
+		}
+		do {
+			Task task;
+			while ((task = poll()) != null) {
+				start(task);
+			}
+		}
+		while (this.wip.decrementAndGet() != 0);
+	}
+
+	@Nullable private synchronized Task poll() {
+		if (this.active >= this.maxConcurrency) {
+			return null;
+		}
+		for (PendingTasks tasks : this.pending.values()) {
+			String host;
+			while ((host = tasks.ready.poll()) != null) {
+				int activeForHost = this.activeByHost.getOrDefault(host, 0);
+				if (activeForHost >= this.maxConcurrencyPerHost) {
+					tasks.parked.add(host);
+					continue;
+				}
+				Task task = tasks.take(host);
+				this.pendingByKey.remove(task.key);
+				this.activeByHost.put(host, activeForHost + 1);
+				this.active++;
+				return task;
+			}
+		}
+		return null;
+	}
+
+	private void start(Task task) {
+		Disposable.Swap subscription = task.subscription;
+		this.running.add(subscription);
+		// a task cancelled before it was started has a disposed subscription, which
+		// cancels the task right away
+		subscription.update(Mono.defer(task.work).doFinally((signal) -> {
+			if (signal == SignalType.CANCEL) {
+				task.done.tryEmitEmpty();
+			}
+			this.running.remove(subscription);
+			release(task);
+			drain();
+		}).subscribe(null, task.done::tryEmitError, task.done::tryEmitEmpty));
+	}
+
+	private synchronized void release(Task task) {
+		this.active--;
+		this.activeByHost.computeIfPresent(task.host, (host, count) -> (count > 1) ? count - 1 : null);
+		for (PendingTasks tasks : this.pending.values()) {
+			if (tasks.parked.remove(task.host)) {
+				tasks.ready.add(task.host);
+			}
+		}
+	}
+
+	private String getHost(Instance instance) {
+		try {
+			String host = URI.create(instance.getRegistration().getHealthUrl()).getHost();
+			return (host != null) ? host : "";
+		}
+		catch (IllegalArgumentException ex) {
+			return "";
+		}
+	}
+
+	protected synchronized int getPendingTasks(Priority priority) {
+		return this.pending.get(priority).size;
+	}
+
+	protected synchronized int getActiveTasks() {
+		return this.active;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		for (Priority priority : Priority.values()) {
+			Gauge.builder("spring.boot.admin.monitor.tasks.pending", this, (s) -> s.getPendingTasks(priority))
+				.description("Number of monitoring tasks waiting for execution")
+				.tag("priority", priority.name().toLowerCase())
+				.register(registry);
+		}
+		Gauge.builder("spring.boot.admin.monitor.tasks.active", this, MonitorTaskScheduler::getActiveTasks)
+			.description("Number of monitoring tasks currently executed")
+			.register(registry);
+	}
+
+	public void stop() {
+		this.running.dispose();
+		synchronized (this) {
+			this.pending.values().forEach(PendingTasks::clear);
+			this.pendingByKey.values().forEach((task) -> task.done.tryEmitEmpty());
+			this.pendingByKey.clear();
+		}
+	}
+
+	/**
+	 * Priority of the monitoring tasks, tasks of prior constants are executed first.
+	 */
+	public enum Priority {
+
+		STATUS, ENDPOINTS, INFO
+
+	}
+
+	private record TaskKey(Priority priority, InstanceId instanceId) {
+	}
+
+	/**
+	 * The pending tasks of a priority, queued per host. The hosts with pending tasks are
+	 * either ready or parked until a task of the host completes, if the host was found
+	 * busy.
+	 */
+	private static final class PendingTasks {
+
+		private final Map<String, ArrayDeque<Task>> byHost = new HashMap<>();
+
+		private final ArrayDeque<String> ready = new ArrayDeque<>();
+
+		private final Set<String> parked = new HashSet<>();
+
+		private int size = 0;
+
+		private void add(Task task) {
+			ArrayDeque<Task> tasks = this.byHost.get(task.host);
+			if (tasks == null) {
+				tasks = new ArrayDeque<>();
+				this.byHost.put(task.host, tasks);
+				this.ready.add(task.host);
+			}
+			tasks.add(task);
+			this.size++;
+		}
+
+		private void remove(Task task) {
+			ArrayDeque<Task> tasks = this.byHost.get(task.host);
+			if (tasks == null || !tasks.remove(task)) {
+				return;
+			}
+			if (tasks.isEmpty()) {
+				this.byHost.remove(task.host);
+				this.ready.remove(task.host);
+				this.parked.remove(task.host);
+			}
+			this.size--;
+		}
+
+		private Task take(String host) {
+			ArrayDeque<Task> tasks = this.byHost.get(host);
+			Task task = tasks.poll();
+			if (tasks.isEmpty()) {
+				this.byHost.remove(host);
+			}
+			else {
+				this.ready.add(host);
+			}
+			this.size--;
+			return task;
+		}
+
+		private void clear() {
+			this.byHost.clear();
+			this.ready.clear();
+			this.parked.clear();
+			this.size = 0;
+		}
+
+	}
+
+	private static final class Task {
+
+		private final TaskKey key;
+
+		private final String host;
+
+		private final Supplier<Mono<Void>> work;
+
+		private final Sinks.Empty<Void> done = Sinks.empty();
+
+		private final Disposable.Swap subscription = Disposables.swap();
+
+		private int waiters = 0;
+
+		private Task(TaskKey key, String host, Supplier<Mono<Void>> work) {
+			this.key = key;
+			this.host = host;
+			this.work = work;
+		}
+
+	}
+
+}
@@ -18,6 +18,8 @@ package de.codecentric.boot.admin.server.services;
 
 import java.time.Duration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,7 +31,7 @@ import de.codecentric.boot.admin.server.domain.events.InstanceRegisteredEvent;
 import de.codecentric.boot.admin.server.domain.events.InstanceRegistrationUpdatedEvent;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
 
-public class StatusUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
+public class StatusUpdateTrigger extends AbstractEventHandler<InstanceEvent> implements MeterBinder {
 
 	private static final Logger log = LoggerFactory.getLogger(StatusUpdateTrigger.class);
 
@@ -37,10 +39,18 @@ public class StatusUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
 
 	private final IntervalCheck intervalCheck;
 
+	private final MonitorTaskScheduler taskScheduler;
+
 	public StatusUpdateTrigger(StatusUpdater statusUpdater, Publisher<InstanceEvent> publisher, Duration updateInterval,
 			Duration statusLifetime, Duration maxBackoff) {
+		this(statusUpdater, publisher, updateInterval, statusLifetime, maxBackoff, MonitorTaskScheduler.unbounded());
+	}
+
+	public StatusUpdateTrigger(StatusUpdater statusUpdater, Publisher<InstanceEvent> publisher, Duration updateInterval,
+			Duration statusLifetime, Duration maxBackoff, MonitorTaskScheduler taskScheduler) {
 		super(publisher, InstanceEvent.class);
 		this.statusUpdater = statusUpdater;
+		this.taskScheduler = taskScheduler;
 		this.intervalCheck = new IntervalCheck("status", this::updateStatus, updateInterval, statusLifetime,
 				maxBackoff);
 	}
@@ -54,8 +64,9 @@ public class StatusUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
 	}
 
 	protected Mono<Void> updateStatus(InstanceId instanceId) {
-		return this.statusUpdater.timeout(this.intervalCheck.getInterval())
-			.updateStatus(instanceId)
+		return this.taskScheduler
+			.schedule(MonitorTaskScheduler.Priority.STATUS, instanceId,
+					() -> this.statusUpdater.timeout(this.intervalCheck.getInterval()).updateStatus(instanceId))
 			.onErrorResume((e) -> {
 				log.warn("Unexpected error while updating status for {}", instanceId, e);
 				return Mono.empty();
@@ -75,6 +86,11 @@ public class StatusUpdateTrigger extends AbstractEventHandler<InstanceEvent> {
 		this.intervalCheck.stop();
 	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.intervalCheck.bindTo(registry);
+	}
+
 	public void setInterval(Duration updateInterval) {
 		this.intervalCheck.setInterval(updateInterval);
 	}
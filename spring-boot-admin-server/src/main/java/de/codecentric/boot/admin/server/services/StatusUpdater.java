@@ -23,6 +23,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.logging.Level;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
@@ -38,18 +40,20 @@ import de.codecentric.boot.admin.server.domain.values.Endpoint;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
 import de.codecentric.boot.admin.server.domain.values.StatusInfo;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+import de.codecentric.boot.admin.server.web.client.exception.BulkheadFullException;
 
 import static java.util.Collections.emptyMap;
 
 /**
  * The StatusUpdater is responsible for updating the status of all or a single application
- * querying the healthUrl.
+ * querying the healthUrl. When bound to a {@link MeterRegistry} the latency and outcome
+ * of the status checks are recorded per application.
  *
  * @author Johannes Edmeier
  */
 @Slf4j
 @RequiredArgsConstructor
-public class StatusUpdater {
+public class StatusUpdater implements MeterBinder {
 
 	private static final ParameterizedTypeReference<Map<String, Object>> RESPONSE_TYPE = new ParameterizedTypeReference<>() {
 	};
@@ -62,6 +66,8 @@ public class StatusUpdater {
 
 	private Duration timeout = Duration.ofSeconds(10);
 
+	private UpdateTimer updateTimer = UpdateTimer.NONE;
+
 	public StatusUpdater timeout(Duration timeout) {
 		this.timeout = timeout;
 		return this;
@@ -77,17 +83,31 @@ public class StatusUpdater {
 		}
 
 		log.debug("Update status for {}", instance);
-		return this.instanceWebClient.instance(instance)
-			.get()
-			.uri(Endpoint.HEALTH)
-			.exchangeToMono(this::convertStatusInfo)
-			.log(log.getName(), Level.FINEST)
-			.timeout(getTimeoutWithMargin())
+		return this.updateTimer
+			.time(instance,
+					this.instanceWebClient.instance(instance)
+						.get()
+						.uri(Endpoint.HEALTH)
+						.exchangeToMono(this::convertStatusInfo)
+						.log(log.getName(), Level.FINEST)
+						.timeout(getTimeoutWithMargin()))
+			// a rejected status check keeps the previous status instead of marking the
+			// instance offline
+			.onErrorResume(BulkheadFullException.class, (ex) -> {
+				log.debug("Status check for {} rejected: {}", instance.getId(), ex.getMessage());
+				return Mono.empty();
+			})
 			.doOnError((ex) -> logError(instance, ex))
 			.onErrorResume(this::handleError)
 			.map(instance::withStatusInfo);
 	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.updateTimer = UpdateTimer.register(registry, "spring.boot.admin.status.update",
+				"Latency and outcome of the status checks");
+	}
+
 	/*
 	 * return a timeout less than the given one to prevent backdrops in concurrent get
 	 * request. This prevents flakiness of health checks.
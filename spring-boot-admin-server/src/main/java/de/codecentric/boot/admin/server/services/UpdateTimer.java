@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.services;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.web.client.exception.BulkheadFullException;
+
+/**
+ * Records the latency and outcome of the updates of instances, tagged with the name of
+ * the instance's application.
+ */
+final class UpdateTimer {
+
+	static final UpdateTimer NONE = new UpdateTimer(null);
+
+	private final Meter.@Nullable MeterProvider<Timer> timer;
+
+	private UpdateTimer(Meter.@Nullable MeterProvider<Timer> timer) {
+		this.timer = timer;
+	}
+
+	static UpdateTimer register(MeterRegistry registry, String name, String description) {
+		return new UpdateTimer(Timer.builder(name).description(description).withRegistry(registry));
+	}
+
+	/**
+	 * Records the time from subscribing to the update until it terminates.
+	 * @param instance the updated instance
+	 * @param update the update
+	 * @param <T> the result of the update
+	 * @return the timed update
+	 */
+	<T> Mono<T> time(Instance instance, Mono<T> update) {
+		Meter.MeterProvider<Timer> timer = this.timer;
+		if (timer == null) {
+			return update;
+		}
+		return Mono.defer(() -> {
+			long start = System.nanoTime();
+			return update.doOnSuccess((result) -> record(timer, instance, start, null))
+				.doOnError((ex) -> record(timer, instance, start, ex));
+		});
+	}
+
+	private static void record(Meter.MeterProvider<Timer> timer, Instance instance, long start,
+			@Nullable Throwable ex) {
+		timer.withTags(Tags.of("application", instance.getRegistration().getName(), "outcome", outcome(ex)))
+			.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+	private static String outcome(@Nullable Throwable ex) {
+		if (ex == null) {
+			return "success";
+		}
+		if (ex instanceof TimeoutException) {
+			return "timeout";
+		}
+		if (ex instanceof BulkheadFullException) {
+			return "rejected";
+		}
+		return "error";
+	}
+
+}
@@ -17,20 +17,28 @@
 package de.codecentric.boot.admin.server.services.endpoints;
 
 import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.util.Assert;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.BuildVersion;
 import de.codecentric.boot.admin.server.domain.values.Endpoint;
 import de.codecentric.boot.admin.server.domain.values.Endpoints;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
@@ -39,6 +47,17 @@ import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 import static java.util.Comparator.comparingInt;
 import static java.util.stream.Collectors.groupingBy;
 
+/**
+ * Detects the endpoints by sending an OPTIONS request for each of the given endpoints.
+ * <p>
+ * As all replicas of an application with the same build version usually expose the same
+ * endpoints, the detected endpoints are remembered as template (keyed by application
+ * name, build version and the scheme and path of the management-url) for the given
+ * lifetime. Further instances matching the template reuse it with their own
+ * management-url instead of probing all endpoints again. Instances without a build
+ * version are always probed. A template is only remembered if every probe was answered
+ * definitively, either successfully or with {@code 404 Not Found}.
+ */
 public class ProbeEndpointsStrategy implements EndpointDetectionStrategy {
 
 	private static final Logger log = LoggerFactory.getLogger(ProbeEndpointsStrategy.class);
@@ -47,11 +66,21 @@ public class ProbeEndpointsStrategy implements EndpointDetectionStrategy {
 
 	private final InstanceWebClient instanceWebClient;
 
+	private final Duration templateLifetime;
+
+	private final ConcurrentMap<TemplateKey, Template> templates = new ConcurrentHashMap<>();
+
 	public ProbeEndpointsStrategy(InstanceWebClient instanceWebClient, String[] endpoints) {
+		this(instanceWebClient, endpoints, Duration.ZERO);
+	}
+
+	public ProbeEndpointsStrategy(InstanceWebClient instanceWebClient, String[] endpoints, Duration templateLifetime) {
 		Assert.notNull(endpoints, "'endpoints' must not be null.");
 		Assert.noNullElements(endpoints, "'endpoints' must not contain null.");
+		Assert.notNull(templateLifetime, "'templateLifetime' must not be null.");
 		this.endpoints = Arrays.stream(endpoints).map(EndpointDefinition::create).toList();
 		this.instanceWebClient = instanceWebClient;
+		this.templateLifetime = templateLifetime;
 	}
 
 	@Override
@@ -61,19 +90,34 @@ public class ProbeEndpointsStrategy implements EndpointDetectionStrategy {
 			return Mono.empty();
 		}
 
+		TemplateKey templateKey = getTemplateKey(instance);
+		if (templateKey != null) {
+			Template template = this.templates.get(templateKey);
+			if (template != null && template.expiry().isAfter(Instant.now())) {
+				log.debug("Endpoint probe for instance {} omitted. Using template {}.", instance.getId(), templateKey);
+				return convert(template.definitions()
+					.stream()
+					.map((definition) -> DetectedEndpoint.of(definition,
+							getEndpointUri(instance, definition).toString()))
+					.toList());
+			}
+		}
+
+		ProbeOutcome outcome = new ProbeOutcome();
 		return Flux.fromIterable(this.endpoints)
 			.flatMap((endpoint) -> detectEndpoint(instance, endpoint))
 			.collectList()
-			.flatMap(this::convert);
+			.doOnNext((detected) -> {
+				if (outcome.isDefinitive()) {
+					storeTemplate(templateKey, detected);
+				}
+			})
+			.flatMap(this::convert)
+			.contextWrite(Context.of(ProbeOutcome.class, outcome));
 	}
 
 	protected Mono<DetectedEndpoint> detectEndpoint(Instance instance, EndpointDefinition endpoint) {
-		Assert.notNull(instance.getRegistration().getManagementUrl(), "managementUrl must not be null");
-		URI uri = UriComponentsBuilder.fromUriString(instance.getRegistration().getManagementUrl())
-			.path("/")
-			.path(endpoint.path())
-			.build()
-			.toUri();
+		URI uri = getEndpointUri(instance, endpoint);
 		return this.instanceWebClient.instance(instance)
 			.options()
 			.uri(uri)
@@ -82,10 +126,39 @@ public class ProbeEndpointsStrategy implements EndpointDetectionStrategy {
 				log.warn("Endpoint probe for instance {} on endpoint '{}' failed: {}", instance.getId(), uri,
 						e.getMessage());
 				log.debug("Endpoint probe for instance {} on endpoint '{}' failed.", instance.getId(), uri, e);
-				return Mono.empty();
+				return indefinite();
 			});
 	}
 
+	private URI getEndpointUri(Instance instance, EndpointDefinition endpoint) {
+		Assert.notNull(instance.getRegistration().getManagementUrl(), "managementUrl must not be null");
+		return UriComponentsBuilder.fromUriString(instance.getRegistration().getManagementUrl())
+			.path("/")
+			.path(endpoint.path())
+			.build()
+			.toUri();
+	}
+
+	@Nullable private TemplateKey getTemplateKey(Instance instance) {
+		if (this.templateLifetime.isZero() || this.templateLifetime.isNegative()
+				|| instance.getBuildVersion() == null) {
+			return null;
+		}
+		URI managementUrl = URI.create(instance.getRegistration().getManagementUrl());
+		return new TemplateKey(instance.getRegistration().getName(), instance.getBuildVersion(),
+				managementUrl.getScheme(), managementUrl.getPath());
+	}
+
+	private void storeTemplate(@Nullable TemplateKey key, List<DetectedEndpoint> detected) {
+		if (key == null || detected.isEmpty()) {
+			return;
+		}
+		Instant now = Instant.now();
+		this.templates.values().removeIf((template) -> !template.expiry().isAfter(now));
+		this.templates.put(key, new Template(detected.stream().map(DetectedEndpoint::definition).toList(),
+				now.plus(this.templateLifetime)));
+	}
+
 	protected Function<ClientResponse, Mono<DetectedEndpoint>> convert(InstanceId instanceId,
 			EndpointDefinition endpointDefinition, URI uri) {
 		return (response) -> {
@@ -97,11 +170,21 @@ public class ProbeEndpointsStrategy implements EndpointDetectionStrategy {
 			else {
 				log.debug("Endpoint probe for instance {} on endpoint '{}' failed with status {}.", instanceId, uri,
 						response.statusCode().value());
+				if (!response.statusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+					endpoint = indefinite();
+				}
 			}
 			return response.releaseBody().then(endpoint);
 		};
 	}
 
+	private static <T> Mono<T> indefinite() {
+		return Mono.deferContextual((context) -> {
+			context.<ProbeOutcome>getOrEmpty(ProbeOutcome.class).ifPresent(ProbeOutcome::markIndefinite);
+			return Mono.empty();
+		});
+	}
+
 	protected Mono<Endpoints> convert(List<DetectedEndpoint> endpoints) {
 		if (endpoints.isEmpty()) {
 			return Mono.empty();
@@ -143,4 +226,24 @@ public class ProbeEndpointsStrategy implements EndpointDetectionStrategy {
 
 	}
 
+	private record TemplateKey(String name, BuildVersion buildVersion, @Nullable String scheme, @Nullable String path) {
+	}
+
+	private record Template(List<EndpointDefinition> definitions, Instant expiry) {
+	}
+
+	private static final class ProbeOutcome {
+
+		private volatile boolean definitive = true;
+
+		private boolean isDefinitive() {
+			return this.definitive;
+		}
+
+		private void markIndefinite() {
+			this.definitive = false;
+		}
+
+	}
+
 }
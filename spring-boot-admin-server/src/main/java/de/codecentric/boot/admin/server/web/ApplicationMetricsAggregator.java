@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricResult;
+
+/**
+ * Aggregates a metric over all registered instances of an application. The metric is
+ * fetched from the instances with a bounded concurrency and the measurements are merged
+ * per statistic: {@code MAX} keeps the maximum, all other statistics are summed up.
+ * <p>
+ * Instances not responding until the deadline, or responding with an error, are left out
+ * of the measurements and reported with their status. The aggregated metric is cached for
+ * the time-to-live, counted from the start of fetching it, so concurrent and repeated
+ * requests share a single fan-out. Failures are not cached.
+ */
+public class ApplicationMetricsAggregator {
+
+	private static final String MAX = "MAX";
+
+	private final InstanceRegistry registry;
+
+	private final InstanceMetricsFetcher fetcher;
+
+	private final int concurrency;
+
+	private final Duration timeout;
+
+	private final Duration timeToLive;
+
+	private final Clock clock;
+
+	private final ConcurrentMap<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+
+	public ApplicationMetricsAggregator(InstanceRegistry registry, InstanceMetricsFetcher fetcher, int concurrency,
+			Duration timeout, Duration timeToLive) {
+		this(registry, fetcher, concurrency, timeout, timeToLive, Clock.systemUTC());
+	}
+
+	ApplicationMetricsAggregator(InstanceRegistry registry, InstanceMetricsFetcher fetcher, int concurrency,
+			Duration timeout, Duration timeToLive, Clock clock) {
+		Assert.isTrue(concurrency > 0, "'concurrency' must be greater than 0");
+		Assert.isTrue(!timeout.isNegative() && !timeout.isZero(), "'timeout' must be positive");
+		this.registry = registry;
+		this.fetcher = fetcher;
+		this.concurrency = concurrency;
+		this.timeout = timeout;
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+	}
+
+	/**
+	 * Aggregates the metric over all registered instances of the application.
+	 * @param application the name of the application
+	 * @param query the metric to aggregate
+	 * @return the aggregated metric, or empty if the application has no registered
+	 * instances
+	 */
+	public Mono<AggregatedMetric> aggregate(String application, MetricQuery query) {
+		if (this.timeToLive.isNegative() || this.timeToLive.isZero()) {
+			return load(application, query);
+		}
+		CacheKey key = new CacheKey(application, query);
+		return Mono.defer(() -> {
+			Instant now = this.clock.instant();
+			this.entries.values().removeIf((entry) -> !entry.expiresAt().isAfter(now));
+			return this.entries
+				.computeIfAbsent(key,
+						(k) -> new CacheEntry(load(application, query).cache((metric) -> this.timeToLive,
+								(ex) -> Duration.ZERO, () -> this.timeToLive), now.plus(this.timeToLive)))
+				.result();
+		});
+	}
+
+	private Mono<AggregatedMetric> load(String application, MetricQuery query) {
+		return Mono.defer(() -> {
+			Mono<Long> deadline = Mono.delay(this.timeout).cache();
+			return this.registry.getInstances(application)
+				.filter(Instance::isRegistered)
+				.flatMapSequential((instance) -> fetch(instance, query, deadline), this.concurrency)
+				.collectList()
+				.filter((results) -> !results.isEmpty())
+				.map((results) -> merge(query, results));
+		});
+	}
+
+	private Mono<InstanceResult> fetch(Instance instance, MetricQuery query, Mono<Long> deadline) {
+		MetricResult timedOut = MetricResult.failed(query, HttpStatus.GATEWAY_TIMEOUT.value(),
+				"No response within " + this.timeout.toMillis() + "ms");
+		return this.fetcher.fetch(instance, query)
+			.timeout(deadline, Mono.just(timedOut))
+			.map((result) -> new InstanceResult(instance.getId(), result));
+	}
+
+	private static AggregatedMetric merge(MetricQuery query, List<InstanceResult> results) {
+		Map<String, Double> measurements = new LinkedHashMap<>();
+		List<InstanceStatus> instances = new ArrayList<>(results.size());
+		String description = null;
+		String baseUnit = null;
+		for (InstanceResult instanceResult : results) {
+			MetricResult result = instanceResult.result();
+			instances.add(new InstanceStatus(instanceResult.instanceId(), result.status(), result.error()));
+			Map<String, Object> body = result.body();
+			if (body == null) {
+				continue;
+			}
+			if (description == null && body.get("description") instanceof String value) {
+				description = value;
+			}
+			if (baseUnit == null && body.get("baseUnit") instanceof String value) {
+				baseUnit = value;
+			}
+			if (body.get("measurements") instanceof List<?> list) {
+				for (Object item : list) {
+					if (item instanceof Map<?, ?> measurement
+							&& measurement.get("statistic") instanceof String statistic
+							&& measurement.get("value") instanceof Number value) {
+						measurements.merge(statistic, value.doubleValue(),
+								MAX.equals(statistic) ? Math::max : Double::sum);
+					}
+				}
+			}
+		}
+		List<Measurement> merged = new ArrayList<>(measurements.size());
+		measurements.forEach((statistic, value) -> merged.add(new Measurement(statistic, value)));
+		return new AggregatedMetric(query.name(), query.tags(), description, baseUnit, merged, instances);
+	}
+
+	/**
+	 * A metric aggregated over the instances of an application.
+	 *
+	 * @param name the name of the metric
+	 * @param tags the tags the measurements were selected by
+	 * @param description the description of the metric, if reported by any instance
+	 * @param baseUnit the base unit of the metric, if reported by any instance
+	 * @param measurements the merged measurements of all instances responding
+	 * successfully
+	 * @param instances the status of each instance's response
+	 */
+	public record AggregatedMetric(String name, Map<String, String> tags,
+			@JsonInclude(JsonInclude.Include.NON_NULL) @Nullable String description,
+			@JsonInclude(JsonInclude.Include.NON_NULL) @Nullable String baseUnit, List<Measurement> measurements,
+			List<InstanceStatus> instances) {
+	}
+
+	/**
+	 * A merged measurement.
+	 *
+	 * @param statistic the statistic of the measurement, e.g. {@code COUNT}
+	 * @param value the merged value
+	 */
+	public record Measurement(String statistic, double value) {
+	}
+
+	/**
+	 * The status of an instance's response.
+	 *
+	 * @param instanceId the id of the instance
+	 * @param status the status of the instance's response
+	 * @param error the reason for a failed request
+	 */
+	public record InstanceStatus(InstanceId instanceId, int status,
+			@JsonInclude(JsonInclude.Include.NON_NULL) @Nullable String error) {
+	}
+
+	private record InstanceResult(InstanceId instanceId, MetricResult result) {
+	}
+
+	private record CacheKey(String application, MetricQuery query) {
+	}
+
+	private record CacheEntry(Mono<AggregatedMetric> result, Instant expiresAt) {
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.util.Collections;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.web.ApplicationMetricsAggregator.AggregatedMetric;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+
+/**
+ * REST controller returning a metric aggregated over all instances of an application.
+ */
+@AdminController
+@ResponseBody
+public class ApplicationMetricsController {
+
+	private final ApplicationMetricsAggregator aggregator;
+
+	public ApplicationMetricsController(ApplicationMetricsAggregator aggregator) {
+		this.aggregator = aggregator;
+	}
+
+	/**
+	 * Returns the metric aggregated over all registered instances of an application.
+	 * @param name the name of the application
+	 * @param metric the name of the metric
+	 * @param params the query parameters; the {@code tag} parameters select the
+	 * measurements in the format of the metrics endpoint, e.g. {@code area:heap}
+	 * @return the aggregated metric
+	 */
+	@GetMapping(path = "/applications/{name}/metrics/{metric}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<AggregatedMetric>> metric(@PathVariable("name") String name,
+			@PathVariable("metric") String metric, @RequestParam MultiValueMap<String, String> params) {
+		// bound as multi-value map, as a single tag containing a comma would be split
+		// into several values when converted to a list
+		MetricQuery query;
+		try {
+			query = MetricQuery.of(metric, params.getOrDefault("tag", Collections.emptyList()));
+		}
+		catch (IllegalArgumentException ex) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		return this.aggregator.aggregate(name, query)
+			.map(ResponseEntity::ok)
+			.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.client.InstanceCircuitBreakers;
+
+/**
+ * REST controller exposing the state of the circuit breakers for the instances.
+ */
+@AdminController
+@ResponseBody
+public class InstanceCircuitBreakerController {
+
+	private final InstanceCircuitBreakers circuitBreakers;
+
+	public InstanceCircuitBreakerController(InstanceCircuitBreakers circuitBreakers) {
+		this.circuitBreakers = circuitBreakers;
+	}
+
+	/**
+	 * Get the circuit breaker states of all instances with a breaker.
+	 * @return the states keyed by instance id
+	 */
+	@GetMapping(path = "/instances/circuit-breakers", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Map<String, InstanceCircuitBreakers.State> circuitBreakers() {
+		Map<String, InstanceCircuitBreakers.State> states = new TreeMap<>();
+		this.circuitBreakers.getStates().forEach((id, state) -> states.put(id.getValue(), state));
+		return states;
+	}
+
+	/**
+	 * Get the circuit breaker state of an instance.
+	 * @param id the instance ID
+	 * @return the state
+	 */
+	@GetMapping(path = "/instances/{id}/circuit-breaker", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Map<String, InstanceCircuitBreakers.State> circuitBreaker(@PathVariable String id) {
+		return Map.of("state", this.circuitBreakers.getState(InstanceId.of(id)));
+	}
+
+}
@@ -0,0 +1,609 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.InstanceWebProxy.ForwardRequest;
+
+/**
+ * Spools the heapdumps requested through the proxy to local files. The heapdump is
+ * downloaded from the instance to the spool file and the client is served from that file
+ * while it is written. The download continues when the client disconnects, so requests
+ * with a {@code Range} header (e.g. a browser resuming the download) are served from the
+ * spool file instead of requesting a new heapdump from the instance. Requests without a
+ * {@code Range} header always request a new heapdump into a spool file of its own, so
+ * downloads in progress are not affected.
+ * <p>
+ * Each spool file is identified by the {@code ETag} and {@code Last-Modified} headers of
+ * its responses. A range request with an {@code If-Range} header is served from the
+ * matching spool file, one without from the latest spool file of the instance. If no
+ * spool file matches, a new heapdump is requested and sent as a whole.
+ * <p>
+ * Spool files are deleted after the time-to-live has passed since the download completed.
+ * When the disk usage of all spool files exceeds the limit, the oldest completed spool
+ * files are deleted. Heapdumps announced larger than the limit are passed through without
+ * spooling.
+ */
+public class InstanceHeapdumpSpool {
+
+	private static final Logger log = LoggerFactory.getLogger(InstanceHeapdumpSpool.class);
+
+	private static final String ENDPOINT_ID = "heapdump";
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1L);
+
+	// the sinks are emitted to by the download and by deleting the spool concurrently
+	private static final Sinks.EmitFailureHandler EMIT_FAILURE_HANDLER = Sinks.EmitFailureHandler
+		.busyLooping(Duration.ofSeconds(1L));
+
+	private final Path directory;
+
+	private final long maxDiskUsage;
+
+	private final Duration timeToLive;
+
+	private final Clock clock;
+
+	private final ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+
+	private final Map<String, Spool> spools = new LinkedHashMap<>();
+
+	@Nullable private Disposable cleanup;
+
+	public InstanceHeapdumpSpool(Path directory, long maxDiskUsage, Duration timeToLive) {
+		this(directory, maxDiskUsage, timeToLive, Clock.systemUTC());
+	}
+
+	InstanceHeapdumpSpool(Path directory, long maxDiskUsage, Duration timeToLive, Clock clock) {
+		Assert.isTrue(maxDiskUsage > 0, "'maxDiskUsage' must be greater than 0");
+		this.directory = directory;
+		this.maxDiskUsage = maxDiskUsage;
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+	}
+
+	public void start() {
+		this.cleanup = Flux.interval(CLEANUP_INTERVAL).subscribe((tick) -> evictExpired());
+	}
+
+	public void stop() {
+		if (this.cleanup != null) {
+			this.cleanup.dispose();
+		}
+		List<Spool> removed;
+		synchronized (this) {
+			removed = new ArrayList<>(this.spools.values());
+			this.spools.clear();
+		}
+		removed.forEach(Spool::delete);
+	}
+
+	/**
+	 * Checks if the request is for a heapdump to be spooled.
+	 * @param request the request to check
+	 * @return true for GET requests to the heapdump endpoint
+	 */
+	public boolean isSpoolable(ForwardRequest request) {
+		return HttpMethod.GET.equals(request.getMethod()) && ENDPOINT_ID.equals(getEndpointId(request.getUri()));
+	}
+
+	/**
+	 * Serves the request from a spool file of the instance. If the request has no
+	 * {@code Range} header or there is no spool file matching its {@code If-Range}
+	 * header, a new heapdump is requested and sent as a whole.
+	 * @param instanceId the id of the instance the request is for
+	 * @param request the request
+	 * @param exchange executes a request to the instance
+	 * @param responseHandler handles the response for the client
+	 * @param <V> the result of the response handler
+	 * @return the result of the response handler
+	 */
+	public <V> Mono<V> forward(InstanceId instanceId, ForwardRequest request, Exchange exchange,
+			Function<ClientResponse, Mono<V>> responseHandler) {
+		return Mono.defer(() -> {
+			evictExpired();
+			List<HttpRange> ranges = getRanges(request);
+			Spool spool = ranges.isEmpty() ? null : findSpool(instanceId, request);
+			if (spool != null) {
+				log.trace("Serving heapdump for instance {} from spool file {}", instanceId, spool.file);
+				return spool.serve(ranges, responseHandler);
+			}
+			return download(instanceId, request, exchange, responseHandler);
+		});
+	}
+
+	protected long getDiskUsage() {
+		synchronized (this) {
+			return this.spools.values().stream().mapToLong((spool) -> spool.written).sum();
+		}
+	}
+
+	/**
+	 * Finds the latest spool file of the instance matching the {@code If-Range} header of
+	 * the request, if any.
+	 * @param instanceId the id of the instance
+	 * @param request the range request
+	 * @return the spool file, or {@code null} if none matches
+	 */
+	private synchronized @Nullable Spool findSpool(InstanceId instanceId, ForwardRequest request) {
+		String ifRange = request.getHeaders().getFirst(HttpHeaders.IF_RANGE);
+		Spool latest = null;
+		for (Spool spool : this.spools.values()) {
+			if (spool.instanceId.equals(instanceId) && (ifRange == null || spool.matches(ifRange))) {
+				latest = spool;
+			}
+		}
+		return latest;
+	}
+
+	private <V> Mono<V> download(InstanceId instanceId, ForwardRequest request, Exchange exchange,
+			Function<ClientResponse, Mono<V>> responseHandler) {
+		Path file;
+		try {
+			Files.createDirectories(this.directory);
+			file = Files.createTempFile(this.directory, "heapdump-" + instanceId + "-", ".hprof");
+		}
+		catch (IOException ex) {
+			return Mono.error(new UncheckedIOException("Could not create spool file", ex));
+		}
+
+		Spool spool = new Spool(instanceId, file, this.clock.instant());
+		synchronized (this) {
+			this.spools.put(spool.etag, spool);
+		}
+		spool.start(exchange, request);
+		return spool.head.asMono().flatMap((relayed) -> {
+			if (relayed.isPresent()) {
+				return responseHandler.apply(relayed.get());
+			}
+			// the range of the client refers to another heapdump, so the new one is sent
+			// as a whole
+			return spool.serve(List.of(), responseHandler);
+		});
+	}
+
+	/**
+	 * Makes room for a spool file of the given size by deleting the oldest completed
+	 * spool files.
+	 * @param spool the spool needing the room
+	 * @param size the size of the spool file
+	 * @return whether there is enough room
+	 */
+	private boolean reserve(Spool spool, long size) {
+		List<Spool> evicted = new ArrayList<>();
+		boolean reserved;
+		synchronized (this) {
+			long usage = this.spools.values()
+				.stream()
+				.filter((s) -> s != spool)
+				.mapToLong((s) -> Math.max(s.written, s.contentLength))
+				.sum();
+			List<Spool> completed = this.spools.values()
+				.stream()
+				.filter((s) -> s != spool && s.completedAt != null)
+				.sorted(Comparator.comparing((s) -> s.completedAt))
+				.toList();
+			for (Spool candidate : completed) {
+				if (usage + size <= this.maxDiskUsage) {
+					break;
+				}
+				this.spools.remove(candidate.etag, candidate);
+				usage -= Math.max(candidate.written, candidate.contentLength);
+				evicted.add(candidate);
+			}
+			reserved = usage + size <= this.maxDiskUsage;
+		}
+		evicted.forEach(Spool::delete);
+		return reserved;
+	}
+
+	private void evictExpired() {
+		Instant now = this.clock.instant();
+		List<Spool> expired = new ArrayList<>();
+		synchronized (this) {
+			this.spools.values().removeIf((spool) -> {
+				Instant completedAt = spool.completedAt;
+				if (completedAt != null && !completedAt.plus(this.timeToLive).isAfter(now)) {
+					expired.add(spool);
+					return true;
+				}
+				return false;
+			});
+		}
+		expired.forEach(Spool::delete);
+	}
+
+	private void remove(Spool spool) {
+		synchronized (this) {
+			this.spools.remove(spool.etag, spool);
+		}
+		spool.delete();
+	}
+
+	private static List<HttpRange> getRanges(ForwardRequest request) {
+		try {
+			return request.getHeaders().getRange();
+		}
+		catch (IllegalArgumentException ex) {
+			return List.of();
+		}
+	}
+
+	/**
+	 * Emits the error, retrying while another thread emits to the sink. Unlike
+	 * {@code emitError} an error is silently dropped by a terminated sink.
+	 * @param tryEmitError emits the error to the sink
+	 * @param ex the error
+	 */
+	private static void emitError(Function<Throwable, Sinks.EmitResult> tryEmitError, Throwable ex) {
+		while (tryEmitError.apply(ex) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+			Thread.onSpinWait();
+		}
+	}
+
+	private static String getEndpointId(URI uri) {
+		String path = (uri.getPath() != null) ? uri.getPath() : "";
+		if (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		int end = path.indexOf('/');
+		return (end >= 0) ? path.substring(0, end) : path;
+	}
+
+	/**
+	 * Executes a request to the instance.
+	 */
+	@FunctionalInterface
+	public interface Exchange {
+
+		Mono<Void> exchange(ForwardRequest request, Function<ClientResponse, Mono<Void>> responseHandler);
+
+	}
+
+	private final class Spool {
+
+		private final InstanceId instanceId;
+
+		private final Path file;
+
+		private final String etag;
+
+		private final Instant lastModified;
+
+		/**
+		 * Emits the response to relay when the heapdump is not spooled, an empty optional
+		 * otherwise.
+		 */
+		private final Sinks.One<Optional<ClientResponse>> head = Sinks.one();
+
+		/**
+		 * Emits the number of bytes written to the spool file.
+		 */
+		private final Sinks.Many<Long> progress = Sinks.many().replay().latest();
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private volatile long contentLength = -1L;
+
+		private volatile long written = 0L;
+
+		private volatile boolean keep = true;
+
+		@Nullable private volatile Instant completedAt;
+
+		@Nullable private volatile Disposable download;
+
+		private Spool(InstanceId instanceId, Path file, Instant createdAt) {
+			this.instanceId = instanceId;
+			this.file = file;
+			// the name of the spool file is unique
+			this.etag = "\"" + file.getFileName() + "\"";
+			this.lastModified = createdAt.truncatedTo(ChronoUnit.SECONDS);
+			this.progress.emitNext(0L, EMIT_FAILURE_HANDLER);
+		}
+
+		/**
+		 * Checks if the spool file is the representation the {@code If-Range} header
+		 * refers to.
+		 * @param ifRange the value of the {@code If-Range} header
+		 * @return whether the validator matches the spool file
+		 */
+		private boolean matches(String ifRange) {
+			if (ifRange.startsWith("\"")) {
+				return this.etag.equals(ifRange);
+			}
+			if (ifRange.startsWith("W/")) {
+				// weak validators must not be used for ranges
+				return false;
+			}
+			try {
+				return ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME)
+					.toInstant()
+					.equals(this.lastModified);
+			}
+			catch (DateTimeParseException ex) {
+				return false;
+			}
+		}
+
+		private void start(Exchange exchange, ForwardRequest request) {
+			// the whole heapdump is spooled unencoded, so the ranges of later requests
+			// can be served from the spool file
+			HttpHeaders spoolHeaders = new HttpHeaders();
+			spoolHeaders.addAll(request.getHeaders());
+			spoolHeaders.remove(HttpHeaders.RANGE);
+			spoolHeaders.remove(HttpHeaders.IF_RANGE);
+			spoolHeaders.set(HttpHeaders.ACCEPT_ENCODING, "identity");
+			ForwardRequest spoolRequest = ForwardRequest.builder()
+				.uri(request.getUri())
+				.method(request.getMethod())
+				.headers(spoolHeaders)
+				.body(request.getBody())
+				.build();
+
+			// not subscribed by the client, so the download continues when the client
+			// disconnects
+			this.download = exchange.exchange(spoolRequest, this::onResponse).subscribe(null, this::onError);
+		}
+
+		private Mono<Void> onResponse(ClientResponse response) {
+			long announcedLength = response.headers().asHttpHeaders().getContentLength();
+			if (!response.statusCode().isSameCodeAs(HttpStatus.OK)
+					|| (announcedLength >= 0 && !reserve(this, announcedLength))) {
+				return relay(response);
+			}
+
+			this.headers.addAll(response.headers().asHttpHeaders());
+			this.headers.remove(HttpHeaders.TRANSFER_ENCODING);
+			this.contentLength = announcedLength;
+
+			return Mono.using(() -> FileChannel.open(this.file, StandardOpenOption.WRITE), (channel) -> {
+				this.head.emitValue(Optional.empty(), EMIT_FAILURE_HANDLER);
+				return response.body(BodyExtractors.toDataBuffers())
+					.publishOn(Schedulers.boundedElastic())
+					.doOnNext((buffer) -> write(channel, buffer))
+					.then();
+			}, this::close).doOnSuccess((v) -> onComplete());
+		}
+
+		private Mono<Void> relay(ClientResponse response) {
+			log.trace("Heapdump for instance {} is not spooled", this.instanceId);
+			synchronized (InstanceHeapdumpSpool.this) {
+				InstanceHeapdumpSpool.this.spools.remove(this.etag, this);
+			}
+			deleteFile();
+			Sinks.Empty<Void> relayed = Sinks.empty();
+			this.head.emitValue(
+					Optional
+						.of(response.mutate().body((body) -> body.doFinally((s) -> relayed.tryEmitEmpty())).build()),
+					EMIT_FAILURE_HANDLER);
+			return relayed.asMono();
+		}
+
+		private void write(FileChannel channel, DataBuffer buffer) {
+			try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+				while (iterator.hasNext()) {
+					ByteBuffer byteBuffer = iterator.next();
+					while (byteBuffer.hasRemaining()) {
+						this.written += channel.write(byteBuffer);
+					}
+				}
+			}
+			catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+			finally {
+				DataBufferUtils.release(buffer);
+			}
+			if (this.contentLength < 0 && this.keep && !reserve(this, this.written)) {
+				log.debug("Heapdump for instance {} exceeds the spool limit and is deleted after the download",
+						this.instanceId);
+				this.keep = false;
+			}
+			this.progress.emitNext(this.written, EMIT_FAILURE_HANDLER);
+		}
+
+		private void onComplete() {
+			this.completedAt = InstanceHeapdumpSpool.this.clock.instant();
+			this.progress.emitComplete(EMIT_FAILURE_HANDLER);
+			if (!this.keep) {
+				remove(this);
+			}
+		}
+
+		private void onError(Throwable ex) {
+			log.debug("Spooling heapdump for instance {} failed", this.instanceId, ex);
+			emitError(this.head::tryEmitError, ex);
+			emitError(this.progress::tryEmitError, ex);
+			remove(this);
+		}
+
+		private void close(FileChannel channel) {
+			try {
+				channel.close();
+			}
+			catch (IOException ex) {
+				log.debug("Could not close spool file {}", this.file, ex);
+			}
+		}
+
+		private void delete() {
+			Disposable download = this.download;
+			if (download != null) {
+				download.dispose();
+			}
+			// clients reading an unfinished spool file must not wait forever
+			IllegalStateException discarded = new IllegalStateException("Heapdump spool was discarded");
+			emitError(this.head::tryEmitError, discarded);
+			emitError(this.progress::tryEmitError, discarded);
+			deleteFile();
+		}
+
+		private void deleteFile() {
+			try {
+				Files.deleteIfExists(this.file);
+			}
+			catch (IOException ex) {
+				log.warn("Could not delete spool file {}", this.file, ex);
+			}
+		}
+
+		private <V> Mono<V> serve(List<HttpRange> ranges, Function<ClientResponse, Mono<V>> responseHandler) {
+			if (ranges.size() != 1) {
+				return responseHandler.apply(ClientResponse.create(HttpStatus.OK, InstanceHeapdumpSpool.this.strategies)
+					.headers(this::addHeaders)
+					.body(read(0L, -1L))
+					.build());
+			}
+			return totalLength().flatMap((total) -> {
+				HttpRange range = ranges.get(0);
+				long start;
+				long end;
+				try {
+					start = range.getRangeStart(total);
+					end = range.getRangeEnd(total);
+				}
+				catch (IllegalArgumentException ex) {
+					start = total;
+					end = total - 1;
+				}
+				if (start >= total || start > end) {
+					return responseHandler.apply(ClientResponse
+						.create(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE, InstanceHeapdumpSpool.this.strategies)
+						.header(HttpHeaders.CONTENT_RANGE, "bytes */" + total)
+						.build());
+				}
+				long rangeStart = start;
+				long rangeEnd = end;
+				return responseHandler
+					.apply(ClientResponse.create(HttpStatus.PARTIAL_CONTENT, InstanceHeapdumpSpool.this.strategies)
+						.headers((h) -> {
+							addHeaders(h);
+							h.set(HttpHeaders.CONTENT_RANGE, "bytes " + rangeStart + "-" + rangeEnd + "/" + total);
+							h.setContentLength(rangeEnd - rangeStart + 1);
+						})
+						.body(read(rangeStart, rangeEnd + 1))
+						.build());
+			});
+		}
+
+		private void addHeaders(HttpHeaders headers) {
+			headers.addAll(this.headers);
+			headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+			headers.setETag(this.etag);
+			headers.setLastModified(this.lastModified);
+		}
+
+		private Mono<Long> totalLength() {
+			long announcedLength = this.contentLength;
+			if (announcedLength >= 0) {
+				return Mono.just(announcedLength);
+			}
+			return this.progress.asFlux().last(0L);
+		}
+
+		/**
+		 * Reads the spool file while it is written.
+		 * @param start the position to start reading at
+		 * @param end the position to stop reading at (exclusive), -1 to read until the
+		 * download completed
+		 * @return the content of the spool file
+		 */
+		private Flux<DataBuffer> read(long start, long end) {
+			return Flux.using(() -> FileChannel.open(this.file, StandardOpenOption.READ), (channel) -> {
+				AtomicLong position = new AtomicLong(start);
+				return this.progress.asFlux()
+					.takeUntil((written) -> end >= 0 && written >= end)
+					.publishOn(Schedulers.boundedElastic())
+					.concatMap((written) -> readAvailable(channel, position,
+							(end >= 0) ? Math.min(written, end) : written));
+			}, this::close).subscribeOn(Schedulers.boundedElastic());
+		}
+
+		private Flux<DataBuffer> readAvailable(FileChannel channel, AtomicLong position, long limit) {
+			return Flux.generate((sink) -> {
+				long current = position.get();
+				if (current >= limit) {
+					sink.complete();
+					return;
+				}
+				ByteBuffer byteBuffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, limit - current));
+				try {
+					int read = channel.read(byteBuffer, current);
+					if (read <= 0) {
+						sink.complete();
+						return;
+					}
+					position.addAndGet(read);
+					byteBuffer.flip();
+					sink.next(DefaultDataBufferFactory.sharedInstance.wrap(byteBuffer));
+				}
+				catch (IOException ex) {
+					sink.error(ex);
+				}
+			});
+		}
+
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Flux;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * REST controller streaming the logfile of an instance as Server-Sent Events. The logfile
+ * is tailed by the {@link InstanceLogfileTailer} once for all subscribers.
+ */
+@AdminController
+@ResponseBody
+public class InstanceLogfileController {
+
+	private final InstanceLogfileTailer tailer;
+
+	public InstanceLogfileController(InstanceLogfileTailer tailer) {
+		this.tailer = tailer;
+	}
+
+	/**
+	 * Stream the logfile of an instance. Each message contains a
+	 * {@link InstanceLogfileTailer.LogfileChunk}; a {@code failure} event with the error
+	 * message ends the stream if the logfile can't be retrieved.
+	 * @param id the instance ID
+	 * @return flux of {@link ServerSentEvent} containing the logfile chunks
+	 */
+	@GetMapping(path = "/instances/{id}/logfile", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<Object>> logfileStream(@PathVariable String id) {
+		return ServerSentEvents.stream(this.tailer.tail(InstanceId.of(id)));
+	}
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import de.codecentric.boot.admin.server.domain.values.Endpoint;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+/**
+ * Tails the logfiles of instances on behalf of all subscribers. For each instance with at
+ * least one subscriber the {@code logfile} endpoint is polled once per interval using
+ * range requests, so the number of requests doesn't grow with the number of open logfile
+ * views.
+ * <p>
+ * The last bytes of the logfile are kept in a bounded buffer, which is sent to new
+ * subscribers before the bytes appended afterwards. The polling stops and the buffer is
+ * dropped as soon as the last subscriber of an instance has left. The logfile is expected
+ * to be UTF-8 encoded.
+ */
+public class InstanceLogfileTailer
+		extends InstancePoller<InstanceLogfileTailer.LogfileChunk, InstanceLogfileTailer.LogfileSubscriber> {
+
+	private static final int MAX_PENDING_CHUNKS = 256;
+
+	private final InstanceRegistry registry;
+
+	private final InstanceWebClient instanceWebClient;
+
+	private final int bufferSize;
+
+	public InstanceLogfileTailer(InstanceRegistry registry, InstanceWebClient instanceWebClient, Duration interval,
+			int bufferSize) {
+		super("logfile", interval, MAX_PENDING_CHUNKS);
+		this.registry = registry;
+		this.instanceWebClient = instanceWebClient;
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * Subscribes to the logfile of the instance. The flux starts with the buffered tail
+	 * of the logfile - if any - followed by the appended bytes. It terminates with an
+	 * error if the logfile can't be retrieved or the subscriber doesn't keep up.
+	 * @param id the id of the instance
+	 * @return the chunks read from the logfile
+	 */
+	public Flux<LogfileChunk> tail(InstanceId id) {
+		return subscribe(id, LogfileSubscriber::new);
+	}
+
+	@Override
+	protected Poll createPoll(InstanceId id) {
+		return new Tail(id);
+	}
+
+	/**
+	 * Returns the number of complete UTF-8 encoded bytes - excluding a trailing character
+	 * which is split across two reads.
+	 * @param bytes the bytes read
+	 * @return the number of bytes up to the last complete character
+	 */
+	static int completeLength(byte[] bytes) {
+		int i = bytes.length - 1;
+		int continuations = 0;
+		while (i >= 0 && continuations < 3 && (bytes[i] & 0xC0) == 0x80) {
+			i--;
+			continuations++;
+		}
+		if (i < 0) {
+			return bytes.length;
+		}
+		int lead = bytes[i] & 0xFF;
+		int expected = (lead >= 0xF0) ? 4 : (lead >= 0xE0) ? 3 : (lead >= 0xC0) ? 2 : 1;
+		return (bytes.length - i < expected) ? i : bytes.length;
+	}
+
+	private static int indexOf(byte[] bytes, byte value) {
+		for (int i = 0; i < bytes.length; i++) {
+			if (bytes[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * A part of the logfile as sent to the subscribers.
+	 *
+	 * @param totalBytes the size of the logfile
+	 * @param skipped the number of bytes at the start of the logfile not sent
+	 * @param addendum the text read from the logfile
+	 */
+	public record LogfileChunk(long totalBytes, long skipped, String addendum) {
+	}
+
+	record LogfileSubscriber(Sinks.Many<LogfileChunk> sink) implements InstancePoller.Subscriber<LogfileChunk> {
+	}
+
+	private final class Tail extends Poll {
+
+		private final StringBuilder buffer = new StringBuilder();
+
+		private byte[] incomplete = new byte[0];
+
+		private long size = 0L;
+
+		private long skipped = 0L;
+
+		private Tail(InstanceId id) {
+			super(id);
+		}
+
+		@Override
+		protected synchronized void add(LogfileSubscriber subscriber) {
+			if (!this.buffer.isEmpty()) {
+				subscriber.sink().tryEmitNext(new LogfileChunk(this.size, this.skipped, this.buffer.toString()));
+			}
+			super.add(subscriber);
+		}
+
+		private synchronized String range() {
+			return (this.size == 0L) ? "bytes=-" + InstanceLogfileTailer.this.bufferSize
+					: "bytes=" + (this.size - 1L) + "-";
+		}
+
+		@Override
+		protected Mono<Void> poll() {
+			return InstanceLogfileTailer.this.registry.getInstance(this.id)
+				.filter((instance) -> instance.getEndpoints().isPresent(Endpoint.LOGFILE))
+				.switchIfEmpty(Mono.error(() -> new IllegalStateException("No logfile endpoint for " + this.id)))
+				.flatMap((instance) -> InstanceLogfileTailer.this.instanceWebClient.instance(instance)
+					.get()
+					.uri(Endpoint.LOGFILE)
+					.accept(MediaType.TEXT_PLAIN)
+					.header(HttpHeaders.RANGE, range())
+					.exchangeToMono(this::read));
+		}
+
+		private Mono<Void> read(ClientResponse response) {
+			HttpStatusCode status = response.statusCode();
+			if (status.isSameCodeAs(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)) {
+				return response.releaseBody().then(Mono.fromRunnable(this::reset));
+			}
+			boolean partial = status.isSameCodeAs(HttpStatus.PARTIAL_CONTENT);
+			if (!partial && !status.isSameCodeAs(HttpStatus.OK)) {
+				return response.releaseBody()
+					.then(Mono.error(new IllegalStateException("Unexpected response status " + status.value())));
+			}
+			String contentRange = response.headers().asHttpHeaders().getFirst(HttpHeaders.CONTENT_RANGE);
+			return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers())).map((buffer) -> {
+				byte[] bytes = new byte[buffer.readableByteCount()];
+				buffer.read(bytes);
+				DataBufferUtils.release(buffer);
+				return bytes;
+			}).defaultIfEmpty(new byte[0]).doOnNext((body) -> {
+				if (partial) {
+					if (contentRange == null || !contentRange.contains("/")) {
+						throw new IllegalStateException("Missing Content-Range in partial response");
+					}
+					append(body, Long.parseLong(contentRange.substring(contentRange.lastIndexOf('/') + 1)));
+				}
+				else if (isInitial()) {
+					append(body, body.length);
+				}
+				else {
+					throw new IllegalStateException("Expected 206 - Partial Content on subsequent requests");
+				}
+			}).then();
+		}
+
+		private synchronized boolean isInitial() {
+			return this.size == 0L;
+		}
+
+		private synchronized void reset() {
+			this.size = 0L;
+			this.skipped = 0L;
+			this.buffer.setLength(0);
+			this.incomplete = new byte[0];
+		}
+
+		private void append(byte[] body, long total) {
+			publish(() -> {
+				LogfileChunk chunk = update(body, total);
+				return (subscriber) -> chunk;
+			});
+		}
+
+		private synchronized @Nullable LogfileChunk update(byte[] body, long total) {
+			boolean initial = isInitial();
+			int offset;
+			if (initial) {
+				// In case of a partial response start with the first complete line.
+				int lineBreak = indexOf(body, (byte) '\n');
+				offset = (body.length < total && lineBreak >= 0) ? lineBreak + 1 : 0;
+				this.skipped = total - (body.length - offset);
+				this.incomplete = new byte[0];
+			}
+			else {
+				// The first byte has been part of the previous response.
+				offset = Math.min(1, body.length);
+			}
+			this.size = total;
+
+			String addendum = decode(body, offset);
+			if (addendum.isEmpty()) {
+				return null;
+			}
+			this.buffer.append(addendum);
+			trimBuffer();
+			return new LogfileChunk(total, initial ? this.skipped : 0L, addendum);
+		}
+
+		private String decode(byte[] body, int offset) {
+			byte[] bytes = new byte[this.incomplete.length + body.length - offset];
+			System.arraycopy(this.incomplete, 0, bytes, 0, this.incomplete.length);
+			System.arraycopy(body, offset, bytes, this.incomplete.length, body.length - offset);
+			int length = completeLength(bytes);
+			this.incomplete = Arrays.copyOfRange(bytes, length, bytes.length);
+			return new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+
+		private void trimBuffer() {
+			int excess = this.buffer.length() - InstanceLogfileTailer.this.bufferSize;
+			if (excess <= 0) {
+				return;
+			}
+			int lineBreak = this.buffer.indexOf("\n", excess);
+			int cut = (lineBreak >= 0) ? lineBreak + 1 : excess;
+			if (cut < this.buffer.length() && Character.isLowSurrogate(this.buffer.charAt(cut))) {
+				cut++;
+			}
+			this.skipped += this.buffer.substring(0, cut).getBytes(StandardCharsets.UTF_8).length;
+			this.buffer.delete(0, cut);
+		}
+
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricResult;
+
+/**
+ * REST controller fetching many metrics of an instance with a single request.
+ */
+@AdminController
+@ResponseBody
+public class InstanceMetricsController {
+
+	private final InstanceRegistry registry;
+
+	private final InstanceMetricsFetcher fetcher;
+
+	private final int maxMetrics;
+
+	public InstanceMetricsController(InstanceRegistry registry, InstanceMetricsFetcher fetcher, int maxMetrics) {
+		this.registry = registry;
+		this.fetcher = fetcher;
+		this.maxMetrics = maxMetrics;
+	}
+
+	/**
+	 * Fetch the values of the given metrics of an instance.
+	 * @param id the instance ID
+	 * @param queries the metric names and the tags to select the measurements by
+	 * @return the results in the order of the queries
+	 */
+	@PostMapping(path = "/instances/{id}/metrics/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<List<MetricResult>>> metrics(@PathVariable String id,
+			@RequestBody List<MetricQuery> queries) {
+		if (queries.size() > this.maxMetrics) {
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+		return this.registry.getInstance(InstanceId.of(id))
+			.filter(Instance::isRegistered)
+			.flatMap((instance) -> this.fetcher.fetch(instance, queries))
+			.map(ResponseEntity::ok)
+			.defaultIfEmpty(ResponseEntity.notFound().build());
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.Endpoint;
+
+/**
+ * Fetches the values of many metrics of an instance in one go. The metrics are requested
+ * from the {@code metrics} endpoint through the {@link InstanceWebProxy}, so the
+ * responses are subject to its response cache, and with a bounded number of concurrent
+ * requests per batch.
+ * <p>
+ * The result for each metric carries the status of the instance's response. A failed
+ * request doesn't fail the whole batch but is reported by its status and an error
+ * message.
+ */
+public class InstanceMetricsFetcher {
+
+	private static final Logger log = LoggerFactory.getLogger(InstanceMetricsFetcher.class);
+
+	private static final ParameterizedTypeReference<Map<String, Object>> RESPONSE_TYPE = new ParameterizedTypeReference<>() {
+	};
+
+	private final InstanceWebProxy instanceWebProxy;
+
+	private final int concurrency;
+
+	public InstanceMetricsFetcher(InstanceWebProxy instanceWebProxy, int concurrency) {
+		Assert.isTrue(concurrency > 0, "'concurrency' must be greater than 0");
+		this.instanceWebProxy = instanceWebProxy;
+		this.concurrency = concurrency;
+	}
+
+	/**
+	 * Fetches the metrics of the instance.
+	 * @param instance the instance
+	 * @param queries the metrics to fetch
+	 * @return the results in the order of the queries
+	 */
+	public Mono<List<MetricResult>> fetch(Instance instance, List<MetricQuery> queries) {
+		return Flux.fromIterable(queries)
+			.flatMapSequential((query) -> fetch(instance, query), this.concurrency)
+			.collectList();
+	}
+
+	/**
+	 * Fetches a single metric of the instance.
+	 * @param instance the instance
+	 * @param query the metric to fetch
+	 * @return the result
+	 */
+	public Mono<MetricResult> fetch(Instance instance, MetricQuery query) {
+		InstanceWebProxy.ForwardRequest request = InstanceWebProxy.ForwardRequest.builder()
+			.uri(toUri(query))
+			.method(HttpMethod.GET)
+			.headers(new HttpHeaders())
+			.body(BodyInserters.empty())
+			.build();
+		return this.instanceWebProxy.forward(Mono.just(instance), request, (response) -> toResult(query, response))
+			.onErrorResume((ex) -> {
+				log.debug("Fetching metric '{}' of instance {} failed", query.name(), instance.getId(), ex);
+				return Mono.just(MetricResult.failed(query, HttpStatus.BAD_GATEWAY.value(), ex.getMessage()));
+			});
+	}
+
+	private Mono<MetricResult> toResult(MetricQuery query, ClientResponse response) {
+		int status = response.statusCode().value();
+		if (!response.statusCode().is2xxSuccessful()) {
+			HttpStatus httpStatus = HttpStatus.resolve(status);
+			String error = (httpStatus != null) ? httpStatus.getReasonPhrase() : null;
+			return response.releaseBody().then(Mono.just(MetricResult.failed(query, status, error)));
+		}
+		return response.bodyToMono(RESPONSE_TYPE)
+			.map((body) -> new MetricResult(query.name(), query.tags(), status, body, null))
+			.defaultIfEmpty(new MetricResult(query.name(), query.tags(), status, null, null));
+	}
+
+	private static URI toUri(MetricQuery query) {
+		UriComponentsBuilder uri = UriComponentsBuilder.fromPath(Endpoint.METRICS).pathSegment(query.name());
+		List<String> tags = new ArrayList<>(query.tags().size() + 1);
+		query.tags().forEach((name, value) -> tags.add(name + ":" + value));
+		if (tags.size() == 1) {
+			// a single tag containing a comma would be split into several values by the
+			// instance, duplicating it avoids the split
+			tags.add(tags.get(0));
+		}
+		tags.forEach((tag) -> uri.queryParam("tag", tag));
+		return uri.build().encode().toUri();
+	}
+
+	/**
+	 * A metric to fetch.
+	 *
+	 * @param name the name of the metric
+	 * @param tags the tags to select the measurements by
+	 */
+	public record MetricQuery(String name, Map<String, String> tags) {
+
+		public MetricQuery {
+			Assert.hasText(name, "'name' must not be empty");
+			Map<String, String> selected = new LinkedHashMap<>();
+			if (tags != null) {
+				tags.forEach((tag, value) -> {
+					if (value != null) {
+						selected.put(tag, value);
+					}
+				});
+			}
+			tags = Collections.unmodifiableMap(selected);
+		}
+
+		public static MetricQuery of(String name) {
+			return new MetricQuery(name, Collections.emptyMap());
+		}
+
+		/**
+		 * Creates a query from the name of the metric and its decoded tags in the format
+		 * of the metrics endpoint, e.g. {@code area:heap}.
+		 * @param name the name of the metric
+		 * @param tags the decoded tags
+		 * @return the query
+		 */
+		public static MetricQuery of(String name, List<String> tags) {
+			Map<String, String> selected = new LinkedHashMap<>();
+			for (String tag : tags) {
+				int separator = tag.indexOf(':');
+				Assert.isTrue(separator > 0, () -> "Invalid tag '" + tag + "' in metric query '" + name + "'");
+				selected.put(tag.substring(0, separator), tag.substring(separator + 1));
+			}
+			return new MetricQuery(name, selected);
+		}
+
+		/**
+		 * Parses a query in the format of the metrics endpoint, e.g.
+		 * {@code jvm.memory.used?tag=area:heap}.
+		 * @param query the encoded query
+		 * @return the parsed query
+		 */
+		public static MetricQuery parse(String query) {
+			UriComponents components = UriComponentsBuilder.fromUriString(query).build();
+			List<String> tags = new ArrayList<>();
+			for (String tag : components.getQueryParams().getOrDefault("tag", Collections.emptyList())) {
+				tags.add((tag != null) ? UriUtils.decode(tag, StandardCharsets.UTF_8) : "");
+			}
+			String path = (components.getPath() != null) ? components.getPath() : "";
+			return of(UriUtils.decode(path, StandardCharsets.UTF_8), tags);
+		}
+
+	}
+
+	/**
+	 * The result of fetching a metric.
+	 *
+	 * @param name the name of the metric
+	 * @param tags the tags the measurements were selected by
+	 * @param status the status of the instance's response
+	 * @param body the response of the metrics endpoint, if successful
+	 * @param error the reason for a failed request
+	 */
+	public record MetricResult(String name, Map<String, String> tags, int status,
+			@JsonInclude(JsonInclude.Include.NON_NULL) @Nullable Map<String, Object> body,
+			@JsonInclude(JsonInclude.Include.NON_NULL) @Nullable String error) {
+
+		static MetricResult failed(MetricQuery query, int status, @Nullable String error) {
+			return new MetricResult(query.name(), query.tags(), status, null, error);
+		}
+
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore.MetricHistory;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+
+/**
+ * REST controller returning the history of metrics of an instance recorded by the
+ * {@link MetricsHistoryStore}.
+ */
+@AdminController
+@ResponseBody
+public class InstanceMetricsHistoryController {
+
+	private final MetricsHistoryStore store;
+
+	private final int maxMetrics;
+
+	public InstanceMetricsHistoryController(MetricsHistoryStore store, int maxMetrics) {
+		this.store = store;
+		this.maxMetrics = maxMetrics;
+	}
+
+	/**
+	 * Returns the history of metrics of an instance.
+	 * @param id the instance ID
+	 * @param params the query parameters; the {@code metric} parameters select the
+	 * metrics in the format of the metrics endpoint, e.g.
+	 * {@code jvm.memory.used?tag=area:heap}
+	 * @param range the period before now to return the history for
+	 * @return the history of the metrics in the order of the requested metrics
+	 */
+	@GetMapping(path = "/instances/{id}/metrics/history", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<MetricHistory>> metricsHistory(@PathVariable String id,
+			@RequestParam MultiValueMap<String, String> params, @RequestParam(defaultValue = "PT15M") Duration range) {
+		// bound as multi-value map, as a single metric containing a comma would be split
+		// into several values when converted to a list
+		List<String> metrics = params.getOrDefault("metric", Collections.emptyList());
+		if (metrics.size() > this.maxMetrics || range.isNegative()) {
+			return ResponseEntity.badRequest().build();
+		}
+		List<MetricQuery> queries;
+		try {
+			queries = metrics.stream().map(MetricQuery::parse).toList();
+		}
+		catch (IllegalArgumentException ex) {
+			return ResponseEntity.badRequest().build();
+		}
+		long now = System.currentTimeMillis();
+		return ResponseEntity.ok(this.store.query(InstanceId.of(id), queries, now - range.toMillis(), now));
+	}
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricResult;
+
+/**
+ * Polls the metrics of instances on behalf of all subscribers. For each instance with at
+ * least one subscriber the metrics requested by any subscriber are fetched once per
+ * interval, so the number of requests to the instance doesn't grow with the number of
+ * open views.
+ * <p>
+ * The metrics are reference-counted by the subscriptions: a metric is no longer fetched
+ * once the last subscriber requesting it has left, and the polling of an instance stops
+ * with its last subscriber. Each subscriber receives the results for its metrics after
+ * each poll; new subscribers receive the latest results right away if available.
+ */
+public class InstanceMetricsHub extends InstancePoller<List<MetricResult>, InstanceMetricsHub.MetricsSubscriber> {
+
+	private static final int MAX_PENDING_RESULTS = 16;
+
+	private final InstanceRegistry registry;
+
+	private final InstanceMetricsFetcher fetcher;
+
+	public InstanceMetricsHub(InstanceRegistry registry, InstanceMetricsFetcher fetcher, Duration interval) {
+		super("metrics", interval, MAX_PENDING_RESULTS);
+		this.registry = registry;
+		this.fetcher = fetcher;
+	}
+
+	/**
+	 * Subscribes to metrics of the instance. The flux emits the results of the metrics,
+	 * in the order of the queries, after each poll. It terminates with an error if the
+	 * instance is not registered or the subscriber doesn't keep up.
+	 * @param id the id of the instance
+	 * @param queries the metrics to subscribe to
+	 * @return the results of the metrics
+	 */
+	public Flux<List<MetricResult>> subscribe(InstanceId id, List<MetricQuery> queries) {
+		List<MetricQuery> copy = List.copyOf(queries);
+		return subscribe(id, (sink) -> new MetricsSubscriber(copy, sink));
+	}
+
+	@Override
+	protected Poll createPoll(InstanceId id) {
+		return new MetricsPoll(id);
+	}
+
+	record MetricsSubscriber(List<MetricQuery> queries,
+			Sinks.Many<List<MetricResult>> sink) implements InstancePoller.Subscriber<List<MetricResult>> {
+	}
+
+	private final class MetricsPoll extends Poll {
+
+		private final Map<MetricQuery, Integer> queries = new LinkedHashMap<>();
+
+		private final Map<MetricQuery, MetricResult> latest = new HashMap<>();
+
+		private MetricsPoll(InstanceId id) {
+			super(id);
+		}
+
+		@Override
+		protected synchronized void add(MetricsSubscriber subscriber) {
+			subscriber.queries().forEach((query) -> this.queries.merge(query, 1, Integer::sum));
+			List<MetricResult> results = results(subscriber);
+			if (results != null) {
+				subscriber.sink().tryEmitNext(results);
+			}
+			else {
+				// fetch the new metrics right away instead of waiting for the next poll
+				pollNow();
+			}
+			super.add(subscriber);
+		}
+
+		@Override
+		protected synchronized boolean remove(MetricsSubscriber subscriber) {
+			subscriber.queries()
+				.forEach((query) -> this.queries.computeIfPresent(query,
+						(key, count) -> (count > 1) ? count - 1 : null));
+			this.latest.keySet().retainAll(this.queries.keySet());
+			return super.remove(subscriber);
+		}
+
+		private synchronized List<MetricQuery> queries() {
+			return List.copyOf(this.queries.keySet());
+		}
+
+		@Override
+		protected Mono<Void> poll() {
+			List<MetricQuery> queries = queries();
+			if (queries.isEmpty()) {
+				return Mono.empty();
+			}
+			return InstanceMetricsHub.this.registry.getInstance(this.id)
+				.filter(Instance::isRegistered)
+				.switchIfEmpty(Mono.error(() -> new IllegalStateException("Instance " + this.id + " not found")))
+				.flatMap((instance) -> InstanceMetricsHub.this.fetcher.fetch(instance, queries))
+				.doOnNext((results) -> update(queries, results))
+				.then();
+		}
+
+		private void update(List<MetricQuery> queries, List<MetricResult> results) {
+			publish(() -> {
+				for (int i = 0; i < queries.size(); i++) {
+					if (this.queries.containsKey(queries.get(i))) {
+						this.latest.put(queries.get(i), results.get(i));
+					}
+				}
+				return this::results;
+			});
+		}
+
+		private @Nullable List<MetricResult> results(MetricsSubscriber subscriber) {
+			if (!this.latest.keySet().containsAll(subscriber.queries())) {
+				return null;
+			}
+			return subscriber.queries().stream().map(this.latest::get).toList();
+		}
+
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Flux;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+
+/**
+ * REST controller streaming metrics of an instance as Server-Sent Events. The metrics are
+ * polled by the {@link InstanceMetricsHub} once for all subscribers.
+ */
+@AdminController
+@ResponseBody
+public class InstanceMetricsStreamController {
+
+	private final InstanceMetricsHub hub;
+
+	private final int maxMetrics;
+
+	public InstanceMetricsStreamController(InstanceMetricsHub hub, int maxMetrics) {
+		this.hub = hub;
+		this.maxMetrics = maxMetrics;
+	}
+
+	/**
+	 * Stream metrics of an instance. Each message contains the list of
+	 * {@link InstanceMetricsFetcher.MetricResult results} in the order of the requested
+	 * metrics; a {@code failure} event with the error message ends the stream if the
+	 * metrics can't be polled.
+	 * @param id the instance ID
+	 * @param params the query parameters; the {@code metric} parameters select the
+	 * metrics in the format of the metrics endpoint, e.g.
+	 * {@code jvm.memory.used?tag=area:heap}
+	 * @return flux of {@link ServerSentEvent} containing the results
+	 */
+	@GetMapping(path = "/instances/{id}/metrics/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Flux<ServerSentEvent<Object>> metricsStream(@PathVariable String id,
+			@RequestParam MultiValueMap<String, String> params) {
+		// bound as multi-value map, as a single metric containing a comma would be split
+		// into several values when converted to a list
+		List<String> metrics = params.getOrDefault("metric", Collections.emptyList());
+		return ServerSentEvents.stream(Flux.defer(() -> this.hub.subscribe(InstanceId.of(id), parse(metrics))));
+	}
+
+	private List<MetricQuery> parse(List<String> metrics) {
+		if (metrics.isEmpty() || metrics.size() > this.maxMetrics) {
+			throw new IllegalArgumentException(
+					"Between 1 and " + this.maxMetrics + " metrics must be requested, got " + metrics.size());
+		}
+		return metrics.stream().map(MetricQuery::parse).toList();
+	}
+
+}
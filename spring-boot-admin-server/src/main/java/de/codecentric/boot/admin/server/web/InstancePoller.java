@@ -0,0 +1,276 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * Polls instances on behalf of all subscribers. For each instance with at least one
+ * subscriber a single {@link Poll} runs once per interval and publishes its results to
+ * the subscribers, so the number of requests to the instance doesn't grow with the number
+ * of subscribers.
+ * <p>
+ * The polls are reference-counted by the subscriptions: the polling of an instance stops
+ * with its last subscriber. Subscribers not keeping up with the results are terminated
+ * with an error, as are all subscribers of a failing poll.
+ * <p>
+ * Results are emitted to the subscribers without holding the monitors of the poller or of
+ * the polls, as subscribers leaving on a result re-enter the poller.
+ *
+ * @param <T> the type of the results
+ * @param <S> the type of the subscribers
+ */
+public abstract class InstancePoller<T, S extends InstancePoller.Subscriber<T>> {
+
+	private static final Logger log = LoggerFactory.getLogger(InstancePoller.class);
+
+	private final String subject;
+
+	private final Duration interval;
+
+	private final int maxPendingResults;
+
+	private final Map<InstanceId, Poll> polls = new HashMap<>();
+
+	/**
+	 * Creates a poller.
+	 * @param subject what is polled, used in log and error messages
+	 * @param interval the interval to poll the instances with
+	 * @param maxPendingResults the number of results buffered per subscriber before it is
+	 * considered not to keep up
+	 */
+	protected InstancePoller(String subject, Duration interval, int maxPendingResults) {
+		this.subject = subject;
+		this.interval = interval;
+		this.maxPendingResults = maxPendingResults;
+	}
+
+	/**
+	 * Creates the poll of an instance once it has its first subscriber.
+	 * @param id the id of the instance
+	 * @return the poll
+	 */
+	protected abstract Poll createPoll(InstanceId id);
+
+	/**
+	 * Subscribes to the results of polling the instance.
+	 * @param id the id of the instance
+	 * @param subscriberFactory creates the subscriber receiving the results in the given
+	 * sink
+	 * @return the results
+	 */
+	protected Flux<T> subscribe(InstanceId id, Function<Sinks.Many<T>, S> subscriberFactory) {
+		return Flux.defer(() -> {
+			Sinks.Many<T> sink = Sinks.many()
+				.unicast()
+				.onBackpressureBuffer(Queues.<T>get(this.maxPendingResults).get());
+			S subscriber = subscriberFactory.apply(sink);
+			Poll poll = subscribe(id, subscriber);
+			return sink.asFlux().doFinally((signal) -> unsubscribe(poll, subscriber));
+		});
+	}
+
+	public void stop() {
+		List<Poll> stopped;
+		synchronized (this) {
+			stopped = new ArrayList<>(this.polls.values());
+			this.polls.clear();
+		}
+		stopped.forEach(Poll::close);
+	}
+
+	private synchronized Poll subscribe(InstanceId id, S subscriber) {
+		Poll poll = this.polls.computeIfAbsent(id, this::createPoll);
+		poll.add(subscriber);
+		return poll;
+	}
+
+	private synchronized void unsubscribe(Poll poll, S subscriber) {
+		if (poll.remove(subscriber) && this.polls.remove(poll.id, poll)) {
+			log.debug("Last subscriber left, stop polling {} of {}", this.subject, poll.id);
+			poll.stopPolling();
+		}
+	}
+
+	private void fail(Poll poll, Throwable ex) {
+		log.debug("Polling {} of {} failed", this.subject, poll.id, ex);
+		synchronized (this) {
+			this.polls.remove(poll.id, poll);
+			poll.stopPolling();
+		}
+		poll.error(ex);
+	}
+
+	/**
+	 * A subscriber of a poll.
+	 *
+	 * @param <T> the type of the results
+	 */
+	protected interface Subscriber<T> {
+
+		Sinks.Many<T> sink();
+
+	}
+
+	/**
+	 * The poll of a single instance. Subclasses synchronize on the poll when accessing
+	 * their state.
+	 */
+	protected abstract class Poll {
+
+		protected final InstanceId id;
+
+		private final List<S> subscribers = new ArrayList<>();
+
+		// serializes the emissions to the subscribers' sinks, never held while acquiring
+		// the monitor of the poller or of the poll
+		private final Object emitting = new Object();
+
+		@Nullable private Disposable polling;
+
+		protected Poll(InstanceId id) {
+			this.id = id;
+		}
+
+		/**
+		 * Polls the instance once and publishes the results.
+		 * @return completes when the instance has been polled
+		 */
+		protected abstract Mono<Void> poll();
+
+		protected synchronized void add(S subscriber) {
+			this.subscribers.add(subscriber);
+			if (this.polling == null) {
+				log.debug("Start polling {} of {}", InstancePoller.this.subject, this.id);
+				startPolling();
+			}
+		}
+
+		/**
+		 * Removes the subscriber.
+		 * @param subscriber the subscriber to remove
+		 * @return whether the last subscriber has left
+		 */
+		protected synchronized boolean remove(S subscriber) {
+			this.subscribers.remove(subscriber);
+			return this.subscribers.isEmpty();
+		}
+
+		/**
+		 * Polls the instance right away instead of waiting for the next interval, if it
+		 * is being polled.
+		 */
+		protected synchronized void pollNow() {
+			if (this.polling != null) {
+				this.polling.dispose();
+				startPolling();
+			}
+		}
+
+		/**
+		 * Updates the state of the poll and emits a result to each subscriber.
+		 * Subscribers not keeping up are removed and terminated with an error. The update
+		 * and the results are computed holding the monitor of the poll, the results are
+		 * emitted after releasing it. Therefore this method must not be called holding
+		 * the monitor.
+		 * @param update updates the state and returns the function returning the result
+		 * for a subscriber, or {@code null} if there is none
+		 */
+		protected void publish(Supplier<Function<S, @Nullable T>> update) {
+			Map<S, T> results = new LinkedHashMap<>();
+			synchronized (this) {
+				Function<S, @Nullable T> result = update.get();
+				for (S subscriber : this.subscribers) {
+					T value = result.apply(subscriber);
+					if (value != null) {
+						results.put(subscriber, value);
+					}
+				}
+			}
+			List<S> overflown = new ArrayList<>();
+			synchronized (this.emitting) {
+				results.forEach((subscriber, value) -> {
+					if (subscriber.sink().tryEmitNext(value).isFailure()) {
+						overflown.add(subscriber);
+					}
+				});
+			}
+			if (!overflown.isEmpty()) {
+				synchronized (this) {
+					this.subscribers.removeAll(overflown);
+				}
+				emit(overflown, (sink) -> sink.tryEmitError(new IllegalStateException(
+						"Subscriber doesn't keep up with the " + InstancePoller.this.subject)));
+			}
+		}
+
+		private void startPolling() {
+			this.polling = Flux.interval(Duration.ZERO, InstancePoller.this.interval)
+				.onBackpressureDrop()
+				.concatMap((tick) -> poll())
+				.subscribe(null, (ex) -> fail(this, ex));
+		}
+
+		private synchronized void stopPolling() {
+			if (this.polling != null) {
+				this.polling.dispose();
+			}
+		}
+
+		private void error(Throwable ex) {
+			emit(removeAll(), (sink) -> sink.tryEmitError(ex));
+		}
+
+		private void close() {
+			stopPolling();
+			emit(removeAll(), Sinks.Many::tryEmitComplete);
+		}
+
+		private synchronized List<S> removeAll() {
+			List<S> removed = new ArrayList<>(this.subscribers);
+			this.subscribers.clear();
+			return removed;
+		}
+
+		private void emit(List<S> subscribers, Consumer<Sinks.Many<T>> signal) {
+			synchronized (this.emitting) {
+				subscribers.forEach((subscriber) -> signal.accept(subscriber.sink()));
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.InstanceWebProxy.ForwardRequest;
+
+/**
+ * Caches the responses of proxied GET requests for a configurable time-to-live per
+ * endpoint. Responses are cached per instance, uri (path and query) and the
+ * {@code Accept} and {@code Accept-Encoding} headers of the request. Concurrent requests
+ * for the same key share a single request to the instance.
+ * <p>
+ * Responses with a body exceeding the maximum body size are streamed through to the
+ * request that loaded them and the key is not cached for the time-to-live. Requests
+ * waiting for such a response send their own request to the instance.
+ * <p>
+ * The cached responses of an instance are invalidated by calling
+ * {@link #invalidate(InstanceId)}, which is done by the {@link InstanceWebProxy} for all
+ * mutating requests to the instance.
+ */
+public class InstanceResponseCache {
+
+	private final Map<String, Duration> timeToLive;
+
+	private final int maxEntries;
+
+	private final int maxBodySize;
+
+	private final Clock clock;
+
+	private final ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+
+	private final Map<CacheKey, CacheEntry> entries;
+
+	private final ConcurrentMap<CacheKey, Load> loads = new ConcurrentHashMap<>();
+
+	public InstanceResponseCache(Map<String, Duration> timeToLive, int maxEntries, int maxBodySize) {
+		this(timeToLive, maxEntries, maxBodySize, Clock.systemUTC());
+	}
+
+	InstanceResponseCache(Map<String, Duration> timeToLive, int maxEntries, int maxBodySize, Clock clock) {
+		Assert.isTrue(maxEntries > 0, "'maxEntries' must be greater than 0");
+		Assert.isTrue(maxBodySize > 0, "'maxBodySize' must be greater than 0");
+		this.timeToLive = new HashMap<>(timeToLive);
+		this.maxEntries = maxEntries;
+		this.maxBodySize = maxBodySize;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+				return size() > InstanceResponseCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Checks if the response for the request may be cached.
+	 * @param request the request to check
+	 * @return true for GET requests to endpoints with a time-to-live
+	 */
+	public boolean isCacheable(ForwardRequest request) {
+		return HttpMethod.GET.equals(request.getMethod()) && isPositive(getTimeToLive(request.getUri()));
+	}
+
+	/**
+	 * Handles the cached response for the request. If no response is cached the request
+	 * is exchanged, unless an exchange for the same request is already in progress.
+	 * @param instanceId the id of the instance the request is for
+	 * @param request the request
+	 * @param exchange exchanges the request with the instance
+	 * @param responseHandler handles the cached or received response
+	 * @param <V> the result of the response handler
+	 * @return the result of the response handler
+	 */
+	public <V> Mono<V> get(InstanceId instanceId, ForwardRequest request, Exchange<V> exchange,
+			Function<ClientResponse, Mono<V>> responseHandler) {
+		CacheKey key = CacheKey.of(instanceId, request);
+		return Mono.defer(() -> {
+			CacheEntry entry = lookup(key);
+			if (entry != null) {
+				CachedResponse cached = entry.response();
+				return (cached != null) ? responseHandler.apply(cached.toClientResponse(this.strategies))
+						: exchange.exchange(responseHandler);
+			}
+			Load load = new Load(key);
+			Load pending = this.loads.putIfAbsent(key, load);
+			if (pending != null) {
+				return pending.result.asMono()
+					.flatMap((cached) -> cached.isPresent()
+							? responseHandler.apply(cached.get().toClientResponse(this.strategies))
+							: exchange.exchange(responseHandler));
+			}
+			return exchange.exchange((response) -> load.read(response, responseHandler))
+				.doOnError(load::fail)
+				.doFinally((s) -> load.finish());
+		});
+	}
+
+	/**
+	 * Removes all cached responses for the instance. Responses for loads in progress are
+	 * not cached.
+	 * @param instanceId the id of the instance
+	 */
+	public void invalidate(InstanceId instanceId) {
+		synchronized (this.entries) {
+			this.loads.keySet().removeIf((key) -> key.instanceId().equals(instanceId));
+			this.entries.keySet().removeIf((key) -> key.instanceId().equals(instanceId));
+		}
+	}
+
+	public int getMaxBodySize() {
+		return this.maxBodySize;
+	}
+
+	protected int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	@Nullable private CacheEntry lookup(CacheKey key) {
+		synchronized (this.entries) {
+			CacheEntry entry = this.entries.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (entry.expiresAt().isAfter(this.clock.instant())) {
+				return entry;
+			}
+			this.entries.remove(key);
+			return null;
+		}
+	}
+
+	private void store(Load load, @Nullable CachedResponse response) {
+		if (response != null && !response.status().is2xxSuccessful()) {
+			return;
+		}
+		Instant expiresAt = this.clock.instant().plus(getTimeToLive(load.key.uri()));
+		synchronized (this.entries) {
+			// loads are removed on invalidation, so responses loaded before aren't cached
+			if (this.loads.get(load.key) == load) {
+				this.entries.put(load.key, new CacheEntry(response, expiresAt));
+			}
+		}
+	}
+
+	private Duration getTimeToLive(URI uri) {
+		return this.timeToLive.getOrDefault(getEndpointId(uri), Duration.ZERO);
+	}
+
+	private static String getEndpointId(URI uri) {
+		String path = (uri.getPath() != null) ? uri.getPath() : "";
+		if (path.startsWith("/")) {
+			path = path.substring(1);
+		}
+		int end = path.indexOf('/');
+		return (end >= 0) ? path.substring(0, end) : path;
+	}
+
+	private static boolean isPositive(Duration duration) {
+		return !duration.isZero() && !duration.isNegative();
+	}
+
+	private static byte[] toByteArray(List<DataBuffer> buffers) {
+		int size = buffers.stream().mapToInt(DataBuffer::readableByteCount).sum();
+		byte[] bytes = new byte[size];
+		int offset = 0;
+		for (DataBuffer buffer : buffers) {
+			int length = buffer.readableByteCount();
+			buffer.read(bytes, offset, length);
+			offset += length;
+			DataBufferUtils.release(buffer);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Exchanges a request with the instance.
+	 *
+	 * @param <V> the result of the response handler
+	 */
+	@FunctionalInterface
+	public interface Exchange<V> {
+
+		Mono<V> exchange(Function<ClientResponse, Mono<V>> responseHandler);
+
+	}
+
+	/**
+	 * A response buffered for caching.
+	 *
+	 * @param status the status of the response
+	 * @param headers the headers of the response
+	 * @param body the body of the response
+	 */
+	public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+		public ClientResponse toClientResponse(ExchangeStrategies strategies) {
+			return ClientResponse.create(this.status, strategies)
+				.headers((h) -> h.addAll(this.headers))
+				.body(Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(this.body))))
+				.build();
+		}
+
+	}
+
+	private record CacheKey(InstanceId instanceId, URI uri, List<String> accept, List<String> acceptEncoding) {
+
+		static CacheKey of(InstanceId instanceId, ForwardRequest request) {
+			HttpHeaders headers = request.getHeaders();
+			return new CacheKey(instanceId, request.getUri(), List.copyOf(headers.getOrEmpty(HttpHeaders.ACCEPT)),
+					List.copyOf(headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)));
+		}
+
+	}
+
+	/**
+	 * A cached response, or a marker for a response too large to be cached.
+	 *
+	 * @param response the response, {@code null} if the response is too large
+	 * @param expiresAt the expiry of the entry
+	 */
+	private record CacheEntry(@Nullable CachedResponse response, Instant expiresAt) {
+	}
+
+	/**
+	 * An exchange in progress. The buffered response is shared with the requests waiting
+	 * for it, an empty optional tells them to send a request on their own.
+	 */
+	private final class Load {
+
+		private final CacheKey key;
+
+		private final Sinks.One<Optional<CachedResponse>> result = Sinks.one();
+
+		private Load(CacheKey key) {
+			this.key = key;
+		}
+
+		private <V> Mono<V> read(ClientResponse response, Function<ClientResponse, Mono<V>> responseHandler) {
+			int maxBodySize = InstanceResponseCache.this.maxBodySize;
+			AtomicLong size = new AtomicLong();
+			return response.body(BodyExtractors.toDataBuffers())
+				.bufferUntil((buffer) -> size.addAndGet(buffer.readableByteCount()) > maxBodySize)
+				.switchOnFirst((first, body) -> {
+					if (first.hasValue() && size.get() > maxBodySize) {
+						store(this, null);
+						complete(Optional.empty());
+						return responseHandler
+							.apply(response.mutate().body(body.flatMapIterable(Function.identity())).build());
+					}
+					return body.next()
+						.map(InstanceResponseCache::toByteArray)
+						.defaultIfEmpty(new byte[0])
+						.flatMap((bytes) -> {
+							HttpHeaders headers = new HttpHeaders();
+							headers.addAll(response.headers().asHttpHeaders());
+							CachedResponse cached = new CachedResponse(response.statusCode(),
+									HttpHeaders.readOnlyHttpHeaders(headers), bytes);
+							store(this, cached);
+							complete(Optional.of(cached));
+							return responseHandler
+								.apply(cached.toClientResponse(InstanceResponseCache.this.strategies));
+						});
+				})
+				.singleOrEmpty();
+		}
+
+		private synchronized void complete(Optional<CachedResponse> cached) {
+			this.result.tryEmitValue(cached);
+		}
+
+		private synchronized void fail(Throwable ex) {
+			this.result.tryEmitError(ex);
+		}
+
+		private synchronized void finish() {
+			InstanceResponseCache.this.loads.remove(this.key, this);
+			this.result.tryEmitValue(Optional.empty());
+		}
+
+	}
+
+}
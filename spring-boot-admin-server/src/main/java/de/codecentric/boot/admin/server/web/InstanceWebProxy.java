@@ -18,6 +18,9 @@ package de.codecentric.boot.admin.server.web;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
@@ -27,10 +30,16 @@ import io.netty.handler.timeout.ReadTimeoutException;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.util.Assert;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.BodyInserter;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
@@ -41,9 +50,13 @@ import reactor.core.publisher.Mono;
 
 import de.codecentric.boot.admin.server.domain.entities.Instance;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.client.ContentDecoder;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+import de.codecentric.boot.admin.server.web.client.exception.BulkheadFullException;
+import de.codecentric.boot.admin.server.web.client.exception.CircuitBreakerOpenException;
 import de.codecentric.boot.admin.server.web.client.exception.ResolveEndpointException;
 
+import static org.springframework.http.HttpMethod.DELETE;
 import static org.springframework.http.HttpMethod.PATCH;
 import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.http.HttpMethod.PUT;
@@ -52,6 +65,16 @@ import static org.springframework.http.HttpMethod.PUT;
  * Forwards a request to a single instances endpoint and will respond with: - 502 (Bad
  * Gateway) when any error occurs during the request - 503 (Service unavailable) when the
  * instance is not found - 504 (Gateway timeout) when the request exceeds the timeout
+ * <p>
+ * The {@code Accept-Encoding} header of the client is forwarded to the instance, so
+ * compressed responses are passed through without being decoded and encoded again.
+ * <p>
+ * When an {@link InstanceResponseCache} is given, the responses for cacheable requests
+ * are served from the cache and all mutating requests invalidate the cached responses of
+ * the instance.
+ * <p>
+ * When an {@link InstanceHeapdumpSpool} is set, heapdumps are spooled to local files, so
+ * resumed downloads and range requests are served without a new heapdump.
  *
  * @author Johannes Edmeier
  */
@@ -61,12 +84,78 @@ public class InstanceWebProxy {
 
 	private static final Instance NULL_INSTANCE = Instance.create(InstanceId.of("null"));
 
+	private static final List<MediaType> STREAMING_MEDIA_TYPES = List.of(MediaType.TEXT_EVENT_STREAM,
+			MediaType.APPLICATION_NDJSON);
+
 	private final InstanceWebClient instanceWebClient;
 
 	private final ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
 
+	@Nullable private final InstanceResponseCache responseCache;
+
+	// the defaults match the spring.boot.admin.instance-proxy.fan-out properties
+	private int fanOutConcurrency = 32;
+
+	@Nullable private Duration fanOutTimeout = Duration.ofSeconds(10L);
+
+	private int fanOutMaxBodySize = 1024 * 1024;
+
+	@Nullable private InstanceHeapdumpSpool heapdumpSpool = null;
+
 	public InstanceWebProxy(InstanceWebClient instanceWebClient) {
+		this(instanceWebClient, null);
+	}
+
+	public InstanceWebProxy(InstanceWebClient instanceWebClient, @Nullable InstanceResponseCache responseCache) {
 		this.instanceWebClient = instanceWebClient;
+		this.responseCache = responseCache;
+	}
+
+	/**
+	 * Sets the maximum number of instances a request is forwarded to concurrently by
+	 * {@link #forward(Flux, ForwardRequest)}.
+	 * @param fanOutConcurrency the maximum number of concurrent requests
+	 * @return this proxy
+	 */
+	public InstanceWebProxy fanOutConcurrency(int fanOutConcurrency) {
+		Assert.isTrue(fanOutConcurrency > 0, "'fanOutConcurrency' must be greater than 0");
+		this.fanOutConcurrency = fanOutConcurrency;
+		return this;
+	}
+
+	/**
+	 * Sets the deadline for the response of a single instance in
+	 * {@link #forward(Flux, ForwardRequest)}. Instances not responding within the
+	 * deadline are reported with status 504.
+	 * @param fanOutTimeout the deadline per instance, {@code null} for none
+	 * @return this proxy
+	 */
+	public InstanceWebProxy fanOutTimeout(@Nullable Duration fanOutTimeout) {
+		this.fanOutTimeout = fanOutTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum size of the response body of a single instance in
+	 * {@link #forward(Flux, ForwardRequest)}. Larger responses are reported with status
+	 * 502.
+	 * @param fanOutMaxBodySize the maximum size in bytes
+	 * @return this proxy
+	 */
+	public InstanceWebProxy fanOutMaxBodySize(int fanOutMaxBodySize) {
+		Assert.isTrue(fanOutMaxBodySize > 0, "'fanOutMaxBodySize' must be greater than 0");
+		this.fanOutMaxBodySize = fanOutMaxBodySize;
+		return this;
+	}
+
+	/**
+	 * Sets the spool for heapdumps requested through this proxy.
+	 * @param heapdumpSpool the spool, {@code null} to pass heapdumps through
+	 * @return this proxy
+	 */
+	public InstanceWebProxy heapdumpSpool(@Nullable InstanceHeapdumpSpool heapdumpSpool) {
+		this.heapdumpSpool = heapdumpSpool;
+		return this;
 	}
 
 	public <V> Mono<V> forward(Mono<Instance> instanceMono, ForwardRequest forwardRequest,
@@ -82,36 +171,139 @@ public class InstanceWebProxy {
 		});
 	}
 
+	/**
+	 * Forwards the request to all instances. The responses are emitted in the order they
+	 * are received, so they can be streamed to the client (e.g. as
+	 * {@code application/x-ndjson} or {@code text/event-stream}).
+	 * @param instances the instances to forward the request to
+	 * @param forwardRequest the request to forward
+	 * @return the responses of the instances
+	 */
 	public Flux<InstanceResponse> forward(Flux<Instance> instances, ForwardRequest forwardRequest) {
-		return instances.flatMap((instance) -> this.forward(instance, forwardRequest, (clientResponse) -> {
+		// the bodies are aggregated into strings, so the media type and encoding must not
+		// be negotiated by the client (e.g. application/x-ndjson for the streamed
+		// responses) but left to the instance web client
+		HttpHeaders headers = new HttpHeaders();
+		headers.addAll(forwardRequest.getHeaders());
+		headers.remove(HttpHeaders.ACCEPT);
+		headers.remove(HttpHeaders.ACCEPT_ENCODING);
+		ForwardRequest instanceRequest = ForwardRequest.builder()
+			.uri(forwardRequest.getUri())
+			.method(forwardRequest.getMethod())
+			.headers(headers)
+			.body(forwardRequest.getBody())
+			.build();
+		return instances.flatMap((instance) -> this.forwardToInstance(instance, instanceRequest),
+				this.fanOutConcurrency);
+	}
+
+	private Mono<InstanceResponse> forwardToInstance(Instance instance, ForwardRequest forwardRequest) {
+		Mono<InstanceResponse> instanceResponse = this.forward(instance, forwardRequest, (clientResponse) -> {
 			InstanceResponse.Builder response = InstanceResponse.builder()
 				.instanceId(instance.getId())
 				.status(clientResponse.statusCode().value())
 				.contentType(String.join(", ", clientResponse.headers().header(HttpHeaders.CONTENT_TYPE)));
-			return clientResponse.bodyToMono(String.class)
-				.map(response::body)
+			return readBody(clientResponse).map(response::body)
 				.defaultIfEmpty(response)
-				.map(InstanceResponse.Builder::build);
+				.map(InstanceResponse.Builder::build)
+				.onErrorResume(DataBufferLimitException.class, (ex) -> {
+					log.trace("Response for instance {} with URL '{}' exceeds {} bytes", instance.getId(),
+							forwardRequest.getUri(), this.fanOutMaxBodySize);
+					return Mono.just(InstanceResponse.builder()
+						.instanceId(instance.getId())
+						.status(HttpStatus.BAD_GATEWAY.value())
+						.error("Response body exceeds " + this.fanOutMaxBodySize + " bytes")
+						.build());
+				});
+		});
+
+		Duration timeout = this.fanOutTimeout;
+		if (timeout == null) {
+			return instanceResponse;
+		}
+		return instanceResponse.timeout(timeout, Mono.fromSupplier(() -> {
+			log.trace("Timeout for Proxy-Request for instance {} with URL '{}'", instance.getId(),
+					forwardRequest.getUri());
+			return InstanceResponse.builder()
+				.instanceId(instance.getId())
+				.status(HttpStatus.GATEWAY_TIMEOUT.value())
+				.error("No response within " + timeout.toMillis() + "ms")
+				.build();
 		}));
 	}
 
+	private Mono<String> readBody(ClientResponse response) {
+		ClientResponse clientResponse = ContentDecoder.decode(response);
+		Charset charset = clientResponse.headers()
+			.contentType()
+			.map(MimeType::getCharset)
+			.orElse(StandardCharsets.UTF_8);
+		return DataBufferUtils.join(clientResponse.body(BodyExtractors.toDataBuffers()), this.fanOutMaxBodySize)
+			.map((buffer) -> {
+				try {
+					return buffer.toString(charset);
+				}
+				finally {
+					DataBufferUtils.release(buffer);
+				}
+			});
+	}
+
+	/**
+	 * Checks if the response of an instance is streamed (server-sent events, ndjson and
+	 * partial content, as used for tailing the logfile). Streamed responses should be
+	 * flushed after each buffer so the client receives them without delay. All other
+	 * responses should be written without explicit flushes, leaving it to the server to
+	 * flush in batches.
+	 * @param clientResponse the response of the instance
+	 * @return whether the response has to be flushed after each buffer
+	 */
+	public static boolean isStreaming(ClientResponse clientResponse) {
+		if (clientResponse.statusCode().isSameCodeAs(HttpStatus.PARTIAL_CONTENT)) {
+			return true;
+		}
+		return clientResponse.headers()
+			.contentType()
+			.map((contentType) -> STREAMING_MEDIA_TYPES.stream().anyMatch(contentType::isCompatibleWith))
+			.orElse(false);
+	}
+
 	private <V> Mono<V> forward(Instance instance, ForwardRequest forwardRequest,
 			Function<ClientResponse, Mono<V>> responseHandler) {
 		log.trace("Proxy-Request for instance {} with URL '{}'", instance.getId(), forwardRequest.getUri());
-		WebClient.RequestBodySpec bodySpec = this.instanceWebClient.instance(instance)
-			.method(forwardRequest.getMethod())
-			.uri(forwardRequest.getUri())
-			.headers((h) -> h.addAll(forwardRequest.getHeaders()));
-
-		WebClient.RequestHeadersSpec<?> headersSpec = bodySpec;
-		if (requiresBody(forwardRequest.getMethod())) {
-			headersSpec = bodySpec.body(forwardRequest.getBody());
+		InstanceResponseCache responseCache = this.responseCache;
+		InstanceHeapdumpSpool heapdumpSpool = this.heapdumpSpool;
+		Mono<V> response;
+		if (heapdumpSpool != null && heapdumpSpool.isSpoolable(forwardRequest)) {
+			response = heapdumpSpool.forward(instance.getId(), forwardRequest,
+					(request, handler) -> exchange(instance, request, handler), responseHandler);
+		}
+		else if (responseCache != null && responseCache.isCacheable(forwardRequest)) {
+			response = responseCache.get(instance.getId(), forwardRequest,
+					(handler) -> exchange(instance, forwardRequest, handler), responseHandler);
+		}
+		else if (responseCache != null && isMutating(forwardRequest.getMethod())) {
+			responseCache.invalidate(instance.getId());
+			response = exchange(instance, forwardRequest, responseHandler)
+				.doFinally((s) -> responseCache.invalidate(instance.getId()));
+		}
+		else {
+			response = exchange(instance, forwardRequest, responseHandler);
 		}
 
-		return headersSpec.exchangeToMono(responseHandler).onErrorResume(ResolveEndpointException.class, (ex) -> {
+		return response.onErrorResume(ResolveEndpointException.class, (ex) -> {
 			log.trace("No Endpoint found for Proxy-Request for instance {} with URL '{}'", instance.getId(),
 					forwardRequest.getUri());
 			return responseHandler.apply(ClientResponse.create(HttpStatus.NOT_FOUND, this.strategies).build());
+		}).onErrorResume(CircuitBreakerOpenException.class, (ex) -> {
+			log.trace("Circuit breaker open for Proxy-Request for instance {} with URL '{}'", instance.getId(),
+					forwardRequest.getUri());
+			return responseHandler
+				.apply(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE, this.strategies).build());
+		}).onErrorResume(BulkheadFullException.class, (ex) -> {
+			log.trace("Too many concurrent requests for Proxy-Request for instance {} with URL '{}'", instance.getId(),
+					forwardRequest.getUri());
+			return responseHandler.apply(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS, this.strategies).build());
 		}).onErrorResume((ex) -> {
 			Throwable cause = ex;
 			if (ex instanceof WebClientRequestException) {
@@ -132,10 +324,29 @@ public class InstanceWebProxy {
 		});
 	}
 
+	private <V> Mono<V> exchange(Instance instance, ForwardRequest forwardRequest,
+			Function<ClientResponse, Mono<V>> responseHandler) {
+		WebClient.RequestBodySpec bodySpec = this.instanceWebClient.instance(instance)
+			.method(forwardRequest.getMethod())
+			.uri(forwardRequest.getUri())
+			.headers((h) -> h.addAll(forwardRequest.getHeaders()));
+
+		WebClient.RequestHeadersSpec<?> headersSpec = bodySpec;
+		if (requiresBody(forwardRequest.getMethod())) {
+			headersSpec = bodySpec.body(forwardRequest.getBody());
+		}
+
+		return headersSpec.exchangeToMono(responseHandler);
+	}
+
 	private boolean requiresBody(HttpMethod method) {
 		return List.of(PUT, POST, PATCH).contains(method);
 	}
 
+	private boolean isMutating(HttpMethod method) {
+		return List.of(PUT, POST, PATCH, DELETE).contains(method);
+	}
+
 	@lombok.Data
 	@lombok.Builder(builderClassName = "Builder")
 	public static class InstanceResponse {
@@ -152,6 +363,10 @@ public class InstanceWebProxy {
 		@JsonInclude(JsonInclude.Include.NON_EMPTY)
 		private final String contentType;
 
+		@Nullable
+		@JsonInclude(JsonInclude.Include.NON_EMPTY)
+		private final String error;
+
 	}
 
 	@lombok.Data
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Duration;
+import java.util.Objects;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility to stream data as Server-Sent Events.
+ */
+final class ServerSentEvents {
+
+	private static final ServerSentEvent<Object> PING = ServerSentEvent.builder().comment("ping").build();
+
+	private static final Duration PING_INTERVAL = Duration.ofSeconds(10L);
+
+	private ServerSentEvents() {
+	}
+
+	/**
+	 * Wraps each element into an event. An error ends the stream with a {@code failure}
+	 * event carrying the error message. While the stream is open, a comment is sent
+	 * periodically to keep idle connections from being closed.
+	 * @param data the data to stream
+	 * @return the events
+	 */
+	static Flux<ServerSentEvent<Object>> stream(Flux<?> data) {
+		Flux<ServerSentEvent<Object>> events = data.map((item) -> ServerSentEvent.<Object>builder(item).build())
+			.onErrorResume((ex) -> Flux.just(ServerSentEvent.<Object>builder()
+				.event("failure")
+				.data(Objects.toString(ex.getMessage(), ex.getClass().getName()))
+				.build()));
+		return events.publish((shared) -> shared
+			.mergeWith(Flux.interval(PING_INTERVAL).map((tick) -> PING).takeUntilOther(shared.then())));
+	}
+
+}
@@ -20,12 +20,16 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.jspecify.annotations.Nullable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.util.StringUtils;
 
 import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
 
 /**
  * Provides Basic Auth headers for the {@link Instance} using the metadata for "user.name"
@@ -33,6 +37,10 @@ import de.codecentric.boot.admin.server.domain.entities.Instance;
  *
  * Other allowed key names: - "user-name" / "user-password" - "username" / "userpassword"
  *
+ * The headers are computed once per registration of an instance and recomputed as soon as
+ * the registration changes. {@link #evict} frees the cached headers of deregistered
+ * instances.
+ *
  * @author Johannes Edmeier
  */
 public class BasicAuthHttpHeaderProvider implements HttpHeadersProvider {
@@ -47,6 +55,8 @@ public class BasicAuthHttpHeaderProvider implements HttpHeadersProvider {
 
 	private final Map<String, InstanceCredentials> serviceMap;
 
+	private final ConcurrentMap<InstanceId, CachedHeaders> cache = new ConcurrentHashMap<>();
+
 	public BasicAuthHttpHeaderProvider(@Nullable String defaultUserName, @Nullable String defaultPassword,
 			Map<String, InstanceCredentials> serviceMap) {
 		this.defaultUserName = defaultUserName;
@@ -77,8 +87,33 @@ public class BasicAuthHttpHeaderProvider implements HttpHeadersProvider {
 		return new String(dest, StandardCharsets.UTF_8);
 	}
 
+	/**
+	 * Returns the headers for the instance. The headers are computed once per
+	 * registration of the instance and are read-only.
+	 * @param instance the instance
+	 * @return the headers
+	 */
 	@Override
 	public HttpHeaders getHeaders(Instance instance) {
+		Registration registration = instance.getRegistration();
+		CachedHeaders cached = this.cache.get(instance.getId());
+		if (cached == null || cached.registration() != registration) {
+			cached = new CachedHeaders(registration, HttpHeaders.readOnlyHttpHeaders(computeHeaders(instance)));
+			this.cache.put(instance.getId(), cached);
+		}
+		return cached.headers();
+	}
+
+	/**
+	 * Evicts the cached headers of the instance to free the memory of deregistered
+	 * instances.
+	 * @param instanceId the id of the instance
+	 */
+	public void evict(InstanceId instanceId) {
+		this.cache.remove(instanceId);
+	}
+
+	private HttpHeaders computeHeaders(Instance instance) {
 		String username = getMetadataValue(instance, USERNAME_KEYS);
 		String password = getMetadataValue(instance, PASSWORD_KEYS);
 
@@ -107,6 +142,9 @@ public class BasicAuthHttpHeaderProvider implements HttpHeadersProvider {
 		return "Basic " + token;
 	}
 
+	private record CachedHeaders(Registration registration, HttpHeaders headers) {
+	}
+
 	@lombok.Data
 	@lombok.NoArgsConstructor
 	@lombok.AllArgsConstructor
@@ -30,11 +30,37 @@ public class CompositeHttpHeadersProvider implements HttpHeadersProvider {
 		this.delegates = delegates;
 	}
 
+	/**
+	 * Returns the merged headers of all delegates. As long as only one delegate provides
+	 * headers, its headers are returned as they are, without copying. The returned
+	 * headers must not be modified.
+	 * @param instance the instance
+	 * @return the headers
+	 */
 	@Override
 	public HttpHeaders getHeaders(Instance instance) {
-		HttpHeaders headers = new HttpHeaders();
-		delegates.forEach((delegate) -> headers.addAll(delegate.getHeaders(instance)));
-		return headers;
+		HttpHeaders first = null;
+		HttpHeaders merged = null;
+		for (HttpHeadersProvider delegate : this.delegates) {
+			HttpHeaders headers = delegate.getHeaders(instance);
+			if (headers.isEmpty()) {
+				continue;
+			}
+			if (first == null) {
+				first = headers;
+			}
+			else {
+				if (merged == null) {
+					merged = new HttpHeaders();
+					merged.addAll(first);
+				}
+				merged.addAll(headers);
+			}
+		}
+		if (merged != null) {
+			return merged;
+		}
+		return (first != null) ? first : HttpHeaders.EMPTY;
 	}
 
 }
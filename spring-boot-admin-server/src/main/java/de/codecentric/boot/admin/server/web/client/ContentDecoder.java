@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+
+/**
+ * Decompresses gzip and deflate encoded response bodies while they are read, without
+ * aggregating the whole body in memory.
+ */
+public final class ContentDecoder {
+
+	/**
+	 * The content codings which can be decoded, in the format of the
+	 * {@code Accept-Encoding} header.
+	 */
+	public static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+	private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+	private ContentDecoder() {
+	}
+
+	/**
+	 * Returns a response with the decoded body of the given response. The
+	 * {@code Content-Encoding} and {@code Content-Length} headers are removed. Responses
+	 * not encoded with a supported content coding are returned as they are.
+	 * @param response the response to decode
+	 * @return the decoded response
+	 */
+	public static ClientResponse decode(ClientResponse response) {
+		ZlibWrapper wrapper = getWrapper(response);
+		if (wrapper == null) {
+			return response;
+		}
+		return response.mutate().headers((headers) -> {
+			headers.remove(HttpHeaders.CONTENT_ENCODING);
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+		}).body((body) -> decode(body, wrapper)).build();
+	}
+
+	private static Flux<DataBuffer> decode(Flux<DataBuffer> body, ZlibWrapper wrapper) {
+		return Flux.using(() -> new EmbeddedChannel(ZlibCodecFactory.newZlibDecoder(wrapper, 0)),
+				(channel) -> body.concatMapIterable((buffer) -> {
+					channel.writeInbound(toByteBuf(buffer));
+					return readInbound(channel);
+				}).concatWith(Flux.defer(() -> {
+					channel.finish();
+					return Flux.fromIterable(readInbound(channel));
+				})), EmbeddedChannel::finishAndReleaseAll)
+			.doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+	}
+
+	private static ByteBuf toByteBuf(DataBuffer buffer) {
+		if (buffer instanceof NettyDataBuffer nettyBuffer) {
+			return nettyBuffer.getNativeBuffer();
+		}
+		try {
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			return Unpooled.wrappedBuffer(bytes);
+		}
+		finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	private static List<DataBuffer> readInbound(EmbeddedChannel channel) {
+		List<DataBuffer> decoded = new ArrayList<>();
+		ByteBuf byteBuf;
+		while ((byteBuf = channel.readInbound()) != null) {
+			if (byteBuf.isReadable()) {
+				decoded.add(BUFFER_FACTORY.wrap(byteBuf));
+			}
+			else {
+				byteBuf.release();
+			}
+		}
+		return decoded;
+	}
+
+	@Nullable private static ZlibWrapper getWrapper(ClientResponse response) {
+		List<String> encodings = response.headers().header(HttpHeaders.CONTENT_ENCODING);
+		if (encodings.size() != 1) {
+			return null;
+		}
+		return switch (encodings.get(0).trim().toLowerCase(Locale.ROOT)) {
+			case "gzip", "x-gzip" -> ZlibWrapper.GZIP;
+			case "deflate", "x-deflate" -> ZlibWrapper.ZLIB_OR_NONE;
+			default -> null;
+		};
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.IntCountsHistogram;
+import org.jspecify.annotations.Nullable;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+
+/**
+ * Tracks the latencies of the requests to the instances per application and endpoint. The
+ * latencies are recorded in histograms covering the last one to two windows, so the
+ * percentiles follow changes of the latencies.
+ * <p>
+ * The histograms have a precision of one significant digit to keep the footprint per
+ * application and endpoint small.
+ */
+public class EndpointLatencyTracker {
+
+	private static final long HIGHEST_TRACKABLE_MILLIS = TimeUnit.HOURS.toMillis(1L);
+
+	private static final long SNAPSHOT_INTERVAL = TimeUnit.SECONDS.toNanos(1L);
+
+	private final long window;
+
+	private final int minSamples;
+
+	private final LongSupplier nanoTime;
+
+	private final ConcurrentMap<Key, Latencies> latencies = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new tracker.
+	 * @param window length of a window
+	 * @param minSamples number of samples needed before percentiles are reported
+	 */
+	public EndpointLatencyTracker(Duration window, int minSamples) {
+		this(window, minSamples, System::nanoTime);
+	}
+
+	EndpointLatencyTracker(Duration window, int minSamples, LongSupplier nanoTime) {
+		this.window = window.toNanos();
+		this.minSamples = minSamples;
+		this.nanoTime = nanoTime;
+	}
+
+	public void record(Instance instance, String endpoint, Duration latency) {
+		this.latencies.computeIfAbsent(key(instance, endpoint), (key) -> new Latencies(this.nanoTime.getAsLong()))
+			.record(latency.toMillis(), this.nanoTime.getAsLong());
+	}
+
+	/**
+	 * Returns the latency percentile for the endpoint of the instance's application.
+	 * @param instance the instance
+	 * @param endpoint the endpoint id
+	 * @param percentile the percentile, e.g. {@code 0.95}
+	 * @return the latency or empty if there are not enough samples
+	 */
+	public Optional<Duration> getPercentile(Instance instance, String endpoint, double percentile) {
+		Latencies latencies = this.latencies.get(key(instance, endpoint));
+		if (latencies == null) {
+			return Optional.empty();
+		}
+		return latencies.getPercentile(percentile, this.nanoTime.getAsLong());
+	}
+
+	private static Key key(Instance instance, String endpoint) {
+		String application = instance.isRegistered() ? instance.getRegistration().getName()
+				: instance.getId().getValue();
+		return new Key(application, endpoint);
+	}
+
+	private record Key(String application, String endpoint) {
+	}
+
+	private final class Latencies {
+
+		private AbstractHistogram current = newHistogram();
+
+		private AbstractHistogram previous = newHistogram();
+
+		private long start;
+
+		@Nullable private AbstractHistogram snapshot;
+
+		private long snapshotAt;
+
+		private Latencies(long start) {
+			this.start = start;
+		}
+
+		private synchronized void record(long millis, long now) {
+			roll(now);
+			this.current.recordValue(Math.min(Math.max(millis, 1L), HIGHEST_TRACKABLE_MILLIS));
+		}
+
+		private synchronized Optional<Duration> getPercentile(double percentile, long now) {
+			roll(now);
+			if (this.snapshot == null || now - this.snapshotAt >= SNAPSHOT_INTERVAL) {
+				AbstractHistogram merged = this.previous.copy();
+				merged.add(this.current);
+				this.snapshot = merged;
+				this.snapshotAt = now;
+			}
+			if (this.snapshot.getTotalCount() < EndpointLatencyTracker.this.minSamples) {
+				return Optional.empty();
+			}
+			return Optional.of(Duration.ofMillis(this.snapshot.getValueAtPercentile(percentile * 100.0)));
+		}
+
+		private void roll(long now) {
+			long elapsed = now - this.start;
+			if (elapsed < EndpointLatencyTracker.this.window) {
+				return;
+			}
+			if (elapsed < 2 * EndpointLatencyTracker.this.window) {
+				AbstractHistogram recycled = this.previous;
+				recycled.reset();
+				this.previous = this.current;
+				this.current = recycled;
+				this.start += EndpointLatencyTracker.this.window;
+			}
+			else {
+				this.previous.reset();
+				this.current.reset();
+				this.start = now;
+			}
+			this.snapshot = null;
+		}
+
+		private static AbstractHistogram newHistogram() {
+			return new IntCountsHistogram(HIGHEST_TRACKABLE_MILLIS, 1);
+		}
+
+	}
+
+}
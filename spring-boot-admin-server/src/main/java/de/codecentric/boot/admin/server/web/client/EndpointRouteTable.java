@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.Endpoint;
+import de.codecentric.boot.admin.server.domain.values.Endpoints;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * Routes relative request URLs to the endpoints of an instance. The first path segment of
+ * a relative URL is the endpoint id; the remaining path and the query are appended to the
+ * URL of the endpoint.
+ * <p>
+ * The routes of an instance are prepared once and rebuilt only when the {@link Endpoints}
+ * of the instance change, so routing a request is a lookup and a string concatenation
+ * instead of parsing and building URIs for every request. Endpoint URLs which can't be
+ * extended by concatenation, e.g. because they contain a query, are rewritten using an
+ * {@link UriComponentsBuilder}.
+ */
+public class EndpointRouteTable {
+
+	private final ConcurrentMap<InstanceId, Routes> routes = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the route to the endpoint of the instance.
+	 * @param instance the instance
+	 * @param endpointId the endpoint id
+	 * @return the route or {@code null} if the instance has no such endpoint
+	 */
+	@Nullable public Route getRoute(Instance instance, String endpointId) {
+		Endpoints endpoints = instance.getEndpoints();
+		Routes routes = this.routes.get(instance.getId());
+		if (routes == null || !routes.endpoints().equals(endpoints)) {
+			routes = Routes.of(endpoints);
+			this.routes.put(instance.getId(), routes);
+		}
+		return routes.routes().get(endpointId);
+	}
+
+	public void remove(InstanceId instanceId) {
+		this.routes.remove(instanceId);
+	}
+
+	/**
+	 * The route to a single endpoint.
+	 */
+	public static final class Route {
+
+		private final String endpointId;
+
+		private final String url;
+
+		@Nullable private final URI uri;
+
+		@Nullable private final String baseUrl;
+
+		private Route(Endpoint endpoint) {
+			this.endpointId = endpoint.getId();
+			this.url = endpoint.getUrl();
+			this.uri = parseConcatenable(this.url);
+			this.baseUrl = (this.uri != null) ? StringUtils.trimTrailingCharacter(this.url, '/') : null;
+		}
+
+		public String getEndpointId() {
+			return this.endpointId;
+		}
+
+		/**
+		 * Rewrites a request to the endpoint. Empty path segments are dropped.
+		 * @param rawPath the encoded path following the endpoint id
+		 * @param rawQuery the encoded query, may be {@code null}
+		 * @return the URL of the endpoint extended by path and query
+		 */
+		public URI rewrite(String rawPath, @Nullable String rawQuery) {
+			if (this.uri == null || this.baseUrl == null) {
+				return UriComponentsBuilder.fromUriString(this.url)
+					.pathSegment(StringUtils.tokenizeToStringArray(rawPath, "/"))
+					.query(rawQuery)
+					.build(true)
+					.toUri();
+			}
+			boolean hasPath = hasSegments(rawPath);
+			boolean hasQuery = StringUtils.hasLength(rawQuery);
+			if (!hasPath && !hasQuery) {
+				return this.uri;
+			}
+			StringBuilder url = new StringBuilder(
+					this.baseUrl.length() + rawPath.length() + ((rawQuery != null) ? rawQuery.length() + 1 : 0) + 1);
+			if (hasPath) {
+				url.append(this.baseUrl);
+				appendSegments(url, rawPath);
+			}
+			else {
+				url.append(this.url);
+			}
+			if (hasQuery) {
+				url.append('?').append(rawQuery);
+			}
+			return URI.create(url.toString());
+		}
+
+		private static boolean hasSegments(String rawPath) {
+			for (int i = 0; i < rawPath.length(); i++) {
+				if (rawPath.charAt(i) != '/') {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private static void appendSegments(StringBuilder url, String rawPath) {
+			int start = 0;
+			while (start < rawPath.length()) {
+				int end = rawPath.indexOf('/', start);
+				if (end < 0) {
+					end = rawPath.length();
+				}
+				if (end > start) {
+					url.append('/').append(rawPath, start, end);
+				}
+				start = end + 1;
+			}
+		}
+
+		@Nullable private static URI parseConcatenable(String url) {
+			if (url.indexOf('?') >= 0 || url.indexOf('#') >= 0) {
+				return null;
+			}
+			try {
+				URI uri = URI.create(url);
+				return uri.isAbsolute() ? uri : null;
+			}
+			catch (IllegalArgumentException ex) {
+				return null;
+			}
+		}
+
+	}
+
+	private record Routes(Endpoints endpoints, Map<String, Route> routes) {
+
+		private static Routes of(Endpoints endpoints) {
+			Map<String, Route> routes = new HashMap<>();
+			endpoints.forEach((endpoint) -> routes.put(endpoint.getId(), new Route(endpoint)));
+			return new Routes(endpoints, routes);
+		}
+
+	}
+
+}
@@ -22,7 +22,8 @@ import de.codecentric.boot.admin.server.domain.entities.Instance;
 
 /**
  * Is responsible to provide the {@link HttpHeaders} used to interact with the given
- * {@link Instance}.
+ * {@link Instance}. The returned headers may be shared between requests and must not be
+ * modified.
  *
  * @author Johannes Edmeier
  */
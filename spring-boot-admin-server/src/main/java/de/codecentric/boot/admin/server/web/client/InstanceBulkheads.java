@@ -0,0 +1,228 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.jspecify.annotations.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.client.exception.BulkheadFullException;
+
+/**
+ * Limits the number of concurrent requests sent to an instance. Requests over the limit
+ * wait in a short queue; when the queue is full or the request waited too long, it is
+ * rejected with a {@link BulkheadFullException}. The health checks and the other
+ * requests, mostly proxied for the UI, have separate limits, so a busy UI doesn't delay
+ * the status checks.
+ * <p>
+ * A request holds its permit until the response headers have been received or the request
+ * failed. When bound to a {@link MeterRegistry} the rejected requests are counted.
+ */
+public class InstanceBulkheads implements MeterBinder {
+
+	private final Map<Traffic, Limits> limits;
+
+	private final ConcurrentMap<Key, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+	private Meter.@Nullable MeterProvider<Counter> rejections;
+
+	/**
+	 * Creates the bulkheads.
+	 * @param healthLimits limits for the health checks
+	 * @param proxyLimits limits for all other requests
+	 */
+	public InstanceBulkheads(Limits healthLimits, Limits proxyLimits) {
+		this.limits = new EnumMap<>(Traffic.class);
+		this.limits.put(Traffic.HEALTH, healthLimits);
+		this.limits.put(Traffic.PROXY, proxyLimits);
+	}
+
+	/**
+	 * Sends the request once a permit of the instance's bulkhead has been acquired. The
+	 * permit is released when the returned mono terminates or is cancelled.
+	 * @param instance the instance the request is sent to
+	 * @param traffic the kind of the request
+	 * @param request supplier of the request
+	 * @param <T> the type of the response
+	 * @return the response or a {@link BulkheadFullException}
+	 */
+	public <T> Mono<T> execute(Instance instance, Traffic traffic, Supplier<Mono<T>> request) {
+		Bulkhead bulkhead = this.bulkheads.computeIfAbsent(new Key(instance.getId(), traffic),
+				(key) -> new Bulkhead(this.limits.get(traffic)));
+		Mono<Permit> permit = Mono.create(bulkhead::acquire);
+		Duration maxWait = bulkhead.limits.maxWait();
+		if (!maxWait.isZero() && !maxWait.isNegative()) {
+			permit = permit.timeout(maxWait, Mono.error(() -> new BulkheadFullException(
+					"Waited longer than " + maxWait + " for a request to instance " + instance.getId())));
+		}
+		return permit.doOnError(BulkheadFullException.class, (ex) -> recordRejection(instance, traffic))
+			.flatMap((p) -> request.get().doFinally((signal) -> p.release()));
+	}
+
+	public void remove(InstanceId instanceId) {
+		this.bulkheads.keySet().removeIf((key) -> key.instanceId().equals(instanceId));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.rejections = Counter.builder("spring.boot.admin.instance.requests.rejected")
+			.description("Number of requests to the instances rejected by the bulkhead")
+			.withRegistry(registry);
+	}
+
+	private void recordRejection(Instance instance, Traffic traffic) {
+		if (this.rejections != null) {
+			String application = instance.isRegistered() ? instance.getRegistration().getName()
+					: instance.getId().getValue();
+			this.rejections
+				.withTags(Tags.of("application", application, "traffic", traffic.name().toLowerCase(Locale.ROOT)))
+				.increment();
+		}
+	}
+
+	public enum Traffic {
+
+		/**
+		 * Requests to the {@code health} endpoint sent by the status checks.
+		 */
+		HEALTH,
+
+		/**
+		 * All other requests, e.g. proxied for the UI.
+		 */
+		PROXY
+
+	}
+
+	/**
+	 * Limits of a bulkhead.
+	 *
+	 * @param maxConcurrentRequests number of requests sent concurrently
+	 * @param maxQueuedRequests number of requests waiting for a permit
+	 * @param maxWait time a request waits for a permit, zero to wait until the request
+	 * times out
+	 */
+	public record Limits(int maxConcurrentRequests, int maxQueuedRequests, Duration maxWait) {
+	}
+
+	private record Key(InstanceId instanceId, Traffic traffic) {
+	}
+
+	private static final class Bulkhead {
+
+		private final Limits limits;
+
+		private final Deque<Waiter> queue = new ArrayDeque<>();
+
+		private int active = 0;
+
+		private Bulkhead(Limits limits) {
+			this.limits = limits;
+		}
+
+		private void acquire(MonoSink<Permit> sink) {
+			Waiter waiter = new Waiter(sink);
+			synchronized (this) {
+				if (this.active < this.limits.maxConcurrentRequests()) {
+					this.active++;
+				}
+				else if (this.queue.size() < this.limits.maxQueuedRequests()) {
+					this.queue.add(waiter);
+					sink.onCancel(() -> cancel(waiter));
+					return;
+				}
+				else {
+					sink.error(new BulkheadFullException("Too many concurrent requests to the instance"));
+					return;
+				}
+			}
+			sink.success(new Permit(this));
+		}
+
+		private void cancel(Waiter waiter) {
+			synchronized (this) {
+				if (waiter.granted.compareAndSet(false, true)) {
+					this.queue.remove(waiter);
+					return;
+				}
+			}
+			// the permit has been handed over while cancelling
+			release();
+		}
+
+		private void release() {
+			Waiter next;
+			synchronized (this) {
+				do {
+					next = this.queue.poll();
+				}
+				while (next != null && !next.granted.compareAndSet(false, true));
+				if (next == null) {
+					this.active--;
+					return;
+				}
+			}
+			next.sink.success(new Permit(this));
+		}
+
+	}
+
+	private record Waiter(MonoSink<Permit> sink, AtomicBoolean granted) {
+
+		private Waiter(MonoSink<Permit> sink) {
+			this(sink, new AtomicBoolean(false));
+		}
+
+	}
+
+	private static final class Permit {
+
+		private final Bulkhead bulkhead;
+
+		private final AtomicBoolean released = new AtomicBoolean(false);
+
+		private Permit(Bulkhead bulkhead) {
+			this.bulkhead = bulkhead;
+		}
+
+		private void release() {
+			if (this.released.compareAndSet(false, true)) {
+				this.bulkhead.release();
+			}
+		}
+
+	}
+
+}
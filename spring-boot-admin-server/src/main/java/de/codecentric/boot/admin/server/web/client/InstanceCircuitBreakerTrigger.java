@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+
+import de.codecentric.boot.admin.server.domain.events.InstanceDeregisteredEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceStatusChangedEvent;
+import de.codecentric.boot.admin.server.services.AbstractEventHandler;
+
+/**
+ * Feeds the results of the status checks into the {@link InstanceCircuitBreakers}: the
+ * breaker of an instance is opened when the instance goes offline and closed when it is
+ * reachable again. The breakers of deregistered instances are removed.
+ */
+public class InstanceCircuitBreakerTrigger extends AbstractEventHandler<InstanceEvent> {
+
+	private final InstanceCircuitBreakers circuitBreakers;
+
+	public InstanceCircuitBreakerTrigger(Publisher<InstanceEvent> publisher, InstanceCircuitBreakers circuitBreakers) {
+		super(publisher, InstanceEvent.class);
+		this.circuitBreakers = circuitBreakers;
+	}
+
+	@Override
+	protected Publisher<Void> handle(Flux<InstanceEvent> publisher) {
+		return publisher.doOnNext((event) -> {
+			if (event instanceof InstanceStatusChangedEvent statusChangedEvent) {
+				if (statusChangedEvent.getStatusInfo().isOffline()) {
+					this.circuitBreakers.open(event.getInstance());
+				}
+				else {
+					this.circuitBreakers.close(event.getInstance());
+				}
+			}
+			else if (event instanceof InstanceDeregisteredEvent) {
+				this.circuitBreakers.remove(event.getInstance());
+			}
+		}).then();
+	}
+
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * Circuit breakers for the requests to the instances, one per instance. A breaker opens
+ * when the instance is reported offline by the status checks or after a number of
+ * consecutive failed requests. While a breaker is open, requests fail fast instead of
+ * waiting for the timeout. After the open duration a single probe request is let through
+ * (half-open); its outcome closes the breaker or opens it again. Besides the probe only
+ * the status checks reporting the instance reachable close an open breaker.
+ */
+public class InstanceCircuitBreakers {
+
+	private static final Logger log = LoggerFactory.getLogger(InstanceCircuitBreakers.class);
+
+	private final int failureThreshold;
+
+	private final long openDuration;
+
+	private final LongSupplier nanoTime;
+
+	private final ConcurrentMap<InstanceId, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates the circuit breakers.
+	 * @param failureThreshold number of consecutive failed requests opening a breaker
+	 * @param openDuration time a breaker stays open before a probe request is let through
+	 */
+	public InstanceCircuitBreakers(int failureThreshold, Duration openDuration) {
+		this(failureThreshold, openDuration, System::nanoTime);
+	}
+
+	InstanceCircuitBreakers(int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+		this.failureThreshold = failureThreshold;
+		this.openDuration = openDuration.toNanos();
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * Acquires the permission for a request to the instance. Each permission must be
+	 * followed by a call to {@link #onSuccess}, {@link #onFailure} or {@link #onCancel}.
+	 * @param instanceId the id of the instance
+	 * @return {@code true} if the request may be sent
+	 */
+	public boolean tryAcquirePermission(InstanceId instanceId) {
+		return breaker(instanceId).tryAcquirePermission(this.nanoTime.getAsLong());
+	}
+
+	public void onSuccess(InstanceId instanceId) {
+		breaker(instanceId).onSuccess();
+	}
+
+	public void onFailure(InstanceId instanceId) {
+		breaker(instanceId).onFailure(this.nanoTime.getAsLong());
+	}
+
+	public void onCancel(InstanceId instanceId) {
+		breaker(instanceId).onCancel();
+	}
+
+	/**
+	 * Opens the breaker, e.g. because the instance has been reported offline.
+	 * @param instanceId the id of the instance
+	 */
+	public void open(InstanceId instanceId) {
+		breaker(instanceId).open(this.nanoTime.getAsLong());
+	}
+
+	/**
+	 * Closes the breaker, e.g. because the instance has been reported reachable.
+	 * @param instanceId the id of the instance
+	 */
+	public void close(InstanceId instanceId) {
+		breaker(instanceId).close();
+	}
+
+	public void remove(InstanceId instanceId) {
+		this.breakers.remove(instanceId);
+	}
+
+	public State getState(InstanceId instanceId) {
+		CircuitBreaker breaker = this.breakers.get(instanceId);
+		return (breaker != null) ? breaker.getState() : State.CLOSED;
+	}
+
+	public Map<InstanceId, State> getStates() {
+		return this.breakers.entrySet()
+			.stream()
+			.collect(Collectors.toMap(Map.Entry::getKey, (entry) -> entry.getValue().getState()));
+	}
+
+	private CircuitBreaker breaker(InstanceId instanceId) {
+		return this.breakers.computeIfAbsent(instanceId, CircuitBreaker::new);
+	}
+
+	public enum State {
+
+		/**
+		 * Requests are sent to the instance.
+		 */
+		CLOSED,
+
+		/**
+		 * Requests fail fast without being sent to the instance.
+		 */
+		OPEN,
+
+		/**
+		 * A single probe request is sent to the instance, others fail fast.
+		 */
+		HALF_OPEN
+
+	}
+
+	private final class CircuitBreaker {
+
+		private final InstanceId instanceId;
+
+		private State state = State.CLOSED;
+
+		private int failures = 0;
+
+		private long openedAt = 0L;
+
+		private boolean probing = false;
+
+		private CircuitBreaker(InstanceId instanceId) {
+			this.instanceId = instanceId;
+		}
+
+		private synchronized boolean tryAcquirePermission(long now) {
+			if (this.state == State.OPEN && now - this.openedAt >= InstanceCircuitBreakers.this.openDuration) {
+				this.state = State.HALF_OPEN;
+			}
+			return switch (this.state) {
+				case CLOSED -> true;
+				case OPEN -> false;
+				case HALF_OPEN -> {
+					if (this.probing) {
+						yield false;
+					}
+					this.probing = true;
+					yield true;
+				}
+			};
+		}
+
+		private synchronized void onSuccess() {
+			switch (this.state) {
+				case CLOSED -> this.failures = 0;
+				// only the probe closes a half-open breaker
+				case HALF_OPEN -> {
+					if (this.probing) {
+						close();
+					}
+				}
+				// requests sent before the breaker opened don't close it, only the probe
+				// or the status checks do
+				case OPEN -> {
+				}
+			}
+		}
+
+		private synchronized void close() {
+			if (this.state != State.CLOSED) {
+				log.info("Closing circuit breaker for instance {}", this.instanceId);
+			}
+			this.state = State.CLOSED;
+			this.failures = 0;
+			this.probing = false;
+		}
+
+		private synchronized void onFailure(long now) {
+			this.failures++;
+			if (this.state == State.HALF_OPEN || this.failures >= InstanceCircuitBreakers.this.failureThreshold) {
+				open(now);
+			}
+		}
+
+		private synchronized void onCancel() {
+			this.probing = false;
+		}
+
+		private synchronized void open(long now) {
+			if (this.state != State.OPEN) {
+				log.info("Opening circuit breaker for instance {}", this.instanceId);
+			}
+			this.state = State.OPEN;
+			this.openedAt = now;
+			this.probing = false;
+		}
+
+		private synchronized State getState() {
+			return this.state;
+		}
+
+	}
+
+}
@@ -21,8 +21,11 @@ import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.actuate.endpoint.ApiVersion;
@@ -33,13 +36,14 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ClientResponse;
-import org.springframework.web.util.UriComponents;
-import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 import de.codecentric.boot.admin.server.domain.values.Endpoint;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
 import de.codecentric.boot.admin.server.web.client.cookies.PerInstanceCookieStore;
+import de.codecentric.boot.admin.server.web.client.exception.CircuitBreakerOpenException;
 import de.codecentric.boot.admin.server.web.client.exception.ResolveEndpointException;
 import de.codecentric.boot.admin.server.web.client.reactive.ReactiveHttpHeadersProvider;
 
@@ -65,9 +69,11 @@ public final class InstanceExchangeFilterFunctions {
 
 	public static InstanceExchangeFilterFunction addHeaders(HttpHeadersProvider httpHeadersProvider) {
 		return (instance, request, next) -> {
-			request = ClientRequest.from(request)
-				.headers((headers) -> headers.addAll(httpHeadersProvider.getHeaders(instance)))
-				.build();
+			HttpHeaders additionalHeaders = httpHeadersProvider.getHeaders(instance);
+			if (additionalHeaders.isEmpty()) {
+				return next.exchange(request);
+			}
+			request = ClientRequest.from(request).headers((headers) -> headers.addAll(additionalHeaders)).build();
 			return next.exchange(request);
 		};
 	}
@@ -83,6 +89,10 @@ public final class InstanceExchangeFilterFunctions {
 	}
 
 	public static InstanceExchangeFilterFunction rewriteEndpointUrl() {
+		return rewriteEndpointUrl(new EndpointRouteTable());
+	}
+
+	public static InstanceExchangeFilterFunction rewriteEndpointUrl(EndpointRouteTable routeTable) {
 		return (instance, request, next) -> {
 			if (request.url().isAbsolute()) {
 				log.trace("Absolute URL '{}' for instance {} not rewritten", request.url(), instance.getId());
@@ -94,40 +104,38 @@ public final class InstanceExchangeFilterFunctions {
 				return next.exchange(request);
 			}
 
-			UriComponents requestUrl = UriComponentsBuilder.fromUri(request.url()).build();
-			if (requestUrl.getPathSegments().isEmpty()) {
+			String rawPath = request.url().getRawPath();
+			String path = (rawPath != null) ? rawPath : "";
+			int start = 0;
+			while (start < path.length() && path.charAt(start) == '/') {
+				start++;
+			}
+			if (start == path.length()) {
 				return Mono.error(new ResolveEndpointException("No endpoint specified"));
 			}
 
-			String endpointId = requestUrl.getPathSegments().get(0);
-			Optional<Endpoint> endpoint = instance.getEndpoints().get(endpointId);
+			int end = path.indexOf('/', start);
+			if (end < 0) {
+				end = path.length();
+			}
+			String endpointId = path.substring(start, end);
+			EndpointRouteTable.Route route = routeTable.getRoute(instance, endpointId);
 
-			if (endpoint.isEmpty()) {
+			if (route == null) {
 				return Mono.error(new ResolveEndpointException("Endpoint '" + endpointId + "' not found"));
 			}
 
-			URI rewrittenUrl = rewriteUrl(requestUrl, endpoint.get().getUrl());
-			log.trace("URL '{}' for Endpoint {} of instance {} rewritten to {}", requestUrl, endpoint.get().getId(),
+			URI rewrittenUrl = route.rewrite(path.substring(end), request.url().getRawQuery());
+			log.trace("URL '{}' for Endpoint {} of instance {} rewritten to {}", request.url(), endpointId,
 					instance.getId(), rewrittenUrl);
 			request = ClientRequest.from(request)
-				.attribute(ATTRIBUTE_ENDPOINT, endpoint.get().getId())
+				.attribute(ATTRIBUTE_ENDPOINT, route.getEndpointId())
 				.url(rewrittenUrl)
 				.build();
 			return next.exchange(request);
 		};
 	}
 
-	private static URI rewriteUrl(UriComponents oldUrl, String targetUrl) {
-		String[] newPathSegments = oldUrl.getPathSegments()
-			.subList(1, oldUrl.getPathSegments().size())
-			.toArray(new String[] {});
-		return UriComponentsBuilder.fromUriString(targetUrl)
-			.pathSegment(newPathSegments)
-			.query(oldUrl.getQuery())
-			.build(true)
-			.toUri();
-	}
-
 	public static InstanceExchangeFilterFunction convertLegacyEndpoints(List<LegacyEndpointConverter> converters) {
 		return (instance, request, next) -> {
 			Mono<ClientResponse> clientResponse = next.exchange(request);
@@ -159,7 +167,7 @@ public final class InstanceExchangeFilterFunctions {
 	}
 
 	private static ClientResponse convertLegacyResponse(LegacyEndpointConverter converter, ClientResponse response) {
-		return response.mutate().headers((headers) -> {
+		return ContentDecoder.decode(response).mutate().headers((headers) -> {
 			headers.setContentType(MediaType.asMediaType(ApiVersion.LATEST.getProducedMimeType()));
 			headers.remove(HttpHeaders.CONTENT_LENGTH);
 		}).body(converter::convert).build();
@@ -179,14 +187,115 @@ public final class InstanceExchangeFilterFunctions {
 		};
 	}
 
+	/**
+	 * Creates the {@link InstanceExchangeFilterFunction} requesting compressed responses
+	 * from the instances, which are decompressed while being read. Requests already
+	 * carrying an {@code Accept-Encoding} header (e.g. proxied requests of a browser)
+	 * have negotiated the encoding on their own and receive the body as sent by the
+	 * instance. Range requests are left untouched, as the ranges refer to the
+	 * uncompressed content.
+	 * @return the new filter function
+	 */
+	public static InstanceExchangeFilterFunction compression() {
+		return (instance, request, next) -> {
+			if (request.headers().containsHeader(HttpHeaders.ACCEPT_ENCODING)
+					|| request.headers().containsHeader(HttpHeaders.RANGE)) {
+				return next.exchange(request);
+			}
+			ClientRequest compressedRequest = ClientRequest.from(request)
+				.headers((h) -> h.set(HttpHeaders.ACCEPT_ENCODING, ContentDecoder.ACCEPTED_ENCODINGS))
+				.build();
+			return next.exchange(compressedRequest).map(ContentDecoder::decode);
+		};
+	}
+
+	/**
+	 * Creates the {@link InstanceExchangeFilterFunction} limiting the concurrent requests
+	 * per instance. Requests to the {@code health} endpoint are limited separately from
+	 * all other requests.
+	 * @param bulkheads the bulkheads of the instances
+	 * @return the new filter function
+	 */
+	public static InstanceExchangeFilterFunction bulkhead(InstanceBulkheads bulkheads) {
+		return (instance, request, next) -> {
+			InstanceBulkheads.Traffic traffic = request.attribute(ATTRIBUTE_ENDPOINT)
+				.map(Endpoint.HEALTH::equals)
+				.orElse(false) ? InstanceBulkheads.Traffic.HEALTH : InstanceBulkheads.Traffic.PROXY;
+			return bulkheads.execute(instance, traffic, () -> next.exchange(request));
+		};
+	}
+
+	/**
+	 * Creates the {@link InstanceExchangeFilterFunction} failing requests fast with a
+	 * {@link CircuitBreakerOpenException} while the circuit breaker of the instance is
+	 * open. Failed requests - requests without any response - are counted by the breaker.
+	 * Requests to the {@code health} endpoint are always sent, as the status checks
+	 * decide whether an instance is offline and feed the breakers on their own.
+	 * @param circuitBreakers the circuit breakers of the instances
+	 * @return the new filter function
+	 */
+	public static InstanceExchangeFilterFunction circuitBreaker(InstanceCircuitBreakers circuitBreakers) {
+		return (instance, request, next) -> {
+			if (request.attribute(ATTRIBUTE_ENDPOINT).map(Endpoint.HEALTH::equals).orElse(false)) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				InstanceId instanceId = instance.getId();
+				if (!circuitBreakers.tryAcquirePermission(instanceId)) {
+					return Mono.error(
+							new CircuitBreakerOpenException("Circuit breaker for instance " + instanceId + " is open"));
+				}
+				return next.exchange(request)
+					.doOnSuccess((response) -> circuitBreakers.onSuccess(instanceId))
+					.doOnError((ex) -> circuitBreakers.onFailure(instanceId))
+					.doOnCancel(() -> circuitBreakers.onCancel(instanceId));
+			});
+		};
+	}
+
 	public static InstanceExchangeFilterFunction retry(int defaultRetries, Map<String, Integer> retriesPerEndpoint) {
+		return retry(defaultRetries, retriesPerEndpoint, Duration.ZERO, Duration.ZERO, null);
+	}
+
+	/**
+	 * Creates the {@link InstanceExchangeFilterFunction} retrying failed requests, except
+	 * for {@code DELETE}, {@code PATCH}, {@code POST} and {@code PUT} requests. The
+	 * retries are delayed by an exponential backoff with jitter, and are only sent while
+	 * the retry budget of the instance allows it.
+	 * @param defaultRetries number of retries for endpoints without specific value
+	 * @param retriesPerEndpoint number of retries per endpoint
+	 * @param firstBackoff delay before the first retry, {@code Duration.ZERO} to retry
+	 * immediately
+	 * @param maxBackoff maximum delay before a retry
+	 * @param budget the budget limiting the retries per instance, {@code null} for no
+	 * limit
+	 * @return the new filter function
+	 */
+	public static InstanceExchangeFilterFunction retry(int defaultRetries, Map<String, Integer> retriesPerEndpoint,
+			Duration firstBackoff, Duration maxBackoff, @Nullable RetryBudget budget) {
 		return (instance, request, next) -> {
 			int retries = 0;
 			if (!request.method().equals(HttpMethod.DELETE) && !request.method().equals(HttpMethod.PATCH)
 					&& !request.method().equals(HttpMethod.POST) && !request.method().equals(HttpMethod.PUT)) {
 				retries = request.attribute(ATTRIBUTE_ENDPOINT).map(retriesPerEndpoint::get).orElse(defaultRetries);
 			}
-			return next.exchange(request).retry(retries);
+			Mono<ClientResponse> exchange = next.exchange(request);
+			if (retries > 0) {
+				Predicate<Throwable> withinBudget = (ex) -> budget == null || budget.tryAcquire(instance.getId());
+				exchange = exchange.retryWhen(firstBackoff.isZero()
+						? Retry.max(retries)
+							.filter(withinBudget)
+							.onRetryExhaustedThrow((spec, signal) -> signal.failure())
+						: Retry.backoff(retries, firstBackoff)
+							.maxBackoff(maxBackoff)
+							.jitter(0.5d)
+							.filter(withinBudget)
+							.onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+			}
+			if (budget != null) {
+				exchange = exchange.doOnSubscribe((s) -> budget.onRequest(instance.getId()));
+			}
+			return exchange;
 		};
 	}
 
@@ -200,6 +309,105 @@ public final class InstanceExchangeFilterFunctions {
 		};
 	}
 
+	/**
+	 * Creates the {@link InstanceExchangeFilterFunction} timing out requests after a
+	 * multiple of the observed latency percentile of the endpoint, bounded by the given
+	 * minimum and maximum. Timeouts configured for an endpoint take precedence; the
+	 * default timeout is used until enough latencies of the endpoint have been observed.
+	 * @param latencies the tracker providing the latencies of the endpoints
+	 * @param percentile the latency percentile the timeout is derived from
+	 * @param multiplier the multiple of the latency percentile used as timeout
+	 * @param minTimeout lower bound of the derived timeouts
+	 * @param maxTimeout upper bound of the derived timeouts
+	 * @param defaultTimeout timeout used without enough observed latencies
+	 * @param timeoutPerEndpoint timeouts for specific endpoints
+	 * @return the new filter function
+	 */
+	public static InstanceExchangeFilterFunction adaptiveTimeout(EndpointLatencyTracker latencies, double percentile,
+			double multiplier, Duration minTimeout, Duration maxTimeout, Duration defaultTimeout,
+			Map<String, Duration> timeoutPerEndpoint) {
+		return (instance, request, next) -> {
+			Optional<String> endpoint = request.attribute(ATTRIBUTE_ENDPOINT).map(Object::toString);
+			Duration timeout = endpoint.map(timeoutPerEndpoint::get)
+				.or(() -> endpoint.flatMap((e) -> latencies.getPercentile(instance, e, percentile))
+					.map((latency) -> Duration.ofNanos((long) (latency.toNanos() * multiplier)))
+					.map((derived) -> (derived.compareTo(minTimeout) < 0) ? minTimeout
+							: (derived.compareTo(maxTimeout) > 0) ? maxTimeout : derived))
+				.orElse(defaultTimeout);
+			return next.exchange(request).timeout(timeout);
+		};
+	}
+
+	/**
+	 * Creates the {@link InstanceExchangeFilterFunction} hedging {@code GET} requests: if
+	 * there is no response after the given latency percentile of the endpoint, a second
+	 * request is sent and the response received first is used. Hedged requests are only
+	 * sent while the retry budget of the instance allows it.
+	 * @param latencies the tracker providing the latencies of the endpoints
+	 * @param percentile the latency percentile after which the request is hedged
+	 * @param minDelay minimum delay before a request is hedged
+	 * @param budget the budget limiting the hedged requests per instance, {@code null}
+	 * for no limit
+	 * @return the new filter function
+	 */
+	public static InstanceExchangeFilterFunction hedge(EndpointLatencyTracker latencies, double percentile,
+			Duration minDelay, @Nullable RetryBudget budget) {
+		return (instance, request, next) -> {
+			if (!request.method().equals(HttpMethod.GET)) {
+				return next.exchange(request);
+			}
+			Optional<Duration> delay = request.attribute(ATTRIBUTE_ENDPOINT)
+				.flatMap((endpoint) -> latencies.getPercentile(instance, endpoint.toString(), percentile))
+				.map((latency) -> (latency.compareTo(minDelay) < 0) ? minDelay : latency);
+			if (delay.isEmpty()) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				AtomicBoolean answered = new AtomicBoolean(false);
+				Mono<ClientResponse> hedged = Mono.delay(delay.get())
+					.filter((tick) -> budget == null || budget.tryAcquire(instance.getId()))
+					.flatMap((tick) -> {
+						log.trace("Hedging request to '{}' of instance {} after {}", request.url(), instance.getId(),
+								delay.get());
+						return next.exchange(request);
+					});
+				return Flux.merge(next.exchange(request), hedged).filter((response) -> {
+					if (answered.compareAndSet(false, true)) {
+						return true;
+					}
+					response.releaseBody().subscribe();
+					return false;
+				}).next().doOnDiscard(ClientResponse.class, (response) -> response.releaseBody().subscribe());
+			});
+		};
+	}
+
+	/**
+	 * Creates the {@link InstanceExchangeFilterFunction} recording the latencies of the
+	 * requests to the endpoints. Only requests answered with a response are recorded;
+	 * requests failing or cancelled before the response has been received, e.g. by a
+	 * timeout or as the slower of two hedged requests, are not. Otherwise the timeouts
+	 * derived from the latencies would grow with each timeout they cause.
+	 * @param latencies the tracker to record the latencies
+	 * @return the new filter function
+	 */
+	public static InstanceExchangeFilterFunction recordLatency(EndpointLatencyTracker latencies) {
+		return (instance, request, next) -> {
+			Optional<String> endpoint = request.attribute(ATTRIBUTE_ENDPOINT).map(Object::toString);
+			if (endpoint.isEmpty()) {
+				return next.exchange(request);
+			}
+			return Mono.defer(() -> {
+				long start = System.nanoTime();
+				return next.exchange(request).doOnSuccess((response) -> {
+					if (response != null) {
+						latencies.record(instance, endpoint.get(), Duration.ofNanos(System.nanoTime() - start));
+					}
+				});
+			});
+		};
+	}
+
 	// Accept header is broken on /logfile. We need to add "*/*" for old clients
 	// see https://github.com/spring-projects/spring-boot/issues/16188
 	public static InstanceExchangeFilterFunction logfileAcceptWorkaround() {
@@ -247,6 +455,9 @@ public final class InstanceExchangeFilterFunctions {
 
 	private static ClientResponse storeCookiesFromResponse(final InstanceId instId, final ClientRequest request,
 			final ClientResponse response, final PerInstanceCookieStore store) {
+		if (response.headers().header(HttpHeaders.SET_COOKIE).isEmpty()) {
+			return response;
+		}
 		final HttpHeaders headers = response.headers().asHttpHeaders();
 		log.trace("Searching for cookies in header values of response [url={},headerValues={}]", request.url(),
 				headers);
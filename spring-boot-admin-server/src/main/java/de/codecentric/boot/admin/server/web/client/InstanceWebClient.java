@@ -18,22 +18,39 @@ package de.codecentric.boot.admin.server.web.client;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
 
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ConcurrentReferenceHashMap.ReferenceType;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
 import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
 import de.codecentric.boot.admin.server.web.client.exception.ResolveInstanceException;
 
+/**
+ * WebClient for requests to the instances applying the
+ * {@link InstanceExchangeFilterFunction InstanceExchangeFilterFunctions}. The filter
+ * chain is built once, the instance is bound to each request via the
+ * {@link #ATTRIBUTE_INSTANCE} request attribute. The WebClient bound to an instance is
+ * cached and reused as long as the same {@link Instance} is passed. A single client is
+ * cached per instance id. The cache is held using weak references, so the clients of
+ * deregistered instances and their credentials are released with the next garbage
+ * collection.
+ */
 public class InstanceWebClient {
 
 	public static final String ATTRIBUTE_INSTANCE = "instance";
 
 	private final WebClient webClient;
 
+	private final ConcurrentMap<InstanceId, BoundWebClient> boundWebClients = new ConcurrentReferenceHashMap<>(16,
+			ReferenceType.WEAK);
+
 	protected InstanceWebClient(WebClient webClient) {
 		this.webClient = webClient;
 	}
@@ -43,7 +60,18 @@ public class InstanceWebClient {
 	}
 
 	public WebClient instance(Instance instance) {
-		return this.instance(Mono.justOrEmpty(instance));
+		if (instance == null) {
+			return this.instance(Mono.empty());
+		}
+		BoundWebClient bound = this.boundWebClients.get(instance.getId());
+		if (bound == null || bound.instance() != instance) {
+			bound = new BoundWebClient(instance,
+					this.webClient.mutate()
+						.defaultRequest((request) -> request.attribute(ATTRIBUTE_INSTANCE, instance))
+						.build());
+			this.boundWebClients.put(instance.getId(), bound);
+		}
+		return bound.webClient();
 	}
 
 	public static InstanceWebClient.Builder builder() {
@@ -62,11 +90,15 @@ public class InstanceWebClient {
 	}
 
 	private static ExchangeFilterFunction toExchangeFilterFunction(InstanceExchangeFilterFunction filter) {
-		return (request, next) -> request.attribute(ATTRIBUTE_INSTANCE)
-			.filter(Instance.class::isInstance)
-			.map(Instance.class::cast)
-			.map((instance) -> filter.filter(instance, request, next))
-			.orElseGet(() -> next.exchange(request));
+		return (request, next) -> {
+			if (request.attributes().get(ATTRIBUTE_INSTANCE) instanceof Instance instance) {
+				return filter.filter(instance, request, next);
+			}
+			return next.exchange(request);
+		};
+	}
+
+	private record BoundWebClient(Instance instance, WebClient webClient) {
 	}
 
 	public static class Builder {
@@ -103,6 +135,11 @@ public class InstanceWebClient {
 			return this;
 		}
 
+		public Builder customizeWebClient(Consumer<WebClient.Builder> webClientCustomizer) {
+			webClientCustomizer.accept(this.webClientBuilder);
+			return this;
+		}
+
 		public Builder clone() {
 			return new Builder(this);
 		}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.async.ByteArrayFeeder;
+import tools.jackson.databind.json.JsonMapper;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Transforms a JSON document token by token while the body is read. The tokens are handed
+ * to {@link #onToken(JsonToken)}, which writes the transformed document to the
+ * {@link #output()}. Only values explicitly {@link #capture(Consumer) captured} are
+ * materialized, so the memory needed does not depend on the size of the whole document.
+ * <p>
+ * Instances are stateful and must only be used for a single document.
+ */
+abstract class JsonStreamTransformer {
+
+	private final JsonMapper mapper;
+
+	private final JsonParser parser;
+
+	private final ByteArrayFeeder feeder;
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+	private final JsonGenerator output;
+
+	@Nullable private Capture capture;
+
+	private int depth = 0;
+
+	protected JsonStreamTransformer(JsonMapper mapper) {
+		this.mapper = mapper;
+		this.parser = mapper.createNonBlockingByteArrayParser();
+		this.feeder = (ByteArrayFeeder) this.parser.nonBlockingInputFeeder();
+		this.output = mapper.createGenerator(this.buffer);
+	}
+
+	/**
+	 * Creates a function transforming each body with a new transformer from the given
+	 * supplier.
+	 * @param transformer supplier for the transformer of a single body
+	 * @return the transforming function
+	 */
+	static Function<Flux<DataBuffer>, Flux<DataBuffer>> transformUsing(
+			Supplier<? extends JsonStreamTransformer> transformer) {
+		return (input) -> Flux
+			.<DataBuffer, JsonStreamTransformer>using(transformer::get,
+					(t) -> input.concatMapIterable(t::feed).concatWith(Flux.defer(() -> Flux.fromIterable(t.finish()))),
+					JsonStreamTransformer::close)
+			.onErrorMap(JacksonException.class,
+					(ex) -> new DecodingException("JSON decoding error: " + ex.getOriginalMessage(), ex));
+	}
+
+	/**
+	 * Called for each token which is not part of a captured value.
+	 * @param token the current token
+	 */
+	protected abstract void onToken(JsonToken token);
+
+	protected final JsonParser parser() {
+		return this.parser;
+	}
+
+	protected final JsonGenerator output() {
+		return this.output;
+	}
+
+	/**
+	 * Returns the nesting depth after the current token, e.g. 1 for the start of the root
+	 * object and the property names within it.
+	 * @return the nesting depth
+	 */
+	protected final int depth() {
+		return this.depth;
+	}
+
+	/**
+	 * Reads the current value - or the value of the current property - completely and
+	 * passes it to the callback.
+	 * @param callback receives the value as {@code Map}, {@code List} or scalar
+	 */
+	protected final void capture(Consumer<@Nullable Object> callback) {
+		ByteArrayOutputStream captured = new ByteArrayOutputStream();
+		JsonGenerator generator = this.mapper.createGenerator(captured);
+		start(new Capture(generator, () -> {
+			generator.close();
+			callback.accept(this.mapper.readValue(captured.toByteArray(), Object.class));
+		}));
+	}
+
+	/**
+	 * Writes the current value - or the value of the current property - unchanged to the
+	 * output.
+	 * @param callback called after the value has been written
+	 */
+	protected final void copy(Runnable callback) {
+		start(new Capture(this.output, callback));
+	}
+
+	protected final void copy() {
+		copy(() -> {
+		});
+	}
+
+	/**
+	 * Ignores the current value - or the value of the current property.
+	 */
+	protected final void skip() {
+		start(new Capture(null, () -> {
+		}));
+	}
+
+	protected final void requireToken(JsonToken token, JsonToken expected) {
+		if (token != expected) {
+			throw new DecodingException("Unexpected token " + token + ", expected " + expected);
+		}
+	}
+
+	/**
+	 * Writes the start of nested objects, leaving the value of the last name open.
+	 * @param names the property names of the nested objects
+	 */
+	protected final void writeStartObjects(String... names) {
+		for (String name : names) {
+			this.output.writeStartObject();
+			this.output.writeName(name);
+		}
+	}
+
+	protected final void writeEndObjects(int count) {
+		for (int i = 0; i < count; i++) {
+			this.output.writeEndObject();
+		}
+	}
+
+	private void start(Capture capture) {
+		this.capture = capture;
+		if (this.parser.currentToken() != JsonToken.PROPERTY_NAME) {
+			onCapturedToken(capture, this.parser.currentToken());
+		}
+	}
+
+	private List<DataBuffer> feed(DataBuffer dataBuffer) {
+		byte[] bytes = new byte[dataBuffer.readableByteCount()];
+		try {
+			dataBuffer.read(bytes);
+		}
+		finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+		this.feeder.feedInput(bytes, 0, bytes.length);
+		processTokens();
+		return drain();
+	}
+
+	private List<DataBuffer> finish() {
+		this.feeder.endOfInput();
+		processTokens();
+		return drain();
+	}
+
+	private void processTokens() {
+		JsonToken token;
+		while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+			if (token.isStructStart()) {
+				this.depth++;
+			}
+			else if (token.isStructEnd()) {
+				this.depth--;
+			}
+
+			Capture current = this.capture;
+			if (current != null) {
+				onCapturedToken(current, token);
+			}
+			else {
+				onToken(token);
+			}
+		}
+	}
+
+	private void onCapturedToken(Capture capture, JsonToken token) {
+		if (capture.onToken(token)) {
+			this.capture = null;
+			capture.callback.run();
+		}
+	}
+
+	private List<DataBuffer> drain() {
+		this.output.flush();
+		if (this.buffer.size() == 0) {
+			return emptyList();
+		}
+		DataBuffer dataBuffer = DefaultDataBufferFactory.sharedInstance.wrap(this.buffer.toByteArray());
+		this.buffer.reset();
+		return singletonList(dataBuffer);
+	}
+
+	private void close() {
+		this.parser.close();
+		this.output.close();
+	}
+
+	private final class Capture {
+
+		@Nullable private final JsonGenerator target;
+
+		private final Runnable callback;
+
+		private int level = 0;
+
+		private Capture(@Nullable JsonGenerator target, Runnable callback) {
+			this.target = target;
+			this.callback = callback;
+		}
+
+		private boolean onToken(JsonToken token) {
+			if (this.target != null) {
+				this.target.copyCurrentEvent(JsonStreamTransformer.this.parser);
+			}
+			if (token.isStructStart()) {
+				this.level++;
+			}
+			else if (token.isStructEnd()) {
+				this.level--;
+			}
+			return this.level == 0 && token != JsonToken.PROPERTY_NAME;
+		}
+
+	}
+
+}
@@ -20,31 +20,25 @@ import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 import org.jspecify.annotations.Nullable;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.core.ResolvableType;
-import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
-import org.springframework.http.codec.json.JacksonJsonDecoder;
-import org.springframework.http.codec.json.JacksonJsonEncoder;
-import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonToken;
 import tools.jackson.databind.DeserializationFeature;
 import tools.jackson.databind.cfg.DateTimeFeature;
 import tools.jackson.databind.json.JsonMapper;
 
 import de.codecentric.boot.admin.server.domain.values.Endpoint;
 
+import static de.codecentric.boot.admin.server.web.client.JsonStreamTransformer.transformUsing;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
@@ -54,64 +48,60 @@ import static java.util.function.Function.identity;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 
+/**
+ * Converters for the responses of Spring Boot 1.x actuator endpoints. The responses are
+ * transformed while being read, so that even large payloads (e.g. {@code beans} and
+ * {@code mappings}) are never held in memory as a whole.
+ */
 public final class LegacyEndpointConverters {
 
-	private static final ParameterizedTypeReference<Map<String, Object>> RESPONSE_TYPE_MAP = new ParameterizedTypeReference<>() {
-	};
-
-	private static final ParameterizedTypeReference<List<Object>> RESPONSE_TYPE_LIST = new ParameterizedTypeReference<>() {
-	};
-
-	private static final ParameterizedTypeReference<List<Map<String, Object>>> RESPONSE_TYPE_LIST_MAP = new ParameterizedTypeReference<>() {
-	};
-
-	private static final JacksonJsonDecoder DECODER;
-
-	private static final JacksonJsonEncoder ENCODER;
+	private static final JsonMapper MAPPER = JsonMapper.builder()
+		.disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+		.disable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS)
+		.build();
 
 	private static final DateTimeFormatter TIMESTAMP_PATTERN = DateTimeFormatter
 		.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
 
-	static {
-		var om = JsonMapper.builder()
-			.disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
-			.disable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-		DECODER = new JacksonJsonDecoder(om);
-		ENCODER = new JacksonJsonEncoder(om);
-	}
-
 	private LegacyEndpointConverters() {
 	}
 
 	public static LegacyEndpointConverter health() {
-		return new LegacyEndpointConverter(Endpoint.HEALTH,
-				convertUsing(RESPONSE_TYPE_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertHealth));
+		return new LegacyEndpointConverter(Endpoint.HEALTH, transformUsing(HealthTransformer::new));
 	}
 
 	public static LegacyEndpointConverter env() {
-		return new LegacyEndpointConverter(Endpoint.ENV,
-				convertUsing(RESPONSE_TYPE_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertEnv));
+		return new LegacyEndpointConverter(Endpoint.ENV, transformUsing(EnvTransformer::new));
 	}
 
 	public static LegacyEndpointConverter httptrace() {
 		return new LegacyEndpointConverter(Endpoint.HTTPTRACE,
-				convertUsing(RESPONSE_TYPE_LIST_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertHttptrace));
+				transformUsing(() -> new ArrayElementsTransformer(new String[] { "traces" }, false,
+						(output, trace) -> output.writePOJO(convertHttptrace(castMap(trace))))));
 	}
 
 	public static LegacyEndpointConverter threaddump() {
-		return new LegacyEndpointConverter(Endpoint.THREADDUMP,
-				convertUsing(RESPONSE_TYPE_LIST, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertThreaddump));
+		return new LegacyEndpointConverter(Endpoint.THREADDUMP, transformUsing(ThreaddumpTransformer::new));
 	}
 
 	public static LegacyEndpointConverter liquibase() {
-		return new LegacyEndpointConverter(Endpoint.LIQUIBASE,
-				convertUsing(RESPONSE_TYPE_LIST_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertLiquibase));
+		return new LegacyEndpointConverter(Endpoint.LIQUIBASE, transformUsing(() -> new ArrayElementsTransformer(
+				new String[] { "contexts", "application", "liquibaseBeans" }, true, (output, report) -> {
+					Map<String, Object> converted = castMap(report);
+					output.writeName((String) converted.get("name"));
+					output.writePOJO(singletonMap("changeSets",
+							convertLiquibaseChangesets(castList(converted.get("changeLogs")))));
+				})));
 	}
 
 	public static LegacyEndpointConverter flyway() {
-		return new LegacyEndpointConverter(Endpoint.FLYWAY,
-				convertUsing(RESPONSE_TYPE_LIST_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertFlyway));
+		return new LegacyEndpointConverter(Endpoint.FLYWAY, transformUsing(() -> new ArrayElementsTransformer(
+				new String[] { "contexts", "application", "flywayBeans" }, true, (output, report) -> {
+					Map<String, Object> converted = castMap(report);
+					output.writeName((String) converted.get("name"));
+					output.writePOJO(
+							singletonMap("migrations", convertFlywayMigrations(castList(converted.get("migrations")))));
+				})));
 	}
 
 	public static LegacyEndpointConverter info() {
@@ -119,18 +109,15 @@ public final class LegacyEndpointConverters {
 	}
 
 	public static LegacyEndpointConverter beans() {
-		return new LegacyEndpointConverter(Endpoint.BEANS,
-				convertUsing(RESPONSE_TYPE_LIST_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertBeans));
+		return new LegacyEndpointConverter(Endpoint.BEANS, transformUsing(BeansTransformer::new));
 	}
 
 	public static LegacyEndpointConverter configprops() {
-		return new LegacyEndpointConverter(Endpoint.CONFIGPROPS,
-				convertUsing(RESPONSE_TYPE_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertConfigprops));
+		return new LegacyEndpointConverter(Endpoint.CONFIGPROPS, transformUsing(ConfigpropsTransformer::new));
 	}
 
 	public static LegacyEndpointConverter mappings() {
-		return new LegacyEndpointConverter(Endpoint.MAPPINGS,
-				convertUsing(RESPONSE_TYPE_MAP, RESPONSE_TYPE_MAP, LegacyEndpointConverters::convertMappings));
+		return new LegacyEndpointConverter(Endpoint.MAPPINGS, transformUsing(MappingsTransformer::new));
 	}
 
 	public static LegacyEndpointConverter startup() {
@@ -206,16 +193,6 @@ public final class LegacyEndpointConverters {
 		return handlerMethod;
 	}
 
-	@SuppressWarnings("unchecked")
-	private static <S, T> Function<Flux<DataBuffer>, Flux<DataBuffer>> convertUsing(
-			ParameterizedTypeReference<S> sourceType, ParameterizedTypeReference<T> targetType,
-			Function<S, T> converterFn) {
-		return (input) -> DECODER.decodeToMono(input, ResolvableType.forType(sourceType), null, null)
-			.map((body) -> converterFn.apply((S) body))
-			.flatMapMany((output) -> ENCODER.encode(Mono.just(output), new DefaultDataBufferFactory(),
-					ResolvableType.forType(targetType), null, null));
-	}
-
 	@SuppressWarnings("unchecked")
 	private static Map<String, Object> convertHealth(Map<String, Object> body) {
 		Map<String, Object> converted = new LinkedHashMap<>();
@@ -239,36 +216,6 @@ public final class LegacyEndpointConverters {
 		return converted;
 	}
 
-	@SuppressWarnings("unchecked")
-	private static Map<String, Object> convertEnv(Map<String, Object> body) {
-		Map<String, Object> converted = new LinkedHashMap<>();
-		List<Map<String, Object>> propertySources = new ArrayList<>(body.size());
-
-		body.forEach((key, value) -> {
-			if ("profiles".equals(key)) {
-				converted.put("activeProfiles", value);
-			}
-			else if (value instanceof Map) {
-				Map<String, Object> values = (Map<String, Object>) value;
-
-				Map<String, Object> properties = new LinkedHashMap<>();
-				values.forEach((propKey, propValue) -> properties.put(propKey, singletonMap("value", propValue)));
-
-				Map<String, Object> propertySource = new LinkedHashMap<>();
-				propertySource.put("name", key);
-				propertySource.put("properties", properties);
-				propertySources.add(propertySource);
-			}
-		});
-		converted.put("propertySources", propertySources);
-
-		return converted;
-	}
-
-	private static Map<String, Object> convertHttptrace(List<Map<String, Object>> traces) {
-		return singletonMap("traces", traces.stream().map(LegacyEndpointConverters::convertHttptrace).toList());
-	}
-
 	@SuppressWarnings("unchecked")
 	private static Map<String, Object> convertHttptrace(Map<String, Object> in) {
 		Map<String, Object> out = new LinkedHashMap<>();
@@ -312,19 +259,6 @@ public final class LegacyEndpointConverters {
 		return out;
 	}
 
-	private static Map<String, Object> convertThreaddump(List<Object> threads) {
-		return singletonMap("threads", threads);
-	}
-
-	@SuppressWarnings("unchecked")
-	private static Map<String, Object> convertLiquibase(List<Map<String, Object>> reports) {
-		Map<String, Object> liquibaseBeans = reports.stream()
-			.collect(toMap((r) -> (String) r.get("name"), (r) -> singletonMap("changeSets", LegacyEndpointConverters
-				.convertLiquibaseChangesets((List<Map<String, Object>>) r.get("changeLogs")))));
-
-		return singletonMap("contexts", singletonMap("application", singletonMap("liquibaseBeans", liquibaseBeans)));
-	}
-
 	private static List<Map<String, Object>> convertLiquibaseChangesets(List<Map<String, Object>> changeSets) {
 		return changeSets.stream().map((changeset) -> {
 			Map<String, Object> converted = new LinkedHashMap<>();
@@ -349,14 +283,6 @@ public final class LegacyEndpointConverters {
 		}).toList();
 	}
 
-	@SuppressWarnings("unchecked")
-	private static Map<String, Object> convertFlyway(List<Map<String, Object>> reports) {
-		Map<String, Object> flywayBeans = reports.stream()
-			.collect(toMap((r) -> (String) r.get("name"), (r) -> singletonMap("migrations", LegacyEndpointConverters
-				.convertFlywayMigrations((List<Map<String, Object>>) r.get("migrations")))));
-		return singletonMap("contexts", singletonMap("application", singletonMap("flywayBeans", flywayBeans)));
-	}
-
 	private static List<Map<String, Object>> convertFlywayMigrations(List<Map<String, Object>> migrations) {
 		return migrations.stream().map((migration) -> {
 			Map<String, Object> converted = new LinkedHashMap<>(migration);
@@ -367,75 +293,26 @@ public final class LegacyEndpointConverters {
 		}).toList();
 	}
 
-	private static Map<String, Object> convertBeans(List<Map<String, Object>> contextBeans) {
-		Map<String, Object> convertedContexts = contextBeans.stream().map((context) -> {
-			String contextName = (String) context.get("context");
-			String parentId = (String) context.get("parent");
-
-			// SB 1.x /beans child application context has
-			// itself as parent as well. In order to avoid contexts
-			// with same name we simply append .child in that case.
-			if (contextName.equals(parentId)) {
-				contextName = contextName + ".child";
-			}
-
-			List<Map<String, Object>> legacyBeans = (List<Map<String, Object>>) context.get("beans");
-			Map<String, Object> convertedBeans = legacyBeans.stream()
-				.collect(toMap((bean) -> (String) bean.get("bean"), identity()));
-
-			Map<String, Object> convertedContext = new LinkedHashMap<>();
-			convertedContext.put("contextName", contextName);
-			convertedContext.put("parentId", parentId);
-			convertedContext.put("beans", convertedBeans);
-			return convertedContext;
-		}).collect(toMap((context) -> (String) context.get("contextName"), identity()));
-
-		return singletonMap("contexts", convertedContexts);
+	private static Map<String, Object> convertBeans(List<Map<String, Object>> legacyBeans) {
+		return legacyBeans.stream().collect(toMap((bean) -> (String) bean.get("bean"), identity()));
 	}
 
-	private static Map<String, Object> convertConfigprops(Map<String, Object> configProps) {
-		Map<String, Object> contexts = new LinkedHashMap<>();
-
-		// SB 1.x /configprops contains a parent entry which
-		// contains the configprops of the parent context.
-		// We put this on a parentContext entry in the
-		// converted response.
-		Object parentConfigProps = configProps.get("parent");
-		if (parentConfigProps != null) {
-			configProps.remove("parent");
-			contexts.put("parentContext", singletonMap("beans", parentConfigProps));
-		}
-
-		contexts.put("application", singletonMap("beans", configProps));
-		return singletonMap("contexts", contexts);
-	}
-
-	private static Map<String, Object> convertMappings(Map<String, Object> mappings) {
-		List<Map<String, Object>> convertedMappings = mappings.entrySet().stream().map((entry) -> {
-			Map<String, Object> convertedMapping = new LinkedHashMap<>();
-
-			Map<String, Object> convertedMappingDetails = new LinkedHashMap<>();
-			convertedMapping.put("details", convertedMappingDetails);
-
-			String predicate = entry.getKey();
-			convertedMapping.put("predicate", predicate);
+	private static Map<String, Object> convertMapping(String predicate, Map<String, Object> legacyMapping) {
+		Map<String, Object> convertedMapping = new LinkedHashMap<>();
 
-			String method = (String) ((Map<String, Object>) entry.getValue()).get("method");
-			if (method != null) {
-				convertedMapping.put("handler", method);
-				convertedMappingDetails.put("handlerMethod", convertMappingHandlerMethod(method));
-			}
+		Map<String, Object> convertedMappingDetails = new LinkedHashMap<>();
+		convertedMapping.put("details", convertedMappingDetails);
+		convertedMapping.put("predicate", predicate);
 
-			convertedMappingDetails.put("requestMappingConditions", convertMappingConditions(predicate));
+		String method = (String) legacyMapping.get("method");
+		if (method != null) {
+			convertedMapping.put("handler", method);
+			convertedMappingDetails.put("handlerMethod", convertMappingHandlerMethod(method));
+		}
 
-			return convertedMapping;
-		}).toList();
+		convertedMappingDetails.put("requestMappingConditions", convertMappingConditions(predicate));
 
-		return singletonMap("contexts", //
-				singletonMap("application", //
-						singletonMap("mappings", //
-								singletonMap("dispatcherServlets", //
-										singletonMap("dispatcherServlet", convertedMappings)))));
+		return convertedMapping;
 	}
 
 	private static Map<String, Object> convertMappingConditions(String predicate) {
@@ -513,4 +390,420 @@ public final class LegacyEndpointConverters {
 		return null;
 	}
 
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> castMap(@Nullable Object value) {
+		return (Map<String, Object>) value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Map<String, Object>> castList(@Nullable Object value) {
+		return (List<Map<String, Object>>) value;
+	}
+
+	private static final class HealthTransformer extends JsonStreamTransformer {
+
+		private boolean detailsStarted = false;
+
+		@Nullable private Object status;
+
+		private boolean hasStatus = false;
+
+		private HealthTransformer() {
+			super(MAPPER);
+		}
+
+		@Override
+		protected void onToken(JsonToken token) {
+			if (token == JsonToken.START_OBJECT) {
+				output().writeStartObject();
+			}
+			else if (token == JsonToken.PROPERTY_NAME) {
+				String name = parser().currentName();
+				if ("status".equals(name)) {
+					// the status must not end up in the details already written
+					if (this.detailsStarted) {
+						capture((value) -> {
+							this.status = value;
+							this.hasStatus = true;
+						});
+					}
+					else {
+						output().writeName(name);
+						copy();
+					}
+					return;
+				}
+				if (!this.detailsStarted) {
+					output().writeName("details");
+					output().writeStartObject();
+					this.detailsStarted = true;
+				}
+				output().writeName(name);
+				capture((value) -> output().writePOJO((value instanceof Map) ? convertHealth(castMap(value)) : value));
+			}
+			else if (token == JsonToken.END_OBJECT) {
+				if (this.detailsStarted) {
+					output().writeEndObject();
+				}
+				if (this.hasStatus) {
+					output().writeName("status");
+					output().writePOJO(this.status);
+				}
+				output().writeEndObject();
+			}
+			else {
+				requireToken(token, JsonToken.START_OBJECT);
+			}
+		}
+
+	}
+
+	private static final class EnvTransformer extends JsonStreamTransformer {
+
+		private boolean propertySourcesStarted = false;
+
+		@Nullable private String propertySource;
+
+		@Nullable private Object profiles;
+
+		private boolean hasProfiles = false;
+
+		private EnvTransformer() {
+			super(MAPPER);
+		}
+
+		@Override
+		protected void onToken(JsonToken token) {
+			if (depth() == 1 && token == JsonToken.START_OBJECT) {
+				output().writeStartObject();
+			}
+			else if (depth() == 1 && token == JsonToken.PROPERTY_NAME) {
+				String name = parser().currentName();
+				if ("profiles".equals(name)) {
+					onProfiles();
+				}
+				else {
+					this.propertySource = name;
+				}
+			}
+			else if (depth() == 2 && token == JsonToken.START_OBJECT) {
+				if (!this.propertySourcesStarted) {
+					output().writeName("propertySources");
+					output().writeStartArray();
+					this.propertySourcesStarted = true;
+				}
+				output().writeStartObject();
+				output().writeName("name");
+				output().writeString(this.propertySource);
+				output().writeName("properties");
+				output().writeStartObject();
+			}
+			else if (depth() == 2 && token == JsonToken.PROPERTY_NAME) {
+				output().writeName(parser().currentName());
+				output().writeStartObject();
+				output().writeName("value");
+				copy(() -> output().writeEndObject());
+			}
+			else if (depth() == 1 && token == JsonToken.END_OBJECT) {
+				output().writeEndObject();
+				output().writeEndObject();
+			}
+			else if (depth() == 2 && token == JsonToken.START_ARRAY) {
+				skip();
+			}
+			else if (depth() == 0 && token == JsonToken.END_OBJECT) {
+				if (this.propertySourcesStarted) {
+					output().writeEndArray();
+				}
+				else {
+					output().writeName("propertySources");
+					output().writeStartArray();
+					output().writeEndArray();
+				}
+				if (this.hasProfiles) {
+					output().writeName("activeProfiles");
+					output().writePOJO(this.profiles);
+				}
+				output().writeEndObject();
+			}
+		}
+
+		private void onProfiles() {
+			// the profiles must not end up in the property sources already written
+			if (this.propertySourcesStarted) {
+				capture((value) -> {
+					this.profiles = value;
+					this.hasProfiles = true;
+				});
+			}
+			else {
+				output().writeName("activeProfiles");
+				copy();
+			}
+		}
+
+	}
+
+	private static final class ThreaddumpTransformer extends JsonStreamTransformer {
+
+		private ThreaddumpTransformer() {
+			super(MAPPER);
+		}
+
+		@Override
+		protected void onToken(JsonToken token) {
+			requireToken(token, JsonToken.START_ARRAY);
+			writeStartObjects("threads");
+			copy(() -> output().writeEndObject());
+		}
+
+	}
+
+	/**
+	 * Converts each element of the legacy array on its own and writes it to a nested
+	 * array or - when the elements are keyed - object.
+	 */
+	private static final class ArrayElementsTransformer extends JsonStreamTransformer {
+
+		private final String[] names;
+
+		private final boolean keyed;
+
+		private final BiConsumer<JsonGenerator, @Nullable Object> elementWriter;
+
+		private ArrayElementsTransformer(String[] names, boolean keyed,
+				BiConsumer<JsonGenerator, @Nullable Object> elementWriter) {
+			super(MAPPER);
+			this.names = names;
+			this.keyed = keyed;
+			this.elementWriter = elementWriter;
+		}
+
+		@Override
+		protected void onToken(JsonToken token) {
+			if (depth() == 1 && token == JsonToken.START_ARRAY) {
+				writeStartObjects(this.names);
+				if (this.keyed) {
+					output().writeStartObject();
+				}
+				else {
+					output().writeStartArray();
+				}
+			}
+			else if (depth() == 0 && token == JsonToken.END_ARRAY) {
+				if (this.keyed) {
+					output().writeEndObject();
+				}
+				else {
+					output().writeEndArray();
+				}
+				writeEndObjects(this.names.length);
+			}
+			else if (depth() == 0) {
+				requireToken(token, JsonToken.START_ARRAY);
+			}
+			else {
+				capture((element) -> this.elementWriter.accept(output(), element));
+			}
+		}
+
+	}
+
+	private static final class ConfigpropsTransformer extends JsonStreamTransformer {
+
+		@Nullable private Object parent;
+
+		private ConfigpropsTransformer() {
+			super(MAPPER);
+		}
+
+		@Override
+		protected void onToken(JsonToken token) {
+			if (depth() == 1 && token == JsonToken.START_OBJECT) {
+				writeStartObjects("contexts", "application", "beans");
+				output().writeStartObject();
+			}
+			else if (depth() == 1 && token == JsonToken.PROPERTY_NAME) {
+				String name = parser().currentName();
+				// SB 1.x /configprops contains a parent entry which
+				// contains the configprops of the parent context.
+				// We put this on a parentContext entry in the
+				// converted response.
+				if ("parent".equals(name)) {
+					capture((value) -> {
+						if (value != null) {
+							this.parent = value;
+						}
+						else {
+							output().writeName(name);
+							output().writeNull();
+						}
+					});
+				}
+				else {
+					output().writeName(name);
+					copy();
+				}
+			}
+			else if (depth() == 0 && token == JsonToken.END_OBJECT) {
+				writeEndObjects(2);
+				if (this.parent != null) {
+					output().writeName("parentContext");
+					output().writePOJO(singletonMap("beans", this.parent));
+				}
+				writeEndObjects(2);
+			}
+			else {
+				requireToken(token, JsonToken.START_OBJECT);
+			}
+		}
+
+	}
+
+	private static final class MappingsTransformer extends JsonStreamTransformer {
+
+		private MappingsTransformer() {
+			super(MAPPER);
+		}
+
+		@Override
+		protected void onToken(JsonToken token) {
+			if (depth() == 1 && token == JsonToken.START_OBJECT) {
+				writeStartObjects("contexts", "application", "mappings", "dispatcherServlets", "dispatcherServlet");
+				output().writeStartArray();
+			}
+			else if (depth() == 1 && token == JsonToken.PROPERTY_NAME) {
+				String predicate = parser().currentName();
+				capture((value) -> output().writePOJO(convertMapping(predicate, castMap(value))));
+			}
+			else if (depth() == 0 && token == JsonToken.END_OBJECT) {
+				output().writeEndArray();
+				writeEndObjects(5);
+			}
+			else {
+				requireToken(token, JsonToken.START_OBJECT);
+			}
+		}
+
+	}
+
+	/**
+	 * Streams the beans of each context, as long as the name and parent of the context
+	 * precede the beans - as they do in SB 1.x. Otherwise the beans of the context are
+	 * buffered until the end of the context.
+	 */
+	private static final class BeansTransformer extends JsonStreamTransformer {
+
+		@Nullable private String contextName;
+
+		@Nullable private String parentId;
+
+		private boolean hasContextName;
+
+		private boolean hasParentId;
+
+		private boolean contextStarted;
+
+		private boolean streamingBeans;
+
+		@Nullable private Object bufferedBeans;
+
+		private BeansTransformer() {
+			super(MAPPER);
+		}
+
+		@Override
+		protected void onToken(JsonToken token) {
+			if (depth() == 1 && token == JsonToken.START_ARRAY) {
+				writeStartObjects("contexts");
+				output().writeStartObject();
+			}
+			else if (depth() == 2 && token == JsonToken.START_OBJECT) {
+				this.contextName = null;
+				this.parentId = null;
+				this.hasContextName = false;
+				this.hasParentId = false;
+				this.contextStarted = false;
+				this.bufferedBeans = null;
+			}
+			else if (depth() == 2 && token == JsonToken.PROPERTY_NAME) {
+				onContextProperty(parser().currentName());
+			}
+			else if (depth() == 4 && token == JsonToken.START_OBJECT && this.streamingBeans) {
+				capture((value) -> {
+					Map<String, Object> bean = castMap(value);
+					output().writeName((String) bean.get("bean"));
+					output().writePOJO(bean);
+				});
+			}
+			else if (depth() == 2 && this.streamingBeans && (token == JsonToken.END_ARRAY || token.isScalarValue())) {
+				output().writeEndObject();
+				this.streamingBeans = false;
+			}
+			else if (depth() == 2 && token == JsonToken.START_ARRAY) {
+				skip();
+			}
+			else if (depth() == 1 && token == JsonToken.END_OBJECT) {
+				startContext();
+				if (this.bufferedBeans != null) {
+					output().writeName("beans");
+					output().writePOJO(convertBeans(castList(this.bufferedBeans)));
+				}
+				output().writeEndObject();
+			}
+			else if (depth() == 0 && token == JsonToken.END_ARRAY) {
+				writeEndObjects(2);
+			}
+			else if (depth() == 0) {
+				requireToken(token, JsonToken.START_ARRAY);
+			}
+		}
+
+		private void onContextProperty(String name) {
+			switch (name) {
+				case "context" -> capture((value) -> {
+					this.contextName = (String) value;
+					this.hasContextName = true;
+				});
+				case "parent" -> capture((value) -> {
+					this.parentId = (String) value;
+					this.hasParentId = true;
+				});
+				case "beans" -> {
+					if (this.hasContextName && this.hasParentId) {
+						startContext();
+						output().writeName("beans");
+						output().writeStartObject();
+						this.streamingBeans = true;
+					}
+					else {
+						capture((value) -> this.bufferedBeans = value);
+					}
+				}
+				default -> skip();
+			}
+		}
+
+		private void startContext() {
+			if (this.contextStarted) {
+				return;
+			}
+			String name = this.contextName;
+			// SB 1.x /beans child application context has
+			// itself as parent as well. In order to avoid contexts
+			// with same name we simply append .child in that case.
+			if (name != null && name.equals(this.parentId)) {
+				name = name + ".child";
+			}
+			output().writeName(String.valueOf(name));
+			output().writeStartObject();
+			output().writeName("contextName");
+			output().writeString(name);
+			output().writeName("parentId");
+			output().writeString(this.parentId);
+			this.contextStarted = true;
+		}
+
+	}
+
 }
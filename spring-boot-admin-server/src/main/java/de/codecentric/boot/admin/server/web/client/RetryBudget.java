@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * Limits the additional requests - retries and hedged requests - sent to an instance to a
+ * share of the requests sent to it recently. When an instance is failing, most requests
+ * need a retry and the budget is exhausted quickly, so the load on the instance isn't
+ * multiplied by the number of retries.
+ * <p>
+ * The requests are counted per instance in a sliding window. A minimum number of retries
+ * per window is always allowed, so instances with few requests can be retried.
+ */
+public class RetryBudget {
+
+	private final double ratio;
+
+	private final int minRetries;
+
+	private final long window;
+
+	private final LongSupplier nanoTime;
+
+	private final ConcurrentMap<InstanceId, Window> windows = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new retry budget.
+	 * @param ratio share of the recent requests allowed to be retried, e.g. {@code 0.1}
+	 * for 10%
+	 * @param minRetries number of retries per window allowed regardless of the ratio
+	 * @param window length of the sliding window
+	 */
+	public RetryBudget(double ratio, int minRetries, Duration window) {
+		this(ratio, minRetries, window, System::nanoTime);
+	}
+
+	RetryBudget(double ratio, int minRetries, Duration window, LongSupplier nanoTime) {
+		this.ratio = ratio;
+		this.minRetries = minRetries;
+		this.window = window.toNanos();
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * Records a request sent to the instance.
+	 * @param instanceId the id of the instance
+	 */
+	public void onRequest(InstanceId instanceId) {
+		window(instanceId).onRequest(this.nanoTime.getAsLong());
+	}
+
+	/**
+	 * Acquires the budget for an additional request to the instance.
+	 * @param instanceId the id of the instance
+	 * @return {@code true} if the request may be sent, {@code false} if the budget is
+	 * exhausted
+	 */
+	public boolean tryAcquire(InstanceId instanceId) {
+		return window(instanceId).tryAcquire(this.nanoTime.getAsLong());
+	}
+
+	/**
+	 * Removes the sliding window of the instance.
+	 * @param instanceId the id of the instance
+	 */
+	public void remove(InstanceId instanceId) {
+		this.windows.remove(instanceId);
+	}
+
+	private Window window(InstanceId instanceId) {
+		return this.windows.computeIfAbsent(instanceId, (id) -> new Window(this.nanoTime.getAsLong()));
+	}
+
+	private final class Window {
+
+		private long start;
+
+		private int requests = 0;
+
+		private int retries = 0;
+
+		private int previousRequests = 0;
+
+		private int previousRetries = 0;
+
+		private Window(long start) {
+			this.start = start;
+		}
+
+		private synchronized void onRequest(long now) {
+			roll(now);
+			this.requests++;
+		}
+
+		private synchronized boolean tryAcquire(long now) {
+			roll(now);
+			// The previous window is weighted with the share still covered by the sliding
+			// window.
+			double weight = 1.0 - (double) (now - this.start) / RetryBudget.this.window;
+			double recentRequests = this.requests + this.previousRequests * weight;
+			double recentRetries = this.retries + this.previousRetries * weight;
+			double budget = Math.max(RetryBudget.this.minRetries, recentRequests * RetryBudget.this.ratio);
+			if (recentRetries + 1.0 > budget) {
+				return false;
+			}
+			this.retries++;
+			return true;
+		}
+
+		private void roll(long now) {
+			long elapsed = now - this.start;
+			if (elapsed < RetryBudget.this.window) {
+				return;
+			}
+			if (elapsed < 2 * RetryBudget.this.window) {
+				this.previousRequests = this.requests;
+				this.previousRetries = this.retries;
+				this.start += RetryBudget.this.window;
+			}
+			else {
+				this.previousRequests = 0;
+				this.previousRetries = 0;
+				this.start = now;
+			}
+			this.requests = 0;
+			this.retries = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client.cookies;
+
+import java.net.HttpCookie;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+/**
+ * A {@link PerInstanceCookieStore} keeping the cookies of each
+ * {@link de.codecentric.boot.admin.server.domain.entities.Instance} in an immutable
+ * snapshot that is replaced atomically on changes, so looking up the cookies for a
+ * request doesn't need any locks. The cookies to send are prepared with each snapshot and
+ * reused as long as all cookies of the instance apply to the request, which is the common
+ * case for the cookies of an actuator.
+ * <p>
+ * Like the {@link java.net.CookiePolicy#ACCEPT_ORIGINAL_SERVER} policy, only cookies for
+ * the host of the request are accepted. Responses without a {@code Set-Cookie} header are
+ * not parsed at all. The number of cookies per instance and the size of a cookie are
+ * bounded; when the limit is reached the least recently set cookie is dropped. Expired
+ * cookies are skipped and removed by a sweep running every {@code sweepInterval} once the
+ * store has been {@link #start() started}.
+ */
+public class ConcurrentPerInstanceCookieStore implements PerInstanceCookieStore {
+
+	private static final Logger log = LoggerFactory.getLogger(ConcurrentPerInstanceCookieStore.class);
+
+	/**
+	 * Maximum size of name and value of a cookie, as commonly enforced by browsers.
+	 */
+	private static final int MAX_COOKIE_SIZE = 4096;
+
+	private static final MultiValueMap<String, String> NO_COOKIES = CollectionUtils
+		.unmodifiableMultiValueMap(new LinkedMultiValueMap<>());
+
+	private final ConcurrentMap<InstanceId, AtomicReference<Cookies>> cookies = new ConcurrentHashMap<>();
+
+	private final int maxCookiesPerInstance;
+
+	private final Duration sweepInterval;
+
+	private final LongSupplier nanoTime;
+
+	@Nullable private Disposable sweep;
+
+	/**
+	 * Creates a new store.
+	 * @param maxCookiesPerInstance maximum number of cookies stored per instance
+	 * @param sweepInterval interval in which expired cookies are removed
+	 */
+	public ConcurrentPerInstanceCookieStore(int maxCookiesPerInstance, Duration sweepInterval) {
+		this(maxCookiesPerInstance, sweepInterval, System::nanoTime);
+	}
+
+	ConcurrentPerInstanceCookieStore(int maxCookiesPerInstance, Duration sweepInterval, LongSupplier nanoTime) {
+		this.maxCookiesPerInstance = maxCookiesPerInstance;
+		this.sweepInterval = sweepInterval;
+		this.nanoTime = nanoTime;
+	}
+
+	public void start() {
+		this.sweep = Flux.interval(this.sweepInterval)
+			.subscribe((tick) -> sweep(),
+					(error) -> log.error("Unexpected error while removing expired cookies", error));
+	}
+
+	public void stop() {
+		if (this.sweep != null) {
+			this.sweep.dispose();
+		}
+	}
+
+	@Override
+	public MultiValueMap<String, String> get(InstanceId instanceId, URI requestUri,
+			MultiValueMap<String, String> requestHeaders) {
+		AtomicReference<Cookies> reference = this.cookies.get(instanceId);
+		if (reference == null) {
+			return NO_COOKIES;
+		}
+		Cookies snapshot = reference.get();
+		long now = this.nanoTime.getAsLong();
+		List<StoredCookie> applicable = null;
+		for (int i = 0; i < snapshot.cookies().size(); i++) {
+			StoredCookie cookie = snapshot.cookies().get(i);
+			boolean applies = cookie.appliesTo(requestUri, now);
+			if (!applies && applicable == null) {
+				applicable = new ArrayList<>(snapshot.cookies().subList(0, i));
+			}
+			else if (applies && applicable != null) {
+				applicable.add(cookie);
+			}
+		}
+		return (applicable != null) ? toRequestCookies(applicable) : snapshot.requestCookies();
+	}
+
+	@Override
+	public void put(InstanceId instanceId, URI requestUri, MultiValueMap<String, String> responseHeaders) {
+		List<String> setCookieHeaders = responseHeaders.get(HttpHeaders.SET_COOKIE);
+		String host = requestUri.getHost();
+		if (CollectionUtils.isEmpty(setCookieHeaders) || host == null) {
+			return;
+		}
+		long now = this.nanoTime.getAsLong();
+		List<StoredCookie> received = new ArrayList<>();
+		for (String header : setCookieHeaders) {
+			StoredCookie cookie = parse(header, requestUri, host, now);
+			if (cookie != null) {
+				received.add(cookie);
+			}
+		}
+		if (!received.isEmpty()) {
+			this.cookies.computeIfAbsent(instanceId, (id) -> new AtomicReference<>(Cookies.EMPTY))
+				.updateAndGet((snapshot) -> snapshot.with(received, now, this.maxCookiesPerInstance));
+		}
+	}
+
+	@Override
+	public void cleanupInstance(InstanceId instanceId) {
+		this.cookies.remove(instanceId);
+	}
+
+	void sweep() {
+		long now = this.nanoTime.getAsLong();
+		this.cookies.values().forEach((reference) -> reference.updateAndGet((snapshot) -> snapshot.without(now)));
+	}
+
+	@Nullable private static StoredCookie parse(String header, URI requestUri, String host, long now) {
+		HttpCookie cookie;
+		try {
+			// a Set-Cookie header contains a single cookie
+			cookie = HttpCookie.parse(header).get(0);
+		}
+		catch (IllegalArgumentException ex) {
+			log.debug("Ignoring invalid Set-Cookie header '{}' from {}", header, requestUri, ex);
+			return null;
+		}
+		if (cookie.getName().length() + cookie.getValue().length() > MAX_COOKIE_SIZE) {
+			log.debug("Ignoring cookie '{}' from {} exceeding {} bytes", cookie.getName(), requestUri, MAX_COOKIE_SIZE);
+			return null;
+		}
+		String requestHost = host.toLowerCase(Locale.ROOT);
+		String domain = requestHost;
+		String cookieDomain = cookie.getDomain();
+		if (cookieDomain != null) {
+			domain = stripLeadingDot(cookieDomain.toLowerCase(Locale.ROOT));
+			if (!domainMatches(domain, requestHost)) {
+				log.debug("Ignoring cookie '{}' from {} for foreign domain '{}'", cookie.getName(), requestUri, domain);
+				return null;
+			}
+		}
+		String path = (cookie.getPath() != null && cookie.getPath().startsWith("/")) ? cookie.getPath()
+				: defaultPath(requestUri);
+		long maxAge = cookie.getMaxAge();
+		long timeToLive = TimeUnit.SECONDS.toNanos(Math.max(maxAge, 0L));
+		// cookies without max-age and expiry or expiring in the far future never expire
+		boolean expires = maxAge >= 0 && timeToLive < Long.MAX_VALUE / 2;
+		return new StoredCookie(cookie.getName(), cookie.getValue(), domain, cookieDomain == null, path,
+				cookie.getSecure(), expires, now + (expires ? timeToLive : 0L));
+	}
+
+	private static String stripLeadingDot(String domain) {
+		return domain.startsWith(".") ? domain.substring(1) : domain;
+	}
+
+	private static boolean domainMatches(String domain, String host) {
+		return host.equals(domain)
+				|| (host.endsWith(domain) && host.charAt(host.length() - domain.length() - 1) == '.');
+	}
+
+	private static String defaultPath(URI requestUri) {
+		String path = requestUri.getPath();
+		int lastSlash = (path != null) ? path.lastIndexOf('/') : -1;
+		return (lastSlash > 0) ? path.substring(0, lastSlash) : "/";
+	}
+
+	private static MultiValueMap<String, String> toRequestCookies(List<StoredCookie> cookies) {
+		if (cookies.isEmpty()) {
+			return NO_COOKIES;
+		}
+		LinkedMultiValueMap<String, String> requestCookies = new LinkedMultiValueMap<>(cookies.size());
+		for (StoredCookie cookie : cookies) {
+			requestCookies.add(cookie.name(), cookie.value());
+		}
+		return CollectionUtils.unmodifiableMultiValueMap(requestCookies);
+	}
+
+	/**
+	 * Immutable snapshot of the cookies of an instance, ordered from the least to the
+	 * most recently set cookie.
+	 */
+	private record Cookies(List<StoredCookie> cookies, MultiValueMap<String, String> requestCookies) {
+
+		private static final Cookies EMPTY = new Cookies(Collections.emptyList(), NO_COOKIES);
+
+		private static Cookies of(List<StoredCookie> cookies) {
+			return new Cookies(Collections.unmodifiableList(cookies), toRequestCookies(cookies));
+		}
+
+		private Cookies with(List<StoredCookie> received, long now, int maxCookies) {
+			List<StoredCookie> updated = new ArrayList<>(this.cookies.size() + received.size());
+			for (StoredCookie cookie : this.cookies) {
+				if (!cookie.isExpired(now) && received.stream().noneMatch(cookie::isSameAs)) {
+					updated.add(cookie);
+				}
+			}
+			for (StoredCookie cookie : received) {
+				// a cookie with an expiry in the past deletes the cookie
+				if (!cookie.isExpired(now)) {
+					updated.removeIf(cookie::isSameAs);
+					updated.add(cookie);
+				}
+			}
+			while (updated.size() > maxCookies) {
+				updated.remove(0);
+			}
+			return of(updated);
+		}
+
+		private Cookies without(long now) {
+			if (this.cookies.stream().noneMatch((cookie) -> cookie.isExpired(now))) {
+				return this;
+			}
+			return of(this.cookies.stream().filter((cookie) -> !cookie.isExpired(now)).toList());
+		}
+
+	}
+
+	private record StoredCookie(String name, String value, String domain, boolean hostOnly, String path, boolean secure,
+			boolean expires, long expiresAt) {
+
+		private boolean isExpired(long now) {
+			return this.expires && now - this.expiresAt >= 0;
+		}
+
+		private boolean isSameAs(StoredCookie other) {
+			return this.name.equals(other.name) && this.domain.equals(other.domain) && this.path.equals(other.path);
+		}
+
+		private boolean appliesTo(URI uri, long now) {
+			if (isExpired(now) || (this.secure && !"https".equalsIgnoreCase(uri.getScheme()))) {
+				return false;
+			}
+			String host = uri.getHost();
+			if (host == null) {
+				return false;
+			}
+			host = host.toLowerCase(Locale.ROOT);
+			if (this.hostOnly ? !host.equals(this.domain) : !domainMatches(this.domain, host)) {
+				return false;
+			}
+			String path = (uri.getPath() == null || uri.getPath().isEmpty()) ? "/" : uri.getPath();
+			return path.equals(this.path) || (path.startsWith(this.path)
+					&& (this.path.endsWith("/") || path.charAt(this.path.length()) == '/'));
+		}
+
+	}
+
+}
@@ -45,7 +45,8 @@ import de.codecentric.boot.admin.server.web.InstanceWebProxy;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 
 /**
- * Http Handler for proxied requests
+ * Http Handler for proxied requests. The response bodies of the instances are passed to
+ * the client buffer by buffer, without copying or aggregating them.
  */
 @AdminController
 public class InstancesProxyController {
@@ -68,10 +69,15 @@ public class InstancesProxyController {
 
 	public InstancesProxyController(String adminContextPath, Set<String> ignoredHeaders, InstanceRegistry registry,
 			InstanceWebClient instanceWebClient) {
+		this(adminContextPath, ignoredHeaders, registry, new InstanceWebProxy(instanceWebClient));
+	}
+
+	public InstancesProxyController(String adminContextPath, Set<String> ignoredHeaders, InstanceRegistry registry,
+			InstanceWebProxy instanceWebProxy) {
 		this.adminContextPath = adminContextPath;
 		this.registry = registry;
 		this.httpHeadersFilter = new HttpHeaderFilter(ignoredHeaders);
-		this.instanceWebProxy = new InstanceWebProxy(instanceWebClient);
+		this.instanceWebProxy = instanceWebProxy;
 	}
 
 	@RequestMapping(path = INSTANCE_MAPPED_PATH, method = { RequestMethod.GET, RequestMethod.HEAD, RequestMethod.POST,
@@ -86,7 +92,11 @@ public class InstancesProxyController {
 					response.setStatusCode(clientResponse.statusCode());
 					response.getHeaders()
 						.addAll(this.httpHeadersFilter.filterHeaders(clientResponse.headers().asHttpHeaders()));
-					return response.writeAndFlushWith(clientResponse.body(BodyExtractors.toDataBuffers()).window(1));
+					Flux<DataBuffer> body = clientResponse.body(BodyExtractors.toDataBuffers());
+					if (InstanceWebProxy.isStreaming(clientResponse)) {
+						return response.writeAndFlushWith(body.map(Mono::just));
+					}
+					return response.writeWith(body);
 				});
 	}
 
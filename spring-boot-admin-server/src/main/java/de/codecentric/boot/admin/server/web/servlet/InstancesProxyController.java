@@ -22,17 +22,24 @@ import java.net.URI;
 import java.util.Set;
 
 import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.PathMatcher;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -41,6 +48,8 @@ import org.springframework.web.reactive.function.BodyExtractors;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -57,6 +66,8 @@ import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 @AdminController
 public class InstancesProxyController {
 
+	private static final Logger log = LoggerFactory.getLogger(InstancesProxyController.class);
+
 	private static final String INSTANCE_MAPPED_PATH = "/instances/{instanceId}/actuator/**";
 
 	private static final String APPLICATION_MAPPED_PATH = "/applications/{applicationName}/actuator/**";
@@ -75,16 +86,22 @@ public class InstancesProxyController {
 
 	public InstancesProxyController(String adminContextPath, Set<String> ignoredHeaders, InstanceRegistry registry,
 			InstanceWebClient instanceWebClient) {
+		this(adminContextPath, ignoredHeaders, registry, new InstanceWebProxy(instanceWebClient));
+	}
+
+	public InstancesProxyController(String adminContextPath, Set<String> ignoredHeaders, InstanceRegistry registry,
+			InstanceWebProxy instanceWebProxy) {
 		this.adminContextPath = adminContextPath;
 		this.registry = registry;
 		this.httpHeadersFilter = new HttpHeaderFilter(ignoredHeaders);
-		this.instanceWebProxy = new InstanceWebProxy(instanceWebClient);
+		this.instanceWebProxy = instanceWebProxy;
 	}
 
 	@ResponseBody
 	@RequestMapping(path = INSTANCE_MAPPED_PATH, method = { RequestMethod.GET, RequestMethod.HEAD, RequestMethod.POST,
 			RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE, RequestMethod.OPTIONS })
-	public void instanceProxy(@PathVariable("instanceId") String instanceId, HttpServletRequest servletRequest) {
+	public void instanceProxy(@PathVariable("instanceId") String instanceId, HttpServletRequest servletRequest)
+			throws IOException {
 		// start async because we will commit from different thread.
 		// otherwise incorrect thread local objects (session and security context) will be
 		// stored.
@@ -93,6 +110,83 @@ public class InstancesProxyController {
 		AsyncContext asyncContext = servletRequest.startAsync();
 		asyncContext.setTimeout(-1); // no timeout because instanceWebProxy will handle it
 		// for us
+		if (HttpMethod.OPTIONS.matches(servletRequest.getMethod())) {
+			blockingInstanceProxy(instanceId, asyncContext);
+		}
+		else {
+			nonBlockingInstanceProxy(instanceId, asyncContext);
+		}
+	}
+
+	/**
+	 * Forwards the request and writes the response using the non-blocking I/O of the
+	 * servlet container (see {@link ServletResponseBodyWriter}), so no container thread
+	 * is occupied while waiting for the instance or the client.
+	 * @param instanceId the id of the instance
+	 * @param asyncContext the async context of the request
+	 * @throws IOException if the request body could not be read
+	 */
+	private void nonBlockingInstanceProxy(String instanceId, AsyncContext asyncContext) throws IOException {
+		HttpServletResponse servletResponse = (HttpServletResponse) asyncContext.getResponse();
+		ServletServerHttpRequest request = new ServletServerHttpRequest((HttpServletRequest) asyncContext.getRequest());
+		// the request body (e.g. for changing a logger) is small and read upfront, so
+		// the threads of the web client are not blocked reading it.
+		byte[] requestBody = StreamUtils.copyToByteArray(request.getBody());
+		InstanceWebProxy.ForwardRequest fwdRequest = createForwardRequest(request,
+				Flux.defer(() -> Flux.just(this.bufferFactory.wrap(requestBody))),
+				this.adminContextPath + INSTANCE_MAPPED_PATH);
+		ServletResponseBodyWriter bodyWriter = new ServletResponseBodyWriter(servletResponse.getOutputStream(), 4096);
+
+		Disposable.Swap subscription = Disposables.swap();
+		asyncContext.addListener(new AsyncListener() {
+			@Override
+			public void onComplete(AsyncEvent event) {
+				subscription.dispose();
+			}
+
+			@Override
+			public void onTimeout(AsyncEvent event) {
+				subscription.dispose();
+			}
+
+			@Override
+			public void onError(AsyncEvent event) {
+				subscription.dispose();
+			}
+
+			@Override
+			public void onStartAsync(AsyncEvent event) {
+			}
+		});
+
+		subscription.update(this.instanceWebProxy
+			.forward(this.registry.getInstance(InstanceId.of(instanceId)), fwdRequest, (clientResponse) -> {
+				servletResponse.setStatus(clientResponse.statusCode().value());
+				this.httpHeadersFilter.filterHeaders(clientResponse.headers().asHttpHeaders())
+					.forEach((name, values) -> values.forEach((value) -> servletResponse.addHeader(name, value)));
+				return bodyWriter.write(clientResponse.body(BodyExtractors.toDataBuffers()),
+						InstanceWebProxy.isStreaming(clientResponse));
+			})
+			.doOnError((ex) -> {
+				log.debug("Proxy-Request for instance {} failed", instanceId, ex);
+				if (!servletResponse.isCommitted()) {
+					servletResponse.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+				}
+			})
+			.doFinally((signal) -> complete(asyncContext))
+			.subscribe(null, (ex) -> {
+				// already handled by doOnError
+			}));
+	}
+
+	/**
+	 * Forwards the request blocking the current thread until the response is written.
+	 * This is only used for OPTIONS requests, as the headers must be written before any
+	 * async dispatch, otherwise the FrameworkServlet will add a wrong Allow header.
+	 * @param instanceId the id of the instance
+	 * @param asyncContext the async context of the request
+	 */
+	private void blockingInstanceProxy(String instanceId, AsyncContext asyncContext) {
 		try {
 			ServletServerHttpRequest request = new ServletServerHttpRequest(
 					(HttpServletRequest) asyncContext.getRequest());
@@ -119,10 +213,6 @@ public class InstancesProxyController {
 						return Mono.error(ex);
 					}
 				})
-				// We need to explicitly block so the headers are received and written
-				// before any async dispatch otherwise the FrameworkServlet will add
-				// wrong
-				// Allow header for OPTIONS request
 				.block();
 		}
 		finally {
@@ -130,6 +220,15 @@ public class InstancesProxyController {
 		}
 	}
 
+	private void complete(AsyncContext asyncContext) {
+		try {
+			asyncContext.complete();
+		}
+		catch (IllegalStateException ex) {
+			// the async context was already completed, e.g. after a client abort
+		}
+	}
+
 	@ResponseBody
 	@RequestMapping(path = APPLICATION_MAPPED_PATH, method = { RequestMethod.GET, RequestMethod.HEAD,
 			RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE, RequestMethod.OPTIONS })
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.servlet;
+
+import java.io.IOException;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Writes a stream of {@link DataBuffer}s to a {@link ServletOutputStream} using the
+ * non-blocking I/O of the servlet container. A buffer is only written when the output
+ * stream is ready, otherwise writing continues when the container calls
+ * {@link #onWritePossible()}. The next buffer is requested after the previous one was
+ * written, so no thread is blocked while waiting for the client or the instance.
+ * <p>
+ * The writer must be created on a container thread, as the {@link WriteListener} is
+ * registered in the constructor.
+ */
+final class ServletResponseBodyWriter implements WriteListener {
+
+	private final ServletOutputStream outputStream;
+
+	private final byte[] chunk;
+
+	@Nullable private MonoSink<Void> sink;
+
+	@Nullable private volatile Subscription subscription;
+
+	@Nullable private DataBuffer pending;
+
+	private boolean flushPerBuffer;
+
+	private boolean flushPending;
+
+	private boolean upstreamCompleted;
+
+	private boolean done;
+
+	ServletResponseBodyWriter(ServletOutputStream outputStream, int chunkSize) {
+		this.outputStream = outputStream;
+		this.chunk = new byte[chunkSize];
+		outputStream.setWriteListener(this);
+	}
+
+	/**
+	 * Writes the body to the output stream. Can only be called once.
+	 * @param body the body to write
+	 * @param flushPerBuffer whether to flush after each buffer
+	 * @return a mono completing when all buffers were written
+	 */
+	Mono<Void> write(Publisher<? extends DataBuffer> body, boolean flushPerBuffer) {
+		return Mono.create((sink) -> {
+			synchronized (this) {
+				if (this.sink != null) {
+					sink.error(new IllegalStateException("The body was already written"));
+					return;
+				}
+				this.sink = sink;
+				this.flushPerBuffer = flushPerBuffer;
+			}
+			sink.onCancel(() -> abort(null));
+			body.subscribe(new BodySubscriber());
+		});
+	}
+
+	@Override
+	public void onWritePossible() {
+		drain();
+	}
+
+	@Override
+	public void onError(Throwable ex) {
+		abort(ex);
+	}
+
+	private void drain() {
+		boolean requestNext = false;
+		MonoSink<Void> completed = null;
+		try {
+			synchronized (this) {
+				if (this.done || this.sink == null) {
+					return;
+				}
+				// keeps draining after a buffer was written, as the upstream may have
+				// completed meanwhile without requesting the next buffer
+				while (true) {
+					if (this.pending != null) {
+						if (!writeAvailable(this.pending)) {
+							break;
+						}
+						DataBufferUtils.release(this.pending);
+						this.pending = null;
+						this.flushPending = this.flushPerBuffer;
+						requestNext = !this.flushPending;
+					}
+					else if (this.flushPending) {
+						if (!this.outputStream.isReady()) {
+							break;
+						}
+						this.outputStream.flush();
+						this.flushPending = false;
+						requestNext = true;
+					}
+					else if (this.upstreamCompleted) {
+						if (this.outputStream.isReady()) {
+							this.done = true;
+							completed = this.sink;
+						}
+						break;
+					}
+					else {
+						break;
+					}
+				}
+			}
+		}
+		catch (IOException ex) {
+			abort(ex);
+			return;
+		}
+
+		Subscription subscription = this.subscription;
+		if (completed != null) {
+			completed.success();
+		}
+		else if (requestNext && subscription != null) {
+			subscription.request(1);
+		}
+	}
+
+	private boolean writeAvailable(DataBuffer buffer) throws IOException {
+		while (buffer.readableByteCount() > 0) {
+			if (!this.outputStream.isReady()) {
+				return false;
+			}
+			int length = Math.min(this.chunk.length, buffer.readableByteCount());
+			buffer.read(this.chunk, 0, length);
+			this.outputStream.write(this.chunk, 0, length);
+		}
+		return true;
+	}
+
+	private void abort(@Nullable Throwable ex) {
+		MonoSink<Void> sink;
+		synchronized (this) {
+			if (this.done) {
+				return;
+			}
+			this.done = true;
+			if (this.pending != null) {
+				DataBufferUtils.release(this.pending);
+				this.pending = null;
+			}
+			sink = this.sink;
+		}
+		Subscription subscription = this.subscription;
+		if (subscription != null) {
+			subscription.cancel();
+		}
+		if (ex != null && sink != null) {
+			sink.error(ex);
+		}
+	}
+
+	private final class BodySubscriber extends BaseSubscriber<DataBuffer> {
+
+		@Override
+		protected void hookOnSubscribe(Subscription subscription) {
+			ServletResponseBodyWriter.this.subscription = subscription;
+			subscription.request(1);
+		}
+
+		@Override
+		protected void hookOnNext(DataBuffer buffer) {
+			synchronized (ServletResponseBodyWriter.this) {
+				if (ServletResponseBodyWriter.this.done) {
+					DataBufferUtils.release(buffer);
+					return;
+				}
+				ServletResponseBodyWriter.this.pending = buffer;
+			}
+			drain();
+		}
+
+		@Override
+		protected void hookOnComplete() {
+			synchronized (ServletResponseBodyWriter.this) {
+				ServletResponseBodyWriter.this.upstreamCompleted = true;
+			}
+			drain();
+		}
+
+		@Override
+		protected void hookOnError(Throwable ex) {
+			abort(ex);
+		}
+
+	}
+
+}
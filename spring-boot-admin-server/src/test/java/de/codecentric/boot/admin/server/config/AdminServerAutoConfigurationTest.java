@@ -19,10 +19,13 @@ package de.codecentric.boot.admin.server.config;
 import java.time.Duration;
 
 import com.hazelcast.config.Config;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.hazelcast.autoconfigure.HazelcastAutoConfiguration;
 import org.springframework.boot.http.client.autoconfigure.reactive.ReactiveHttpClientAutoConfiguration;
+import org.springframework.boot.micrometer.metrics.autoconfigure.MetricsAutoConfiguration;
+import org.springframework.boot.micrometer.metrics.autoconfigure.export.simple.SimpleMetricsExportAutoConfiguration;
 import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
 import org.springframework.boot.webclient.autoconfigure.WebClientAutoConfiguration;
 import org.springframework.boot.webmvc.autoconfigure.WebMvcAutoConfiguration;
@@ -39,6 +42,7 @@ import de.codecentric.boot.admin.server.notify.MailNotifier;
 import de.codecentric.boot.admin.server.notify.NotificationTrigger;
 import de.codecentric.boot.admin.server.notify.Notifier;
 import de.codecentric.boot.admin.server.services.StatusUpdater;
+import de.codecentric.boot.admin.server.web.InstanceResponseCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -67,6 +71,20 @@ class AdminServerAutoConfigurationTest {
 		});
 	}
 
+	@Test
+	void metricsConfig() {
+		this.contextRunner
+			.withConfiguration(
+					AutoConfigurations.of(MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class))
+			.run((context) -> {
+				MeterRegistry registry = context.getBean(MeterRegistry.class);
+				assertThat(registry.find("spring.boot.admin.check.due").tag("check", "status").gauge()).isNotNull();
+				assertThat(registry.find("spring.boot.admin.check.due").tag("check", "info").gauge()).isNotNull();
+				assertThat(registry.find("spring.boot.admin.repository.optimistic.lock.retries").counter()).isNotNull();
+				assertThat(registry.find("spring.boot.admin.eventstore.append").timer()).isNotNull();
+			});
+	}
+
 	@Test
 	void shouldApplyConfiguredTimeoutFromProperties() {
 		this.contextRunner
@@ -89,6 +107,18 @@ class AdminServerAutoConfigurationTest {
 			});
 	}
 
+	@Test
+	void instanceResponseCacheConfig() {
+		this.contextRunner.run((context) -> assertThat(context).doesNotHaveBean(InstanceResponseCache.class));
+		this.contextRunner
+			.withPropertyValues("spring.boot.admin.instance-proxy.cache.enabled=true",
+					"spring.boot.admin.instance-proxy.cache.max-body-size=64KB")
+			.run((context) -> {
+				assertThat(context).hasSingleBean(InstanceResponseCache.class);
+				assertThat(context.getBean(InstanceResponseCache.class).getMaxBodySize()).isEqualTo(64 * 1024);
+			});
+	}
+
 	public static class TestHazelcastConfig {
 
 		@Bean
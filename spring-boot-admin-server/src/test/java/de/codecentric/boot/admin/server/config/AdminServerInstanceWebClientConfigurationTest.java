@@ -16,17 +16,37 @@
 
 package de.codecentric.boot.admin.server.config;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.ssl.SslAutoConfiguration;
 import org.springframework.boot.http.client.autoconfigure.reactive.ReactiveHttpClientAutoConfiguration;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.boot.ssl.NoSuchSslBundleException;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.ssl.SslStoreBundle;
+import org.springframework.boot.test.context.FilteredClassLoader;
 import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
 import org.springframework.boot.webclient.autoconfigure.WebClientAutoConfiguration;
 import org.springframework.boot.webmvc.autoconfigure.WebMvcAutoConfiguration;
+import org.springframework.context.ApplicationContext;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
 
 import de.codecentric.boot.admin.server.web.client.BasicAuthHttpHeaderProvider;
+import de.codecentric.boot.admin.server.web.client.EndpointLatencyTracker;
+import de.codecentric.boot.admin.server.web.client.EndpointRouteTable;
+import de.codecentric.boot.admin.server.web.client.InstanceBulkheads;
+import de.codecentric.boot.admin.server.web.client.InstanceCircuitBreakerTrigger;
+import de.codecentric.boot.admin.server.web.client.InstanceCircuitBreakers;
 import de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunction;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 import de.codecentric.boot.admin.server.web.client.LegacyEndpointConverter;
+import de.codecentric.boot.admin.server.web.client.RetryBudget;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -44,11 +64,21 @@ class AdminServerInstanceWebClientConfigurationTest {
 			assertThat(context).hasSingleBean(InstanceWebClient.Builder.class);
 			assertThat(context).hasBean("filterInstanceWebClientCustomizer");
 			assertThat(context).hasSingleBean(BasicAuthHttpHeaderProvider.class);
-			assertThat(context).getBeanNames(InstanceExchangeFilterFunction.class)
-				.containsExactly("addHeadersInstanceExchangeFilter", "rewriteEndpointUrlInstanceExchangeFilter",
-						"setDefaultAcceptHeaderInstanceExchangeFilter", "legacyEndpointConverterInstanceExchangeFilter",
-						"logfileAcceptWorkaround", "cookieHandlingInstanceExchangeFilter",
-						"retryInstanceExchangeFilter", "timeoutInstanceExchangeFilter");
+			assertThat(context).hasBean("basicAuthHeadersCleanupTrigger");
+			assertThat(orderedFilterNames(context)).containsExactly("addHeadersInstanceExchangeFilter",
+					"rewriteEndpointUrlInstanceExchangeFilter", "setDefaultAcceptHeaderInstanceExchangeFilter",
+					"legacyEndpointConverterInstanceExchangeFilter", "logfileAcceptWorkaround",
+					"compressionInstanceExchangeFilter", "cookieHandlingInstanceExchangeFilter",
+					"bulkheadInstanceExchangeFilter", "circuitBreakerInstanceExchangeFilter",
+					"retryInstanceExchangeFilter", "timeoutInstanceExchangeFilter");
+			assertThat(context).hasSingleBean(EndpointRouteTable.class);
+			assertThat(context).hasBean("endpointRouteTableCleanupTrigger");
+			assertThat(context).hasSingleBean(RetryBudget.class);
+			assertThat(context).hasBean("retryBudgetCleanupTrigger");
+			assertThat(context).hasSingleBean(InstanceBulkheads.class);
+			assertThat(context).hasSingleBean(InstanceCircuitBreakers.class);
+			assertThat(context).hasSingleBean(InstanceCircuitBreakerTrigger.class);
+			assertThat(context).doesNotHaveBean(EndpointLatencyTracker.class);
 			assertThat(context).getBeanNames(LegacyEndpointConverter.class)
 				.containsExactly("healthLegacyEndpointConverter", "infoLegacyEndpointConverter",
 						"envLegacyEndpointConverter", "httptraceLegacyEndpointConverter",
@@ -59,4 +89,118 @@ class AdminServerInstanceWebClientConfigurationTest {
 		});
 	}
 
+	@Test
+	void hedgingConfig() {
+		this.contextRunner
+			.withPropertyValues("spring.boot.admin.monitor.hedging.enabled=true",
+					"spring.boot.admin.monitor.retry-budget.enabled=false")
+			.run((context) -> {
+				assertThat(context).hasSingleBean(EndpointLatencyTracker.class);
+				assertThat(context).doesNotHaveBean(RetryBudget.class);
+				assertThat(context).doesNotHaveBean("retryBudgetCleanupTrigger");
+				assertThat(context).getBeanNames(InstanceExchangeFilterFunction.class)
+					.contains("hedgingInstanceExchangeFilter", "latencyRecordingInstanceExchangeFilter");
+			});
+	}
+
+	@Test
+	void adaptiveTimeoutConfig() {
+		this.contextRunner.withPropertyValues("spring.boot.admin.monitor.adaptive-timeout.enabled=true")
+			.run((context) -> {
+				assertThat(context).hasSingleBean(EndpointLatencyTracker.class);
+				assertThat(context).getBeanNames(InstanceExchangeFilterFunction.class)
+					.contains("latencyRecordingInstanceExchangeFilter")
+					.doesNotContain("hedgingInstanceExchangeFilter");
+			});
+	}
+
+	@Test
+	void latencyTrackingWithoutHdrHistogramConfig() {
+		this.contextRunner.withClassLoader(new FilteredClassLoader("org.HdrHistogram"))
+			.withPropertyValues("spring.boot.admin.monitor.hedging.enabled=true",
+					"spring.boot.admin.monitor.adaptive-timeout.enabled=true")
+			.run((context) -> {
+				assertThat(context).hasNotFailed();
+				assertThat(context).doesNotHaveBean(EndpointLatencyTracker.class);
+				assertThat(context).getBeanNames(InstanceExchangeFilterFunction.class)
+					.contains("timeoutInstanceExchangeFilter")
+					.doesNotContain("hedgingInstanceExchangeFilter", "latencyRecordingInstanceExchangeFilter");
+			});
+	}
+
+	@Test
+	void circuitBreakerDisabledConfig() {
+		this.contextRunner.withPropertyValues("spring.boot.admin.monitor.circuit-breaker.enabled=false")
+			.run((context) -> {
+				assertThat(context).doesNotHaveBean(InstanceCircuitBreakers.class);
+				assertThat(context).doesNotHaveBean("circuitBreakerInstanceExchangeFilter");
+			});
+	}
+
+	@Test
+	void dedicatedConnectionPoolConfig() {
+		this.contextRunner.run((context) -> assertThat(context).doesNotHaveBean("instanceConnectionProvider"));
+
+		this.contextRunner
+			.withPropertyValues("spring.boot.admin.monitor.http.enabled=true",
+					"spring.boot.admin.monitor.http.max-connections=10",
+					"spring.boot.admin.monitor.http.protocols=http11,h2c")
+			.run((context) -> {
+				assertThat(context).hasBean("instanceHttpClientInstanceWebClientCustomizer");
+				assertThat(context.getBean("instanceConnectionProvider", ConnectionProvider.class).maxConnections())
+					.isEqualTo(10);
+				AdminServerProperties properties = context.getBean(AdminServerProperties.class);
+				assertThat(properties.getMonitor().getHttp().getProtocols()).containsExactly(HttpProtocol.HTTP11,
+						HttpProtocol.H2C);
+			});
+	}
+
+	@Test
+	void dedicatedConnectionPoolRejectsProtocolsWithoutHttp11() {
+		this.contextRunner
+			.withPropertyValues("spring.boot.admin.monitor.http.enabled=true",
+					"spring.boot.admin.monitor.http.protocols=h2")
+			.run((context) -> assertThat(context).hasFailed()
+				.getFailure()
+				.rootCause()
+				.hasMessageContaining("must contain http11"));
+		this.contextRunner
+			.withPropertyValues("spring.boot.admin.monitor.http.enabled=true",
+					"spring.boot.admin.monitor.http.protocols=h2c")
+			.run((context) -> assertThat(context).hasFailed()
+				.getFailure()
+				.rootCause()
+				.hasMessageContaining("must contain http11"));
+	}
+
+	@Test
+	void dedicatedConnectionPoolUsesSslBundle() {
+		this.contextRunner.withConfiguration(AutoConfigurations.of(SslAutoConfiguration.class))
+			.withPropertyValues("spring.boot.admin.monitor.http.enabled=true",
+					"spring.boot.admin.monitor.http.ssl-bundle=unknown")
+			.run((context) -> assertThat(context).hasFailed()
+				.getFailure()
+				.rootCause()
+				.isInstanceOf(NoSuchSslBundleException.class));
+	}
+
+	@Test
+	void dedicatedConnectionPoolWithSslBundle() {
+		this.contextRunner
+			.withBean(SslBundles.class,
+					() -> new DefaultSslBundleRegistry("instances", SslBundle.of(SslStoreBundle.NONE)))
+			.withPropertyValues("spring.boot.admin.monitor.http.enabled=true",
+					"spring.boot.admin.monitor.http.ssl-bundle=instances")
+			.run((context) -> {
+				assertThat(context).hasNotFailed();
+				assertThat(context.getBean(InstanceWebClient.Builder.class).build()).isNotNull();
+			});
+	}
+
+	private static List<String> orderedFilterNames(ApplicationContext context) {
+		Map<InstanceExchangeFilterFunction, String> names = new IdentityHashMap<>();
+		context.getBeansOfType(InstanceExchangeFilterFunction.class).forEach((name, bean) -> names.put(bean, name));
+		return context.getBeanProvider(InstanceExchangeFilterFunction.class).orderedStream().map(names::get).toList();
+	}
+
 }
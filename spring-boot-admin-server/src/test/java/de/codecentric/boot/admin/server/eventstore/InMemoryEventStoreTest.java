@@ -16,8 +16,74 @@
 
 package de.codecentric.boot.admin.server.eventstore;
 
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceRegisteredEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceStatusChangedEvent;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.domain.values.StatusInfo;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class InMemoryEventStoreTest extends AbstractEventStoreTest {
 
+	@Test
+	public void should_record_metrics() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		InMemoryEventStore store = new InMemoryEventStore(2);
+		store.bindTo(registry);
+
+		InstanceId id = InstanceId.of("id");
+		InstanceEvent event1 = new InstanceRegisteredEvent(id, 0L, Registration.create("foo", "http://health").build());
+		InstanceEvent event2 = new InstanceStatusChangedEvent(id, 1L, StatusInfo.ofDown());
+		InstanceEvent event3 = new InstanceStatusChangedEvent(id, 2L, StatusInfo.ofUp());
+
+		StepVerifier.create(store.append(asList(event1, event2, event3))).verifyComplete();
+
+		assertThat(registry.get("spring.boot.admin.eventstore.append").timer().count()).isEqualTo(1L);
+		assertThat(registry.get("spring.boot.admin.eventstore.compactions").counter().count()).isEqualTo(1.0);
+		assertThat(registry.get("spring.boot.admin.eventstore.log.size").summary().max()).isEqualTo(2.0);
+		assertThat(registry.get("spring.boot.admin.eventstore.instances").gauge().value()).isEqualTo(1.0);
+		assertThat(registry.get("spring.boot.admin.events.published").tag("type", "STATUS_CHANGED").counter().count())
+			.isEqualTo(2.0);
+	}
+
+	@Test
+	public void should_count_compaction_once_when_append_is_retried() {
+		AtomicBoolean replaceFailed = new AtomicBoolean();
+		ConcurrentMap<InstanceId, List<InstanceEvent>> eventLog = new ConcurrentHashMap<>() {
+			@Override
+			public boolean replace(InstanceId key, List<InstanceEvent> oldValue, List<InstanceEvent> newValue) {
+				// simulates a concurrent append winning the first attempt
+				return replaceFailed.getAndSet(true) && super.replace(key, oldValue, newValue);
+			}
+		};
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ConcurrentMapEventStore store = new ConcurrentMapEventStore(2, eventLog) {
+		};
+		store.bindTo(registry);
+
+		InstanceId id = InstanceId.of("id");
+		InstanceEvent event1 = new InstanceRegisteredEvent(id, 0L, Registration.create("foo", "http://health").build());
+		InstanceEvent event2 = new InstanceStatusChangedEvent(id, 1L, StatusInfo.ofDown());
+		InstanceEvent event3 = new InstanceStatusChangedEvent(id, 2L, StatusInfo.ofUp());
+
+		StepVerifier.create(store.append(asList(event1, event2, event3))).verifyComplete();
+
+		assertThat(replaceFailed).isTrue();
+		assertThat(registry.get("spring.boot.admin.eventstore.compactions").counter().count()).isEqualTo(1.0);
+	}
+
 	@Override
 	protected InstanceEventStore createStore(int maxLogSizePerAggregate) {
 		return new InMemoryEventStore(maxLogSizePerAggregate);
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedChunkTest {
+
+	@Test
+	void should_restore_samples() {
+		Random random = new Random(42L);
+		List<long[]> expected = new ArrayList<>();
+		CompressedChunk chunk = new CompressedChunk(1000);
+		long timestamp = 1_700_000_000_000L;
+		double value = 0.0;
+		for (int i = 0; i < 1000; i++) {
+			// regular intervals with jitter and occasional gaps in all encoding buckets
+			timestamp += switch (i % 50) {
+				case 10 -> 10_000L + random.nextInt(200);
+				case 20 -> 10_000L + random.nextInt(4000);
+				case 30 -> 3_600_000L;
+				case 40 -> 0L;
+				default -> 10_000L + random.nextInt(20);
+			};
+			value = switch (i % 7) {
+				case 1 -> value;
+				case 2 -> random.nextDouble();
+				case 3 -> -value;
+				case 4 -> Double.NaN;
+				case 5 -> Double.MAX_VALUE;
+				default -> value + random.nextInt(1000);
+			};
+			chunk.append(timestamp, value);
+			expected.add(new long[] { timestamp, Double.doubleToRawLongBits(value) });
+		}
+		chunk.seal();
+
+		List<long[]> restored = new ArrayList<>();
+		chunk.forEach((t, v) -> restored.add(new long[] { t, Double.doubleToRawLongBits(v) }));
+
+		assertThat(restored).containsExactlyElementsOf(expected);
+		assertThat(chunk.size()).isEqualTo(1000);
+		assertThat(chunk.getFirstTimestamp()).isEqualTo(expected.get(0)[0]);
+		assertThat(chunk.getLastTimestamp()).isEqualTo(timestamp);
+	}
+
+	@Test
+	void should_compress_regular_samples() {
+		CompressedChunk chunk = new CompressedChunk(120);
+		for (int i = 0; i < 120; i++) {
+			chunk.append(1_700_000_000_000L + i * 10_000L, 100.0 + (i % 3));
+		}
+		chunk.seal();
+
+		assertThat(chunk.isFull()).isTrue();
+		// 16 bytes per sample uncompressed
+		assertThat(chunk.sizeInBytes()).isLessThan(120L * 4);
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.metrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.TestPublisher;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.events.InstanceDeregisteredEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceEndpointsDetectedEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.domain.values.Endpoint;
+import de.codecentric.boot.admin.server.domain.values.Endpoints;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore.Tier;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceWebProxy;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricsHistorySamplerTest {
+
+	private final Instance instance = Instance.create(InstanceId.of("id-1"))
+		.register(Registration.create("foo", "http://localhost/health").build())
+		.withEndpoints(Endpoints.single(Endpoint.METRICS, "http://localhost/metrics"));
+
+	private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+	private final InstanceRegistry registry = mock(InstanceRegistry.class);
+
+	private final TestPublisher<InstanceEvent> events = TestPublisher.create();
+
+	private final MetricsHistoryStore store = new MetricsHistoryStore(
+			List.of(new Tier(Duration.ofSeconds(10L), Duration.ofHours(1L))), 64L * 1024L);
+
+	private MetricsHistorySampler sampler;
+
+	@BeforeEach
+	void setUp() {
+		InstanceWebClient instanceWebClient = InstanceWebClient.builder()
+			.webClient(WebClient.builder().exchangeFunction((request) -> {
+				this.requests.add(request);
+				return Mono.fromSupplier(() -> respond(request));
+			}))
+			.build();
+		InstanceMetricsFetcher fetcher = new InstanceMetricsFetcher(new InstanceWebProxy(instanceWebClient), 2);
+		when(this.registry.getInstances()).thenReturn(Flux.just(this.instance));
+
+		this.sampler = new MetricsHistorySampler(this.events.flux(), this.registry, fetcher, this.store,
+				List.of(MetricQuery.of("jvm.threads.live"), MetricQuery.of("unknown")), Duration.ofHours(1L));
+		this.sampler.start();
+		await().until(this.events::wasSubscribed);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.sampler.stop();
+	}
+
+	@Test
+	void should_record_samples_and_skip_unavailable_metrics() {
+		StepVerifier.create(this.sampler.sampleAll()).verifyComplete();
+		StepVerifier.create(this.sampler.sampleAll()).verifyComplete();
+
+		assertThat(this.requests).extracting((request) -> request.url().getPath())
+			.containsExactly("metrics/jvm.threads.live", "metrics/unknown", "metrics/jvm.threads.live");
+		assertThat(query().measurements().get("VALUE")).hasSize(2);
+
+		this.events.next(new InstanceEndpointsDetectedEvent(this.instance.getId(), this.instance.getVersion(),
+				this.instance.getEndpoints()));
+		await().untilAsserted(() -> {
+			StepVerifier.create(this.sampler.sampleAll()).verifyComplete();
+			assertThat(this.requests).extracting((request) -> request.url().getPath()).endsWith("metrics/unknown");
+		});
+	}
+
+	@Test
+	void should_remove_history_of_deregistered_instances() {
+		StepVerifier.create(this.sampler.sampleAll()).verifyComplete();
+		assertThat(query().measurements()).isNotEmpty();
+
+		this.events.next(new InstanceDeregisteredEvent(this.instance.getId(), this.instance.getVersion()));
+
+		await().untilAsserted(() -> assertThat(query().measurements()).isEmpty());
+	}
+
+	private MetricsHistoryStore.MetricHistory query() {
+		long now = System.currentTimeMillis();
+		return this.store.query(this.instance.getId(), List.of(MetricQuery.of("jvm.threads.live")), now - 60_000L, now)
+			.get(0);
+	}
+
+	private ClientResponse respond(ClientRequest request) {
+		String name = request.url().getPath().substring("metrics/".length());
+		if (name.equals("unknown")) {
+			return ClientResponse.create(HttpStatus.NOT_FOUND).build();
+		}
+		return ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+			.body("{\"name\":\"" + name + "\",\"measurements\":[{\"statistic\":\"VALUE\",\"value\":42.0}]}")
+			.build();
+	}
+
+}
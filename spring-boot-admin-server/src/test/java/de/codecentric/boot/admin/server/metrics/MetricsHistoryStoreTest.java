@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.metrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore.MetricHistory;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore.Sample;
+import de.codecentric.boot.admin.server.metrics.MetricsHistoryStore.Tier;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsHistoryStoreTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("id-1");
+
+	private static final long START = 1_699_999_980_000L;
+
+	private final MetricsHistoryStore store = new MetricsHistoryStore(
+			List.of(new Tier(Duration.ofSeconds(10L), Duration.ofHours(1L)),
+					new Tier(Duration.ofMinutes(1L), Duration.ofDays(1L))),
+			1024L * 1024L);
+
+	@Test
+	void should_return_recorded_samples() {
+		for (int i = 0; i < 10; i++) {
+			this.store.record(INSTANCE_ID, START + i * 10_000L, List.of(gcPause(i + 1, i * 0.1, 0.5)));
+		}
+
+		List<MetricHistory> history = this.store.query(INSTANCE_ID, List.of(MetricQuery.of("jvm.gc.pause")),
+				START + 50_000L, START + 100_000L);
+
+		assertThat(history).singleElement().satisfies((metric) -> {
+			assertThat(metric.name()).isEqualTo("jvm.gc.pause");
+			assertThat(metric.resolution()).isEqualTo(10_000L);
+			assertThat(metric.measurements()).containsOnlyKeys("COUNT", "TOTAL_TIME", "MAX");
+			assertThat(metric.measurements().get("COUNT")).extracting(Sample::value)
+				.containsExactly(6.0, 7.0, 8.0, 9.0, 10.0);
+		});
+	}
+
+	@Test
+	void should_serve_longer_periods_from_downsampled_tier() {
+		for (int i = 0; i < 12; i++) {
+			this.store.record(INSTANCE_ID, START + i * 10_000L, List.of(gcPause(i + 1, i, (i % 6 == 2) ? 9.0 : 1.0)));
+		}
+
+		List<MetricHistory> history = this.store.query(INSTANCE_ID, List.of(MetricQuery.of("jvm.gc.pause")),
+				START - Duration.ofHours(2L).toMillis(), START + 120_000L);
+
+		MetricHistory metric = history.get(0);
+		assertThat(metric.resolution()).isEqualTo(60_000L);
+		// the first minute is complete, counters keep the last and MAX the maximum value
+		assertThat(metric.measurements().get("COUNT")).containsExactly(new Sample(START, 6.0));
+		assertThat(metric.measurements().get("MAX")).extracting(Sample::value).containsExactly(9.0);
+	}
+
+	@Test
+	void should_select_measurements_by_tags() {
+		this.store.record(INSTANCE_ID, START, List.of(memory("heap", 1.0), memory("nonheap", 2.0)));
+
+		List<MetricHistory> history = this.store.query(INSTANCE_ID,
+				List.of(new MetricQuery("jvm.memory.used", Map.of("area", "nonheap")), MetricQuery.of("unknown")),
+				START, START);
+
+		assertThat(history.get(0).measurements().get("VALUE")).containsExactly(new Sample(START, 2.0));
+		assertThat(history.get(1).measurements()).isEmpty();
+	}
+
+	@Test
+	void should_drop_expired_samples() {
+		this.store.record(INSTANCE_ID, START, List.of(memory("heap", 1.0)));
+		for (int i = 1; i <= 4 * TimeSeries.SAMPLES_PER_CHUNK; i++) {
+			this.store.record(INSTANCE_ID, START + Duration.ofHours(1L).toMillis() + i * 10_000L,
+					List.of(memory("heap", 2.0)));
+		}
+
+		List<MetricHistory> history = this.store.query(INSTANCE_ID,
+				List.of(new MetricQuery("jvm.memory.used", Map.of("area", "heap"))), START, START + 1);
+
+		assertThat(history.get(0).measurements().get("VALUE")).isEmpty();
+	}
+
+	@Test
+	void should_bound_memory_per_instance() {
+		MetricsHistoryStore store = new MetricsHistoryStore(
+				List.of(new Tier(Duration.ofSeconds(10L), Duration.ofDays(1L)),
+						new Tier(Duration.ofMinutes(1L), Duration.ofDays(7L))),
+				16L * 1024L);
+
+		for (int i = 0; i < 5_000; i++) {
+			store.record(INSTANCE_ID, START + i * 10_000L, List.of(memory("heap", Math.sin(i) * 1_000_000.0)));
+		}
+
+		assertThat(store.sizeInBytes(INSTANCE_ID)).isLessThanOrEqualTo(16L * 1024L);
+		List<MetricHistory> recent = store.query(INSTANCE_ID,
+				List.of(new MetricQuery("jvm.memory.used", Map.of("area", "heap"))), START + 4_990 * 10_000L,
+				START + 5_000 * 10_000L);
+		assertThat(recent.get(0).measurements().get("VALUE")).hasSize(10);
+
+		store.remove(INSTANCE_ID);
+		assertThat(store.sizeInBytes(INSTANCE_ID)).isZero();
+	}
+
+	private static MetricResult gcPause(double count, double totalTime, double max) {
+		return new MetricResult("jvm.gc.pause", Map.of(), 200,
+				Map.of("name", "jvm.gc.pause", "measurements",
+						List.of(Map.of("statistic", "COUNT", "value", count),
+								Map.of("statistic", "TOTAL_TIME", "value", totalTime),
+								Map.of("statistic", "MAX", "value", max))),
+				null);
+	}
+
+	private static MetricResult memory(String area, double value) {
+		return new MetricResult("jvm.memory.used", Map.of("area", area), 200,
+				Map.of("measurements", List.of(Map.of("statistic", "VALUE", "value", value))), null);
+	}
+
+}
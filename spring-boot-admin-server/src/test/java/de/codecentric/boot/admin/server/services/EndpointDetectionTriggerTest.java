@@ -16,12 +16,15 @@
 
 package de.codecentric.boot.admin.server.services;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
 import reactor.test.publisher.TestPublisher;
 
 import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.events.InstanceDeregisteredEvent;
 import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
 import de.codecentric.boot.admin.server.domain.events.InstanceRegisteredEvent;
 import de.codecentric.boot.admin.server.domain.events.InstanceRegistrationUpdatedEvent;
@@ -32,9 +35,11 @@ import de.codecentric.boot.admin.server.domain.values.StatusInfo;
 
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -111,4 +116,37 @@ class EndpointDetectionTriggerTest {
 		verify(this.detector, times(2)).detectEndpoints(this.instance.getId());
 	}
 
+	@Test
+	void should_debounce_detection_per_instance() {
+		// given
+		this.trigger.stop();
+		this.trigger = new EndpointDetectionTrigger(this.detector, this.events.flux(), Duration.ofMillis(200L));
+		this.trigger.start();
+		await().until(() -> this.events.subscribeCount() == 2);
+		InstanceId otherId = InstanceId.of("id-2");
+
+		// when the status is flapping
+		this.events.next(
+				new InstanceStatusChangedEvent(this.instance.getId(), this.instance.getVersion(), StatusInfo.ofDown()));
+		this.events.next(new InstanceStatusChangedEvent(otherId, 0L, StatusInfo.ofUp()));
+		this.events
+			.next(new InstanceStatusChangedEvent(this.instance.getId(), this.instance.getVersion(), StatusInfo.ofUp()));
+		this.events.next(
+				new InstanceStatusChangedEvent(this.instance.getId(), this.instance.getVersion(), StatusInfo.ofDown()));
+
+		// then should detect once per instance after the debounce
+		verify(this.detector, never()).detectEndpoints(this.instance.getId());
+		verify(this.detector, timeout(1000L).times(1)).detectEndpoints(this.instance.getId());
+		verify(this.detector, timeout(1000L).times(1)).detectEndpoints(otherId);
+
+		// when the instance is deregistered while a detection is pending
+		clearInvocations(this.detector);
+		this.events
+			.next(new InstanceStatusChangedEvent(this.instance.getId(), this.instance.getVersion(), StatusInfo.ofUp()));
+		this.events.next(new InstanceDeregisteredEvent(this.instance.getId(), this.instance.getVersion()));
+
+		// then should not detect
+		verify(this.detector, after(500L).never()).detectEndpoints(this.instance.getId());
+	}
+
 }
@@ -25,6 +25,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import de.codecentric.boot.admin.server.domain.entities.EventsourcingInstanceRepository;
@@ -41,9 +42,13 @@ import de.codecentric.boot.admin.server.eventstore.InMemoryEventStore;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
+import static com.github.tomakehurst.wiremock.client.WireMock.status;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.retry;
 import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.rewriteEndpointUrl;
@@ -227,4 +232,108 @@ class InfoUpdaterTest {
 			.verifyComplete();
 	}
 
+	@Test
+	void should_not_emit_event_for_unchanged_body() {
+		// given
+		Instance instance = Instance.create(InstanceId.of("onl"))
+			.register(Registration.create("foo", this.wireMock.url("/health")).build())
+			.withEndpoints(Endpoints.single("info", this.wireMock.url("/info")))
+			.withStatusInfo(StatusInfo.ofUp());
+		StepVerifier.create(this.repository.save(instance)).expectNextCount(1).verifyComplete();
+
+		this.wireMock.stubFor(get("/info").willReturn(okJson("{ \"foo\": \"bar\" }")));
+
+		// when
+		StepVerifier.create(this.eventStore)
+			.expectSubscription()
+			.then(() -> StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete())
+			.assertNext((event) -> assertThat(event).isInstanceOf(InstanceInfoChangedEvent.class))
+			.then(() -> StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete())
+			// then
+			.expectNoEvent(Duration.ofMillis(100L))
+			.then(() -> this.wireMock.stubFor(get("/info").willReturn(okJson("{ \"foo\": \"baz\" }"))))
+			.then(() -> StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete())
+			.assertNext((event) -> assertThat(event).isInstanceOf(InstanceInfoChangedEvent.class))
+			.thenCancel()
+			.verify();
+
+		StepVerifier.create(this.repository.find(instance.getId()))
+			.assertNext((app) -> assertThat(app.getInfo()).isEqualTo(Info.from(singletonMap("foo", "baz"))))
+			.verifyComplete();
+	}
+
+	@Test
+	void should_use_etag_for_conditional_requests() {
+		// given
+		Instance instance = Instance.create(InstanceId.of("onl"))
+			.register(Registration.create("foo", this.wireMock.url("/health")).build())
+			.withEndpoints(Endpoints.single("info", this.wireMock.url("/info")))
+			.withStatusInfo(StatusInfo.ofUp());
+		StepVerifier.create(this.repository.save(instance)).expectNextCount(1).verifyComplete();
+
+		this.wireMock.stubFor(get("/info").willReturn(okJson("{ \"foo\": \"bar\" }").withHeader("ETag", "\"1\"")));
+		this.wireMock.stubFor(get("/info").withHeader("If-None-Match", equalTo("\"1\"")).willReturn(status(304)));
+
+		// when
+		StepVerifier.create(this.eventStore)
+			.expectSubscription()
+			.then(() -> StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete())
+			.assertNext((event) -> assertThat(event).isInstanceOf(InstanceInfoChangedEvent.class))
+			.then(() -> StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete())
+			// then
+			.expectNoEvent(Duration.ofMillis(100L))
+			.thenCancel()
+			.verify();
+
+		this.wireMock.verify(1, getRequestedFor(urlEqualTo("/info")).withHeader("If-None-Match", equalTo("\"1\"")));
+		StepVerifier.create(this.repository.find(instance.getId()))
+			.assertNext((app) -> assertThat(app.getInfo()).isEqualTo(Info.from(singletonMap("foo", "bar"))))
+			.verifyComplete();
+	}
+
+	@Test
+	void should_not_use_etag_after_evict() {
+		// given
+		Instance instance = Instance.create(InstanceId.of("onl"))
+			.register(Registration.create("foo", this.wireMock.url("/health")).build())
+			.withEndpoints(Endpoints.single("info", this.wireMock.url("/info")))
+			.withStatusInfo(StatusInfo.ofUp());
+		StepVerifier.create(this.repository.save(instance)).expectNextCount(1).verifyComplete();
+		this.wireMock.stubFor(get("/info").willReturn(okJson("{ \"foo\": \"bar\" }").withHeader("ETag", "\"1\"")));
+		StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete();
+
+		// when
+		this.updater.evict(instance.getId());
+		StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete();
+
+		// then
+		this.wireMock.verify(2, getRequestedFor(urlEqualTo("/info")).withoutHeader("If-None-Match"));
+	}
+
+	@Test
+	void should_reapply_cached_info_after_reset() {
+		// given
+		Registration registration = Registration.create("foo", this.wireMock.url("/health")).build();
+		Instance instance = Instance.create(InstanceId.of("onl"))
+			.register(registration)
+			.withEndpoints(Endpoints.single("info", this.wireMock.url("/info")))
+			.withStatusInfo(StatusInfo.ofUp());
+		StepVerifier.create(this.repository.save(instance)).expectNextCount(1).verifyComplete();
+		this.wireMock.stubFor(get("/info").willReturn(okJson("{ \"foo\": \"bar\" }")));
+		StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete();
+
+		// when info was reset by another party
+		StepVerifier
+			.create(this.repository.computeIfPresent(instance.getId(),
+					(key, current) -> Mono.just(current.withInfo(Info.empty()))))
+			.expectNextCount(1)
+			.verifyComplete();
+		StepVerifier.create(this.updater.updateInfo(instance.getId())).verifyComplete();
+
+		// then
+		StepVerifier.create(this.repository.find(instance.getId()))
+			.assertNext((app) -> assertThat(app.getInfo()).isEqualTo(Info.from(singletonMap("foo", "bar"))))
+			.verifyComplete();
+	}
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.services;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.publisher.TestPublisher;
+
+import de.codecentric.boot.admin.server.domain.events.InstanceDeregisteredEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceEvent;
+import de.codecentric.boot.admin.server.domain.events.InstanceRegistrationUpdatedEvent;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class InstanceCleanupTriggerTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("i");
+
+	private final TestPublisher<InstanceEvent> events = TestPublisher.create();
+
+	private final List<String> cleanups = new CopyOnWriteArrayList<>();
+
+	private InstanceCleanupTrigger trigger;
+
+	@BeforeEach
+	void setUp() {
+		this.trigger = new InstanceCleanupTrigger(this.events.flux(),
+				List.of((id) -> this.cleanups.add("first:" + id.getValue()),
+						(id) -> this.cleanups.add("second:" + id.getValue())));
+		this.trigger.start();
+		await().until(this.events::wasSubscribed);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.trigger.stop();
+	}
+
+	@Test
+	void deregister_event_should_trigger_all_cleanups() {
+		this.events.next(new InstanceRegistrationUpdatedEvent(INSTANCE_ID, 1L,
+				Registration.create("foo", "http://health").build()));
+		this.events.next(new InstanceDeregisteredEvent(INSTANCE_ID, 2L));
+
+		await().untilAsserted(() -> assertThat(this.cleanups).containsExactly("first:i", "second:i"));
+	}
+
+	@Test
+	void additional_event_should_trigger_all_cleanups() {
+		InstanceCleanupTrigger trigger = new InstanceCleanupTrigger(this.events.flux(),
+				List.of((id) -> this.cleanups.add("registration:" + id.getValue())),
+				List.of(InstanceRegistrationUpdatedEvent.class));
+		trigger.start();
+		try {
+			await().until(() -> this.events.subscribeCount() == 2);
+			this.events.next(new InstanceRegistrationUpdatedEvent(INSTANCE_ID, 1L,
+					Registration.create("foo", "http://health").build()));
+			this.events.next(new InstanceDeregisteredEvent(INSTANCE_ID, 2L));
+
+			await().untilAsserted(() -> assertThat(this.cleanups).containsExactlyInAnyOrder("registration:i",
+					"registration:i", "first:i", "second:i"));
+		}
+		finally {
+			trigger.stop();
+		}
+	}
+
+}
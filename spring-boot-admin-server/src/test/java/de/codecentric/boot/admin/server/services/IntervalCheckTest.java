@@ -26,6 +26,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -72,6 +73,23 @@ class IntervalCheckTest {
 			.untilAsserted(() -> verify(this.checkFn, atLeastOnce()).apply(INSTANCE_ID));
 	}
 
+	@Test
+	void should_record_metrics() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		this.intervalCheck.bindTo(registry);
+		this.intervalCheck.markAsChecked(INSTANCE_ID);
+
+		await().atMost(Duration.ofMillis(500))
+			.untilAsserted(() -> assertThat(registry.get("spring.boot.admin.check.due").gauge().value()).isOne());
+
+		this.intervalCheck.start();
+		await().atMost(Duration.ofMillis(500))
+			.untilAsserted(
+					() -> assertThat(registry.get("spring.boot.admin.check.cycle").timer().count()).isPositive());
+		assertThat(registry.get("spring.boot.admin.check.cycle.overlapping").tag("check", "test").counter().count())
+			.isZero();
+	}
+
 	@Test
 	void should_not_check_when_stopped() {
 		this.intervalCheck.markAsChecked(INSTANCE_ID);
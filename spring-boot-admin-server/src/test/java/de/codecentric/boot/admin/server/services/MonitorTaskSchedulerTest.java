@@ -0,0 +1,263 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.services;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.EventsourcingInstanceRepository;
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.entities.InstanceRepository;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.eventstore.InMemoryEventStore;
+import de.codecentric.boot.admin.server.services.MonitorTaskScheduler.Priority;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MonitorTaskSchedulerTest {
+
+	private final InstanceRepository repository = new EventsourcingInstanceRepository(new InMemoryEventStore());
+
+	private final Instance instance1 = Instance.create(InstanceId.of("id-1"))
+		.register(Registration.create("foo", "http://host-1:8080/health").build());
+
+	private final Instance instance2 = Instance.create(InstanceId.of("id-2"))
+		.register(Registration.create("foo", "http://host-1:8081/health").build());
+
+	private final Instance instance3 = Instance.create(InstanceId.of("id-3"))
+		.register(Registration.create("foo", "http://host-2:8080/health").build());
+
+	@BeforeEach
+	void setUp() {
+		StepVerifier.create(this.repository.save(this.instance1)).expectNextCount(1).verifyComplete();
+		StepVerifier.create(this.repository.save(this.instance2)).expectNextCount(1).verifyComplete();
+		StepVerifier.create(this.repository.save(this.instance3)).expectNextCount(1).verifyComplete();
+	}
+
+	@Test
+	void invariants() {
+		assertThatThrownBy(() -> new MonitorTaskScheduler(this.repository, 0, 1))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("'maxConcurrency' must be greater than 0");
+		assertThatThrownBy(() -> new MonitorTaskScheduler(this.repository, 1, 0))
+			.isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("'maxConcurrencyPerHost' must be greater than 0");
+	}
+
+	@Test
+	void should_execute_pending_tasks_by_priority() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 1, 1);
+		Sinks.Empty<Void> blocker = Sinks.empty();
+		List<String> executed = new CopyOnWriteArrayList<>();
+
+		scheduler.schedule(Priority.STATUS, this.instance1.getId(), blocker::asMono).subscribe();
+		scheduler.schedule(Priority.INFO, this.instance2.getId(), record(executed, "info")).subscribe();
+		scheduler.schedule(Priority.ENDPOINTS, this.instance2.getId(), record(executed, "endpoints")).subscribe();
+		scheduler.schedule(Priority.STATUS, this.instance2.getId(), record(executed, "status")).subscribe();
+
+		assertThat(scheduler.getActiveTasks()).isEqualTo(1);
+		assertThat(scheduler.getPendingTasks(Priority.STATUS)).isEqualTo(1);
+		assertThat(executed).isEmpty();
+
+		blocker.tryEmitEmpty();
+
+		assertThat(executed).containsExactly("status", "endpoints", "info");
+		assertThat(scheduler.getActiveTasks()).isZero();
+	}
+
+	@Test
+	void should_limit_concurrency_per_host() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 10, 1);
+		Sinks.Empty<Void> blocker = Sinks.empty();
+		List<String> executed = new CopyOnWriteArrayList<>();
+
+		scheduler.schedule(Priority.STATUS, this.instance1.getId(), blocker::asMono).subscribe();
+		scheduler.schedule(Priority.STATUS, this.instance2.getId(), record(executed, "same-host")).subscribe();
+		scheduler.schedule(Priority.STATUS, this.instance3.getId(), record(executed, "other-host")).subscribe();
+
+		assertThat(executed).containsExactly("other-host");
+
+		blocker.tryEmitEmpty();
+
+		assertThat(executed).containsExactly("other-host", "same-host");
+	}
+
+	@Test
+	void should_not_wait_for_busy_host() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 2, 1);
+		Sinks.Empty<Void> blocker = Sinks.empty();
+		Sinks.Empty<Void> otherBlocker = Sinks.empty();
+		List<String> executed = new CopyOnWriteArrayList<>();
+
+		scheduler.schedule(Priority.STATUS, this.instance1.getId(), blocker::asMono).subscribe();
+		scheduler.schedule(Priority.STATUS, this.instance2.getId(), record(executed, "same-host")).subscribe();
+		scheduler.schedule(Priority.INFO, this.instance3.getId(), otherBlocker::asMono).subscribe();
+
+		assertThat(scheduler.getActiveTasks()).isEqualTo(2);
+		assertThat(scheduler.getPendingTasks(Priority.STATUS)).isEqualTo(1);
+
+		otherBlocker.tryEmitEmpty();
+		assertThat(executed).isEmpty();
+
+		blocker.tryEmitEmpty();
+		assertThat(executed).containsExactly("same-host");
+		assertThat(scheduler.getActiveTasks()).isZero();
+	}
+
+	@Test
+	void should_look_up_host_once() {
+		InstanceRepository repository = spy(this.repository);
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(repository, 1, 1);
+
+		StepVerifier.create(scheduler.schedule(Priority.STATUS, this.instance1.getId(), Mono::empty)).verifyComplete();
+		StepVerifier.create(scheduler.schedule(Priority.INFO, this.instance1.getId(), Mono::empty)).verifyComplete();
+		verify(repository, times(1)).find(this.instance1.getId());
+
+		scheduler.remove(this.instance1.getId());
+		StepVerifier.create(scheduler.schedule(Priority.STATUS, this.instance1.getId(), Mono::empty)).verifyComplete();
+		verify(repository, times(2)).find(this.instance1.getId());
+	}
+
+	@Test
+	void should_not_queue_pending_task_twice() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 1, 1);
+		Sinks.Empty<Void> blocker = Sinks.empty();
+		AtomicInteger executions = new AtomicInteger();
+
+		scheduler.schedule(Priority.STATUS, this.instance1.getId(), blocker::asMono).subscribe();
+		Mono<Void> first = scheduler.schedule(Priority.INFO, this.instance2.getId(),
+				() -> Mono.fromRunnable(executions::incrementAndGet));
+		Mono<Void> second = scheduler.schedule(Priority.INFO, this.instance2.getId(),
+				() -> Mono.fromRunnable(executions::incrementAndGet));
+
+		StepVerifier.create(Mono.when(first, second))
+			.then(() -> assertThat(scheduler.getPendingTasks(Priority.INFO)).isEqualTo(1))
+			.then(blocker::tryEmitEmpty)
+			.verifyComplete();
+
+		assertThat(executions).hasValue(1);
+	}
+
+	@Test
+	void should_remove_pending_task_when_cancelled() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 1, 1);
+		Sinks.Empty<Void> blocker = Sinks.empty();
+		List<String> executed = new CopyOnWriteArrayList<>();
+
+		scheduler.schedule(Priority.STATUS, this.instance1.getId(), blocker::asMono).subscribe();
+		Disposable first = scheduler.schedule(Priority.INFO, this.instance2.getId(), record(executed, "info"))
+			.subscribe();
+		Disposable second = scheduler.schedule(Priority.INFO, this.instance2.getId(), record(executed, "info"))
+			.subscribe();
+		assertThat(scheduler.getPendingTasks(Priority.INFO)).isEqualTo(1);
+
+		first.dispose();
+		assertThat(scheduler.getPendingTasks(Priority.INFO)).isEqualTo(1);
+
+		second.dispose();
+		assertThat(scheduler.getPendingTasks(Priority.INFO)).isZero();
+
+		blocker.tryEmitEmpty();
+		assertThat(executed).isEmpty();
+		assertThat(scheduler.getActiveTasks()).isZero();
+	}
+
+	@Test
+	void should_cancel_running_task_when_cancelled() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 1, 1);
+		AtomicBoolean cancelled = new AtomicBoolean();
+		List<String> executed = new CopyOnWriteArrayList<>();
+
+		Disposable running = scheduler
+			.schedule(Priority.STATUS, this.instance1.getId(),
+					() -> Mono.<Void>never().doOnCancel(() -> cancelled.set(true)))
+			.subscribe();
+		scheduler.schedule(Priority.STATUS, this.instance2.getId(), record(executed, "next")).subscribe();
+		assertThat(scheduler.getActiveTasks()).isEqualTo(1);
+
+		running.dispose();
+
+		assertThat(cancelled).isTrue();
+		assertThat(executed).containsExactly("next");
+		assertThat(scheduler.getActiveTasks()).isZero();
+	}
+
+	@Test
+	void should_schedule_on_subscription() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 1, 1);
+		StepVerifier.create(scheduler.schedule(Priority.STATUS, this.instance1.getId(), Mono::empty)).verifyComplete();
+		Sinks.Empty<Void> blocker = Sinks.empty();
+		scheduler.schedule(Priority.STATUS, this.instance2.getId(), blocker::asMono).subscribe();
+
+		scheduler.schedule(Priority.INFO, this.instance1.getId(), Mono::empty);
+
+		assertThat(scheduler.getPendingTasks(Priority.INFO)).isZero();
+		blocker.tryEmitEmpty();
+	}
+
+	@Test
+	void should_propagate_errors() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 1, 1);
+
+		StepVerifier
+			.create(scheduler.schedule(Priority.STATUS, this.instance1.getId(),
+					() -> Mono.error(new IllegalStateException("test"))))
+			.verifyError(IllegalStateException.class);
+		assertThat(scheduler.getActiveTasks()).isZero();
+	}
+
+	@Test
+	void should_record_metrics() {
+		MonitorTaskScheduler scheduler = new MonitorTaskScheduler(this.repository, 1, 1);
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		scheduler.bindTo(registry);
+		Sinks.Empty<Void> blocker = Sinks.empty();
+
+		scheduler.schedule(Priority.STATUS, this.instance1.getId(), blocker::asMono).subscribe();
+		scheduler.schedule(Priority.INFO, this.instance2.getId(), Mono::empty).subscribe();
+
+		assertThat(registry.get("spring.boot.admin.monitor.tasks.active").gauge().value()).isEqualTo(1.0);
+		assertThat(registry.get("spring.boot.admin.monitor.tasks.pending").tag("priority", "info").gauge().value())
+			.isEqualTo(1.0);
+
+		blocker.tryEmitEmpty();
+
+		assertThat(registry.get("spring.boot.admin.monitor.tasks.pending").tag("priority", "info").gauge().value())
+			.isZero();
+	}
+
+	private Supplier<Mono<Void>> record(List<String> executed, String name) {
+		return () -> Mono.fromRunnable(() -> executed.add(name));
+	}
+
+}
@@ -21,6 +21,7 @@ import java.time.Duration;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.core.Options;
 import com.github.tomakehurst.wiremock.http.Fault;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -41,6 +42,7 @@ import de.codecentric.boot.admin.server.domain.values.Registration;
 import de.codecentric.boot.admin.server.eventstore.ConcurrentMapEventStore;
 import de.codecentric.boot.admin.server.eventstore.InMemoryEventStore;
 import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+import de.codecentric.boot.admin.server.web.client.exception.BulkheadFullException;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
@@ -138,6 +140,28 @@ class StatusUpdaterTest {
 			.verifyComplete();
 	}
 
+	@Test
+	void should_record_metrics() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		this.updater.bindTo(registry);
+		this.wireMock.stubFor(get("/health").willReturn(okJson("{ \"status\" : \"UP\" }")));
+
+		StepVerifier.create(this.updater.updateStatus(this.instance.getId())).verifyComplete();
+
+		this.wireMock.stubFor(get("/health").willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE)));
+
+		StepVerifier.create(this.updater.updateStatus(this.instance.getId())).verifyComplete();
+
+		assertThat(registry.get("spring.boot.admin.status.update")
+			.tags("application", "foo", "outcome", "success")
+			.timer()
+			.count()).isEqualTo(1L);
+		assertThat(registry.get("spring.boot.admin.status.update")
+			.tags("application", "foo", "outcome", "error")
+			.timer()
+			.count()).isEqualTo(1L);
+	}
+
 	@Test
 	void should_not_change_status() {
 		String body = "{ \"status\" : \"UNKNOWN\" }";
@@ -245,6 +269,26 @@ class StatusUpdaterTest {
 		StepVerifier.create(this.updater.updateStatus(this.instance.getId())).verifyComplete();
 	}
 
+	@Test
+	void should_keep_status_when_rejected() {
+		StatusUpdater updater = new StatusUpdater(this.repository,
+				InstanceWebClient.builder()
+					.filter((instance, request, next) -> Mono.error(new BulkheadFullException("Too many requests")))
+					.build(),
+				new ApiMediaTypeHandler());
+
+		StepVerifier.create(this.eventStore)
+			.expectSubscription()
+			.then(() -> StepVerifier.create(updater.updateStatus(this.instance.getId())).verifyComplete())
+			.expectNoEvent(Duration.ofMillis(100L))
+			.thenCancel()
+			.verify();
+
+		StepVerifier.create(this.repository.find(this.instance.getId()))
+			.assertNext((app) -> assertThat(app.getStatusInfo().getStatus()).isEqualTo("UNKNOWN"))
+			.verifyComplete();
+	}
+
 	@Test
 	void should_retry() {
 		this.wireMock.stubFor(get("/health").inScenario("retry")
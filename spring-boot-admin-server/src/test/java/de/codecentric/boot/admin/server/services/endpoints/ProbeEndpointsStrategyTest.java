@@ -39,8 +39,10 @@ import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.notFound;
 import static com.github.tomakehurst.wiremock.client.WireMock.ok;
 import static com.github.tomakehurst.wiremock.client.WireMock.options;
+import static com.github.tomakehurst.wiremock.client.WireMock.optionsRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.retry;
 import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.timeout;
@@ -113,6 +115,75 @@ class ProbeEndpointsStrategyTest {
 			.verifyComplete();
 	}
 
+	@Test
+	void should_reuse_detected_endpoints_for_same_application_and_build_version() {
+		// given
+		Instance instance = Instance.create(InstanceId.of("id"))
+			.register(Registration.create("test", this.wireMock.url("/mgmt/health"))
+				.managementUrl(this.wireMock.url("/mgmt"))
+				.metadata("build.version", "1.0.0")
+				.build());
+		String otherHost = this.wireMock.url("/mgmt").replace("localhost", "127.0.0.1");
+		Instance replica = Instance.create(InstanceId.of("replica"))
+			.register(Registration.create("test", otherHost + "/health")
+				.managementUrl(otherHost)
+				.metadata("build.version", "1.0.0")
+				.build());
+		Instance otherVersion = Instance.create(InstanceId.of("other-version"))
+			.register(Registration.create("test", otherHost + "/health")
+				.managementUrl(otherHost)
+				.metadata("build.version", "2.0.0")
+				.build());
+
+		this.wireMock.stubFor(options(urlEqualTo("/mgmt/metrics")).willReturn(ok()));
+		this.wireMock.stubFor(options(urlEqualTo("/mgmt/info")).willReturn(ok()));
+		this.wireMock.stubFor(options(urlEqualTo("/mgmt/non-exist")).willReturn(notFound()));
+
+		ProbeEndpointsStrategy strategy = new ProbeEndpointsStrategy(this.instanceWebClient,
+				new String[] { "metrics", "info", "non-exist" }, Duration.ofMinutes(1L));
+
+		// when
+		StepVerifier.create(strategy.detectEndpoints(instance))
+			.expectNext(Endpoints.single("metrics", this.wireMock.url("/mgmt/metrics"))
+				.withEndpoint("info", this.wireMock.url("/mgmt/info")))
+			.verifyComplete();
+		StepVerifier.create(strategy.detectEndpoints(replica))
+			// then
+			.expectNext(Endpoints.single("metrics", otherHost + "/metrics").withEndpoint("info", otherHost + "/info"))
+			.verifyComplete();
+		this.wireMock.verify(3, optionsRequestedFor(urlMatching("/mgmt/.*")));
+
+		// when
+		StepVerifier.create(strategy.detectEndpoints(otherVersion)).expectNextCount(1).verifyComplete();
+		// then
+		this.wireMock.verify(6, optionsRequestedFor(urlMatching("/mgmt/.*")));
+	}
+
+	@Test
+	void should_not_reuse_detected_endpoints_if_a_probe_failed() {
+		// given
+		Instance instance = Instance.create(InstanceId.of("id"))
+			.register(Registration.create("test", this.wireMock.url("/mgmt/health"))
+				.managementUrl(this.wireMock.url("/mgmt"))
+				.metadata("build.version", "1.0.0")
+				.build());
+
+		this.wireMock.stubFor(options(urlEqualTo("/mgmt/metrics")).willReturn(ok()));
+		this.wireMock.stubFor(options(urlEqualTo("/mgmt/info")).willReturn(serverError()));
+
+		ProbeEndpointsStrategy strategy = new ProbeEndpointsStrategy(this.instanceWebClient,
+				new String[] { "metrics", "info" }, Duration.ofMinutes(1L));
+
+		// when
+		StepVerifier.create(strategy.detectEndpoints(instance))
+			.expectNext(Endpoints.single("metrics", this.wireMock.url("/mgmt/metrics")))
+			.verifyComplete();
+		StepVerifier.create(strategy.detectEndpoints(instance)).expectNextCount(1).verifyComplete();
+
+		// then
+		this.wireMock.verify(2, optionsRequestedFor(urlEqualTo("/mgmt/metrics")));
+	}
+
 	@Test
 	void should_return_empty() {
 		// given
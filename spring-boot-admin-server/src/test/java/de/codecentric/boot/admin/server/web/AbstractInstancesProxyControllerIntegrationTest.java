@@ -41,6 +41,7 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.delete;
 import static com.github.tomakehurst.wiremock.client.WireMock.deleteRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
@@ -53,6 +54,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.ACCEPT;
 import static org.springframework.http.HttpHeaders.ALLOW;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 
@@ -249,6 +251,29 @@ public abstract class AbstractInstancesProxyControllerIntegrationTest {
 		this.wireMock.verify(deleteRequestedFor(urlEqualTo("/instance2/delete")));
 	}
 
+	@Test
+	public void should_stream_responses_of_multiple_instances() {
+		String instance2Id = registerInstance("/instance2");
+
+		//@formatter:off
+		StepVerifier
+			.create(this.client.get()
+				.uri("applications/test/actuator/test")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(RESPONSE_TYPE).getResponseBody().collectList())
+			.assertNext((responses) -> {
+				assertThat(responses).extracting((r) -> r.get("instanceId"))
+					.containsExactlyInAnyOrder(this.instanceId, instance2Id);
+				assertThat(responses).allSatisfy((r) -> assertThat(r).containsEntry("status", 200)
+					.containsEntry("body", "{ \"foo\" : \"bar\" }"));
+			})
+			.verifyComplete();
+		//@formatter:on
+	}
+
 	private void stubForInstance(String managementPath) {
 		String managementUrl = this.wireMock.url(managementPath);
 
@@ -273,7 +298,7 @@ public abstract class AbstractInstancesProxyControllerIntegrationTest {
 		this.wireMock.stubFor(get(urlEqualTo(managementPath + "/invalid"))
 			.willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER)));
 		this.wireMock.stubFor(get(urlEqualTo(managementPath + "/timeout")).willReturn(ok().withFixedDelay(10000)));
-		this.wireMock.stubFor(get(urlEqualTo(managementPath + "/test"))
+		this.wireMock.stubFor(get(urlEqualTo(managementPath + "/test")).withHeader(ACCEPT, containing("actuator"))
 			.willReturn(ok("{ \"foo\" : \"bar\" }").withHeader(CONTENT_TYPE, ACTUATOR_CONTENT_TYPE)));
 		this.wireMock.stubFor(get(urlEqualTo(managementPath + "/test/has%20spaces"))
 			.willReturn(ok("{ \"foo\" : \"bar-with-spaces\" }").withHeader(CONTENT_TYPE, ACTUATOR_CONTENT_TYPE)));
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.ApplicationMetricsAggregator.InstanceStatus;
+import de.codecentric.boot.admin.server.web.ApplicationMetricsAggregator.Measurement;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApplicationMetricsAggregatorTest {
+
+	private static final MetricQuery QUERY = MetricQuery.of("http.server.requests");
+
+	private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+	private final InstanceRegistry registry = mock(InstanceRegistry.class);
+
+	private final MutableClock clock = new MutableClock();
+
+	private final ApplicationMetricsAggregator aggregator = new ApplicationMetricsAggregator(this.registry,
+			new InstanceMetricsFetcher(new InstanceWebProxy(
+					InstanceWebClient.builder().webClient(WebClient.builder().exchangeFunction((request) -> {
+						this.requests.add(request);
+						return respond(request);
+					})).build()), 2),
+			2, Duration.ofMillis(500L), Duration.ofSeconds(5L), this.clock);
+
+	@Test
+	void should_merge_measurements_per_statistic() {
+		when(this.registry.getInstances("foo"))
+			.thenReturn(Flux.just(instance("ok-1"), instance("ok-2"), instance("failing")));
+
+		StepVerifier.create(this.aggregator.aggregate("foo", QUERY)).assertNext((metric) -> {
+			assertThat(metric.name()).isEqualTo("http.server.requests");
+			assertThat(metric.baseUnit()).isEqualTo("seconds");
+			assertThat(metric.measurements()).containsExactly(new Measurement("COUNT", 5.0),
+					new Measurement("TOTAL_TIME", 1.25), new Measurement("MAX", 0.5));
+			assertThat(metric.instances()).containsExactly(new InstanceStatus(InstanceId.of("ok-1"), 200, null),
+					new InstanceStatus(InstanceId.of("ok-2"), 200, null),
+					new InstanceStatus(InstanceId.of("failing"), 503, "Service Unavailable"));
+		}).verifyComplete();
+	}
+
+	@Test
+	void should_report_instances_not_responding_until_deadline() {
+		when(this.registry.getInstances("foo")).thenReturn(Flux.just(instance("ok-1"), instance("pending")));
+
+		StepVerifier.create(this.aggregator.aggregate("foo", QUERY)).assertNext((metric) -> {
+			assertThat(metric.measurements()).contains(new Measurement("COUNT", 2.0));
+			assertThat(metric.instances()).extracting(InstanceStatus::status).containsExactly(200, 504);
+		}).verifyComplete();
+	}
+
+	@Test
+	void should_reuse_aggregated_metric_until_expired() {
+		when(this.registry.getInstances("foo")).thenReturn(Flux.just(instance("ok-1"), instance("ok-2")));
+
+		StepVerifier.create(this.aggregator.aggregate("foo", QUERY)).expectNextCount(1).verifyComplete();
+		this.clock.advance(Duration.ofSeconds(4L));
+		StepVerifier.create(this.aggregator.aggregate("foo", QUERY)).expectNextCount(1).verifyComplete();
+		assertThat(this.requests).hasSize(2);
+
+		this.clock.advance(Duration.ofSeconds(1L));
+		StepVerifier.create(this.aggregator.aggregate("foo", QUERY)).expectNextCount(1).verifyComplete();
+		assertThat(this.requests).hasSize(4);
+	}
+
+	@Test
+	void should_not_reuse_failed_aggregation() {
+		when(this.registry.getInstances("foo")).thenReturn(Flux.error(new IllegalStateException("test")))
+			.thenReturn(Flux.just(instance("ok-1")));
+
+		StepVerifier.create(this.aggregator.aggregate("foo", QUERY)).verifyError(IllegalStateException.class);
+		StepVerifier.create(this.aggregator.aggregate("foo", QUERY))
+			.assertNext((metric) -> assertThat(metric.measurements()).contains(new Measurement("COUNT", 2.0)))
+			.verifyComplete();
+	}
+
+	@Test
+	void should_return_empty_for_application_without_instances() {
+		when(this.registry.getInstances("unknown")).thenReturn(Flux.empty());
+
+		StepVerifier.create(this.aggregator.aggregate("unknown", QUERY)).verifyComplete();
+	}
+
+	private static Instance instance(String id) {
+		return Instance.create(InstanceId.of(id))
+			.register(Registration.create("foo", "http://localhost/health").build());
+	}
+
+	private Mono<ClientResponse> respond(ClientRequest request) {
+		Instance instance = (Instance) request.attributes().get(InstanceWebClient.ATTRIBUTE_INSTANCE);
+		String id = instance.getId().getValue();
+		if (id.equals("pending")) {
+			return Mono.never();
+		}
+		if (id.equals("failing")) {
+			return Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+		}
+		int n = id.equals("ok-1") ? 2 : 3;
+		return Mono.just(ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+			.body("{\"name\":\"http.server.requests\",\"baseUnit\":\"seconds\",\"measurements\":["
+					+ "{\"statistic\":\"COUNT\",\"value\":" + n + "}," + "{\"statistic\":\"TOTAL_TIME\",\"value\":"
+					+ (n * 0.25) + "}," + "{\"statistic\":\"MAX\",\"value\":" + (n / 6.0) + "}]}")
+			.build());
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2023-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.web.ApplicationMetricsAggregator.AggregatedMetric;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.servlet.AdminControllerHandlerMapping;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ApplicationMetricsControllerTest {
+
+	private final ApplicationMetricsAggregator aggregator = mock(ApplicationMetricsAggregator.class);
+
+	private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new ApplicationMetricsController(this.aggregator))
+		.setCustomHandlerMapping(() -> new AdminControllerHandlerMapping("/"))
+		.build();
+
+	@Test
+	void should_select_measurements_by_single_tag_containing_comma() throws Exception {
+		MetricQuery query = new MetricQuery("jvm.memory.used", Map.of("id", "a,b"));
+		when(this.aggregator.aggregate(eq("foo"), any()))
+			.thenReturn(Mono.just(new AggregatedMetric(query.name(), query.tags(), null, null, List.of(), List.of())));
+
+		MvcResult result = this.mvc.perform(get("/applications/foo/metrics/jvm.memory.used?tag=id:a,b")).andReturn();
+		this.mvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.tags.id").value("a,b"));
+
+		verify(this.aggregator).aggregate("foo", query);
+	}
+
+	@Test
+	void should_return_not_found_for_application_without_instances() throws Exception {
+		when(this.aggregator.aggregate(eq("foo"), any())).thenReturn(Mono.empty());
+
+		MvcResult result = this.mvc.perform(get("/applications/foo/metrics/jvm.memory.used")).andReturn();
+		this.mvc.perform(asyncDispatch(result)).andExpect(status().isNotFound());
+	}
+
+	@Test
+	void should_reject_invalid_tags() throws Exception {
+		MvcResult result = this.mvc.perform(get("/applications/foo/metrics/jvm.memory.used?tag=heap")).andReturn();
+		this.mvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+
+		verifyNoInteractions(this.aggregator);
+	}
+
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.InstanceWebProxy.ForwardRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceHeapdumpSpoolTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("id-1");
+
+	private final byte[] content = "heapdump-content-".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+
+	private final List<ForwardRequest> requests = new CopyOnWriteArrayList<>();
+
+	private Supplier<ClientResponse> response = () -> ClientResponse.create(HttpStatus.OK)
+		.header(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+		.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(this.content.length))
+		.body(chunks(this.content))
+		.build();
+
+	private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+	@TempDir
+	private Path directory;
+
+	private InstanceHeapdumpSpool spool;
+
+	@BeforeEach
+	void setUp() {
+		this.spool = new InstanceHeapdumpSpool(this.directory, 1024 * 1024, Duration.ofMinutes(30L), new Clock() {
+			@Override
+			public ZoneOffset getZone() {
+				return ZoneOffset.UTC;
+			}
+
+			@Override
+			public Clock withZone(ZoneId zone) {
+				return this;
+			}
+
+			@Override
+			public Instant instant() {
+				return InstanceHeapdumpSpoolTest.this.now;
+			}
+		});
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.spool.stop();
+	}
+
+	@Test
+	void should_only_spool_heapdump_get_requests() {
+		assertThat(this.spool.isSpoolable(request(HttpMethod.GET, "heapdump", null))).isTrue();
+		assertThat(this.spool.isSpoolable(request(HttpMethod.GET, "/heapdump", null))).isTrue();
+		assertThat(this.spool.isSpoolable(request(HttpMethod.POST, "heapdump", null))).isFalse();
+		assertThat(this.spool.isSpoolable(request(HttpMethod.GET, "threaddump", null))).isFalse();
+	}
+
+	@Test
+	void should_serve_ranges_from_spool_file() {
+		StepVerifier.create(forward(null)).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(200);
+			assertThat(result.headers().getFirst(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+			assertThat(result.body()).isEqualTo(this.content);
+		}).verifyComplete();
+
+		StepVerifier.create(forward("bytes=10-19")).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(206);
+			assertThat(result.headers().getFirst(HttpHeaders.CONTENT_RANGE))
+				.isEqualTo("bytes 10-19/" + this.content.length);
+			assertThat(result.body()).isEqualTo(Arrays.copyOfRange(this.content, 10, 20));
+		}).verifyComplete();
+
+		assertThat(this.requests).hasSize(1);
+		assertThat(this.requests.get(0).getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).isEqualTo("identity");
+	}
+
+	@Test
+	void should_request_new_heapdump_without_range() {
+		StepVerifier.create(forward(null)).expectNextCount(1).verifyComplete();
+		StepVerifier.create(forward(null)).expectNextCount(1).verifyComplete();
+
+		assertThat(this.requests).hasSize(2);
+		assertThat(spoolFiles()).hasSize(2);
+	}
+
+	@Test
+	void should_send_whole_heapdump_for_range_request_without_spool_file() {
+		StepVerifier.create(forward("bytes=-5")).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(200);
+			assertThat(result.headers().getETag()).isNotNull();
+			assertThat(result.body()).isEqualTo(this.content);
+		}).verifyComplete();
+
+		assertThat(this.requests).hasSize(1);
+		assertThat(this.requests.get(0).getHeaders().containsHeader(HttpHeaders.RANGE)).isFalse();
+		assertThat(this.spool.getDiskUsage()).isEqualTo(this.content.length);
+	}
+
+	@Test
+	void should_continue_download_when_client_disconnects() {
+		Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+		this.response = () -> ClientResponse.create(HttpStatus.OK).body(body.asFlux()).build();
+
+		Mono<Long> firstBuffer = this.spool.forward(INSTANCE_ID, request(HttpMethod.GET, "heapdump", null),
+				this::exchange, (r) -> r.bodyToFlux(DataBuffer.class).take(1).count());
+		StepVerifier.create(firstBuffer)
+			.then(() -> body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap(this.content)))
+			.expectNext(1L)
+			.verifyComplete();
+
+		body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap(this.content));
+		body.tryEmitComplete();
+
+		StepVerifier.create(forward("bytes=" + this.content.length + "-")).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(206);
+			assertThat(result.body()).isEqualTo(this.content);
+		}).verifyComplete();
+		assertThat(this.requests).hasSize(1);
+	}
+
+	@Test
+	void should_serve_range_from_spool_file_matching_if_range() {
+		String etag = forward(null).map((result) -> result.headers().getETag()).block();
+		long lastModified = forward(null).map((result) -> result.headers().getLastModified()).block();
+		assertThat(this.requests).hasSize(2);
+
+		StepVerifier.create(forward("bytes=0-1", etag)).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(206);
+			assertThat(result.headers().getETag()).isEqualTo(etag);
+		}).verifyComplete();
+
+		HttpHeaders ifRange = new HttpHeaders();
+		ifRange.setLastModified(lastModified);
+		StepVerifier.create(forward("bytes=0-1", ifRange.getFirst(HttpHeaders.LAST_MODIFIED))).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(206);
+			assertThat(result.headers().getETag()).isNotEqualTo(etag);
+		}).verifyComplete();
+		assertThat(this.requests).hasSize(2);
+	}
+
+	@Test
+	void should_send_new_heapdump_if_no_spool_file_matches_if_range() {
+		String etag = forward(null).map((result) -> result.headers().getETag()).block();
+
+		StepVerifier.create(forward("bytes=0-1", "\"other\"")).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(200);
+			assertThat(result.headers().getETag()).isNotEqualTo(etag);
+			assertThat(result.body()).isEqualTo(this.content);
+		}).verifyComplete();
+		assertThat(this.requests).hasSize(2);
+	}
+
+	@Test
+	void should_not_discard_download_in_progress_for_new_heapdump() {
+		Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+		Supplier<ClientResponse> pending = () -> ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(this.content.length))
+			.body(body.asFlux())
+			.build();
+		this.response = pending;
+
+		StepVerifier.create(forward(null)).then(() -> {
+			this.response = () -> ClientResponse.create(HttpStatus.OK).body(chunks(this.content)).build();
+			StepVerifier.create(forward(null)).expectNextCount(1).verifyComplete();
+			body.tryEmitNext(DefaultDataBufferFactory.sharedInstance.wrap(this.content));
+			body.tryEmitComplete();
+		}).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(200);
+			assertThat(result.body()).isEqualTo(this.content);
+		}).verifyComplete();
+		assertThat(this.requests).hasSize(2);
+		assertThat(spoolFiles()).hasSize(2);
+	}
+
+	@Test
+	void should_respond_with_416_for_unsatisfiable_range() {
+		StepVerifier.create(forward(null)).expectNextCount(1).verifyComplete();
+
+		StepVerifier.create(forward("bytes=" + this.content.length + "-")).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(416);
+			assertThat(result.headers().getFirst(HttpHeaders.CONTENT_RANGE))
+				.isEqualTo("bytes */" + this.content.length);
+		}).verifyComplete();
+	}
+
+	@Test
+	void should_relay_error_responses_without_spooling() {
+		this.response = () -> ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).body("error").build();
+
+		StepVerifier.create(forward("bytes=0-1")).assertNext((result) -> {
+			assertThat(result.status()).isEqualTo(500);
+			assertThat(result.body()).isEqualTo("error".getBytes(StandardCharsets.UTF_8));
+		}).verifyComplete();
+
+		assertThat(spoolFiles()).isEmpty();
+	}
+
+	@Test
+	void should_pass_through_heapdumps_exceeding_disk_usage() {
+		byte[] large = new byte[2 * 1024 * 1024];
+		this.response = () -> ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(large.length))
+			.body(chunks(large))
+			.build();
+
+		StepVerifier.create(forward(null))
+			.assertNext((result) -> assertThat(result.body()).hasSize(large.length))
+			.verifyComplete();
+
+		assertThat(spoolFiles()).isEmpty();
+	}
+
+	@Test
+	void should_evict_oldest_spool_files_exceeding_disk_usage() {
+		byte[] half = new byte[600 * 1024];
+		this.response = () -> ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(half.length))
+			.body(chunks(half))
+			.build();
+
+		StepVerifier.create(forward(null)).expectNextCount(1).verifyComplete();
+		StepVerifier.create(this.spool.forward(InstanceId.of("id-2"), request(HttpMethod.GET, "heapdump", null),
+				this::exchange, InstanceHeapdumpSpoolTest::bytes))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(spoolFiles()).hasSize(1);
+		assertThat(this.spool.getDiskUsage()).isEqualTo(half.length);
+	}
+
+	@Test
+	void should_delete_expired_spool_files() {
+		StepVerifier.create(forward(null)).expectNextCount(1).verifyComplete();
+		assertThat(spoolFiles()).hasSize(1);
+
+		this.now = this.now.plus(Duration.ofMinutes(31L));
+		StepVerifier.create(forward("bytes=0-1")).expectNextCount(1).verifyComplete();
+
+		assertThat(this.requests).hasSize(2);
+		assertThat(spoolFiles()).hasSize(1);
+	}
+
+	private Mono<Result> forward(String range) {
+		return forward(range, null);
+	}
+
+	private Mono<Result> forward(String range, String ifRange) {
+		ForwardRequest request = request(HttpMethod.GET, "heapdump", range);
+		if (ifRange != null) {
+			request.getHeaders().set(HttpHeaders.IF_RANGE, ifRange);
+		}
+		return this.spool.forward(INSTANCE_ID, request, this::exchange,
+				(r) -> bytes(r).map((body) -> new Result(r.statusCode().value(), r.headers().asHttpHeaders(), body)));
+	}
+
+	private Mono<Void> exchange(ForwardRequest request, Function<ClientResponse, Mono<Void>> handler) {
+		this.requests.add(request);
+		return Mono.defer(() -> handler.apply(this.response.get()));
+	}
+
+	private ForwardRequest request(HttpMethod method, String path, String range) {
+		HttpHeaders headers = new HttpHeaders();
+		if (range != null) {
+			headers.set(HttpHeaders.RANGE, range);
+		}
+		return ForwardRequest.builder()
+			.uri(URI.create(path))
+			.method(method)
+			.headers(headers)
+			.body(BodyInserters.empty())
+			.build();
+	}
+
+	private List<Path> spoolFiles() {
+		try (Stream<Path> files = Files.list(this.directory)) {
+			return files.toList();
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private static Mono<byte[]> bytes(ClientResponse response) {
+		return DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers())).map((buffer) -> {
+			byte[] bytes = new byte[buffer.readableByteCount()];
+			buffer.read(bytes);
+			DataBufferUtils.release(buffer);
+			return bytes;
+		}).defaultIfEmpty(new byte[0]);
+	}
+
+	private static Flux<DataBuffer> chunks(byte[] content) {
+		int chunkSize = 16 * 1024;
+		return Flux.range(0, (content.length + chunkSize - 1) / chunkSize)
+			.map((i) -> DefaultDataBufferFactory.sharedInstance
+				.wrap(Arrays.copyOfRange(content, i * chunkSize, Math.min(content.length, (i + 1) * chunkSize))));
+	}
+
+	private record Result(int status, HttpHeaders headers, byte[] body) {
+	}
+
+}
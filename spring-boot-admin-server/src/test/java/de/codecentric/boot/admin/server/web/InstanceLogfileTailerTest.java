@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.Endpoints;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.InstanceLogfileTailer.LogfileChunk;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstanceLogfileTailerTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("id-1");
+
+	private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+	private final InstanceRegistry registry = mock(InstanceRegistry.class);
+
+	private volatile byte[] logfile = "first line\n".getBytes(StandardCharsets.UTF_8);
+
+	private volatile HttpStatus status = HttpStatus.PARTIAL_CONTENT;
+
+	private final InstanceWebClient instanceWebClient = InstanceWebClient.builder()
+		.webClient(WebClient.builder().exchangeFunction((request) -> {
+			this.requests.add(request);
+			return Mono.fromSupplier(() -> respond(request));
+		}))
+		.build();
+
+	private InstanceLogfileTailer tailer;
+
+	@BeforeEach
+	void setUp() {
+		Instance instance = Instance.create(INSTANCE_ID)
+			.register(Registration.create("foo", "http://localhost/health").build())
+			.withEndpoints(Endpoints.single("logfile", "http://localhost/logfile"));
+		when(this.registry.getInstance(INSTANCE_ID)).thenReturn(Mono.just(instance));
+		this.tailer = new InstanceLogfileTailer(this.registry, this.instanceWebClient, Duration.ofMillis(50L), 1024);
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.tailer.stop();
+	}
+
+	@Test
+	void should_stream_appended_lines() {
+		StepVerifier.create(this.tailer.tail(INSTANCE_ID))
+			.expectNext(new LogfileChunk(11L, 0L, "first line\n"))
+			.then(() -> append("second line\n"))
+			.expectNext(new LogfileChunk(23L, 0L, "second line\n"))
+			.thenCancel()
+			.verify(Duration.ofSeconds(5L));
+
+		assertThat(this.requests.get(0).headers().getFirst(HttpHeaders.RANGE)).isEqualTo("bytes=-1024");
+		assertThat(this.requests).extracting((request) -> request.headers().getFirst(HttpHeaders.RANGE))
+			.contains("bytes=10-");
+	}
+
+	@Test
+	void should_send_buffered_tail_to_new_subscribers() {
+		this.tailer = new InstanceLogfileTailer(this.registry, this.instanceWebClient, Duration.ofHours(1L), 1024);
+
+		Disposable first = this.tailer.tail(INSTANCE_ID).subscribe();
+		await().until(() -> this.requests.size() == 1);
+
+		StepVerifier.create(this.tailer.tail(INSTANCE_ID))
+			.expectNext(new LogfileChunk(11L, 0L, "first line\n"))
+			.thenCancel()
+			.verify(Duration.ofSeconds(5L));
+		first.dispose();
+
+		assertThat(this.requests).hasSize(1);
+	}
+
+	@Test
+	void should_skip_partial_first_line() {
+		this.logfile = "x".repeat(2000).concat("\nlast line\n").getBytes(StandardCharsets.UTF_8);
+
+		StepVerifier.create(this.tailer.tail(INSTANCE_ID))
+			.expectNext(new LogfileChunk(2011L, 2001L, "last line\n"))
+			.thenCancel()
+			.verify(Duration.ofSeconds(5L));
+	}
+
+	@Test
+	void should_stop_polling_when_last_subscriber_leaves() throws InterruptedException {
+		Disposable subscription = this.tailer.tail(INSTANCE_ID).subscribe();
+		await().until(() -> this.requests.size() >= 2);
+		subscription.dispose();
+
+		int requestCount = this.requests.size();
+		Thread.sleep(200L);
+		assertThat(this.requests).hasSizeLessThanOrEqualTo(requestCount + 1);
+	}
+
+	@Test
+	void should_fail_subscribers_on_error_response() {
+		this.status = HttpStatus.INTERNAL_SERVER_ERROR;
+
+		StepVerifier.create(this.tailer.tail(INSTANCE_ID))
+			.expectErrorMessage("Unexpected response status 500")
+			.verify(Duration.ofSeconds(5L));
+	}
+
+	@Test
+	void should_not_split_multibyte_characters() {
+		byte[] bytes = "ä€".getBytes(StandardCharsets.UTF_8);
+		assertThat(InstanceLogfileTailer.completeLength(bytes)).isEqualTo(5);
+		assertThat(InstanceLogfileTailer.completeLength(Arrays.copyOf(bytes, 4))).isEqualTo(2);
+		assertThat(InstanceLogfileTailer.completeLength(Arrays.copyOf(bytes, 1))).isZero();
+	}
+
+	private void append(String text) {
+		byte[] appended = text.getBytes(StandardCharsets.UTF_8);
+		byte[] content = Arrays.copyOf(this.logfile, this.logfile.length + appended.length);
+		System.arraycopy(appended, 0, content, this.logfile.length, appended.length);
+		this.logfile = content;
+	}
+
+	private ClientResponse respond(ClientRequest request) {
+		if (this.status != HttpStatus.PARTIAL_CONTENT) {
+			return ClientResponse.create(this.status).build();
+		}
+		byte[] content = this.logfile;
+		String range = request.headers().getFirst(HttpHeaders.RANGE).substring("bytes=".length());
+		int start = range.startsWith("-") ? Math.max(0, content.length - Integer.parseInt(range.substring(1)))
+				: Integer.parseInt(range.substring(0, range.length() - 1));
+		if (start >= content.length) {
+			return ClientResponse.create(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+		}
+		return ClientResponse.create(HttpStatus.PARTIAL_CONTENT)
+			.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (content.length - 1) + "/" + content.length)
+			.body(new String(content, start, content.length - start, StandardCharsets.UTF_8))
+			.build();
+	}
+
+}
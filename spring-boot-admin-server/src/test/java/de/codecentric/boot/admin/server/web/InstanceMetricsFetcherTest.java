@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class InstanceMetricsFetcherTest {
+
+	private final Instance instance = Instance.create(InstanceId.of("id-1"))
+		.register(Registration.create("foo", "http://localhost/health").build());
+
+	private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+	private final Sinks.One<ClientResponse> pending = Sinks.one();
+
+	private final InstanceWebClient instanceWebClient = InstanceWebClient.builder()
+		.webClient(WebClient.builder().exchangeFunction((request) -> {
+			this.requests.add(request);
+			return respond(request);
+		}))
+		.build();
+
+	private final InstanceMetricsFetcher fetcher = new InstanceMetricsFetcher(
+			new InstanceWebProxy(this.instanceWebClient), 2);
+
+	@Test
+	void should_return_results_in_order_of_queries() {
+		List<MetricQuery> queries = List.of(new MetricQuery("jvm.memory.max", Map.of("area", "heap")),
+				MetricQuery.of("unknown"), MetricQuery.of("jvm.threads.live"));
+
+		StepVerifier.create(this.fetcher.fetch(this.instance, queries)).assertNext((results) -> {
+			assertThat(results).extracting(InstanceMetricsFetcher.MetricResult::name)
+				.containsExactly("jvm.memory.max", "unknown", "jvm.threads.live");
+			assertThat(results.get(0).status()).isEqualTo(200);
+			assertThat(results.get(0).tags()).containsEntry("area", "heap");
+			assertThat(results.get(0).body()).containsEntry("name", "jvm.memory.max");
+			assertThat(results.get(1).status()).isEqualTo(404);
+			assertThat(results.get(1).body()).isNull();
+			assertThat(results.get(1).error()).isEqualTo("Not Found");
+			assertThat(results.get(2).body()).containsEntry("name", "jvm.threads.live");
+		}).verifyComplete();
+	}
+
+	@Test
+	void should_select_measurements_by_tags() {
+		StepVerifier.create(this.fetcher.fetch(this.instance, new MetricQuery("jvm.memory.used", Map.of("id", "a,b"))))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(this.requests.get(0).url().getPath()).isEqualTo("metrics/jvm.memory.used");
+		assertThat(this.requests.get(0).url().getQuery()).isEqualTo("tag=id:a,b&tag=id:a,b");
+	}
+
+	@Test
+	void should_parse_queries() {
+		assertThat(MetricQuery.parse("jvm.memory.used?tag=area:heap&tag=id:a%2Cb"))
+			.isEqualTo(new MetricQuery("jvm.memory.used", Map.of("area", "heap", "id", "a,b")));
+		assertThat(MetricQuery.of("jvm.memory.used", List.of("id:a,b")))
+			.isEqualTo(new MetricQuery("jvm.memory.used", Map.of("id", "a,b")));
+		assertThatIllegalArgumentException().isThrownBy(() -> MetricQuery.of("jvm.memory.used", List.of("heap")));
+	}
+
+	@Test
+	void should_limit_concurrent_requests() {
+		List<MetricQuery> queries = List.of(MetricQuery.of("pending.1"), MetricQuery.of("pending.2"),
+				MetricQuery.of("pending.3"));
+
+		StepVerifier.create(this.fetcher.fetch(this.instance, queries))
+			.then(() -> assertThat(this.requests).hasSize(2))
+			.then(() -> this.pending.tryEmitValue(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()))
+			.assertNext((results) -> assertThat(results).extracting(InstanceMetricsFetcher.MetricResult::status)
+				.containsOnly(503))
+			.verifyComplete();
+	}
+
+	private Mono<ClientResponse> respond(ClientRequest request) {
+		String name = request.url().getPath().substring("metrics/".length());
+		if (name.startsWith("pending")) {
+			return this.pending.asMono();
+		}
+		if (name.equals("unknown")) {
+			return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+		}
+		return Mono.just(ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+			.body("{\"name\":\"" + name + "\",\"measurements\":[{\"statistic\":\"VALUE\",\"value\":42.0}]}")
+			.build());
+	}
+
+}
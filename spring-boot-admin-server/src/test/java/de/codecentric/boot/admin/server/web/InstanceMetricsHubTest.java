@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricQuery;
+import de.codecentric.boot.admin.server.web.InstanceMetricsFetcher.MetricResult;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstanceMetricsHubTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("id-1");
+
+	private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+	private final InstanceRegistry registry = mock(InstanceRegistry.class);
+
+	private final InstanceWebClient instanceWebClient = InstanceWebClient.builder()
+		.webClient(WebClient.builder().exchangeFunction((request) -> {
+			this.requests.add(request);
+			return Mono.fromSupplier(() -> respond(request));
+		}))
+		.build();
+
+	private final InstanceMetricsFetcher fetcher = new InstanceMetricsFetcher(
+			new InstanceWebProxy(this.instanceWebClient), 4);
+
+	private InstanceMetricsHub hub;
+
+	@BeforeEach
+	void setUp() {
+		Instance instance = Instance.create(INSTANCE_ID)
+			.register(Registration.create("foo", "http://localhost/health").build());
+		when(this.registry.getInstance(INSTANCE_ID)).thenReturn(Mono.just(instance));
+		this.hub = new InstanceMetricsHub(this.registry, this.fetcher, Duration.ofMillis(50L));
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.hub.stop();
+	}
+
+	@Test
+	void should_stream_results_in_order_of_queries() {
+		List<MetricQuery> queries = List.of(MetricQuery.of("jvm.threads.live"),
+				new MetricQuery("jvm.memory.used", Map.of("area", "heap")));
+
+		StepVerifier.create(this.hub.subscribe(INSTANCE_ID, queries))
+			.assertNext((results) -> assertThat(results).extracting(MetricResult::name)
+				.containsExactly("jvm.threads.live", "jvm.memory.used"))
+			.expectNextCount(1)
+			.thenCancel()
+			.verify(Duration.ofSeconds(5L));
+	}
+
+	@Test
+	void should_poll_shared_metrics_once_for_all_subscribers() {
+		this.hub = new InstanceMetricsHub(this.registry, this.fetcher, Duration.ofHours(1L));
+
+		List<List<MetricResult>> received = new CopyOnWriteArrayList<>();
+		Disposable first = this.hub.subscribe(INSTANCE_ID, List.of(MetricQuery.of("jvm.threads.live")))
+			.subscribe(received::add);
+		await().until(() -> received.size() == 1);
+
+		StepVerifier.create(this.hub.subscribe(INSTANCE_ID, List.of(MetricQuery.of("jvm.threads.live"))))
+			.assertNext(
+					(results) -> assertThat(results).extracting(MetricResult::name).containsExactly("jvm.threads.live"))
+			.thenCancel()
+			.verify(Duration.ofSeconds(5L));
+		first.dispose();
+
+		assertThat(this.requests).hasSize(1);
+	}
+
+	@Test
+	void should_fetch_new_metrics_of_additional_subscribers_right_away() {
+		this.hub = new InstanceMetricsHub(this.registry, this.fetcher, Duration.ofHours(1L));
+
+		List<List<MetricResult>> received = new CopyOnWriteArrayList<>();
+		Disposable first = this.hub.subscribe(INSTANCE_ID, List.of(MetricQuery.of("jvm.threads.live")))
+			.subscribe(received::add);
+		await().until(() -> received.size() == 1);
+
+		StepVerifier.create(this.hub.subscribe(INSTANCE_ID, List.of(MetricQuery.of("process.cpu.usage"))))
+			.assertNext((results) -> assertThat(results).extracting(MetricResult::name)
+				.containsExactly("process.cpu.usage"))
+			.thenCancel()
+			.verify(Duration.ofSeconds(5L));
+		first.dispose();
+
+		assertThat(this.requests).extracting((request) -> request.url().getPath())
+			.containsExactlyInAnyOrder("metrics/jvm.threads.live", "metrics/jvm.threads.live",
+					"metrics/process.cpu.usage");
+	}
+
+	@Test
+	void should_stop_polling_when_last_subscriber_leaves() throws InterruptedException {
+		Disposable first = this.hub.subscribe(INSTANCE_ID, List.of(MetricQuery.of("jvm.threads.live"))).subscribe();
+		Disposable second = this.hub.subscribe(INSTANCE_ID, List.of(MetricQuery.of("process.cpu.usage"))).subscribe();
+		await().until(() -> this.requests.size() >= 4);
+
+		second.dispose();
+		int requestCount = this.requests.size();
+		await().until(() -> this.requests.size() >= requestCount + 3);
+		assertThat(this.requests.get(this.requests.size() - 1).url().getPath()).isEqualTo("metrics/jvm.threads.live");
+
+		first.dispose();
+		int lastRequestCount = this.requests.size();
+		Thread.sleep(200L);
+		assertThat(this.requests).hasSizeLessThanOrEqualTo(lastRequestCount + 1);
+	}
+
+	@Test
+	void should_not_hold_locks_while_emitting_results() {
+		// subscribing from another thread while a result is emitted must not block on a
+		// monitor held by the emitting thread
+		List<MetricQuery> queries = List.of(MetricQuery.of("jvm.threads.live"));
+
+		StepVerifier
+			.create(this.hub.subscribe(INSTANCE_ID, queries)
+				.take(1L)
+				.map((results) -> CompletableFuture
+					.supplyAsync(() -> this.hub.subscribe(INSTANCE_ID, queries).blockFirst(Duration.ofSeconds(5L)))
+					.orTimeout(5L, TimeUnit.SECONDS)
+					.join()))
+			.assertNext(
+					(results) -> assertThat(results).extracting(MetricResult::name).containsExactly("jvm.threads.live"))
+			.expectComplete()
+			.verify(Duration.ofSeconds(10L));
+	}
+
+	@Test
+	void should_fail_subscribers_for_unknown_instance() {
+		when(this.registry.getInstance(InstanceId.of("unknown"))).thenReturn(Mono.empty());
+
+		StepVerifier.create(this.hub.subscribe(InstanceId.of("unknown"), List.of(MetricQuery.of("jvm.threads.live"))))
+			.expectErrorMessage("Instance unknown not found")
+			.verify(Duration.ofSeconds(5L));
+	}
+
+	@Test
+	void should_parse_metric_queries() {
+		assertThat(MetricQuery.parse("jvm.memory.used?tag=area:heap&tag=id:G1%20Eden%20Space"))
+			.isEqualTo(new MetricQuery("jvm.memory.used", Map.of("area", "heap", "id", "G1 Eden Space")));
+		assertThat(MetricQuery.parse("process.cpu.usage")).isEqualTo(MetricQuery.of("process.cpu.usage"));
+	}
+
+	private ClientResponse respond(ClientRequest request) {
+		String name = request.url().getPath().substring("metrics/".length());
+		return ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+			.body("{\"name\":\"" + name + "\",\"measurements\":[{\"statistic\":\"VALUE\",\"value\":42.0}]}")
+			.build();
+	}
+
+}
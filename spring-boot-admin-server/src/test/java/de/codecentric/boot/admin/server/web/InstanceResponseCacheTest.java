@@ -0,0 +1,304 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.InstanceWebProxy.ForwardRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InstanceResponseCacheTest {
+
+	private final InstanceId instanceId = InstanceId.of("id-1");
+
+	private final MutableClock clock = new MutableClock();
+
+	private final InstanceResponseCache cache = new InstanceResponseCache(
+			Map.of("env", Duration.ofSeconds(5L), "beans", Duration.ofSeconds(10L)), 2, 1024, this.clock);
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Test
+	void invariants() {
+		assertThatThrownBy(() -> new InstanceResponseCache(Map.of(), 0, 1)).isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("'maxEntries' must be greater than 0");
+		assertThatThrownBy(() -> new InstanceResponseCache(Map.of(), 1, 0)).isInstanceOf(IllegalArgumentException.class)
+			.hasMessage("'maxBodySize' must be greater than 0");
+	}
+
+	@Test
+	void should_only_cache_get_requests_to_configured_endpoints() {
+		assertThat(this.cache.isCacheable(request(HttpMethod.GET, "env"))).isTrue();
+		assertThat(this.cache.isCacheable(request(HttpMethod.GET, "/env/foo?bar=1"))).isTrue();
+		assertThat(this.cache.isCacheable(request(HttpMethod.POST, "env"))).isFalse();
+		assertThat(this.cache.isCacheable(request(HttpMethod.GET, "health"))).isFalse();
+		assertThat(this.cache.isCacheable(request(HttpMethod.GET, "environment"))).isFalse();
+	}
+
+	@Test
+	void should_cache_response_until_expired() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNext("1").verifyComplete();
+
+		this.clock.advance(Duration.ofSeconds(4L));
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNext("1").verifyComplete();
+
+		this.clock.advance(Duration.ofSeconds(1L));
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNext("2").verifyComplete();
+		assertThat(this.loads).hasValue(2);
+	}
+
+	@Test
+	void should_cache_per_query_and_accept_header() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+		ForwardRequest withQuery = request(HttpMethod.GET, "env?foo=bar");
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+		ForwardRequest withAccept = request(HttpMethod.GET, "env", headers);
+
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNextCount(1).verifyComplete();
+		StepVerifier.create(get(this.instanceId, withQuery, loader(HttpStatus.OK))).expectNextCount(1).verifyComplete();
+		StepVerifier.create(get(this.instanceId, withAccept, loader(HttpStatus.OK)))
+			.expectNextCount(1)
+			.verifyComplete();
+		StepVerifier.create(get(InstanceId.of("id-2"), request, loader(HttpStatus.OK)))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(this.loads).hasValue(4);
+	}
+
+	@Test
+	void should_not_cache_unsuccessful_responses() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.SERVICE_UNAVAILABLE)))
+			.expectNextCount(1)
+			.verifyComplete();
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNextCount(1).verifyComplete();
+
+		assertThat(this.loads).hasValue(2);
+		assertThat(this.cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	void should_evict_least_recently_used_entries() {
+		ForwardRequest env = request(HttpMethod.GET, "env");
+		ForwardRequest beans = request(HttpMethod.GET, "beans");
+		ForwardRequest envFoo = request(HttpMethod.GET, "env/foo");
+
+		get(this.instanceId, env, loader(HttpStatus.OK)).block();
+		get(this.instanceId, beans, loader(HttpStatus.OK)).block();
+		get(this.instanceId, env, loader(HttpStatus.OK)).block();
+		get(this.instanceId, envFoo, loader(HttpStatus.OK)).block();
+		assertThat(this.loads).hasValue(3);
+		assertThat(this.cache.size()).isEqualTo(2);
+
+		get(this.instanceId, env, loader(HttpStatus.OK)).block();
+		assertThat(this.loads).hasValue(3);
+		get(this.instanceId, beans, loader(HttpStatus.OK)).block();
+		assertThat(this.loads).hasValue(4);
+	}
+
+	@Test
+	void should_invalidate_responses_of_instance() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+		InstanceId other = InstanceId.of("id-2");
+		get(this.instanceId, request, loader(HttpStatus.OK)).block();
+		get(other, request, loader(HttpStatus.OK)).block();
+
+		this.cache.invalidate(this.instanceId);
+
+		get(this.instanceId, request, loader(HttpStatus.OK)).block();
+		get(other, request, loader(HttpStatus.OK)).block();
+		assertThat(this.loads).hasValue(3);
+	}
+
+	@Test
+	void should_not_cache_response_of_load_started_before_invalidation() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+		Sinks.One<ClientResponse> pending = Sinks.one();
+
+		StepVerifier.create(get(this.instanceId, request, pending::asMono))
+			.then(() -> this.cache.invalidate(this.instanceId))
+			.then(() -> pending.tryEmitValue(response(HttpStatus.OK, "stale")))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(this.cache.size()).isZero();
+	}
+
+	@Test
+	void should_share_concurrent_loads() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+		Sinks.One<ClientResponse> pending = Sinks.one();
+		AtomicInteger subscriptions = new AtomicInteger();
+		Supplier<Mono<ClientResponse>> loader = () -> pending.asMono()
+			.doOnSubscribe((s) -> subscriptions.incrementAndGet());
+
+		Mono<String> first = get(this.instanceId, request, loader);
+		Mono<String> second = get(this.instanceId, request, loader);
+
+		StepVerifier.create(Mono.zip(first, second))
+			.then(() -> pending.tryEmitValue(response(HttpStatus.OK, "shared")))
+			.assertNext((t) -> {
+				assertThat(t.getT1()).isEqualTo("shared");
+				assertThat(t.getT2()).isEqualTo("shared");
+			})
+			.verifyComplete();
+		assertThat(subscriptions).hasValue(1);
+	}
+
+	@Test
+	void should_propagate_errors_to_all_waiting_requests() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+		Sinks.One<ClientResponse> pending = Sinks.one();
+
+		Mono<String> first = get(this.instanceId, request, pending::asMono);
+		Mono<String> second = get(this.instanceId, request, pending::asMono);
+
+		StepVerifier.create(Mono.zipDelayError(first.onErrorReturn("first"), second.onErrorReturn("second")))
+			.then(() -> pending.tryEmitError(new IllegalStateException("test")))
+			.assertNext((t) -> {
+				assertThat(t.getT1()).isEqualTo("first");
+				assertThat(t.getT2()).isEqualTo("second");
+			})
+			.verifyComplete();
+
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNextCount(1).verifyComplete();
+	}
+
+	@Test
+	void should_stream_responses_too_large_to_be_cached() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+		String large = "x".repeat(2000);
+		Supplier<Mono<ClientResponse>> loader = () -> Mono.fromSupplier(() -> {
+			this.loads.incrementAndGet();
+			return ClientResponse.create(HttpStatus.OK)
+				.body(Flux.just(large.substring(0, 1000), large.substring(1000))
+					.map((chunk) -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes())))
+				.build();
+		});
+
+		StepVerifier.create(get(this.instanceId, request, loader)).expectNext(large).verifyComplete();
+		assertThat(this.loads).hasValue(1);
+		assertThat(this.cache.size()).isEqualTo(1);
+
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNext("2").verifyComplete();
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNext("3").verifyComplete();
+
+		this.clock.advance(Duration.ofSeconds(5L));
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNext("4").verifyComplete();
+		StepVerifier.create(get(this.instanceId, request, loader(HttpStatus.OK))).expectNext("4").verifyComplete();
+	}
+
+	@Test
+	void should_send_own_request_when_shared_response_is_too_large() {
+		ForwardRequest request = request(HttpMethod.GET, "env");
+		Sinks.One<ClientResponse> pending = Sinks.one();
+		String large = "x".repeat(2000);
+
+		Mono<String> first = get(this.instanceId, request, pending::asMono);
+		Mono<String> second = get(this.instanceId, request, loader(HttpStatus.OK));
+
+		StepVerifier.create(Mono.zip(first, second))
+			.then(() -> pending.tryEmitValue(response(HttpStatus.OK, large)))
+			.assertNext((t) -> {
+				assertThat(t.getT1()).isEqualTo(large);
+				assertThat(t.getT2()).isEqualTo("1");
+			})
+			.verifyComplete();
+	}
+
+	private Mono<String> get(InstanceId instanceId, ForwardRequest request, Supplier<Mono<ClientResponse>> loader) {
+		return this.cache.get(instanceId, request, (handler) -> loader.get().flatMap(handler),
+				(response) -> response.bodyToMono(String.class).defaultIfEmpty(""));
+	}
+
+	private Supplier<Mono<ClientResponse>> loader(HttpStatus status) {
+		return () -> Mono.fromSupplier(() -> response(status, String.valueOf(this.loads.incrementAndGet())));
+	}
+
+	private static ClientResponse response(HttpStatus status, String body) {
+		return ClientResponse.create(status).body(body).build();
+	}
+
+	private static ForwardRequest request(HttpMethod method, String uri) {
+		return request(method, uri, new HttpHeaders());
+	}
+
+	private static ForwardRequest request(HttpMethod method, String uri, HttpHeaders headers) {
+		return ForwardRequest.builder()
+			.uri(URI.create(uri))
+			.method(method)
+			.headers(headers)
+			.body(BodyInserters.empty())
+			.build();
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2023-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			this.instant = this.instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return this.instant;
+		}
+
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.web.InstanceWebProxy.ForwardRequest;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceWebProxyTest {
+
+	private final Instance instance = Instance.create(InstanceId.of("id-1"))
+		.register(Registration.create("foo", "http://localhost/health").build());
+
+	private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+	private Mono<ClientResponse> response = Mono
+		.fromSupplier(() -> ClientResponse.create(HttpStatus.OK).body("response-" + this.requests.size()).build());
+
+	private final InstanceWebClient instanceWebClient = InstanceWebClient.builder()
+		.webClient(WebClient.builder().exchangeFunction((request) -> {
+			this.requests.add(request);
+			return this.response;
+		}))
+		.build();
+
+	private final InstanceWebProxy proxy = new InstanceWebProxy(this.instanceWebClient,
+			new InstanceResponseCache(Map.of("env", Duration.ofMinutes(1L)), 100, 16));
+
+	@Test
+	void should_serve_cached_response_for_get_requests() {
+		StepVerifier.create(forward(HttpMethod.GET, "env")).expectNext("200 response-1").verifyComplete();
+		StepVerifier.create(forward(HttpMethod.GET, "env")).expectNext("200 response-1").verifyComplete();
+
+		assertThat(this.requests).hasSize(1);
+	}
+
+	@Test
+	void should_share_request_for_concurrent_get_requests() {
+		Sinks.One<ClientResponse> pending = Sinks.one();
+		this.response = pending.asMono();
+
+		StepVerifier.create(Mono.zip(forward(HttpMethod.GET, "env"), forward(HttpMethod.GET, "env")))
+			.then(() -> pending.tryEmitValue(ClientResponse.create(HttpStatus.OK).body("shared").build()))
+			.assertNext((t) -> {
+				assertThat(t.getT1()).isEqualTo("200 shared");
+				assertThat(t.getT2()).isEqualTo("200 shared");
+			})
+			.verifyComplete();
+
+		assertThat(this.requests).hasSize(1);
+	}
+
+	@Test
+	void should_not_cache_responses_of_other_endpoints() {
+		StepVerifier.create(forward(HttpMethod.GET, "health")).expectNext("200 response-1").verifyComplete();
+		StepVerifier.create(forward(HttpMethod.GET, "health")).expectNext("200 response-2").verifyComplete();
+	}
+
+	@Test
+	void should_invalidate_cached_responses_on_mutating_requests() {
+		StepVerifier.create(forward(HttpMethod.GET, "env")).expectNext("200 response-1").verifyComplete();
+		StepVerifier.create(forward(HttpMethod.POST, "env")).expectNext("200 response-2").verifyComplete();
+		StepVerifier.create(forward(HttpMethod.GET, "env")).expectNext("200 response-3").verifyComplete();
+	}
+
+	@Test
+	void should_forward_responses_too_large_to_be_cached() {
+		this.response = Mono
+			.fromSupplier(() -> ClientResponse.create(HttpStatus.OK).body("a body larger than 16 bytes").build());
+
+		StepVerifier.create(forward(HttpMethod.GET, "env"))
+			.expectNext("200 a body larger than 16 bytes")
+			.verifyComplete();
+		assertThat(this.requests).hasSize(1);
+
+		StepVerifier.create(forward(HttpMethod.GET, "env"))
+			.expectNext("200 a body larger than 16 bytes")
+			.verifyComplete();
+		assertThat(this.requests).hasSize(2);
+	}
+
+	@Test
+	void should_limit_concurrent_requests_to_instances() {
+		Sinks.One<ClientResponse> pending = Sinks.one();
+		this.response = pending.asMono();
+		InstanceWebProxy fanOutProxy = new InstanceWebProxy(this.instanceWebClient).fanOutConcurrency(2);
+
+		StepVerifier
+			.create(fanOutProxy.forward(Flux.just(this.instance, instance("id-2"), instance("id-3")),
+					request(HttpMethod.GET, "health")))
+			.then(() -> assertThat(this.requests).hasSize(2))
+			.then(() -> pending.tryEmitValue(ClientResponse.create(HttpStatus.OK).body("ok").build()))
+			.expectNextCount(3)
+			.verifyComplete();
+	}
+
+	@Test
+	void should_report_instances_exceeding_the_deadline() {
+		this.response = Mono.defer(() -> (this.requests.size() == 1)
+				? Mono.just(ClientResponse.create(HttpStatus.OK).body("fast").build()) : Mono.never());
+		InstanceWebProxy fanOutProxy = new InstanceWebProxy(this.instanceWebClient)
+			.fanOutTimeout(Duration.ofMillis(100L));
+
+		StepVerifier
+			.create(fanOutProxy.forward(Flux.just(this.instance, instance("id-2")), request(HttpMethod.GET, "health")))
+			.assertNext((r) -> {
+				assertThat(r.getInstanceId()).isEqualTo(this.instance.getId());
+				assertThat(r.getStatus()).isEqualTo(200);
+				assertThat(r.getBody()).isEqualTo("fast");
+			})
+			.assertNext((r) -> {
+				assertThat(r.getInstanceId()).isEqualTo(InstanceId.of("id-2"));
+				assertThat(r.getStatus()).isEqualTo(504);
+				assertThat(r.getError()).isEqualTo("No response within 100ms");
+			})
+			.verifyComplete();
+	}
+
+	@Test
+	void should_report_instances_exceeding_the_body_size() {
+		this.response = Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK)
+			.body((this.requests.size() == 1) ? "small" : "too large")
+			.build());
+		InstanceWebProxy fanOutProxy = new InstanceWebProxy(this.instanceWebClient).fanOutMaxBodySize(5);
+
+		StepVerifier
+			.create(fanOutProxy.forward(Flux.just(this.instance, instance("id-2")), request(HttpMethod.GET, "health")))
+			.assertNext((r) -> assertThat(r.getBody()).isEqualTo("small"))
+			.assertNext((r) -> {
+				assertThat(r.getStatus()).isEqualTo(502);
+				assertThat(r.getBody()).isNull();
+				assertThat(r.getError()).isEqualTo("Response body exceeds 5 bytes");
+			})
+			.verifyComplete();
+	}
+
+	@Test
+	void should_not_forward_accept_and_accept_encoding_to_instances_when_aggregating() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		ForwardRequest request = ForwardRequest.builder()
+			.uri(URI.create("health"))
+			.method(HttpMethod.GET)
+			.headers(headers)
+			.body(BodyInserters.empty())
+			.build();
+
+		StepVerifier.create(new InstanceWebProxy(this.instanceWebClient).forward(Flux.just(this.instance), request))
+			.expectNextCount(1)
+			.verifyComplete();
+
+		assertThat(this.requests).allSatisfy((r) -> {
+			assertThat(r.headers().containsHeader(HttpHeaders.ACCEPT)).isFalse();
+			assertThat(r.headers().containsHeader(HttpHeaders.ACCEPT_ENCODING)).isFalse();
+		});
+	}
+
+	private Instance instance(String id) {
+		return Instance.create(InstanceId.of(id))
+			.register(Registration.create("foo", "http://localhost/health").build());
+	}
+
+	private ForwardRequest request(HttpMethod method, String uri) {
+		return ForwardRequest.builder()
+			.uri(URI.create(uri))
+			.method(method)
+			.headers(new HttpHeaders())
+			.body(BodyInserters.empty())
+			.build();
+	}
+
+	private Mono<String> forward(HttpMethod method, String uri) {
+		return this.proxy.forward(Mono.just(this.instance), request(method, uri),
+				(r) -> r.bodyToMono(String.class).map((body) -> r.statusCode().value() + " " + body));
+	}
+
+}
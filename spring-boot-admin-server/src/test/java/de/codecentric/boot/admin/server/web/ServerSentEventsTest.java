@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerSentEventsTest {
+
+	@Test
+	void should_send_pings_while_open() {
+		StepVerifier.withVirtualTime(() -> ServerSentEvents.stream(Flux.just("a").concatWith(Flux.never())))
+			.assertNext((event) -> assertThat(event.data()).isEqualTo("a"))
+			.thenAwait(Duration.ofSeconds(10L))
+			.assertNext((event) -> assertThat(event.comment()).isEqualTo("ping"))
+			.thenCancel()
+			.verify();
+	}
+
+	@Test
+	void should_end_with_failure_event() {
+		StepVerifier
+			.withVirtualTime(() -> ServerSentEvents
+				.stream(Flux.just("a").concatWith(Flux.error(new IllegalStateException("test")))))
+			.assertNext((event) -> assertThat(event.data()).isEqualTo("a"))
+			.assertNext((event) -> {
+				assertThat(event.event()).isEqualTo("failure");
+				assertThat(event.data()).isEqualTo("test");
+			})
+			.verifyComplete();
+	}
+
+}
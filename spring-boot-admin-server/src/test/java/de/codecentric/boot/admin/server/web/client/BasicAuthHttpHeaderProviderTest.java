@@ -27,6 +27,7 @@ import de.codecentric.boot.admin.server.domain.values.Registration;
 import de.codecentric.boot.admin.server.web.client.BasicAuthHttpHeaderProvider.InstanceCredentials;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class BasicAuthHttpHeaderProviderTest {
 
@@ -103,4 +104,37 @@ class BasicAuthHttpHeaderProviderTest {
 			.containsOnly("Basic dGVzdDpkcm93c3NhcA==");
 	}
 
+	@Test
+	void test_cache_headers_per_registration() {
+		Registration registration = Registration.create("foo", "https://health")
+			.metadata("user.name", "test")
+			.metadata("user.password", "drowssap")
+			.build();
+		Instance instance = Instance.create(InstanceId.of("id")).register(registration);
+		HttpHeaders headers = this.headersProvider.getHeaders(instance);
+		assertThat(this.headersProvider.getHeaders(instance)).isSameAs(headers);
+		assertThatThrownBy(() -> headers.add("X-Custom", "value")).isInstanceOf(UnsupportedOperationException.class);
+
+		Instance updated = instance.register(Registration.create("foo", "https://health")
+			.metadata("user.name", "other")
+			.metadata("user.password", "drowssap")
+			.build());
+		assertThat(this.headersProvider.getHeaders(updated).get(HttpHeaders.AUTHORIZATION))
+			.containsOnly("Basic b3RoZXI6ZHJvd3NzYXA=");
+		assertThat(this.headersProvider.getHeaders(updated)).isSameAs(this.headersProvider.getHeaders(updated));
+	}
+
+	@Test
+	void test_evict_cached_headers() {
+		Registration registration = Registration.create("foo", "https://health")
+			.metadata("user.name", "test")
+			.metadata("user.password", "drowssap")
+			.build();
+		Instance instance = Instance.create(InstanceId.of("id")).register(registration);
+		HttpHeaders headers = this.headersProvider.getHeaders(instance);
+
+		this.headersProvider.evict(instance.getId());
+		assertThat(this.headersProvider.getHeaders(instance)).isNotSameAs(headers).isEqualTo(headers);
+	}
+
 }
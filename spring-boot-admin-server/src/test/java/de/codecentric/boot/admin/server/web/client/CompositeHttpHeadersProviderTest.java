@@ -46,6 +46,16 @@ class CompositeHttpHeadersProviderTest {
 			.containsEntry("c", singletonList("3"));
 	}
 
+	@Test
+	void should_return_headers_of_single_provider_without_copying() {
+		HttpHeaders provided = new HttpHeaders();
+		provided.set("a", "1");
+		HttpHeadersProvider provider = new CompositeHttpHeadersProvider(
+				asList((i) -> HttpHeaders.EMPTY, (i) -> provided));
+
+		assertThat(provider.getHeaders(null)).isSameAs(provided);
+	}
+
 	@Test
 	void should_return_empty_headers() {
 		HttpHeadersProvider provider = new CompositeHttpHeadersProvider(emptyList());
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointLatencyTrackerTest {
+
+	private final Instance instance = Instance.create(InstanceId.of("i-1"))
+		.register(Registration.create("app", "http://localhost/health").build());
+
+	private final Instance sibling = Instance.create(InstanceId.of("i-2"))
+		.register(Registration.create("app", "http://localhost:8081/health").build());
+
+	private long now = 0L;
+
+	private final EndpointLatencyTracker tracker = new EndpointLatencyTracker(Duration.ofMinutes(1L), 10,
+			() -> this.now);
+
+	@Test
+	void should_report_percentile_per_application_and_endpoint() {
+		for (int i = 1; i <= 100; i++) {
+			this.tracker.record((i % 2 == 0) ? this.instance : this.sibling, "health", Duration.ofMillis(i * 10L));
+		}
+
+		assertThat(this.tracker.getPercentile(this.instance, "health", 0.5))
+			.hasValueSatisfying((latency) -> assertThat(latency.toMillis()).isBetween(450L, 550L));
+		assertThat(this.tracker.getPercentile(this.instance, "health", 0.95))
+			.hasValueSatisfying((latency) -> assertThat(latency.toMillis()).isBetween(900L, 1000L));
+		assertThat(this.tracker.getPercentile(this.instance, "info", 0.95)).isEmpty();
+	}
+
+	@Test
+	void should_require_min_samples() {
+		for (int i = 0; i < 9; i++) {
+			this.tracker.record(this.instance, "health", Duration.ofMillis(10L));
+		}
+		assertThat(this.tracker.getPercentile(this.instance, "health", 0.95)).isEmpty();
+
+		this.now += TimeUnit.SECONDS.toNanos(2L);
+		this.tracker.record(this.instance, "health", Duration.ofMillis(10L));
+		assertThat(this.tracker.getPercentile(this.instance, "health", 0.95)).isPresent();
+	}
+
+	@Test
+	void should_forget_latencies_of_old_windows() {
+		for (int i = 0; i < 10; i++) {
+			this.tracker.record(this.instance, "health", Duration.ofMillis(1000L));
+		}
+		this.now += TimeUnit.SECONDS.toNanos(70L);
+		for (int i = 0; i < 10; i++) {
+			this.tracker.record(this.instance, "health", Duration.ofMillis(10L));
+		}
+		assertThat(this.tracker.getPercentile(this.instance, "health", 0.5))
+			.hasValueSatisfying((latency) -> assertThat(latency.toMillis()).isLessThan(20L));
+
+		this.now += TimeUnit.SECONDS.toNanos(60L);
+		assertThat(this.tracker.getPercentile(this.instance, "health", 0.99))
+			.hasValueSatisfying((latency) -> assertThat(latency.toMillis()).isLessThan(20L));
+	}
+
+}
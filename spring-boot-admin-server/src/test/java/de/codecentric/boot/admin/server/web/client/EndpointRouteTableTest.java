@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.Endpoint;
+import de.codecentric.boot.admin.server.domain.values.Endpoints;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointRouteTableTest {
+
+	private final EndpointRouteTable routeTable = new EndpointRouteTable();
+
+	private final Instance instance = Instance.create(InstanceId.of("i"))
+		.register(Registration.create("app", "http://test/actuator/health").build())
+		.withEndpoints(Endpoints.single(Endpoint.ENV, "http://test/actuator/env"));
+
+	@Test
+	void should_return_null_for_unknown_endpoint() {
+		assertThat(this.routeTable.getRoute(this.instance, "unknown")).isNull();
+	}
+
+	@Test
+	void should_rebuild_routes_when_endpoints_change() {
+		assertThat(this.routeTable.getRoute(this.instance, Endpoint.INFO)).isNull();
+
+		Instance changed = this.instance
+			.withEndpoints(this.instance.getEndpoints().withEndpoint(Endpoint.INFO, "http://test/actuator/info"));
+
+		EndpointRouteTable.Route route = this.routeTable.getRoute(changed, Endpoint.INFO);
+		assertThat(route).isNotNull();
+		assertThat(route.rewrite("", null)).isEqualTo(URI.create("http://test/actuator/info"));
+	}
+
+	@Test
+	void should_reuse_routes_for_unchanged_endpoints() {
+		EndpointRouteTable.Route route = this.routeTable.getRoute(this.instance, Endpoint.ENV);
+
+		assertThat(this.routeTable.getRoute(this.instance, Endpoint.ENV)).isSameAs(route);
+
+		this.routeTable.remove(this.instance.getId());
+		assertThat(this.routeTable.getRoute(this.instance, Endpoint.ENV)).isNotSameAs(route);
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "http://test/actuator/env, env", "http://test/actuator/env, env/", "http://test/actuator/env, /env",
+			"http://test/actuator/env, env/foo", "http://test/actuator/env, env//foo/bar/",
+			"http://test/actuator/env, env/foo%20bar?a=1&b=%C3%A4", "http://test/actuator/env, env?a",
+			"http://test/actuator/env/, env", "http://test/actuator/env/, env/foo",
+			"http://test/actuator/env?x=1, env/foo?a=1", "http://test/actuator/env?x=1, env" })
+	void should_rewrite_like_uri_components_builder(String endpointUrl, String requestUrl) {
+		Instance instance = this.instance.withEndpoints(Endpoints.single(Endpoint.ENV, endpointUrl));
+		URI request = URI.create(requestUrl);
+
+		EndpointRouteTable.Route route = this.routeTable.getRoute(instance, Endpoint.ENV);
+		assertThat(route).isNotNull();
+
+		String path = request.getRawPath().replaceFirst("^/*env", "");
+		assertThat(route.rewrite(path, request.getRawQuery()))
+			.isEqualTo(rewriteUsingUriComponents(request, endpointUrl));
+	}
+
+	private static URI rewriteUsingUriComponents(URI requestUrl, String targetUrl) {
+		UriComponents oldUrl = UriComponentsBuilder.fromUri(requestUrl).build();
+		String[] newPathSegments = oldUrl.getPathSegments()
+			.subList(1, oldUrl.getPathSegments().size())
+			.toArray(new String[] {});
+		return UriComponentsBuilder.fromUriString(targetUrl)
+			.pathSegment(newPathSegments)
+			.query(oldUrl.getQuery())
+			.build(true)
+			.toUri();
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.client.InstanceBulkheads.Limits;
+import de.codecentric.boot.admin.server.web.client.InstanceBulkheads.Traffic;
+import de.codecentric.boot.admin.server.web.client.exception.BulkheadFullException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceBulkheadsTest {
+
+	private static final Instance INSTANCE = Instance.create(InstanceId.of("i"));
+
+	private final InstanceBulkheads bulkheads = new InstanceBulkheads(new Limits(1, 0, Duration.ZERO),
+			new Limits(1, 1, Duration.ZERO));
+
+	@Test
+	void should_queue_and_reject_requests_over_the_limit() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		this.bulkheads.bindTo(registry);
+		Sinks.One<String> first = Sinks.one();
+		Sinks.One<String> second = Sinks.one();
+
+		Disposable running = this.bulkheads.execute(INSTANCE, Traffic.PROXY, first::asMono).subscribe();
+		StepVerifier.create(this.bulkheads.execute(INSTANCE, Traffic.PROXY, second::asMono))
+			.then(() -> StepVerifier.create(this.bulkheads.execute(INSTANCE, Traffic.PROXY, () -> Mono.just("3")))
+				.verifyError(BulkheadFullException.class))
+			.then(() -> first.tryEmitValue("1"))
+			.then(() -> second.tryEmitValue("2"))
+			.expectNext("2")
+			.verifyComplete();
+		running.dispose();
+
+		assertThat(registry.get("spring.boot.admin.instance.requests.rejected")
+			.tags("application", "i", "traffic", "proxy")
+			.counter()
+			.count()).isEqualTo(1.0);
+	}
+
+	@Test
+	void should_limit_traffic_separately() {
+		Sinks.One<String> proxy = Sinks.one();
+		Disposable running = this.bulkheads.execute(INSTANCE, Traffic.PROXY, proxy::asMono).subscribe();
+
+		StepVerifier.create(this.bulkheads.execute(INSTANCE, Traffic.HEALTH, () -> Mono.just("health")))
+			.expectNext("health")
+			.verifyComplete();
+		Instance other = Instance.create(InstanceId.of("other"));
+		StepVerifier.create(this.bulkheads.execute(other, Traffic.PROXY, () -> Mono.just("other")))
+			.expectNext("other")
+			.verifyComplete();
+		running.dispose();
+	}
+
+	@Test
+	void should_release_permits_of_cancelled_requests() {
+		Disposable running = this.bulkheads.execute(INSTANCE, Traffic.PROXY, Mono::<String>never).subscribe();
+		Disposable queued = this.bulkheads.execute(INSTANCE, Traffic.PROXY, Mono::<String>never).subscribe();
+
+		queued.dispose();
+		running.dispose();
+
+		StepVerifier.create(this.bulkheads.execute(INSTANCE, Traffic.PROXY, () -> Mono.just("next")))
+			.expectNext("next")
+			.verifyComplete();
+	}
+
+	@Test
+	void should_reject_requests_waiting_too_long() {
+		InstanceBulkheads bulkheads = new InstanceBulkheads(new Limits(1, 1, Duration.ZERO),
+				new Limits(1, 1, Duration.ofSeconds(1L)));
+
+		StepVerifier
+			.withVirtualTime(() -> Mono.when(bulkheads.execute(INSTANCE, Traffic.PROXY, Mono::never),
+					bulkheads.execute(INSTANCE, Traffic.PROXY, () -> Mono.just("queued"))))
+			.expectSubscription()
+			.thenAwait(Duration.ofSeconds(1L))
+			.verifyError(BulkheadFullException.class);
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.web.client.InstanceCircuitBreakers.State;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceCircuitBreakersTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("i");
+
+	private long now = 0L;
+
+	private final InstanceCircuitBreakers breakers = new InstanceCircuitBreakers(2, Duration.ofSeconds(10L),
+			() -> this.now);
+
+	@Test
+	void should_open_after_consecutive_failures() {
+		failRequest();
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.CLOSED);
+		failRequest();
+
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.OPEN);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isFalse();
+		assertThat(this.breakers.tryAcquirePermission(InstanceId.of("other"))).isTrue();
+	}
+
+	@Test
+	void should_reset_failures_on_success() {
+		failRequest();
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+		this.breakers.onSuccess(INSTANCE_ID);
+		failRequest();
+
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.CLOSED);
+	}
+
+	@Test
+	void should_let_single_probe_through_after_open_duration() {
+		this.breakers.open(INSTANCE_ID);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isFalse();
+
+		this.now += TimeUnit.SECONDS.toNanos(10L);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.HALF_OPEN);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isFalse();
+
+		this.breakers.onFailure(INSTANCE_ID);
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.OPEN);
+
+		this.now += TimeUnit.SECONDS.toNanos(10L);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+		this.breakers.onSuccess(INSTANCE_ID);
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.CLOSED);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+	}
+
+	@Test
+	void should_not_close_open_breaker_on_success() {
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+		this.breakers.open(INSTANCE_ID);
+
+		this.breakers.onSuccess(INSTANCE_ID);
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.OPEN);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isFalse();
+
+		this.now += TimeUnit.SECONDS.toNanos(10L);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+		this.breakers.onCancel(INSTANCE_ID);
+		this.breakers.onSuccess(INSTANCE_ID);
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.HALF_OPEN);
+	}
+
+	@Test
+	void should_release_probe_on_cancel() {
+		this.breakers.open(INSTANCE_ID);
+		this.now += TimeUnit.SECONDS.toNanos(10L);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+
+		this.breakers.onCancel(INSTANCE_ID);
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+	}
+
+	@Test
+	void should_close_and_remove_breakers() {
+		this.breakers.open(INSTANCE_ID);
+		assertThat(this.breakers.getStates()).containsEntry(INSTANCE_ID, State.OPEN);
+
+		this.breakers.close(INSTANCE_ID);
+		assertThat(this.breakers.getState(INSTANCE_ID)).isEqualTo(State.CLOSED);
+
+		this.breakers.remove(INSTANCE_ID);
+		assertThat(this.breakers.getStates()).isEmpty();
+	}
+
+	private void failRequest() {
+		assertThat(this.breakers.tryAcquirePermission(INSTANCE_ID)).isTrue();
+		this.breakers.onFailure(INSTANCE_ID);
+	}
+
+}
@@ -16,11 +16,17 @@
 
 package de.codecentric.boot.admin.server.web.client;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -49,6 +55,7 @@ import de.codecentric.boot.admin.server.domain.values.Endpoints;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
 import de.codecentric.boot.admin.server.domain.values.Registration;
 import de.codecentric.boot.admin.server.web.client.cookies.PerInstanceCookieStore;
+import de.codecentric.boot.admin.server.web.client.exception.CircuitBreakerOpenException;
 import de.codecentric.boot.admin.server.web.client.exception.ResolveEndpointException;
 
 import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.ATTRIBUTE_ENDPOINT;
@@ -60,6 +67,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.HttpHeaders.ACCEPT;
@@ -240,6 +248,52 @@ class InstanceExchangeFilterFunctionsTest {
 			assertThat(invocationCount.get()).isEqualTo(2);
 		}
 
+		@Test
+		void should_retry_with_backoff() {
+			InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions.retry(2, emptyMap(),
+					Duration.ofMillis(100L), Duration.ofSeconds(1L), null);
+
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test")).build();
+			ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+
+			AtomicLong invocationCount = new AtomicLong(0L);
+			ExchangeFunction exchange = (r) -> Mono.fromSupplier(() -> {
+				if (invocationCount.getAndIncrement() < 2) {
+					throw new IllegalStateException("Test");
+				}
+				return response;
+			});
+
+			StepVerifier.withVirtualTime(() -> filter.filter(INSTANCE, request, exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(49L))
+				.thenAwait(Duration.ofSeconds(1L))
+				.expectNext(response)
+				.verifyComplete();
+			assertThat(invocationCount.get()).isEqualTo(3);
+		}
+
+		@Test
+		void should_not_retry_beyond_budget() {
+			RetryBudget budget = new RetryBudget(0.0, 1, Duration.ofMinutes(1L));
+			InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions.retry(1, emptyMap(), Duration.ZERO,
+					Duration.ZERO, budget);
+
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test")).build();
+			AtomicLong invocationCount = new AtomicLong(0L);
+			ExchangeFunction exchange = (r) -> Mono.fromSupplier(() -> {
+				invocationCount.incrementAndGet();
+				throw new IllegalStateException("Test");
+			});
+
+			StepVerifier.create(filter.filter(INSTANCE, request, exchange)).verifyError(IllegalStateException.class);
+			assertThat(invocationCount.get()).isEqualTo(2);
+
+			invocationCount.set(0L);
+			StepVerifier.create(filter.filter(INSTANCE, request, exchange)).verifyError(IllegalStateException.class);
+			assertThat(invocationCount.get()).isEqualTo(1);
+		}
+
 		@Test
 		void should_not_retry_for_put_post_patch_delete() {
 			InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions.retry(1, emptyMap());
@@ -275,6 +329,222 @@ class InstanceExchangeFilterFunctionsTest {
 
 	}
 
+	@Nested
+	class CircuitBreaker {
+
+		private final InstanceCircuitBreakers circuitBreakers = new InstanceCircuitBreakers(1, Duration.ofMinutes(1L));
+
+		private final InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions
+			.circuitBreaker(this.circuitBreakers);
+
+		@Test
+		void should_fail_fast_while_open() {
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test"))
+				.attribute(ATTRIBUTE_ENDPOINT, "test")
+				.build();
+			AtomicLong invocationCount = new AtomicLong(0L);
+			ExchangeFunction exchange = (r) -> Mono.fromSupplier(() -> {
+				invocationCount.incrementAndGet();
+				throw new IllegalStateException("Test");
+			});
+
+			StepVerifier.create(this.filter.filter(INSTANCE, request, exchange))
+				.verifyError(IllegalStateException.class);
+			StepVerifier.create(this.filter.filter(INSTANCE, request, exchange))
+				.verifyError(CircuitBreakerOpenException.class);
+			assertThat(invocationCount.get()).isEqualTo(1);
+		}
+
+		@Test
+		void should_not_count_error_responses_as_failures() {
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test"))
+				.attribute(ATTRIBUTE_ENDPOINT, "test")
+				.build();
+			ClientResponse response = ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build();
+
+			StepVerifier.create(this.filter.filter(INSTANCE, request, (r) -> Mono.just(response)))
+				.expectNext(response)
+				.verifyComplete();
+			assertThat(this.circuitBreakers.getState(INSTANCE.getId())).isEqualTo(InstanceCircuitBreakers.State.CLOSED);
+		}
+
+		@Test
+		void should_always_send_health_requests() {
+			this.circuitBreakers.open(INSTANCE.getId());
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/health"))
+				.attribute(ATTRIBUTE_ENDPOINT, Endpoint.HEALTH)
+				.build();
+			ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+
+			StepVerifier.create(this.filter.filter(INSTANCE, request, (r) -> Mono.just(response)))
+				.expectNext(response)
+				.verifyComplete();
+		}
+
+	}
+
+	@Nested
+	class AdaptiveTimeout {
+
+		private final EndpointLatencyTracker latencies = new EndpointLatencyTracker(Duration.ofMinutes(1L), 1);
+
+		private final InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions.adaptiveTimeout(
+				this.latencies, 0.99, 3.0, Duration.ofMillis(100L), Duration.ofSeconds(1L), Duration.ofSeconds(5L),
+				singletonMap("configured", Duration.ofSeconds(2L)));
+
+		@Test
+		void should_timeout_using_multiple_of_latency() {
+			this.latencies.record(INSTANCE, "test", Duration.ofMillis(100L));
+
+			StepVerifier.withVirtualTime(() -> this.filter.filter(INSTANCE, request("test"), (r) -> Mono.never()))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(299L))
+				.thenAwait(Duration.ofMillis(20L))
+				.verifyError(TimeoutException.class);
+		}
+
+		@Test
+		void should_bound_timeout() {
+			this.latencies.record(INSTANCE, "fast", Duration.ofMillis(1L));
+			this.latencies.record(INSTANCE, "slow", Duration.ofSeconds(10L));
+
+			StepVerifier.withVirtualTime(() -> this.filter.filter(INSTANCE, request("fast"), (r) -> Mono.never()))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(99L))
+				.thenAwait(Duration.ofMillis(1L))
+				.verifyError(TimeoutException.class);
+			StepVerifier.withVirtualTime(() -> this.filter.filter(INSTANCE, request("slow"), (r) -> Mono.never()))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(999L))
+				.thenAwait(Duration.ofMillis(1L))
+				.verifyError(TimeoutException.class);
+		}
+
+		@Test
+		void should_prefer_configured_and_default_timeout() {
+			this.latencies.record(INSTANCE, "configured", Duration.ofMillis(100L));
+
+			StepVerifier.withVirtualTime(() -> this.filter.filter(INSTANCE, request("configured"), (r) -> Mono.never()))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(1999L))
+				.thenAwait(Duration.ofMillis(1L))
+				.verifyError(TimeoutException.class);
+			StepVerifier.withVirtualTime(() -> this.filter.filter(INSTANCE, request("unknown"), (r) -> Mono.never()))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(4999L))
+				.thenAwait(Duration.ofMillis(1L))
+				.verifyError(TimeoutException.class);
+		}
+
+		private ClientRequest request(String endpoint) {
+			return ClientRequest.create(HttpMethod.GET, URI.create("/" + endpoint))
+				.attribute(ATTRIBUTE_ENDPOINT, endpoint)
+				.build();
+		}
+
+	}
+
+	@Nested
+	class Hedge {
+
+		private final EndpointLatencyTracker latencies = new EndpointLatencyTracker(Duration.ofMinutes(1L), 1);
+
+		private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test"))
+			.attribute(ATTRIBUTE_ENDPOINT, "test")
+			.build();
+
+		private final ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+
+		@Test
+		void should_hedge_slow_request() {
+			this.latencies.record(INSTANCE, "test", Duration.ofMillis(100L));
+			InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions.hedge(this.latencies, 0.95,
+					Duration.ZERO, null);
+
+			AtomicLong invocationCount = new AtomicLong(0L);
+			AtomicLong cancelled = new AtomicLong(0L);
+			ExchangeFunction exchange = (r) -> (invocationCount.incrementAndGet() == 1)
+					? Mono.<ClientResponse>never().doOnCancel(cancelled::incrementAndGet) : Mono.just(this.response);
+
+			StepVerifier.withVirtualTime(() -> filter.filter(INSTANCE, this.request, exchange))
+				.expectSubscription()
+				.expectNoEvent(Duration.ofMillis(99L))
+				.thenAwait(Duration.ofMillis(10L))
+				.expectNext(this.response)
+				.verifyComplete();
+			assertThat(invocationCount.get()).isEqualTo(2);
+			assertThat(cancelled.get()).isEqualTo(1);
+		}
+
+		@Test
+		void should_not_hedge_without_latencies_or_budget() {
+			InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions.hedge(this.latencies, 0.95,
+					Duration.ZERO, new RetryBudget(0.0, 0, Duration.ofMinutes(1L)));
+
+			AtomicLong invocationCount = new AtomicLong(0L);
+			ExchangeFunction exchange = (r) -> {
+				invocationCount.incrementAndGet();
+				return Mono.delay(Duration.ofSeconds(1L)).thenReturn(this.response);
+			};
+
+			StepVerifier.withVirtualTime(() -> filter.filter(INSTANCE, this.request, exchange))
+				.thenAwait(Duration.ofSeconds(1L))
+				.expectNext(this.response)
+				.verifyComplete();
+
+			this.latencies.record(INSTANCE, "test", Duration.ofMillis(100L));
+			StepVerifier.withVirtualTime(() -> filter.filter(INSTANCE, this.request, exchange))
+				.thenAwait(Duration.ofSeconds(1L))
+				.expectNext(this.response)
+				.verifyComplete();
+			assertThat(invocationCount.get()).isEqualTo(2);
+		}
+
+	}
+
+	@Nested
+	class RecordLatency {
+
+		private final EndpointLatencyTracker latencies = new EndpointLatencyTracker(Duration.ofMinutes(1L), 1);
+
+		private final InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions
+			.recordLatency(this.latencies);
+
+		private final ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test"))
+			.attribute(ATTRIBUTE_ENDPOINT, "test")
+			.build();
+
+		@Test
+		void should_record_latency_of_response() {
+			ClientResponse response = ClientResponse.create(HttpStatus.OK).build();
+
+			StepVerifier.create(this.filter.filter(INSTANCE, this.request, (r) -> Mono.just(response)))
+				.expectNext(response)
+				.verifyComplete();
+
+			assertThat(this.latencies.getPercentile(INSTANCE, "test", 0.99)).isPresent();
+		}
+
+		@Test
+		void should_not_record_latency_of_cancelled_or_failed_request() {
+			StepVerifier.create(this.filter.filter(INSTANCE, this.request, (r) -> Mono.never()))
+				.expectSubscription()
+				.thenCancel()
+				.verify();
+			StepVerifier
+				.create(this.filter.filter(INSTANCE, this.request, (r) -> Mono.error(new TimeoutException("timeout"))))
+				.verifyError(TimeoutException.class);
+			StepVerifier
+				.withVirtualTime(() -> this.filter.filter(INSTANCE, this.request, (r) -> Mono.never())
+					.timeout(Duration.ofSeconds(1L)))
+				.thenAwait(Duration.ofSeconds(1L))
+				.verifyError(TimeoutException.class);
+
+			assertThat(this.latencies.getPercentile(INSTANCE, "test", 0.99)).isEmpty();
+		}
+
+	}
+
 	@Nested
 	class AddHeaders {
 
@@ -422,6 +692,21 @@ class InstanceExchangeFilterFunctionsTest {
 			StepVerifier.create(response).expectNextCount(1).verifyComplete();
 		}
 
+		@Test
+		void should_rewrite_url_with_query() {
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/env/foo%20bar?names=a,b"))
+				.attribute(ATTRIBUTE_INSTANCE, this.instance)
+				.build();
+
+			Mono<ClientResponse> response = this.filter.filter(this.instance, request, (req) -> {
+				assertThat(req.url()).isEqualTo(URI.create("http://test/actuator/env/foo%20bar?names=a,b"));
+				assertThat(req.attribute(ATTRIBUTE_ENDPOINT)).hasValue(Endpoint.ENV);
+				return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+			});
+
+			StepVerifier.create(response).expectNextCount(1).verifyComplete();
+		}
+
 		@Test
 		void should_not_rewrite_absolute_url() {
 			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://test/actuator/unknown"))
@@ -516,6 +801,100 @@ class InstanceExchangeFilterFunctionsTest {
 
 	}
 
+	@Nested
+	class Compression {
+
+		private final InstanceExchangeFilterFunction filter = InstanceExchangeFilterFunctions.compression();
+
+		private final String content = "{\"beans\":\"" + "foo".repeat(10_000) + "\"}";
+
+		@Test
+		void should_request_and_decompress_gzip() throws IOException {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (OutputStream out = new GZIPOutputStream(compressed)) {
+				out.write(this.content.getBytes(StandardCharsets.UTF_8));
+			}
+
+			StepVerifier.create(exchange("gzip", compressed.toByteArray())).assertNext((response) -> {
+				assertThat(response.headers().header(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+				assertThat(response.headers().contentLength()).isEmpty();
+				assertThat(response.bodyToMono(String.class).block()).isEqualTo(this.content);
+			}).verifyComplete();
+		}
+
+		@Test
+		void should_request_and_decompress_deflate() throws IOException {
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			try (OutputStream out = new DeflaterOutputStream(compressed)) {
+				out.write(this.content.getBytes(StandardCharsets.UTF_8));
+			}
+
+			StepVerifier.create(exchange("deflate", compressed.toByteArray()))
+				.assertNext((response) -> assertThat(response.bodyToMono(String.class).block()).isEqualTo(this.content))
+				.verifyComplete();
+		}
+
+		@Test
+		void should_pass_through_unknown_encodings() {
+			StepVerifier.create(exchange("br", new byte[] { 1, 2, 3 })).assertNext((response) -> {
+				assertThat(response.headers().header(HttpHeaders.CONTENT_ENCODING)).containsExactly("br");
+				assertThat(response.bodyToMono(byte[].class).block()).containsExactly(1, 2, 3);
+			}).verifyComplete();
+		}
+
+		@Test
+		void should_not_touch_requests_negotiating_the_encoding() {
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test"))
+				.header(HttpHeaders.ACCEPT_ENCODING, "br")
+				.build();
+
+			Mono<ClientResponse> response = this.filter.filter(INSTANCE, request, (req) -> {
+				assertThat(req.headers().get(HttpHeaders.ACCEPT_ENCODING)).containsExactly("br");
+				return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+					.body("compressed")
+					.build());
+			});
+
+			StepVerifier.create(response)
+				.assertNext((r) -> assertThat(r.headers().header(HttpHeaders.CONTENT_ENCODING)).containsExactly("gzip"))
+				.verifyComplete();
+		}
+
+		@Test
+		void should_not_request_compression_for_ranges() {
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test"))
+				.header(HttpHeaders.RANGE, "bytes=0-100")
+				.build();
+
+			Mono<ClientResponse> response = this.filter.filter(INSTANCE, request, (req) -> {
+				assertThat(req.headers().containsHeader(HttpHeaders.ACCEPT_ENCODING)).isFalse();
+				return Mono.just(ClientResponse.create(HttpStatus.PARTIAL_CONTENT).build());
+			});
+
+			StepVerifier.create(response).expectNextCount(1).verifyComplete();
+		}
+
+		private Mono<ClientResponse> exchange(String encoding, byte[] body) {
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("/test")).build();
+			DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+			int chunkSize = Math.max(1, body.length / 5);
+			Flux<DataBuffer> chunks = Flux.range(0, (body.length + chunkSize - 1) / chunkSize)
+				.map((i) -> bufferFactory
+					.wrap(Arrays.copyOfRange(body, i * chunkSize, Math.min(body.length, (i + 1) * chunkSize))));
+
+			return this.filter.filter(INSTANCE, request, (req) -> {
+				assertThat(req.headers().get(HttpHeaders.ACCEPT_ENCODING)).containsExactly("gzip, deflate");
+				return Mono.just(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CONTENT_ENCODING, encoding)
+					.header(HttpHeaders.CONTENT_LENGTH, String.valueOf(body.length))
+					.body(chunks)
+					.build());
+			});
+		}
+
+	}
+
 	@Nested
 	class LogfileAcceptWorkaround {
 
@@ -581,6 +960,17 @@ class InstanceExchangeFilterFunctionsTest {
 			assertThat(captor.getValue()).containsEntry("Set-Cookie", singletonList("testCookie=testCookieValue"));
 		}
 
+		@Test
+		void should_not_store_without_cookies() {
+			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/test")).build();
+
+			Mono<ClientResponse> response = this.filter.filter(INSTANCE, request,
+					(req) -> Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+
+			StepVerifier.create(response).expectNextCount(1).verifyComplete();
+			verify(this.cookieStore, never()).put(any(), any(), any());
+		}
+
 		@Test
 		void should_add_stored_cookie_to_request() {
 			ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/test")).build();
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.Endpoints;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.web.client.cookies.ConcurrentPerInstanceCookieStore;
+
+import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.addHeaders;
+import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.handleCookies;
+import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.retry;
+import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.rewriteEndpointUrl;
+import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.setDefaultAcceptHeader;
+import static de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions.timeout;
+import static java.util.Collections.emptyMap;
+
+/**
+ * Compares the allocations per request of a WebClient rebuilt for every request (as done
+ * for {@code instance(Mono<Instance>)}) with the WebClient bound to and cached for an
+ * {@link Instance}. The requests are answered by a stub exchange function, so only the
+ * client side is measured. Run the main method and compare the {@code gc.alloc.rate.norm}
+ * of both benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstanceWebClientBenchmark {
+
+	private InstanceWebClient instanceWebClient;
+
+	private Instance instance;
+
+	private Mono<Instance> instanceMono;
+
+	@Setup
+	public void setup() {
+		WebClient.Builder webClient = WebClient.builder()
+			.exchangeFunction((request) -> Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+		this.instanceWebClient = InstanceWebClient.builder(webClient)
+			.filter(addHeaders((i) -> new HttpHeaders()))
+			.filter(rewriteEndpointUrl())
+			.filter(setDefaultAcceptHeader())
+			.filter(handleCookies(new ConcurrentPerInstanceCookieStore(50, Duration.ofMinutes(1L))))
+			.filter(retry(0, emptyMap()))
+			.filter(timeout(Duration.ofSeconds(10), emptyMap()))
+			.build();
+		this.instance = Instance.create(InstanceId.of("benchmark"))
+			.register(Registration.create("benchmark", "http://localhost:8080/actuator/health").build())
+			.withEndpoints(Endpoints.single("health", "http://localhost:8080/actuator/health"));
+		this.instanceMono = Mono.just(this.instance);
+	}
+
+	@Benchmark
+	public HttpStatusCode rebuiltWebClient() {
+		return this.instanceWebClient.instance(this.instanceMono)
+			.get()
+			.uri("health")
+			.exchangeToMono((response) -> Mono.just(response.statusCode()))
+			.block();
+	}
+
+	@Benchmark
+	public HttpStatusCode boundWebClient() {
+		return this.instanceWebClient.instance(this.instance)
+			.get()
+			.uri("health")
+			.exchangeToMono((response) -> Mono.just(response.statusCode()))
+			.block();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(InstanceWebClientBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+
+}
@@ -24,6 +24,7 @@ import reactor.test.StepVerifier;
 
 import de.codecentric.boot.admin.server.domain.entities.Instance;
 import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
 import de.codecentric.boot.admin.server.web.client.exception.ResolveInstanceException;
 
 import static de.codecentric.boot.admin.server.web.client.InstanceWebClient.ATTRIBUTE_INSTANCE;
@@ -59,4 +60,29 @@ class InstanceWebClientTest {
 			.verifyComplete();
 	}
 
+	@Test
+	void should_add_instance_attribute_to_bound_webclient() {
+		Instance instance = Instance.create(InstanceId.of("i"));
+
+		Mono<ClientResponse> response = InstanceWebClient.builder().filter((inst, req, next) -> {
+			assertThat(req.attribute(ATTRIBUTE_INSTANCE)).hasValue(instance);
+			assertThat(inst).isEqualTo(instance);
+			return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+		}).build().instance(instance).get().uri("http://test/health").exchangeToMono(Mono::just);
+
+		StepVerifier.create(response)
+			.assertNext((r) -> assertThat(r.statusCode()).isEqualTo(HttpStatus.OK))
+			.verifyComplete();
+	}
+
+	@Test
+	void should_reuse_webclient_for_same_instance() {
+		InstanceWebClient instanceWebClient = InstanceWebClient.builder().build();
+		Instance instance = Instance.create(InstanceId.of("i"));
+		Instance updated = instance.register(Registration.create("test", "http://test/health").build());
+
+		assertThat(instanceWebClient.instance(instance)).isSameAs(instanceWebClient.instance(instance));
+		assertThat(instanceWebClient.instance(updated)).isNotSameAs(instanceWebClient.instance(instance));
+	}
+
 }
@@ -16,6 +16,7 @@
 
 package de.codecentric.boot.admin.server.web.client;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.stream.Stream;
 
@@ -26,6 +27,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
@@ -201,6 +203,40 @@ public class LegacyEndpointConvertersTest implements WithAssertions {
 			.verifyComplete();
 	}
 
+	@Test
+	void should_convert_beans_when_beans_precede_context() {
+		Flux<DataBuffer> legacyInput = this.readString(
+				"[{\"beans\":[{\"bean\":\"foo\",\"scope\":\"singleton\"}],\"parent\":\"app\",\"context\":\"app\"}]");
+
+		Flux<Object> converted = LegacyEndpointConverters.beans().convert(legacyInput).transform(this::unmarshal);
+
+		StepVerifier.create(converted)
+			.assertNext((body) -> assertThat(body).isEqualTo(Map.of("contexts",
+					Map.of("app.child",
+							Map.of("contextName", "app.child", "parentId", "app", "beans",
+									Map.of("foo", Map.of("bean", "foo", "scope", "singleton")))))))
+			.verifyComplete();
+	}
+
+	@Test
+	void should_emit_converted_mappings_before_body_is_complete() {
+		Flux<DataBuffer> legacyInput = Flux.concat(this.read("mappings-legacy.json").skipLast(1), Flux.never());
+
+		StepVerifier.create(LegacyEndpointConverters.mappings().convert(legacyInput))
+			.expectNextCount(1)
+			.thenCancel()
+			.verify();
+	}
+
+	@Test
+	void should_fail_on_malformed_body() {
+		Flux<DataBuffer> legacyInput = this.readString("{\"status\":\"UP\",");
+
+		StepVerifier.create(LegacyEndpointConverters.health().convert(legacyInput).then())
+			.expectError(DecodingException.class)
+			.verify();
+	}
+
 	/*
 	 * see Bugticket #2107
 	 */
@@ -218,6 +254,10 @@ public class LegacyEndpointConvertersTest implements WithAssertions {
 		return decoder.decode(buffer, type, null, null);
 	}
 
+	private Flux<DataBuffer> readString(String content) {
+		return Flux.just(this.bufferFactory.wrap(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
 	private Flux<DataBuffer> read(String resourceName) {
 		return DataBufferUtils.readInputStream(
 				() -> LegacyEndpointConvertersTest.class.getResourceAsStream(resourceName), bufferFactory, 10);
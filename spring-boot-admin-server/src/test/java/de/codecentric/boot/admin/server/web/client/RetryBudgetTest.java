@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryBudgetTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("i");
+
+	private long now = 0L;
+
+	private final RetryBudget budget = new RetryBudget(0.1, 2, Duration.ofSeconds(10L), () -> this.now);
+
+	@Test
+	void should_allow_min_retries_without_requests() {
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isTrue();
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isTrue();
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isFalse();
+	}
+
+	@Test
+	void should_allow_retries_as_share_of_requests() {
+		for (int i = 0; i < 50; i++) {
+			this.budget.onRequest(INSTANCE_ID);
+		}
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(this.budget.tryAcquire(INSTANCE_ID)).isTrue();
+		}
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isFalse();
+		assertThat(this.budget.tryAcquire(InstanceId.of("other"))).isTrue();
+	}
+
+	@Test
+	void should_restore_budget_after_window() {
+		this.budget.tryAcquire(INSTANCE_ID);
+		this.budget.tryAcquire(INSTANCE_ID);
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isFalse();
+
+		this.now += TimeUnit.SECONDS.toNanos(15L);
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isTrue();
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isFalse();
+
+		this.now += TimeUnit.SECONDS.toNanos(20L);
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isTrue();
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isTrue();
+	}
+
+	@Test
+	void should_reset_budget_after_remove() {
+		this.budget.tryAcquire(INSTANCE_ID);
+		this.budget.tryAcquire(INSTANCE_ID);
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isFalse();
+
+		this.budget.remove(INSTANCE_ID);
+		assertThat(this.budget.tryAcquire(INSTANCE_ID)).isTrue();
+	}
+
+}
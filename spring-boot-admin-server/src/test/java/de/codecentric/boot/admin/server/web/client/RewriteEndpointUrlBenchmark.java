@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.Endpoint;
+import de.codecentric.boot.admin.server.domain.values.Endpoints;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+
+/**
+ * Compares rewriting the relative URL of a request to the URL of an endpoint by parsing
+ * and building URIs with {@link UriComponentsBuilder} (as done before the
+ * {@link EndpointRouteTable}) with the
+ * {@link InstanceExchangeFilterFunctions#rewriteEndpointUrl filter} using the route
+ * table. Both benchmarks build the rewritten request, the filter passes it to a no-op
+ * exchange function. Run the main method and compare time and {@code gc.alloc.rate.norm}
+ * of both benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RewriteEndpointUrlBenchmark {
+
+	@Param({ "health", "env/spring.application.name", "metrics/http.server.requests?tag=status:200" })
+	private String url;
+
+	private final ExchangeFunction exchange = (request) -> {
+		this.rewritten = request;
+		return Mono.empty();
+	};
+
+	private InstanceExchangeFilterFunction filter;
+
+	private Instance instance;
+
+	private ClientRequest request;
+
+	private ClientRequest rewritten;
+
+	@Setup
+	public void setup() {
+		this.filter = InstanceExchangeFilterFunctions.rewriteEndpointUrl(new EndpointRouteTable());
+		this.instance = Instance.create(InstanceId.of("benchmark"))
+			.register(Registration.create("benchmark", "http://localhost:8080/actuator/health").build())
+			.withEndpoints(Endpoints.single(Endpoint.HEALTH, "http://localhost:8080/actuator/health")
+				.withEndpoint(Endpoint.ENV, "http://localhost:8080/actuator/env")
+				.withEndpoint("metrics", "http://localhost:8080/actuator/metrics"));
+		this.request = ClientRequest.create(HttpMethod.GET, URI.create(this.url)).build();
+	}
+
+	@Benchmark
+	public ClientRequest uriComponentsBuilder() {
+		UriComponents requestUrl = UriComponentsBuilder.fromUri(this.request.url()).build();
+		String endpointId = requestUrl.getPathSegments().get(0);
+		String targetUrl = this.instance.getEndpoints().get(endpointId).orElseThrow().getUrl();
+		String[] newPathSegments = requestUrl.getPathSegments()
+			.subList(1, requestUrl.getPathSegments().size())
+			.toArray(new String[] {});
+		URI rewrittenUrl = UriComponentsBuilder.fromUriString(targetUrl)
+			.pathSegment(newPathSegments)
+			.query(requestUrl.getQuery())
+			.build(true)
+			.toUri();
+		return ClientRequest.from(this.request)
+			.attribute(InstanceExchangeFilterFunctions.ATTRIBUTE_ENDPOINT, endpointId)
+			.url(rewrittenUrl)
+			.build();
+	}
+
+	@Benchmark
+	public ClientRequest routeTable() {
+		this.filter.filter(this.instance, this.request, this.exchange);
+		return this.rewritten;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(RewriteEndpointUrlBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.client.cookies;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentPerInstanceCookieStoreTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("i");
+
+	private static final URI URI_TEST = URI.create("http://localhost/actuator/test");
+
+	private long now = 0L;
+
+	private final ConcurrentPerInstanceCookieStore store = new ConcurrentPerInstanceCookieStore(2,
+			Duration.ofMinutes(1L), () -> this.now);
+
+	@Test
+	void should_store_and_return_cookies() {
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("name=value", "name2=tricky=value; Path=/"));
+
+		assertThat(this.store.get(INSTANCE_ID, URI_TEST, new LinkedMultiValueMap<>()))
+			.containsEntry("name", singletonList("value"))
+			.containsEntry("name2", singletonList("tricky=value"));
+		assertThat(this.store.get(InstanceId.of("other"), URI_TEST, new LinkedMultiValueMap<>())).isEmpty();
+	}
+
+	@Test
+	void should_return_only_applicable_cookies() {
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("default=1", "secure=2; Path=/; Secure"));
+
+		assertThat(
+				this.store.get(INSTANCE_ID, URI.create("http://localhost/actuator/other"), new LinkedMultiValueMap<>()))
+			.containsOnlyKeys("default");
+		assertThat(this.store.get(INSTANCE_ID, URI.create("https://localhost/actuator/other"),
+				new LinkedMultiValueMap<>()))
+			.containsOnlyKeys("default", "secure");
+		assertThat(this.store.get(INSTANCE_ID, URI.create("http://localhost/other"), new LinkedMultiValueMap<>()))
+			.isEmpty();
+		assertThat(
+				this.store.get(INSTANCE_ID, URI.create("http://otherhost/actuator/test"), new LinkedMultiValueMap<>()))
+			.isEmpty();
+	}
+
+	@Test
+	void should_reject_cookies_for_foreign_domains() {
+		this.store.put(INSTANCE_ID, URI.create("http://app.example.com/actuator/test"),
+				setCookie("own=1; Domain=example.com", "foreign=2; Domain=other.com"));
+
+		assertThat(this.store.get(INSTANCE_ID, URI.create("http://app.example.com/actuator/test"),
+				new LinkedMultiValueMap<>()))
+			.containsOnlyKeys("own");
+	}
+
+	@Test
+	void should_expire_and_delete_cookies() {
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("session=1", "short=2; Max-Age=60"));
+		assertThat(this.store.get(INSTANCE_ID, URI_TEST, new LinkedMultiValueMap<>())).containsOnlyKeys("session",
+				"short");
+
+		this.now += TimeUnit.SECONDS.toNanos(60L);
+		assertThat(this.store.get(INSTANCE_ID, URI_TEST, new LinkedMultiValueMap<>())).containsOnlyKeys("session");
+		this.store.sweep();
+		assertThat(this.store.get(INSTANCE_ID, URI_TEST, new LinkedMultiValueMap<>())).containsOnlyKeys("session");
+
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("session=1; Max-Age=0"));
+		assertThat(this.store.get(INSTANCE_ID, URI_TEST, new LinkedMultiValueMap<>())).isEmpty();
+	}
+
+	@Test
+	void should_bound_cookies_per_instance() {
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("first=1", "second=2"));
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("first=updated"));
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("third=3"));
+
+		assertThat(this.store.get(INSTANCE_ID, URI_TEST, new LinkedMultiValueMap<>()))
+			.containsOnlyKeys("first", "third")
+			.containsEntry("first", singletonList("updated"));
+	}
+
+	@Test
+	void should_remove_cookies_of_instance() {
+		this.store.put(INSTANCE_ID, URI_TEST, setCookie("name=value"));
+
+		this.store.cleanupInstance(INSTANCE_ID);
+
+		assertThat(this.store.get(INSTANCE_ID, URI_TEST, new LinkedMultiValueMap<>())).isEmpty();
+	}
+
+	private static MultiValueMap<String, String> setCookie(String... values) {
+		MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+		for (String value : values) {
+			headers.add(HttpHeaders.SET_COOKIE, value);
+		}
+		return headers;
+	}
+
+}
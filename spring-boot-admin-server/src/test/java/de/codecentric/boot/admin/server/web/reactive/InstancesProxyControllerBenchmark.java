@@ -0,0 +1,162 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.reactive;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.DisposableServer;
+import reactor.netty.NettyOutbound;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import de.codecentric.boot.admin.server.domain.entities.EventsourcingInstanceRepository;
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.entities.InstanceRepository;
+import de.codecentric.boot.admin.server.domain.values.Endpoints;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.eventstore.InMemoryEventStore;
+import de.codecentric.boot.admin.server.services.HashingInstanceUrlIdGenerator;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.client.InstanceExchangeFilterFunctions;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+/**
+ * Measures the throughput of proxying a 64 MiB body through the
+ * {@link InstancesProxyController} on a Reactor Netty server. The same body is proxied
+ * once as heapdump, which is written with batched flushes, and once as event stream,
+ * which is flushed after every buffer. The upstream instance, the proxy and the client
+ * all run on the loopback interface. Run the main method and compare the operations
+ * (downloads) per second of both benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InstancesProxyControllerBenchmark {
+
+	private static final int CHUNK_SIZE = 64 * 1024;
+
+	private static final int CHUNKS = 1024;
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("benchmark");
+
+	private DisposableServer instance;
+
+	private DisposableServer proxy;
+
+	private HttpClient client;
+
+	@Setup
+	public void setup() {
+		byte[] chunk = new byte[CHUNK_SIZE];
+		ThreadLocalRandom.current().nextBytes(chunk);
+		this.instance = HttpServer.create()
+			.port(0)
+			.route((routes) -> routes
+				.get("/actuator/heapdump", (request, response) -> send(response, "application/octet-stream", chunk))
+				.get("/actuator/stream", (request, response) -> send(response, "text/event-stream", chunk)))
+			.bindNow();
+
+		String managementUrl = "http://localhost:" + this.instance.port() + "/actuator";
+		InstanceRepository repository = new EventsourcingInstanceRepository(new InMemoryEventStore());
+		repository.save(Instance.create(INSTANCE_ID)
+			.register(Registration.create("benchmark", managementUrl + "/health").managementUrl(managementUrl).build())
+			.withEndpoints(Endpoints.single("heapdump", managementUrl + "/heapdump")
+				.withEndpoint("stream", managementUrl + "/stream")))
+			.block();
+		InstanceRegistry registry = new InstanceRegistry(repository, new HashingInstanceUrlIdGenerator(),
+				(instance) -> true);
+		InstanceWebClient instanceWebClient = InstanceWebClient.builder()
+			.webClient(WebClient.builder())
+			.filter(InstanceExchangeFilterFunctions.rewriteEndpointUrl())
+			.build();
+		InstancesProxyController controller = new InstancesProxyController("", Set.of(), registry, instanceWebClient);
+
+		HttpHandler handler = (request, response) -> controller.endpointProxy(INSTANCE_ID.getValue(), request,
+				response);
+		this.proxy = HttpServer.create().port(0).handle(new ReactorHttpHandlerAdapter(handler)).bindNow();
+		this.client = HttpClient.create()
+			.baseUrl("http://localhost:" + this.proxy.port() + "/instances/" + INSTANCE_ID.getValue() + "/actuator");
+	}
+
+	private static NettyOutbound send(HttpServerResponse response, String contentType, byte[] chunk) {
+		return response.header(HttpHeaders.CONTENT_TYPE, contentType)
+			.header(HttpHeaders.CONTENT_LENGTH, String.valueOf((long) CHUNK_SIZE * CHUNKS))
+			.send(Flux.range(0, CHUNKS).map((i) -> Unpooled.wrappedBuffer(chunk)));
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.proxy.disposeNow();
+		this.instance.disposeNow();
+	}
+
+	@Benchmark
+	public long flushPerBuffer() {
+		return download("/stream");
+	}
+
+	@Benchmark
+	public long batchedFlush() {
+		return download("/heapdump");
+	}
+
+	private long download(String uri) {
+		Long bytes = this.client.get()
+			.uri(uri)
+			.responseContent()
+			.map(ByteBuf::readableBytes)
+			.reduce(0L, Long::sum)
+			.block();
+		if (bytes == null || bytes != (long) CHUNK_SIZE * CHUNKS) {
+			throw new IllegalStateException("Unexpected response size " + bytes);
+		}
+		return bytes;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(InstancesProxyControllerBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import de.codecentric.boot.admin.server.domain.entities.Instance;
+import de.codecentric.boot.admin.server.domain.values.InstanceId;
+import de.codecentric.boot.admin.server.domain.values.Registration;
+import de.codecentric.boot.admin.server.services.InstanceRegistry;
+import de.codecentric.boot.admin.server.web.client.InstanceWebClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InstancesProxyControllerTest {
+
+	private static final InstanceId INSTANCE_ID = InstanceId.of("id-1");
+
+	private final InstanceRegistry registry = mock(InstanceRegistry.class);
+
+	private ClientResponse upstream = ClientResponse.create(HttpStatus.OK).build();
+
+	private final InstancesProxyController controller = new InstancesProxyController("", Set.of(), this.registry,
+			InstanceWebClient.builder()
+				.webClient(WebClient.builder().exchangeFunction((request) -> Mono.just(this.upstream)))
+				.build());
+
+	@BeforeEach
+	void setUp() {
+		when(this.registry.getInstance(INSTANCE_ID)).thenReturn(Mono.just(Instance.create(INSTANCE_ID)
+			.register(Registration.create("foo", "http://localhost/actuator/health").build())));
+	}
+
+	@Test
+	void should_flush_event_streams_per_buffer() {
+		this.upstream = ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_TYPE, "text/event-stream")
+			.body("data:1\n\n")
+			.build();
+
+		assertThat(proxy("stream")).containsExactly("writeAndFlushWith");
+	}
+
+	@Test
+	void should_flush_partial_content_per_buffer() {
+		this.upstream = ClientResponse.create(HttpStatus.PARTIAL_CONTENT)
+			.header(HttpHeaders.CONTENT_TYPE, "text/plain")
+			.body("log")
+			.build();
+
+		assertThat(proxy("logfile")).containsExactly("writeAndFlushWith");
+	}
+
+	@Test
+	void should_write_bulk_content_with_batched_flushes() {
+		this.upstream = ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_TYPE, "application/octet-stream")
+			.body("heapdump")
+			.build();
+
+		assertThat(proxy("heapdump")).containsExactly("writeWith");
+	}
+
+	private List<String> proxy(String endpoint) {
+		List<String> writes = new ArrayList<>();
+		MockServerHttpRequest request = MockServerHttpRequest
+			.get("/instances/" + INSTANCE_ID.getValue() + "/actuator/" + endpoint)
+			.build();
+		ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(new MockServerHttpResponse()) {
+			@Override
+			public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+				writes.add("writeWith");
+				return super.writeWith(body);
+			}
+
+			@Override
+			public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+				writes.add("writeAndFlushWith");
+				return super.writeAndFlushWith(body);
+			}
+		};
+
+		StepVerifier.create(this.controller.endpointProxy(INSTANCE_ID.getValue(), request, response)).verifyComplete();
+		return writes;
+	}
+
+}
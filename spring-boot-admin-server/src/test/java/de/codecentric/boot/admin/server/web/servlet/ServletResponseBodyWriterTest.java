@@ -0,0 +1,246 @@
+/*
+ * Copyright 2014-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.codecentric.boot.admin.server.web.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServletResponseBodyWriterTest {
+
+	private final ExecutorService container = Executors.newSingleThreadExecutor();
+
+	private final MockServletOutputStream outputStream = new MockServletOutputStream();
+
+	@AfterEach
+	void tearDown() {
+		this.container.shutdownNow();
+	}
+
+	@Test
+	void should_write_body_and_complete() {
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 4);
+
+		StepVerifier.create(writer.write(buffers("hello", " ", "world"), false)).verifyComplete();
+
+		assertThat(this.outputStream.content()).isEqualTo("hello world");
+		assertThat(this.outputStream.flushes).hasValue(0);
+	}
+
+	@Test
+	void should_flush_per_buffer() {
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 4);
+
+		StepVerifier.create(writer.write(buffers("a", "b", "c"), true)).verifyComplete();
+
+		assertThat(this.outputStream.content()).isEqualTo("abc");
+		assertThat(this.outputStream.flushes).hasValue(3);
+	}
+
+	@Test
+	void should_continue_writing_when_output_stream_is_ready_again() {
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 4);
+		this.outputStream.writable.set(false);
+
+		StepVerifier.create(writer.write(buffers("hello", "world"), false))
+			.then(() -> assertThat(this.outputStream.content()).isEmpty())
+			.then(this.outputStream::writePossible)
+			.verifyComplete();
+
+		assertThat(this.outputStream.content()).isEqualTo("helloworld");
+	}
+
+	@Test
+	void should_complete_only_when_output_stream_is_ready() {
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 4);
+		Sinks.Many<DataBuffer> body = Sinks.many().unicast().onBackpressureBuffer();
+
+		StepVerifier.create(writer.write(body.asFlux(), false))
+			.then(() -> body.tryEmitNext(buffer("hello")))
+			.then(() -> this.outputStream.writable.set(false))
+			.then(body::tryEmitComplete)
+			.expectNoEvent(Duration.ofMillis(50L))
+			.then(this.outputStream::writePossible)
+			.verifyComplete();
+
+		assertThat(this.outputStream.content()).isEqualTo("hello");
+	}
+
+	@Test
+	void should_write_body_completely_with_concurrent_write_possible_callbacks() {
+		this.outputStream.becomeUnreadyRandomly(this.container);
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 3);
+		String[] chunks = Flux.range(0, 500)
+			.map((i) -> "chunk-" + i + ";")
+			.collectList()
+			.block()
+			.toArray(String[]::new);
+
+		StepVerifier.create(writer.write(buffers(chunks).publishOn(Schedulers.parallel()), true))
+			.expectComplete()
+			.verify(Duration.ofSeconds(10L));
+
+		assertThat(this.outputStream.content()).isEqualTo(String.join("", chunks));
+		assertThat(this.outputStream.illegalWrites).hasValue(0);
+	}
+
+	@Test
+	void should_propagate_error_of_body() {
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 4);
+
+		StepVerifier
+			.create(writer.write(buffers("hello").concatWith(Flux.error(new IllegalStateException("test"))), false))
+			.verifyErrorMessage("test");
+	}
+
+	@Test
+	void should_cancel_body_when_client_aborts() {
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 4);
+		AtomicBoolean cancelled = new AtomicBoolean();
+		Flux<DataBuffer> body = Flux.<DataBuffer>never().doOnCancel(() -> cancelled.set(true));
+
+		StepVerifier.create(writer.write(body, false))
+			.then(() -> this.outputStream.listener.onError(new IOException("Broken pipe")))
+			.verifyErrorMessage("Broken pipe");
+
+		assertThat(cancelled).isTrue();
+	}
+
+	@Test
+	void should_reject_writing_twice() {
+		ServletResponseBodyWriter writer = new ServletResponseBodyWriter(this.outputStream, 4);
+		StepVerifier.create(writer.write(buffers("hello"), false)).verifyComplete();
+
+		StepVerifier.create(writer.write(buffers("hello"), false)).verifyError(IllegalStateException.class);
+	}
+
+	private static Flux<DataBuffer> buffers(String... chunks) {
+		return Flux.fromArray(chunks).map(ServletResponseBodyWriterTest::buffer);
+	}
+
+	private static DataBuffer buffer(String chunk) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Output stream following the contract of the servlet container: once
+	 * {@link #isReady()} returned {@code false}, writing is not allowed until
+	 * {@link WriteListener#onWritePossible()} was called.
+	 */
+	private static final class MockServletOutputStream extends ServletOutputStream {
+
+		private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+		private final AtomicBoolean writable = new AtomicBoolean(true);
+
+		private final AtomicInteger flushes = new AtomicInteger();
+
+		private final AtomicInteger illegalWrites = new AtomicInteger();
+
+		private WriteListener listener;
+
+		private ExecutorService container;
+
+		@Override
+		public boolean isReady() {
+			if (!this.writable.get()) {
+				return false;
+			}
+			if (this.container != null && ThreadLocalRandom.current().nextInt(4) == 0) {
+				this.writable.set(false);
+				this.container.execute(this::writePossible);
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			this.listener = writeListener;
+		}
+
+		@Override
+		public void write(int b) {
+			checkWritable();
+			synchronized (this.content) {
+				this.content.write(b);
+			}
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			checkWritable();
+			synchronized (this.content) {
+				this.content.write(b, off, len);
+			}
+		}
+
+		@Override
+		public void flush() {
+			checkWritable();
+			this.flushes.incrementAndGet();
+		}
+
+		private void checkWritable() {
+			if (!this.writable.get()) {
+				this.illegalWrites.incrementAndGet();
+				throw new IllegalStateException("Output stream is not ready");
+			}
+		}
+
+		private void writePossible() {
+			this.writable.set(true);
+			try {
+				this.listener.onWritePossible();
+			}
+			catch (IOException ex) {
+				this.listener.onError(ex);
+			}
+		}
+
+		private void becomeUnreadyRandomly(ExecutorService container) {
+			this.container = container;
+		}
+
+		private String content() {
+			synchronized (this.content) {
+				return this.content.toString(StandardCharsets.UTF_8);
+			}
+		}
+
+	}
+
+}